@@ -0,0 +1,128 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+
+/**
+ * Measures a complete {@link ProtectedAccess#headerFields()} invocation, which is the request path of an application
+ * accessing protected resources.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtectedAccessBenchmark {
+    private ProtectedAccessParam param;
+    private PreparedProtectedAccess prepared;
+
+    @Setup
+    public void setup() {
+        this.param = new BenchmarkProtectedAccessParam(
+                new HmacSha1Signature.DefaultHmacSha1Signature(URI.create("http://photos.example.net/photos"),
+                        HttpMethod.GET, ConsumerSecret.of("kd94hf93k423kf44")),
+                HeaderFields.of(Set.of(HeaderField.of("file", "vacation.jpg"), HeaderField.of("size", "original"))));
+        this.prepared = PreparedProtectedAccess.of(this.param);
+    }
+
+    @Benchmark
+    public HeaderFields headerFields() {
+        return ProtectedAccessIntermediateFactory.of(this.param).protectedAccess().headerFields();
+    }
+
+    @Benchmark
+    public HeaderFields preparedHeaderFields() {
+        return this.prepared.headerFields();
+    }
+
+    private static final class BenchmarkProtectedAccessParam implements ProtectedAccessParam, UserAccessTokenParameter {
+        private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+        private static final AccessToken ACCESS_TOKEN = AccessToken.of("nnch734d00sl2jdk");
+        private static final AccessTokenSecret ACCESS_TOKEN_SECRET = AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+
+        private final SignatureMethod signatureMethod;
+        private final HeaderFields additionalParams;
+
+        BenchmarkProtectedAccessParam(SignatureMethod signatureMethod, HeaderFields additionalParams) {
+            this.signatureMethod = signatureMethod;
+            this.additionalParams = additionalParams;
+        }
+
+        @Override
+        public SignatureMethod signatureMethod() {
+            return this.signatureMethod;
+        }
+
+        @Override
+        public HeaderFields additionalParams() {
+            return this.additionalParams;
+        }
+
+        @Override
+        public ConsumerKey consumerKey() {
+            return CONSUMER_KEY;
+        }
+
+        @Override
+        public boolean includeVersion() {
+            return true;
+        }
+
+        @Override
+        public UserAccessTokenParameter userAccessTokenParameter() {
+            return this;
+        }
+
+        @Override
+        public AccessToken accessToken() {
+            return ACCESS_TOKEN;
+        }
+
+        @Override
+        public AccessTokenSecret accessTokenSecret() {
+            return ACCESS_TOKEN_SECRET;
+        }
+    }
+}
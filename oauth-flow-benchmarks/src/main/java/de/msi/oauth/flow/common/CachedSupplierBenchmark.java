@@ -0,0 +1,133 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link CachedSupplier} against the former implementation based on <code>synchronized</code> under
+ * contention.
+ * <p>
+ * All threads share the current instance, which gets replaced by a fresh one every {@link #REPLACE_INTERVAL} calls, so
+ * the first invocations of an instance happen concurrently. Use <code>-Djmh.executor=VIRTUAL</code> on a JDK providing
+ * virtual threads to run the benchmark threads as virtual threads.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class CachedSupplierBenchmark {
+    private static final int REPLACE_INTERVAL = 64;
+    /* simulates the calculation of a signature */
+    private static final int WORK = 256;
+
+    @Param({ "synchronized", "exactly-once", "idempotent" })
+    private String implementation;
+
+    private final AtomicLong calls = new AtomicLong();
+    private volatile Supplier<Object> current;
+
+    @Setup
+    public void setup() {
+        this.current = create();
+    }
+
+    @Benchmark
+    public Object get() {
+        if (this.calls.incrementAndGet() % REPLACE_INTERVAL == 0) {
+            this.current = create();
+        }
+        return this.current.get();
+    }
+
+    private Supplier<Object> create() {
+        switch (this.implementation) {
+        case "synchronized":
+            return new SynchronizedCachedSupplier<>() {
+                @Override
+                protected Object getAndCache() {
+                    return work();
+                }
+            };
+        case "exactly-once":
+            return new CachedSupplier<>() {
+                @Override
+                protected Object getAndCache() {
+                    return work();
+                }
+            };
+        default:
+            return new CachedSupplier<>(true) {
+                @Override
+                protected Object getAndCache() {
+                    return work();
+                }
+            };
+        }
+    }
+
+    private static Object work() {
+        long hash = 17;
+        for (int i = 0; i < WORK; ++i) {
+            hash = 31 * hash + i;
+        }
+        return Long.valueOf(hash);
+    }
+
+    /**
+     * The former implementation of the {@link CachedSupplier}.
+     */
+    private abstract static class SynchronizedCachedSupplier<T> implements Supplier<T> {
+        private volatile boolean supplied;
+        private volatile T suppliedValue;
+
+        @Override
+        public final T get() {
+            if (!this.supplied) {
+                synchronized (this) {
+                    if (!this.supplied) {
+                        this.suppliedValue = getAndCache();
+                        this.supplied = true;
+                    }
+                }
+            }
+            return this.suppliedValue;
+        }
+
+        protected abstract T getAndCache();
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link DefaultAuthorizationHeaderParser} reading the fields a verifier needs, compared to parsing the
+ * header by a regular expression and by <code>split</code>, which decode every field eagerly.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationHeaderParserBenchmark {
+    private static final String HEADER = "OAuth realm=\"http://sp.example.com/\", "
+            + "oauth_consumer_key=\"0685bd9184jfhq22\", oauth_nonce=\"4572616e48616d6d65724c61686176\", "
+            + "oauth_signature=\"wOJIO9A2W5mFwDgiDvZbTSMK%2FPY%3D\", oauth_signature_method=\"HMAC-SHA1\", "
+            + "oauth_timestamp=\"137131200\", oauth_token=\"ad180jjd733klru7\", oauth_version=\"1.0\"";
+    private static final Pattern FIELD = Pattern.compile("\\s*([^=\\s,]+)=\"((?:[^\"\\\\]|\\\\.)*)\"\\s*(?:,|$)");
+
+    private final AuthorizationHeaderParser parser = AuthorizationHeaderParser.shared();
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        this.bytes = HEADER.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public void parseCharSequence(Blackhole blackhole) {
+        AuthorizationHeader header = this.parser.parse(HEADER).orElseThrow();
+        read(header, blackhole);
+    }
+
+    @Benchmark
+    public void parseBytes(Blackhole blackhole) {
+        AuthorizationHeader header = this.parser.parse(this.bytes, 0, this.bytes.length).orElseThrow();
+        read(header, blackhole);
+    }
+
+    @Benchmark
+    public Map<String, String> regex() {
+        if (!HEADER.regionMatches(true, 0, "OAuth ", 0, 6)) {
+            throw new IllegalArgumentException();
+        }
+        Map<String, String> fields = new HashMap<>();
+        Matcher matcher = FIELD.matcher(HEADER).region(6, HEADER.length());
+        while (matcher.lookingAt()) {
+            fields.put(URLDecoder.decode(matcher.group(1), StandardCharsets.UTF_8),
+                    URLDecoder.decode(matcher.group(2), StandardCharsets.UTF_8));
+            matcher.region(matcher.end(), HEADER.length());
+        }
+        return fields;
+    }
+
+    @Benchmark
+    public Map<String, String> split() {
+        Map<String, String> fields = new HashMap<>();
+        for (String field : HEADER.substring(6).split(",")) {
+            String[] pair = field.trim().split("=", 2);
+            String value = pair[1].substring(1, pair[1].length() - 1);
+            fields.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return fields;
+    }
+
+    private static void read(AuthorizationHeader header, Blackhole blackhole) {
+        blackhole.consume(header.value("oauth_consumer_key"));
+        blackhole.consume(header.value("oauth_token"));
+        blackhole.consume(header.value("oauth_signature"));
+        blackhole.consume(header.value("oauth_timestamp"));
+        blackhole.consume(header.value("oauth_nonce"));
+    }
+}
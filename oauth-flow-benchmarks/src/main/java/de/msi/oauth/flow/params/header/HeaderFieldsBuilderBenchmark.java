@@ -0,0 +1,84 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+
+/**
+ * Measures {@link DefaultHeaderFieldsBuilder#build(SignatureMethod)}, which includes the calculation of the signature.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderFieldsBuilderBenchmark {
+    private static final URI ENDPOINT = URI.create("http://photos.example.net/photos");
+    private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final RequestToken TOKEN = RequestToken.of("nnch734d00sl2jdk");
+    private static final RequestTokenSecret TOKEN_SECRET = RequestTokenSecret.of("pfkkdhi9sl3r4s00");
+
+    @Param({ "HMAC-SHA1", "PLAINTEXT" })
+    private String signatureMethodName;
+
+    private SignatureMethod signatureMethod;
+    private HeaderFields additionalParams;
+
+    @Setup
+    public void setup() {
+        this.signatureMethod = "PLAINTEXT".equals(this.signatureMethodName)
+                ? new PlainTextSignature.DefaultPlainTextSignature(CONSUMER_SECRET)
+                : new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, HttpMethod.GET, CONSUMER_SECRET);
+        this.additionalParams = HeaderFields
+                .of(Set.of(HeaderField.of("file", "vacation.jpg"), HeaderField.of("size", "original")));
+    }
+
+    @Benchmark
+    public HeaderFields build() {
+        return HeaderFieldsBuilder.withoutCallback().consumerKey(CONSUMER_KEY).token(TOKEN).tokenSecret(TOKEN_SECRET)
+                .versionInformation().additionalParameter(this.additionalParams).build(this.signatureMethod);
+    }
+}
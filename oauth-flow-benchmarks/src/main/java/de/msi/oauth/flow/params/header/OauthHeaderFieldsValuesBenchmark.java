@@ -0,0 +1,94 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generation of <code>oauth_nonce</code> and <code>oauth_timestamp</code> values.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OauthHeaderFieldsValuesBenchmark {
+    private final OauthHeaderFieldsValues values = new OauthHeaderFieldsValues.DefaultOauthHeaderFieldsValues();
+    private final NonceGenerator highEntropy = NonceGenerator.highEntropy();
+    private final NonceGenerator clustered = NonceGenerator.clustered(1);
+    private ScheduledExecutorService ticker;
+    private TickingOAuthClock tickingClock;
+
+    @Setup
+    public void setup() {
+        this.ticker = Executors.newSingleThreadScheduledExecutor();
+        this.tickingClock = OAuthClock.ticking(this.ticker);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.tickingClock.close();
+        this.ticker.shutdownNow();
+    }
+
+    @Benchmark
+    public String nonce() {
+        return this.values.nonce();
+    }
+
+    @Benchmark
+    public String highEntropyNonce() {
+        return this.highEntropy.nonce();
+    }
+
+    @Benchmark
+    public String clusteredNonce() {
+        return this.clustered.nonce();
+    }
+
+    @Benchmark
+    public String timestamp() {
+        return this.values.timestamp();
+    }
+
+    @Benchmark
+    public String tickingTimestamp() {
+        return this.tickingClock.timestamp();
+    }
+
+    @Benchmark
+    public String uncachedTimestamp() {
+        return Long.toString(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    }
+}
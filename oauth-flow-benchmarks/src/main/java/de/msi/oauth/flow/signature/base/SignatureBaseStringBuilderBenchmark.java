@@ -0,0 +1,87 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.SignatureBaseString;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+
+/**
+ * Measures the {@link DefaultSignatureBaseStringBuilder} by the number of parameters.
+ * <p>
+ * The parameters are added in reversed order and contain characters which have to be encoded.
+ *
+ * @author Martin Siegemund
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureBaseStringBuilderBenchmark {
+    private static final URI ENDPOINT = URI.create("http://photos.example.net:80/photos?size=original");
+
+    @Param({ "5", "50", "500" })
+    private int parameters;
+
+    private List<HeaderField> fields;
+
+    @Setup
+    public void setup() {
+        this.fields = new ArrayList<>(this.parameters);
+        for (int i = this.parameters; i > 0; --i) {
+            this.fields.add(HeaderField.of(String.format("param_%04d", i), String.format("value %d/%d", i, i)));
+        }
+    }
+
+    @Benchmark
+    public SignatureBaseString build() {
+        return fill().build();
+    }
+
+    @Benchmark
+    public ByteBuffer buildBytes() {
+        return fill().buildBytes();
+    }
+
+    private SignatureBaseStringBuilder fill() {
+        SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(HttpMethod.GET, ENDPOINT);
+        for (HeaderField field : this.fields) {
+            builder.add(field);
+        }
+        return builder;
+    }
+}
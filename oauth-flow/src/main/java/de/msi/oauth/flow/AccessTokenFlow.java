@@ -30,4 +30,16 @@ public interface AccessTokenFlow {
      * @return the {@link ProtectedAccessFlowFactory} (flows next phase)
      */
     ProtectedAccessFlowFactory tokenExchange();
+
+    /**
+     * Execute the token exchange and register the retrieved flow phase.
+     * 
+     * @param <K> the type of the user or session keys
+     * @param registry the {@link TokenRegistry}
+     * @param key the user or session key
+     * @return the registered {@link ProtectedAccessFlowFactory} (flows next phase)
+     */
+    default <K> ProtectedAccessFlowFactory tokenExchange(TokenRegistry<K> registry, K key) {
+        return registry.register(key, tokenExchange());
+    }
 }
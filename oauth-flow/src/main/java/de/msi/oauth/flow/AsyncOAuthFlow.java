@@ -0,0 +1,53 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * The asynchronous variant of the {@link OAuthFlow}.
+ * <p>
+ * The flow runs the phases for obtaining the request token, the user authorization and the token exchange without
+ * blocking a thread while waiting for the asynchronous user operations of the {@link AsyncOAuthFlowParam}. The header
+ * fields are created by the {@link Executor} given to {@link #of(AsyncOAuthFlowParam, Executor)}, so many concurrent
+ * flows can share a small pool of threads (or use virtual threads).
+ * 
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/">OAuth Core 1.0 Revision A</a>
+ */
+@FunctionalInterface
+public interface AsyncOAuthFlow {
+    /**
+     * Run the complete flow up to the access of protected resources.
+     * 
+     * @return the {@link CompletionStage} which completes with the {@link ProtectedAccessFlowFactory}, or
+     *         exceptionally if any phase failed
+     */
+    CompletionStage<ProtectedAccessFlowFactory> authorize();
+
+    /**
+     * Create a new instance of the {@link AsyncOAuthFlow}.
+     * 
+     * @param param the mandatory {@link AsyncOAuthFlowParam}
+     * @param executor the {@link Executor} creating the header fields of the flow phases
+     * @return the new {@link AsyncOAuthFlow}
+     */
+    static AsyncOAuthFlow of(AsyncOAuthFlowParam param, Executor executor) {
+        return new DefaultAsyncOAuthFlow(param, executor);
+    }
+}
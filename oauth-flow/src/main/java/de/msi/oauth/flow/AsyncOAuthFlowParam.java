@@ -0,0 +1,184 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.AsyncUserAuthorization;
+import de.msi.oauth.flow.user.AsyncUserObtainAccessToken;
+import de.msi.oauth.flow.user.AsyncUserObtainRequestToken;
+
+/**
+ * The parameter, required for the {@link AsyncOAuthFlow}.
+ * <p>
+ * Use {@link AsyncOAuthFlowParamBuilder} to build an instance of {@link AsyncOAuthFlowParam}.
+ * 
+ * @author Martin Siegemund
+ */
+public interface AsyncOAuthFlowParam {
+    /**
+     * Retrieve the <code>consumer_key</code>.
+     * 
+     * @return the key
+     */
+    ConsumerKey consumerKey();
+
+    /**
+     * Retrieve the information about weather or not, the <code>oauth_version</code> information should be included
+     * within the header fields.
+     * 
+     * @return <code>true</code> if the information should be included, otherwise <code>false</code>
+     */
+    boolean includeVersion();
+
+    /**
+     * Retrieve the callback.
+     * 
+     * @return the callback or an empty {@link Optional} for an <code>out-of-band</code> configuration
+     */
+    Optional<URI> callback();
+
+    /**
+     * Retrieve the additional header fields for obtaining the request token (as defined by the service provider).
+     * 
+     * @return the additional header fields
+     */
+    HeaderFields additionalParams();
+
+    /**
+     * Retrieve the {@link SignatureMethod} for obtaining the request token.
+     * 
+     * @return the {@link SignatureMethod}
+     */
+    SignatureMethod requestTokenSignatureMethod();
+
+    /**
+     * Retrieve the user supplied {@link AsyncUserObtainRequestToken} operation.
+     * 
+     * @return the operation
+     */
+    AsyncUserObtainRequestToken userObtainRequestToken();
+
+    /**
+     * Retrieve the user supplied {@link AsyncUserAuthorization} process.
+     * 
+     * @return the process
+     */
+    AsyncUserAuthorization userAuthorization();
+
+    /**
+     * Retrieve the {@link SignatureMethod} for obtaining the access token.
+     * 
+     * @return the {@link SignatureMethod}
+     */
+    SignatureMethod accessTokenSignatureMethod();
+
+    /**
+     * Retrieve the user supplied {@link AsyncUserObtainAccessToken} operation.
+     * 
+     * @return the operation
+     */
+    AsyncUserObtainAccessToken userObtainAccessToken();
+
+    /**
+     * Creates {@link AsyncOAuthFlowParam} instances.
+     * 
+     * @author Martin Siegemund
+     */
+    public static final class AsyncOAuthFlowParamBuilder {
+        private final ConsumerKey consumerKey;
+        private final SignatureMethod requestTokenSignatureMethod;
+        private final AsyncUserObtainRequestToken userObtainRequestToken;
+        private final AsyncUserAuthorization userAuthorization;
+        private final SignatureMethod accessTokenSignatureMethod;
+        private final AsyncUserObtainAccessToken userObtainAccessToken;
+        private final AtomicBoolean includeVersion = new AtomicBoolean();
+        private final AtomicReference<URI> callback = new AtomicReference<>();
+        private final AtomicReference<HeaderFields> additionalParams = new AtomicReference<>(HeaderFields.empty());
+
+        /**
+         * Create a new builder instance.
+         * 
+         * @param consumerKey the consumer key
+         * @param requestTokenSignatureMethod the {@link SignatureMethod} for obtaining the request token
+         * @param userObtainRequestToken the {@link AsyncUserObtainRequestToken} operation
+         * @param userAuthorization the {@link AsyncUserAuthorization} process
+         * @param accessTokenSignatureMethod the {@link SignatureMethod} for obtaining the access token
+         * @param userObtainAccessToken the {@link AsyncUserObtainAccessToken} operation
+         */
+        public AsyncOAuthFlowParamBuilder(ConsumerKey consumerKey, SignatureMethod requestTokenSignatureMethod,
+                AsyncUserObtainRequestToken userObtainRequestToken, AsyncUserAuthorization userAuthorization,
+                SignatureMethod accessTokenSignatureMethod, AsyncUserObtainAccessToken userObtainAccessToken) {
+            this.consumerKey = consumerKey;
+            this.requestTokenSignatureMethod = requestTokenSignatureMethod;
+            this.userObtainRequestToken = userObtainRequestToken;
+            this.userAuthorization = userAuthorization;
+            this.accessTokenSignatureMethod = accessTokenSignatureMethod;
+            this.userObtainAccessToken = userObtainAccessToken;
+        }
+
+        /**
+         * Decide weather or not the version information should be included.
+         * 
+         * @param value <code>true</code> if the information should be included, otherwise <code>false</code>
+         * @return the builder
+         */
+        public AsyncOAuthFlowParamBuilder includeVersion(boolean value) {
+            this.includeVersion.set(value);
+            return this;
+        }
+
+        /**
+         * Set the callback {@link URI}.
+         * 
+         * @param value the callback
+         * @return the builder
+         */
+        public AsyncOAuthFlowParamBuilder callback(URI value) {
+            this.callback.set(value);
+            return this;
+        }
+
+        /**
+         * Add some additional header fields for obtaining the request token (as defined by the service provider).
+         * 
+         * @param value additional {@link HeaderFields}
+         * @return the builder
+         */
+        public AsyncOAuthFlowParamBuilder additionalParams(HeaderFields value) {
+            this.additionalParams.set(value);
+            return this;
+        }
+
+        /**
+         * Build the {@link AsyncOAuthFlowParam}.
+         * 
+         * @return the new instance
+         */
+        public AsyncOAuthFlowParam build() {
+            return new DefaultAsyncOAuthFlowParam(this.consumerKey, this.includeVersion.get(), this.callback.get(),
+                    this.additionalParams.get(), this.requestTokenSignatureMethod, this.userObtainRequestToken,
+                    this.userAuthorization, this.accessTokenSignatureMethod, this.userObtainAccessToken);
+        }
+    }
+}
@@ -21,39 +21,108 @@ import java.util.Objects;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.VerificationCode;
 import de.msi.oauth.flow.params.header.HeaderFieldsBuilder;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+import de.msi.oauth.flow.user.UserObtainAccessToken;
+import de.msi.oauth.flow.user.UserRequestToken;
 
 final class DefaultAccessTokenFlow implements AccessTokenFlow {
-    private final AccessTokenFlowParam atfp;
+    private final ConsumerKey consumerKey;
+    private final boolean includeVersion;
+    private final UserRequestToken uurt;
+    private final VerificationCode verificationCode;
+    private final SignatureMethod signatureMethod;
+    /* null if the flow only creates the header fields */
+    private final UserObtainAccessToken userObtainAccessToken;
 
     DefaultAccessTokenFlow(AccessTokenFlowParam atfp) {
-        this.atfp = Objects.requireNonNull(atfp, "the AccessTokenFlowParam is mandatory");
+        this(Objects.requireNonNull(atfp, "the AccessTokenFlowParam is mandatory").consumerKey(),
+                atfp.includeVersion(), atfp.userUnauthorizedRequestToken(), atfp.verificationCode(),
+                atfp.signatureMethod(),
+                Objects.requireNonNull(atfp.userObtainAccessToken(), "the UserObtainAccessToken is mandatory"));
+    }
+
+    /**
+     * Create an instance which only creates the {@link #headerFields() header fields}, the access token is obtained
+     * by the caller.
+     * 
+     * @param consumerKey the {@link ConsumerKey}
+     * @param includeVersion <code>true</code> if the version information should be included
+     * @param uurt the authorized {@link UserRequestToken}
+     * @param verificationCode the {@link VerificationCode}
+     * @param signatureMethod the {@link SignatureMethod}
+     */
+    DefaultAccessTokenFlow(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt,
+            VerificationCode verificationCode, SignatureMethod signatureMethod) {
+        this(consumerKey, includeVersion, uurt, verificationCode, signatureMethod, null);
+    }
+
+    private DefaultAccessTokenFlow(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt,
+            VerificationCode verificationCode, SignatureMethod signatureMethod,
+            UserObtainAccessToken userObtainAccessToken) {
+        this.consumerKey = consumerKey;
+        this.includeVersion = includeVersion;
+        this.uurt = Objects.requireNonNull(uurt, "the UserUnauthorizedRequestToken is mandatory");
+        this.verificationCode = Objects.requireNonNull(verificationCode, "the verificationCode is mandatory");
+        this.signatureMethod = Objects.requireNonNull(signatureMethod, "the SignatureMethod is mandatory");
+        this.userObtainAccessToken = userObtainAccessToken;
     }
 
     @Override
     public ProtectedAccessFlowFactory tokenExchange() {
+        /*
+         * obtain the access token and return the final factory for creating
+         * authorized access headers
+         */
+        if (this.userObtainAccessToken == null) {
+            throw new IllegalStateException("the flow only creates the header fields");
+        }
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.ACCESS_TOKEN);
+        try {
+            HeaderFields headerFields = headerFields();
+            return protectedAccessFlowFactory(
+                    measurement.userOperation(() -> this.userObtainAccessToken.obtainAccessToken(headerFields)));
+        } finally {
+            measurement.complete();
+        }
+    }
+
+    /**
+     * Create the required header fields for obtaining the access token.
+     * 
+     * @return the {@link HeaderFields}
+     */
+    HeaderFields headerFields() {
         /* create header builder */
         HeaderFieldsBuilder hpb = HeaderFieldsBuilder.withoutCallback();
         /* optionally add the version information */
-        if (this.atfp.includeVersion()) {
+        if (this.includeVersion) {
             hpb.versionInformation();
         }
         /* create the required header fields for obtaining the access token */
-        HeaderFields headerFields = hpb.consumerKey(this.atfp.consumerKey())
-                .token(this.atfp.userUnauthorizedRequestToken().token())
-                .tokenSecret(this.atfp.userUnauthorizedRequestToken().tokenSecret())
-                .verifier(this.atfp.verificationCode()).build(this.atfp.signatureMethod());
-        /*
-         * obtain the access token and return the final factory for creating
-         * authorized access headers
-         */
-        return new DefaultProtectedAccessFlowFactory(this.atfp,
-                this.atfp.userObtainAccessToken().obtainAccessToken(headerFields));
+        return hpb.consumerKey(this.consumerKey).token(this.uurt.token()).tokenSecret(this.uurt.tokenSecret())
+                .verifier(this.verificationCode).build(this.signatureMethod);
+    }
+
+    /**
+     * Create the next flow phase.
+     * 
+     * @param uatp the obtained {@link UserAccessTokenParameter}
+     * @return the {@link ProtectedAccessFlowFactory}
+     */
+    ProtectedAccessFlowFactory protectedAccessFlowFactory(UserAccessTokenParameter uatp) {
+        return new DefaultProtectedAccessFlowFactory(this.consumerKey, this.includeVersion, uatp);
     }
 
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.atfp).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append("includeVersion", this.includeVersion).append(this.uurt).append(this.verificationCode)
+                .append(this.signatureMethod).append(this.userObtainAccessToken).build();
     }
 }
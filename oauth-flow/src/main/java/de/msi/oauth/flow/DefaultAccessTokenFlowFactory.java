@@ -28,11 +28,21 @@ import de.msi.oauth.flow.user.UserObtainAccessToken;
 import de.msi.oauth.flow.user.UserRequestToken;
 
 final class DefaultAccessTokenFlowFactory implements AccessTokenFlowFactory {
-    private final UserAuthorizationFlowParam uafp;
+    private final ConsumerKey consumerKey;
+    private final boolean includeVersion;
+    private final UserRequestToken uurt;
     private final VerificationCode verificationCode;
 
     DefaultAccessTokenFlowFactory(UserAuthorizationFlowParam uafp, VerificationCode verificationCode) {
-        this.uafp = Objects.requireNonNull(uafp, "the UserAuthorizationFlowParam is mandatory");
+        this(Objects.requireNonNull(uafp, "the UserAuthorizationFlowParam is mandatory").consumerKey(),
+                uafp.includeVersion(), uafp.userUnauthorizedRequestToken(), verificationCode);
+    }
+
+    DefaultAccessTokenFlowFactory(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt,
+            VerificationCode verificationCode) {
+        this.consumerKey = consumerKey;
+        this.includeVersion = includeVersion;
+        this.uurt = uurt;
         this.verificationCode = Objects.requireNonNull(verificationCode, "the verificationCode is mandatory");
     }
 
@@ -41,10 +51,20 @@ final class DefaultAccessTokenFlowFactory implements AccessTokenFlowFactory {
         return new DefaultAccessTokenFlow(new DefaultAccessTokenFlowParamComplete(atfp));
     }
 
+    /**
+     * Retrieve the state of this flow phase.
+     * 
+     * @return the {@link FlowState}
+     */
+    FlowState state() {
+        return DefaultFlowState.accessToken(this.consumerKey, this.includeVersion, this.uurt, this.verificationCode);
+    }
+
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.uafp)
-                .append(this.verificationCode).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append("includeVersion", this.includeVersion).append(this.uurt).append(this.verificationCode)
+                .build();
     }
 
     private final class DefaultAccessTokenFlowParamComplete implements AccessTokenFlowParam {
@@ -56,17 +76,17 @@ final class DefaultAccessTokenFlowFactory implements AccessTokenFlowFactory {
 
         @Override
         public ConsumerKey consumerKey() {
-            return DefaultAccessTokenFlowFactory.this.uafp.consumerKey();
+            return DefaultAccessTokenFlowFactory.this.consumerKey;
         }
 
         @Override
         public boolean includeVersion() {
-            return DefaultAccessTokenFlowFactory.this.uafp.includeVersion();
+            return DefaultAccessTokenFlowFactory.this.includeVersion;
         }
 
         @Override
         public UserRequestToken userUnauthorizedRequestToken() {
-            return DefaultAccessTokenFlowFactory.this.uafp.userUnauthorizedRequestToken();
+            return DefaultAccessTokenFlowFactory.this.uurt;
         }
 
         @Override
@@ -0,0 +1,82 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+final class DefaultAsyncOAuthFlow implements AsyncOAuthFlow {
+    private final AsyncOAuthFlowParam param;
+    private final Executor executor;
+
+    DefaultAsyncOAuthFlow(AsyncOAuthFlowParam param, Executor executor) {
+        this.param = Objects.requireNonNull(param, "the AsyncOAuthFlowParam is mandatory");
+        this.executor = Objects.requireNonNull(executor, "the executor is mandatory");
+    }
+
+    @Override
+    public CompletionStage<ProtectedAccessFlowFactory> authorize() {
+        /* the flow phases only create the header fields, the user operations are invoked asynchronously */
+        DefaultRequestTokenFlow requestTokenFlow = new DefaultRequestTokenFlow(this.param.consumerKey(),
+                this.param.requestTokenSignatureMethod(), this.param.includeVersion(),
+                this.param.callback().orElse(null), this.param.additionalParams());
+        return requestToken(requestTokenFlow).thenCompose(this::userAuthorization)
+                .thenComposeAsync(this::tokenExchange, this.executor);
+    }
+
+    private CompletionStage<UserRequestToken> requestToken(DefaultRequestTokenFlow requestTokenFlow) {
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.REQUEST_TOKEN);
+        return measurement.completeAfter(() -> CompletableFuture
+                .supplyAsync(requestTokenFlow::headerFields, this.executor)
+                .thenCompose(hf -> measurement
+                        .userOperationAsync(() -> this.param.userObtainRequestToken().requestToken(hf)))
+                .thenApply(DefaultRequestTokenFlow::confirmed));
+    }
+
+    private CompletionStage<DefaultAccessTokenFlow> userAuthorization(UserRequestToken uurt) {
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.USER_AUTHORIZATION);
+        return measurement.completeAfter(() -> measurement
+                .userOperationAsync(() -> this.param.userAuthorization().verificationCode(uurt.token()))
+                .thenApply(vc -> new DefaultAccessTokenFlow(this.param.consumerKey(), this.param.includeVersion(),
+                        uurt, vc, this.param.accessTokenSignatureMethod())));
+    }
+
+    private CompletionStage<ProtectedAccessFlowFactory> tokenExchange(DefaultAccessTokenFlow accessTokenFlow) {
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.ACCESS_TOKEN);
+        return measurement.completeAfter(() -> {
+            HeaderFields headerFields = accessTokenFlow.headerFields();
+            return measurement
+                    .userOperationAsync(() -> this.param.userObtainAccessToken().obtainAccessToken(headerFields))
+                    .thenApply(accessTokenFlow::protectedAccessFlowFactory);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.param).append(this.executor)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.AsyncUserAuthorization;
+import de.msi.oauth.flow.user.AsyncUserObtainAccessToken;
+import de.msi.oauth.flow.user.AsyncUserObtainRequestToken;
+
+final class DefaultAsyncOAuthFlowParam implements AsyncOAuthFlowParam {
+    private final ConsumerKey consumerKey;
+    private final boolean includeVersion;
+    private final URI callback;
+    private final HeaderFields additionalParams;
+    private final SignatureMethod requestTokenSignatureMethod;
+    private final AsyncUserObtainRequestToken userObtainRequestToken;
+    private final AsyncUserAuthorization userAuthorization;
+    private final SignatureMethod accessTokenSignatureMethod;
+    private final AsyncUserObtainAccessToken userObtainAccessToken;
+
+    DefaultAsyncOAuthFlowParam(ConsumerKey ck, boolean iv, URI c, HeaderFields ap, SignatureMethod rtsm,
+            AsyncUserObtainRequestToken uort, AsyncUserAuthorization ua, SignatureMethod atsm,
+            AsyncUserObtainAccessToken uoat) {
+        this.consumerKey = Objects.requireNonNull(ck, "the consumer key is mandatory");
+        this.includeVersion = iv;
+        this.callback = c;
+        this.additionalParams = Objects.requireNonNull(ap, "the HeaderFields instance is mandatory");
+        this.requestTokenSignatureMethod = Objects.requireNonNull(rtsm,
+                "the request token SignatureMethod is mandatory");
+        this.userObtainRequestToken = Objects.requireNonNull(uort,
+                "the AsyncUserObtainRequestToken instance is mandatory");
+        this.userAuthorization = Objects.requireNonNull(ua, "the AsyncUserAuthorization instance is mandatory");
+        this.accessTokenSignatureMethod = Objects.requireNonNull(atsm,
+                "the access token SignatureMethod is mandatory");
+        this.userObtainAccessToken = Objects.requireNonNull(uoat,
+                "the AsyncUserObtainAccessToken instance is mandatory");
+    }
+
+    @Override
+    public ConsumerKey consumerKey() {
+        return this.consumerKey;
+    }
+
+    @Override
+    public boolean includeVersion() {
+        return this.includeVersion;
+    }
+
+    @Override
+    public Optional<URI> callback() {
+        return Optional.ofNullable(this.callback);
+    }
+
+    @Override
+    public HeaderFields additionalParams() {
+        return this.additionalParams;
+    }
+
+    @Override
+    public SignatureMethod requestTokenSignatureMethod() {
+        return this.requestTokenSignatureMethod;
+    }
+
+    @Override
+    public AsyncUserObtainRequestToken userObtainRequestToken() {
+        return this.userObtainRequestToken;
+    }
+
+    @Override
+    public AsyncUserAuthorization userAuthorization() {
+        return this.userAuthorization;
+    }
+
+    @Override
+    public SignatureMethod accessTokenSignatureMethod() {
+        return this.accessTokenSignatureMethod;
+    }
+
+    @Override
+    public AsyncUserObtainAccessToken userObtainAccessToken() {
+        return this.userObtainAccessToken;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append("includeVersion", this.includeVersion).append("callback", this.callback)
+                .append("additionalParams", this.additionalParams).append(this.requestTokenSignatureMethod)
+                .append(this.userObtainRequestToken).append(this.userAuthorization)
+                .append(this.accessTokenSignatureMethod).append(this.userObtainAccessToken).build();
+    }
+}
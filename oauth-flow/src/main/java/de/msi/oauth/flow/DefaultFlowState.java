@@ -0,0 +1,257 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.params.VerificationCode;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+/**
+ * The default implementation of {@link FlowState}.
+ * <p>
+ * The binary representation consists of
+ * <ul>
+ * <li>the version byte</li>
+ * <li>the stage byte</li>
+ * <li>the flags byte (<code>oauth_version</code> included, callback confirmed)</li>
+ * <li>the consumer key, the token, the token secret and, within {@link FlowState.Stage#ACCESS_TOKEN}, the
+ * verification code, each prefixed by its unsigned variable length number of <code>UTF-8</code> bytes</li>
+ * </ul>
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultFlowState implements FlowState {
+    private static final byte VERSION = 1;
+    private static final int INCLUDE_VERSION = 1;
+    private static final int CALLBACK = 2;
+    private static final Stage[] STAGES = Stage.values();
+
+    private final Stage stage;
+    private final boolean includeVersion;
+    private final boolean callback;
+    private final byte[] consumerKey;
+    private final byte[] token;
+    private final byte[] tokenSecret;
+    private final byte[] verificationCode;
+
+    private DefaultFlowState(Stage stage, boolean includeVersion, boolean callback, byte[] consumerKey, byte[] token,
+            byte[] tokenSecret, byte[] verificationCode) {
+        this.stage = stage;
+        this.includeVersion = includeVersion;
+        this.callback = callback;
+        this.consumerKey = consumerKey;
+        this.token = token;
+        this.tokenSecret = tokenSecret;
+        this.verificationCode = verificationCode;
+    }
+
+    static FlowState userAuthorization(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt) {
+        return new DefaultFlowState(Stage.USER_AUTHORIZATION, includeVersion, uurt.callback(), utf8(consumerKey.get()),
+                utf8(uurt.token().get()), utf8(uurt.tokenSecret().get()), null);
+    }
+
+    static FlowState accessToken(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt,
+            VerificationCode verificationCode) {
+        return new DefaultFlowState(Stage.ACCESS_TOKEN, includeVersion, uurt.callback(), utf8(consumerKey.get()),
+                utf8(uurt.token().get()), utf8(uurt.tokenSecret().get()), utf8(verificationCode.get()));
+    }
+
+    static FlowState protectedAccess(ConsumerKey consumerKey, boolean includeVersion, UserAccessTokenParameter uatp) {
+        return new DefaultFlowState(Stage.PROTECTED_ACCESS, includeVersion, false, utf8(consumerKey.get()),
+                utf8(uatp.accessToken().get()), utf8(uatp.accessTokenSecret().get()), null);
+    }
+
+    static FlowState read(ByteBuffer source) {
+        Objects.requireNonNull(source, "the source is mandatory");
+        ByteBuffer buffer = source.duplicate();
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format("unsupported flow state version %d", version));
+            }
+            int stage = buffer.get();
+            if (stage < 0 || stage >= STAGES.length) {
+                throw new IllegalArgumentException(String.format("unsupported flow stage %d", stage));
+            }
+            int flags = buffer.get();
+            byte[] consumerKey = value(buffer);
+            byte[] token = value(buffer);
+            byte[] tokenSecret = value(buffer);
+            byte[] verificationCode = STAGES[stage] == Stage.ACCESS_TOKEN ? value(buffer) : null;
+            source.position(buffer.position());
+            return new DefaultFlowState(STAGES[stage], (flags & INCLUDE_VERSION) != 0, (flags & CALLBACK) != 0,
+                    consumerKey, token, tokenSecret, verificationCode);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("the flow state is truncated", e);
+        }
+    }
+
+    @Override
+    public Stage stage() {
+        return this.stage;
+    }
+
+    @Override
+    public int size() {
+        int size = 3 + length(this.consumerKey) + length(this.token) + length(this.tokenSecret);
+        return this.verificationCode == null ? size : size + length(this.verificationCode);
+    }
+
+    @Override
+    public void write(ByteBuffer target) {
+        if (target.remaining() < size()) {
+            throw new BufferOverflowException();
+        }
+        target.put(VERSION).put((byte) this.stage.ordinal())
+                .put((byte) ((this.includeVersion ? INCLUDE_VERSION : 0) | (this.callback ? CALLBACK : 0)));
+        value(target, this.consumerKey);
+        value(target, this.token);
+        value(target, this.tokenSecret);
+        if (this.verificationCode != null) {
+            value(target, this.verificationCode);
+        }
+    }
+
+    @Override
+    public UserAuthorizationFlowFactory userAuthorizationFlowFactory() {
+        requireStage(Stage.USER_AUTHORIZATION);
+        return new DefaultUserAuthorizationFlowFactory(consumerKey(), this.includeVersion, userRequestToken());
+    }
+
+    @Override
+    public AccessTokenFlowFactory accessTokenFlowFactory() {
+        requireStage(Stage.ACCESS_TOKEN);
+        return new DefaultAccessTokenFlowFactory(consumerKey(), this.includeVersion, userRequestToken(),
+                VerificationCode.of(string(this.verificationCode)));
+    }
+
+    @Override
+    public ProtectedAccessFlowFactory protectedAccessFlowFactory() {
+        requireStage(Stage.PROTECTED_ACCESS);
+        return new DefaultProtectedAccessFlowFactory(consumerKey(), this.includeVersion,
+                new RestoredAccessToken(AccessToken.of(string(this.token)),
+                        AccessTokenSecret.of(string(this.tokenSecret))));
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("stage", this.stage)
+                .append("size", size()).build();
+    }
+
+    private void requireStage(Stage expected) {
+        if (this.stage != expected) {
+            throw new IllegalStateException(String.format("the flow is in stage %s", this.stage));
+        }
+    }
+
+    private ConsumerKey consumerKey() {
+        return ConsumerKey.of(string(this.consumerKey));
+    }
+
+    private UserRequestToken userRequestToken() {
+        return new PendingRequestToken(RequestToken.of(string(this.token)),
+                RequestTokenSecret.of(string(this.tokenSecret)), this.callback);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] value) {
+        int prefix = 1;
+        for (int length = value.length >>> 7; length != 0; length >>>= 7) {
+            ++prefix;
+        }
+        return prefix + value.length;
+    }
+
+    private static void value(ByteBuffer target, byte[] value) {
+        int length = value.length;
+        while ((length & ~0x7f) != 0) {
+            target.put((byte) ((length & 0x7f) | 0x80));
+            length >>>= 7;
+        }
+        target.put((byte) length).put(value);
+    }
+
+    private static byte[] value(ByteBuffer source) {
+        int length = 0;
+        for (int shift = 0;; shift += 7) {
+            if (shift > 28) {
+                throw new IllegalArgumentException("the flow state contains a malformed length");
+            }
+            byte b = source.get();
+            length |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        if (length < 0 || length > source.remaining()) {
+            throw new IllegalArgumentException("the flow state is truncated");
+        }
+        byte[] value = new byte[length];
+        source.get(value);
+        return value;
+    }
+
+    /**
+     * The {@link UserAccessTokenParameter} of a resumed flow.
+     */
+    private static final class RestoredAccessToken implements UserAccessTokenParameter {
+        private final AccessToken accessToken;
+        private final AccessTokenSecret accessTokenSecret;
+
+        RestoredAccessToken(AccessToken accessToken, AccessTokenSecret accessTokenSecret) {
+            this.accessToken = accessToken;
+            this.accessTokenSecret = accessTokenSecret;
+        }
+
+        @Override
+        public AccessToken accessToken() {
+            return this.accessToken;
+        }
+
+        @Override
+        public AccessTokenSecret accessTokenSecret() {
+            return this.accessTokenSecret;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.accessToken).build();
+        }
+    }
+}
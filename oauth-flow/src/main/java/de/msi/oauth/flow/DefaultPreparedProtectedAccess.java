@@ -0,0 +1,75 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.header.HeaderFieldsBuilder;
+import de.msi.oauth.flow.params.header.HeaderFieldsTemplate;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * The default implementation of the {@link PreparedProtectedAccess}.
+ * <p>
+ * The invariant header fields of the protected resource access are prepared once by a {@link HeaderFieldsTemplate},
+ * so only the <code>oauth_timestamp</code>, the <code>oauth_nonce</code> and the <code>oauth_signature</code> are
+ * created per access. Every access is measured as {@link FlowStage#PROTECTED_ACCESS} phase, including the accesses
+ * of a {@link ProtectedAccessBatch}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultPreparedProtectedAccess implements PreparedProtectedAccess {
+    private final ProtectedAccessParam pap;
+    private final HeaderFieldsTemplate template;
+
+    DefaultPreparedProtectedAccess(ProtectedAccessParam pap) {
+        this.pap = Objects.requireNonNull(pap, "the ProtectedAccessParam is mandatory");
+        /* create the header parameter builder */
+        HeaderFieldsBuilder hpb = HeaderFieldsBuilder.withoutCallback().nonceGenerator(pap.nonceGenerator())
+                .clock(pap.clock());
+        /* optionally add version parameter info */
+        if (pap.includeVersion()) {
+            hpb.versionInformation();
+        }
+        /* optionally add additional parameters */
+        Optional.ofNullable(pap.additionalParams()).ifPresent(hpb::additionalParameter);
+        /* prepare the invariant parameters */
+        this.template = hpb.consumerKey(pap.consumerKey()).token(pap.userAccessTokenParameter().accessToken())
+                .tokenSecret(pap.userAccessTokenParameter().accessTokenSecret()).prepare(pap.signatureMethod());
+    }
+
+    @Override
+    public HeaderFields headerFields(HeaderFields additionalParams) {
+        Objects.requireNonNull(additionalParams, "the additional params are mandatory");
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.PROTECTED_ACCESS);
+        try {
+            return this.template.build(additionalParams);
+        } finally {
+            measurement.complete();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.pap).build();
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Optional;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
 import de.msi.oauth.flow.params.header.HeaderFieldsBuilder;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
 
@@ -34,17 +35,24 @@ final class DefaultProtectedAccess implements ProtectedAccess {
 
     @Override
     public HeaderFields headerFields() {
-        /* create the header parameter builder */
-        HeaderFieldsBuilder hpb = HeaderFieldsBuilder.withoutCallback();
-        /* optionally add version parameter info */
-        if (this.pap.includeVersion()) {
-            hpb.versionInformation();
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.PROTECTED_ACCESS);
+        try {
+            /* create the header parameter builder */
+            HeaderFieldsBuilder hpb = HeaderFieldsBuilder.withoutCallback().nonceGenerator(this.pap.nonceGenerator())
+                    .clock(this.pap.clock());
+            /* optionally add version parameter info */
+            if (this.pap.includeVersion()) {
+                hpb.versionInformation();
+            }
+            /* optionally add additional parameters */
+            Optional.ofNullable(this.pap.additionalParams()).ifPresent(hpb::additionalParameter);
+            /* build the parameters */
+            return hpb.consumerKey(this.pap.consumerKey()).token(this.pap.userAccessTokenParameter().accessToken())
+                    .tokenSecret(this.pap.userAccessTokenParameter().accessTokenSecret())
+                    .build(this.pap.signatureMethod());
+        } finally {
+            measurement.complete();
         }
-        /* optionally add additional parameters */
-        Optional.ofNullable(this.pap.additionalParams()).ifPresent(hpb::additionalParameter);
-        /* build the parameters */
-        return hpb.consumerKey(this.pap.consumerKey()).token(this.pap.userAccessTokenParameter().accessToken())
-                .tokenSecret(this.pap.userAccessTokenParameter().accessTokenSecret()).build(this.pap.signatureMethod());
     }
 
     @Override
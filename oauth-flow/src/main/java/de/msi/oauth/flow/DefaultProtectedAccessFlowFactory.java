@@ -22,16 +22,26 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.header.NonceGenerator;
+import de.msi.oauth.flow.params.header.OAuthClock;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
 import de.msi.oauth.flow.signature.SignatureMethod;
 import de.msi.oauth.flow.user.UserAccessTokenParameter;
 
 final class DefaultProtectedAccessFlowFactory implements ProtectedAccessFlowFactory {
-    private final AccessTokenFlowParam atfp;
+    private final ConsumerKey consumerKey;
+    private final boolean includeVersion;
     private final UserAccessTokenParameter uatp;
 
     DefaultProtectedAccessFlowFactory(AccessTokenFlowParam atfp, UserAccessTokenParameter uatp) {
-        this.atfp = Objects.requireNonNull(atfp, "the AccessTokenFlowParam is mandatory");
+        this(Objects.requireNonNull(atfp, "the AccessTokenFlowParam is mandatory").consumerKey(),
+                atfp.includeVersion(), uatp);
+    }
+
+    DefaultProtectedAccessFlowFactory(ConsumerKey consumerKey, boolean includeVersion,
+            UserAccessTokenParameter uatp) {
+        this.consumerKey = consumerKey;
+        this.includeVersion = includeVersion;
         this.uatp = Objects.requireNonNull(uatp, "the UserAccessTokenParameter is mandatory");
     }
 
@@ -40,9 +50,24 @@ final class DefaultProtectedAccessFlowFactory implements ProtectedAccessFlowFact
         return new DefaultProtectedAccess(new DefaultProtectedAccessParam(paffp));
     }
 
+    @Override
+    public PreparedProtectedAccess preparedProtectedAccess(ProtectedAccessFlowFactoryParam paffp) {
+        return PreparedProtectedAccess.of(new DefaultProtectedAccessParam(paffp));
+    }
+
+    /**
+     * Retrieve the state of this flow phase.
+     * 
+     * @return the {@link FlowState}
+     */
+    FlowState state() {
+        return DefaultFlowState.protectedAccess(this.consumerKey, this.includeVersion, this.uatp);
+    }
+
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.atfp).append(this.uatp).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append("includeVersion", this.includeVersion).append(this.uatp).build();
     }
 
     private final class DefaultProtectedAccessParam implements ProtectedAccessParam {
@@ -54,7 +79,7 @@ final class DefaultProtectedAccessFlowFactory implements ProtectedAccessFlowFact
 
         @Override
         public ConsumerKey consumerKey() {
-            return DefaultProtectedAccessFlowFactory.this.atfp.consumerKey();
+            return DefaultProtectedAccessFlowFactory.this.consumerKey;
         }
 
         @Override
@@ -64,7 +89,7 @@ final class DefaultProtectedAccessFlowFactory implements ProtectedAccessFlowFact
 
         @Override
         public boolean includeVersion() {
-            return DefaultProtectedAccessFlowFactory.this.atfp.includeVersion();
+            return DefaultProtectedAccessFlowFactory.this.includeVersion;
         }
 
         @Override
@@ -72,6 +97,16 @@ final class DefaultProtectedAccessFlowFactory implements ProtectedAccessFlowFact
             return this.paffp.additionalParams();
         }
 
+        @Override
+        public NonceGenerator nonceGenerator() {
+            return this.paffp.nonceGenerator();
+        }
+
+        @Override
+        public OAuthClock clock() {
+            return this.paffp.clock();
+        }
+
         @Override
         public UserAccessTokenParameter userAccessTokenParameter() {
             return DefaultProtectedAccessFlowFactory.this.uatp;
@@ -16,49 +16,120 @@
 
 package de.msi.oauth.flow;
 
+import java.net.URI;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.ConsumerKey;
 import de.msi.oauth.flow.params.header.HeaderFieldsBuilder;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.UserObtainRequestToken;
 import de.msi.oauth.flow.user.UserRequestToken;
 
 final class DefaultRequestTokenFlow implements RequestTokenFlow {
-    private final RequestTokenFlowParam rtfp;
+    private final ConsumerKey consumerKey;
+    private final SignatureMethod signatureMethod;
+    private final boolean includeVersion;
+    private final URI callback;
+    private final HeaderFields additionalParams;
+    /* null if the flow only creates the header fields */
+    private final UserObtainRequestToken userObtainRequestToken;
 
     DefaultRequestTokenFlow(RequestTokenFlowParam rtfp) {
-        this.rtfp = Objects.requireNonNull(rtfp, "the RequestTokenFlowParam is mandatory");
+        this(Objects.requireNonNull(rtfp, "the RequestTokenFlowParam is mandatory").consumerKey(),
+                rtfp.signatureMethod(), rtfp.includeVersion(), rtfp.callback().orElse(null), rtfp.additionalParams(),
+                Objects.requireNonNull(rtfp.userObtainRequestToken(),
+                        "the UserObtainUnauthorizedRequestToken instance is mandatory"));
+    }
+
+    /**
+     * Create an instance which only creates the {@link #headerFields() header fields}, the request token is obtained
+     * by the caller.
+     * 
+     * @param consumerKey the {@link ConsumerKey}
+     * @param signatureMethod the {@link SignatureMethod}
+     * @param includeVersion <code>true</code> if the version information should be included
+     * @param callback the callback (can be <code>null</code> for an out-of-band callback)
+     * @param additionalParams the additional {@link HeaderFields} (can be <code>null</code>)
+     */
+    DefaultRequestTokenFlow(ConsumerKey consumerKey, SignatureMethod signatureMethod, boolean includeVersion,
+            URI callback, HeaderFields additionalParams) {
+        this(consumerKey, signatureMethod, includeVersion, callback, additionalParams, null);
+    }
+
+    private DefaultRequestTokenFlow(ConsumerKey consumerKey, SignatureMethod signatureMethod, boolean includeVersion,
+            URI callback, HeaderFields additionalParams, UserObtainRequestToken userObtainRequestToken) {
+        this.consumerKey = Objects.requireNonNull(consumerKey, "the consumer key is mandatory");
+        this.signatureMethod = Objects.requireNonNull(signatureMethod, "the SignatureMethod is mandatory");
+        this.includeVersion = includeVersion;
+        this.callback = callback;
+        this.additionalParams = additionalParams;
+        this.userObtainRequestToken = userObtainRequestToken;
     }
 
     @Override
     public UserAuthorizationFlowFactory obtainRequestToken() {
+        if (this.userObtainRequestToken == null) {
+            throw new IllegalStateException("the flow only creates the header fields");
+        }
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.REQUEST_TOKEN);
+        try {
+            /* build the header params */
+            HeaderFields headerParams = headerFields();
+            /* invoke user functionality to get request token */
+            UserRequestToken uurt = measurement
+                    .userOperation(() -> this.userObtainRequestToken.requestToken(headerParams));
+            /* return net flow phase */
+            return new DefaultUserAuthorizationFlowFactory(this.consumerKey, this.includeVersion, confirmed(uurt));
+        } finally {
+            measurement.complete();
+        }
+    }
+
+    /**
+     * Create the header fields for obtaining the request token.
+     * 
+     * @return the {@link HeaderFields}
+     */
+    HeaderFields headerFields() {
         HeaderFieldsBuilder hpb = headerParameterBuilder();
         /* add optional version information */
-        if (this.rtfp.includeVersion()) {
+        if (this.includeVersion) {
             hpb.versionInformation();
         }
         /* optionally add additional parameters */
-        Optional.ofNullable(this.rtfp.additionalParams()).ifPresent(hpb::additionalParameter);
+        Optional.ofNullable(this.additionalParams).ifPresent(hpb::additionalParameter);
         /* build the header params */
-        HeaderFields headerParams = hpb.consumerKey(this.rtfp.consumerKey()).build(this.rtfp.signatureMethod());
-        /* invoke user functionality to get request token */
-        UserRequestToken uurt = this.rtfp.userObtainRequestToken().requestToken(headerParams);
-        /* check result for callback success */
+        return hpb.consumerKey(this.consumerKey).build(this.signatureMethod);
+    }
+
+    /**
+     * Check the obtained request token for callback success.
+     * 
+     * @param uurt the {@link UserRequestToken}
+     * @return the given {@link UserRequestToken}
+     * @throws IllegalStateException if the service provider did not confirm the callback
+     */
+    static UserRequestToken confirmed(UserRequestToken uurt) {
         if (!uurt.callback()) {
             // TODO remove this check and remove the callback information from the interface? -> maybe user should
             // handle this
             throw new IllegalStateException("callback failure received");
         }
-        /* return net flow phase */
-        return new DefaultUserAuthorizationFlowFactory(this.rtfp, uurt);
+        return uurt;
     }
 
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.rtfp).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append(this.signatureMethod).append("includeVersion", this.includeVersion)
+                .append("callback", this.callback).append("additionalParams", this.additionalParams)
+                .append(this.userObtainRequestToken).build();
     }
 
     /**
@@ -68,7 +139,7 @@ final class DefaultRequestTokenFlow implements RequestTokenFlow {
      * @return a new instance
      */
     private HeaderFieldsBuilder headerParameterBuilder() {
-        return this.rtfp.callback().map(HeaderFieldsBuilder::withCallback)
+        return Optional.ofNullable(this.callback).map(HeaderFieldsBuilder::withCallback)
                 .orElseGet(HeaderFieldsBuilder::withOutOfBandsCallback);
     }
 }
@@ -0,0 +1,234 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The default implementation of {@link TokenRegistry}.
+ * <p>
+ * The entries are spread across independently locked stripes, each keeping its entries in access order. So the least
+ * recently accessed entry of a stripe is always the first one to be evicted, and idle entries are found at the head of
+ * each stripe without scanning it.
+ *
+ * @author Martin Siegemund
+ * @param <K> the type of the user or session keys
+ */
+final class DefaultTokenRegistry<K> implements TokenRegistry<K> {
+    private final Stripe<K>[] stripes;
+    private final int mask;
+    private final int stripeCapacity;
+    private final long timeToLive;
+    private final long idleTimeout;
+    private final LongSupplier ticker;
+    private final BiConsumer<? super K, ? super ProtectedAccessFlowFactory> removalListener;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    DefaultTokenRegistry(int maximumSize, int stripes, long timeToLive, long idleTimeout, LongSupplier ticker,
+            BiConsumer<? super K, ? super ProtectedAccessFlowFactory> removalListener) {
+        /* round up to a power of two, but keep at least one entry per stripe */
+        int count = Math.min(stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1,
+                Integer.highestOneBit(maximumSize));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; ++i) {
+            this.stripes[i] = new Stripe<>();
+        }
+        this.mask = count - 1;
+        this.stripeCapacity = Math.max(1, maximumSize / count);
+        this.timeToLive = timeToLive;
+        this.idleTimeout = idleTimeout;
+        this.ticker = Objects.requireNonNull(ticker, "the ticker is mandatory");
+        this.removalListener = Objects.requireNonNull(removalListener, "the removal listener is mandatory");
+    }
+
+    @Override
+    public ProtectedAccessFlowFactory register(K key, ProtectedAccessFlowFactory factory) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        Objects.requireNonNull(factory, "the protected access flow factory is mandatory");
+        long now = this.ticker.getAsLong();
+        List<Object> removed = new ArrayList<>(2);
+        Stripe<K> stripe = stripe(key);
+        synchronized (stripe) {
+            Entry replaced = stripe.put(key, new Entry(factory, now));
+            if (replaced != null) {
+                removed.add(key);
+                removed.add(replaced.factory);
+            }
+            /* the head of a stripe is the least recently accessed entry */
+            Iterator<Map.Entry<K, Entry>> entries = stripe.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Entry> head = entries.next();
+                boolean expired = expired(head.getValue(), now);
+                if (!expired && stripe.size() <= this.stripeCapacity) {
+                    break;
+                }
+                entries.remove();
+                (expired ? this.expirations : this.evictions).increment();
+                removed.add(head.getKey());
+                removed.add(head.getValue().factory);
+            }
+        }
+        notify(removed);
+        return factory;
+    }
+
+    @Override
+    public Optional<ProtectedAccessFlowFactory> get(K key) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        long now = this.ticker.getAsLong();
+        Stripe<K> stripe = stripe(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry != null) {
+                if (expired(entry, now)) {
+                    stripe.remove(key);
+                } else {
+                    entry.accessed = now;
+                    this.hits.increment();
+                    return Optional.of(entry.factory);
+                }
+            }
+        }
+        this.misses.increment();
+        if (entry != null) {
+            this.expirations.increment();
+            this.removalListener.accept(key, entry.factory);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean remove(K key) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        Stripe<K> stripe = stripe(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.remove(key);
+        }
+        if (entry == null) {
+            return false;
+        }
+        this.removalListener.accept(key, entry.factory);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe<K> stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int cleanUp() {
+        long now = this.ticker.getAsLong();
+        int count = 0;
+        for (Stripe<K> stripe : this.stripes) {
+            List<Object> removed = new ArrayList<>();
+            synchronized (stripe) {
+                Iterator<Map.Entry<K, Entry>> entries = stripe.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<K, Entry> entry = entries.next();
+                    if (expired(entry.getValue(), now)) {
+                        entries.remove();
+                        removed.add(entry.getKey());
+                        removed.add(entry.getValue().factory);
+                    }
+                }
+            }
+            this.expirations.add(removed.size() / 2);
+            count += removed.size() / 2;
+            notify(removed);
+        }
+        return count;
+    }
+
+    @Override
+    public Stats stats() {
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.expirations.sum(), size());
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("stripes", this.stripes.length)
+                .append("stripeCapacity", this.stripeCapacity).append("stats", stats()).build();
+    }
+
+    private Stripe<K> stripe(K key) {
+        int hash = key.hashCode();
+        return this.stripes[(hash ^ (hash >>> 16)) & this.mask];
+    }
+
+    private boolean expired(Entry entry, long now) {
+        return (this.timeToLive > 0 && now - entry.written >= this.timeToLive)
+                || (this.idleTimeout > 0 && now - entry.accessed >= this.idleTimeout);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void notify(List<Object> removed) {
+        for (int i = 0; i < removed.size(); i += 2) {
+            this.removalListener.accept((K) removed.get(i), (ProtectedAccessFlowFactory) removed.get(i + 1));
+        }
+    }
+
+    /**
+     * An access ordered map, which is guarded by its own monitor.
+     */
+    private static final class Stripe<K> extends LinkedHashMap<K, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        Stripe() {
+            super(16, 0.75f, true);
+        }
+    }
+
+    /**
+     * A registered {@link ProtectedAccessFlowFactory} and its timestamps.
+     */
+    private static final class Entry {
+        private final ProtectedAccessFlowFactory factory;
+        private final long written;
+        private long accessed;
+
+        Entry(ProtectedAccessFlowFactory factory, long now) {
+            this.factory = factory;
+            this.written = now;
+            this.accessed = now;
+        }
+    }
+}
@@ -21,6 +21,9 @@ import java.util.Objects;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.VerificationCode;
+
 final class DefaultUserAuthorizationFlow implements UserAuthorizationFlow {
     private final UserAuthorizationFlowParam uafp;
 
@@ -30,8 +33,14 @@ final class DefaultUserAuthorizationFlow implements UserAuthorizationFlow {
 
     @Override
     public AccessTokenFlowFactory userAuthorization() {
-        return new DefaultAccessTokenFlowFactory(this.uafp,
-                this.uafp.userAuthorization().verificationCode(this.uafp.userUnauthorizedRequestToken().token()));
+        StageMeasurement measurement = StageMeasurement.start(FlowStage.USER_AUTHORIZATION);
+        try {
+            VerificationCode verificationCode = measurement.userOperation(() -> this.uafp.userAuthorization()
+                    .verificationCode(this.uafp.userUnauthorizedRequestToken().token()));
+            return new DefaultAccessTokenFlowFactory(this.uafp, verificationCode);
+        } finally {
+            measurement.complete();
+        }
     }
 
     @Override
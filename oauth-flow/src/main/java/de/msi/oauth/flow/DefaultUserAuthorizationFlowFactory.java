@@ -26,11 +26,18 @@ import de.msi.oauth.flow.user.UserAuthorization;
 import de.msi.oauth.flow.user.UserRequestToken;
 
 final class DefaultUserAuthorizationFlowFactory implements UserAuthorizationFlowFactory {
-    private final RequestTokenFlowParam rtfp;
+    private final ConsumerKey consumerKey;
+    private final boolean includeVersion;
     private final UserRequestToken uurt;
 
     DefaultUserAuthorizationFlowFactory(RequestTokenFlowParam rtfp, UserRequestToken uurt) {
-        this.rtfp = Objects.requireNonNull(rtfp, "the RequestTokenFlowParam is mandatory");
+        this(Objects.requireNonNull(rtfp, "the RequestTokenFlowParam is mandatory").consumerKey(),
+                rtfp.includeVersion(), uurt);
+    }
+
+    DefaultUserAuthorizationFlowFactory(ConsumerKey consumerKey, boolean includeVersion, UserRequestToken uurt) {
+        this.consumerKey = consumerKey;
+        this.includeVersion = includeVersion;
         this.uurt = Objects.requireNonNull(uurt, "the UserUnauthorizedRequestToken is mandatory");
     }
 
@@ -39,9 +46,19 @@ final class DefaultUserAuthorizationFlowFactory implements UserAuthorizationFlow
         return new DefaultUserAuthorizationFlow(new DefaultUserAuthorizationFlowParam(uafp));
     }
 
+    /**
+     * Retrieve the state of this flow phase.
+     * 
+     * @return the {@link FlowState}
+     */
+    FlowState state() {
+        return DefaultFlowState.userAuthorization(this.consumerKey, this.includeVersion, this.uurt);
+    }
+
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.rtfp).append(this.uurt).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.consumerKey)
+                .append("includeVersion", this.includeVersion).append(this.uurt).build();
     }
 
     private final class DefaultUserAuthorizationFlowParam implements UserAuthorizationFlowParam {
@@ -53,12 +70,12 @@ final class DefaultUserAuthorizationFlowFactory implements UserAuthorizationFlow
 
         @Override
         public ConsumerKey consumerKey() {
-            return DefaultUserAuthorizationFlowFactory.this.rtfp.consumerKey();
+            return DefaultUserAuthorizationFlowFactory.this.consumerKey;
         }
 
         @Override
         public boolean includeVersion() {
-            return DefaultUserAuthorizationFlowFactory.this.rtfp.includeVersion();
+            return DefaultUserAuthorizationFlowFactory.this.includeVersion;
         }
 
         @Override
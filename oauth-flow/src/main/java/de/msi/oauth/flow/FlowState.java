@@ -0,0 +1,167 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The state of a flow phase, which can be written to a compact binary representation and resumed later on, possibly
+ * by another node.
+ * <p>
+ * The representation starts with a version and the {@link Stage}, followed by the flags and the length prefixed
+ * <code>UTF-8</code> values of the phase. It contains the token secret, so it must be stored as confidential as the
+ * secret itself. The user operations and signature methods are not part of the state, they are passed in again when
+ * the flow is resumed.
+ * <p>
+ * Use {@link #of(UserAuthorizationFlowFactory)}, {@link #of(AccessTokenFlowFactory)} or
+ * {@link #of(ProtectedAccessFlowFactory)} to export the state of a flow, and {@link #read(ByteBuffer)} to import it.
+ *
+ * @author Martin Siegemund
+ */
+public interface FlowState {
+    /**
+     * The flow phases, which can be resumed.
+     *
+     * @author Martin Siegemund
+     */
+    enum Stage {
+        /**
+         * The request token has been obtained, the user authorization is next.
+         */
+        USER_AUTHORIZATION,
+        /**
+         * The user authorization has been received, the token exchange is next.
+         */
+        ACCESS_TOKEN,
+        /**
+         * The access token has been obtained, protected resources can be accessed.
+         */
+        PROTECTED_ACCESS
+    }
+
+    /**
+     * Retrieve the {@link Stage} of the flow.
+     * 
+     * @return the {@link Stage}
+     */
+    Stage stage();
+
+    /**
+     * Retrieve the number of bytes of the binary representation.
+     * 
+     * @return the size
+     */
+    int size();
+
+    /**
+     * Write the binary representation into the given target, starting at its position.
+     * 
+     * @param target the target
+     * @throws java.nio.BufferOverflowException if the remaining bytes of the target are not sufficient, nothing is
+     *         written in this case
+     */
+    void write(ByteBuffer target);
+
+    /**
+     * Retrieve the binary representation.
+     * 
+     * @return the bytes
+     */
+    default byte[] toByteArray() {
+        byte[] bytes = new byte[size()];
+        write(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Resume the {@link Stage#USER_AUTHORIZATION} phase.
+     * 
+     * @return the {@link UserAuthorizationFlowFactory}
+     * @throws IllegalStateException if the flow is in another {@link Stage}
+     */
+    UserAuthorizationFlowFactory userAuthorizationFlowFactory();
+
+    /**
+     * Resume the {@link Stage#ACCESS_TOKEN} phase.
+     * 
+     * @return the {@link AccessTokenFlowFactory}
+     * @throws IllegalStateException if the flow is in another {@link Stage}
+     */
+    AccessTokenFlowFactory accessTokenFlowFactory();
+
+    /**
+     * Resume the {@link Stage#PROTECTED_ACCESS} phase.
+     * 
+     * @return the {@link ProtectedAccessFlowFactory}
+     * @throws IllegalStateException if the flow is in another {@link Stage}
+     */
+    ProtectedAccessFlowFactory protectedAccessFlowFactory();
+
+    /**
+     * Export the state of the given flow phase.
+     * 
+     * @param uaff the {@link UserAuthorizationFlowFactory}, as returned by
+     *        {@link RequestTokenFlow#obtainRequestToken()}
+     * @return the {@link FlowState}
+     * @throws IllegalArgumentException if the factory has not been created by a flow
+     */
+    static FlowState of(UserAuthorizationFlowFactory uaff) {
+        if (uaff instanceof DefaultUserAuthorizationFlowFactory) {
+            return ((DefaultUserAuthorizationFlowFactory) uaff).state();
+        }
+        throw new IllegalArgumentException("the UserAuthorizationFlowFactory has not been created by a flow");
+    }
+
+    /**
+     * Export the state of the given flow phase.
+     * 
+     * @param atff the {@link AccessTokenFlowFactory}, as returned by {@link UserAuthorizationFlow#userAuthorization()}
+     * @return the {@link FlowState}
+     * @throws IllegalArgumentException if the factory has not been created by a flow
+     */
+    static FlowState of(AccessTokenFlowFactory atff) {
+        if (atff instanceof DefaultAccessTokenFlowFactory) {
+            return ((DefaultAccessTokenFlowFactory) atff).state();
+        }
+        throw new IllegalArgumentException("the AccessTokenFlowFactory has not been created by a flow");
+    }
+
+    /**
+     * Export the state of the given flow phase.
+     * 
+     * @param paff the {@link ProtectedAccessFlowFactory}, as returned by {@link AccessTokenFlow#tokenExchange()}
+     * @return the {@link FlowState}
+     * @throws IllegalArgumentException if the factory has not been created by a flow
+     */
+    static FlowState of(ProtectedAccessFlowFactory paff) {
+        if (paff instanceof DefaultProtectedAccessFlowFactory) {
+            return ((DefaultProtectedAccessFlowFactory) paff).state();
+        }
+        throw new IllegalArgumentException("the ProtectedAccessFlowFactory has not been created by a flow");
+    }
+
+    /**
+     * Import the state, starting at the position of the given source. The position is moved behind the state.
+     * 
+     * @param source the binary representation
+     * @return the {@link FlowState}
+     * @throws IllegalArgumentException if the source does not contain a supported state
+     */
+    static FlowState read(ByteBuffer source) {
+        return DefaultFlowState.read(source);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+/**
+ * A {@link PendingAuthorizationStore}, which keeps its entries within a {@link ConcurrentHashMap}. Expired entries are
+ * removed when they are taken or by {@link #cleanUp()}.
+ * <p>
+ * The number of entries is bounded by the capacity. A full store removes its expired entries before it rejects a new
+ * one, so request tokens obtained by unauthenticated traffic can not grow the heap without limit.
+ *
+ * @author Martin Siegemund
+ */
+final class InMemoryPendingAuthorizationStore implements PendingAuthorizationStore {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    InMemoryPendingAuthorizationStore(int capacity, Duration timeToLive, LongSupplier clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("the capacity must be positive");
+        }
+        this.capacity = capacity;
+        if (Objects.requireNonNull(timeToLive, "the time to live is mandatory").isNegative()
+                || timeToLive.isZero()) {
+            throw new IllegalArgumentException("the time to live must be positive");
+        }
+        this.timeToLive = timeToLive.toMillis();
+        this.clock = Objects.requireNonNull(clock, "the clock is mandatory");
+    }
+
+    @Override
+    public void put(UserRequestToken uurt) {
+        Objects.requireNonNull(uurt, "the UserRequestToken is mandatory");
+        String key = uurt.token().get();
+        Entry entry = new Entry(new PendingRequestToken(uurt.token(), uurt.tokenSecret(), uurt.callback()),
+                this.clock.getAsLong() + this.timeToLive);
+        /* replacing an entry does not take any capacity */
+        if (this.entries.replace(key, entry) != null) {
+            return;
+        }
+        reserve();
+        if (this.entries.put(key, entry) != null) {
+            /* a concurrent put of the same token won */
+            this.size.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<UserRequestToken> take(RequestToken token) {
+        Entry entry = this.entries.remove(Objects.requireNonNull(token, "the request token is mandatory").get());
+        if (entry != null) {
+            this.size.decrementAndGet();
+        }
+        if (entry == null || entry.expires <= this.clock.getAsLong()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.uurt);
+    }
+
+    @Override
+    public int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public int cleanUp() {
+        long now = this.clock.getAsLong();
+        int count = 0;
+        for (Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (entry.getValue().expires <= now && this.entries.remove(entry.getKey(), entry.getValue())) {
+                this.size.decrementAndGet();
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("capacity", this.capacity)
+                .append("timeToLive", this.timeToLive).append("size", size()).build();
+    }
+
+    /**
+     * Reserve the capacity of a new entry, removing the expired entries if the store is full.
+     * 
+     * @throws IllegalStateException if the store is full of unexpired entries
+     */
+    private void reserve() {
+        boolean cleaned = false;
+        while (true) {
+            int current = this.size.get();
+            if (current >= this.capacity) {
+                if (cleaned) {
+                    throw new IllegalStateException("the pending authorization store is full");
+                }
+                cleanUp();
+                cleaned = true;
+            } else if (this.size.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final UserRequestToken uurt;
+        private final long expires;
+
+        Entry(UserRequestToken uurt, long expires) {
+            this.uurt = uurt;
+            this.expires = expires;
+        }
+    }
+}
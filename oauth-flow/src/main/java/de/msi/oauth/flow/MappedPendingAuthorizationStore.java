@@ -0,0 +1,412 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+/**
+ * A {@link PendingAuthorizationStore}, which keeps its entries within a memory mapped file.
+ * <p>
+ * The file starts with a header, followed by independently mapped and locked segments. Every segment is an open
+ * addressing hash table of fixed size slots, which are probed linearly. A slot consists of its state, the callback
+ * flag, the expiration time in epoch milliseconds, the lengths of the request token and its secret and their
+ * <code>UTF-8</code> bytes.
+ * <p>
+ * Threads of the same process are serialized by the segment monitor, other processes by a lock of the file region of
+ * the segment. So every process must not open the same file more than once at a time.
+ * <p>
+ * The request token and secret of a slot are zeroed as soon as the entry is taken or removed, and before the slot is
+ * reused.
+ *
+ * @author Martin Siegemund
+ */
+final class MappedPendingAuthorizationStore implements PendingAuthorizationStore {
+    /**
+     * The maximum number of bytes of the request token and its secret.
+     */
+    static final int MAXIMUM_DATA_LENGTH = 242;
+
+    private static final int MAGIC = 0x4f415041;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 256;
+    private static final int MAXIMUM_SEGMENTS = 64;
+    private static final int MINIMUM_SEGMENT_CAPACITY = 1024;
+    private static final int MAXIMUM_SEGMENT_SLOTS = Integer.MAX_VALUE / SLOT_SIZE;
+
+    private static final byte FREE = 0;
+    private static final byte USED = 1;
+    private static final byte DELETED = 2;
+    private static final byte[] ZEROS = new byte[MAXIMUM_DATA_LENGTH];
+
+    private static final int STATE = 0;
+    private static final int CALLBACK = 1;
+    private static final int EXPIRES = 2;
+    private static final int TOKEN_LENGTH = 10;
+    private static final int SECRET_LENGTH = 12;
+    private static final int DATA = 14;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Segment[] segments;
+    private final int segmentSlots;
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    MappedPendingAuthorizationStore(Path file, int capacity, Duration timeToLive, LongSupplier clock) {
+        this.file = Objects.requireNonNull(file, "the file is mandatory");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("the capacity must be positive");
+        }
+        if (Objects.requireNonNull(timeToLive, "the time to live is mandatory").isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("the time to live must be positive");
+        }
+        this.timeToLive = timeToLive.toMillis();
+        this.clock = Objects.requireNonNull(clock, "the clock is mandatory");
+        /* keep the load factor at or below one half, and the segments large enough for an even distribution */
+        int count = Math.min(MAXIMUM_SEGMENTS,
+                Integer.highestOneBit(Math.max(1, capacity / MINIMUM_SEGMENT_CAPACITY)));
+        long slots = (2L * capacity + count - 1) / count;
+        if (slots > MAXIMUM_SEGMENT_SLOTS) {
+            throw new IllegalArgumentException("the capacity is too large");
+        }
+        this.segmentSlots = (int) slots;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            header(count);
+            this.segments = new Segment[count];
+            long segmentSize = (long) this.segmentSlots * SLOT_SIZE;
+            for (int i = 0; i < count; ++i) {
+                long position = HEADER_SIZE + i * segmentSize;
+                this.segments[i] = new Segment(position, segmentSize,
+                        this.channel.map(FileChannel.MapMode.READ_WRITE, position, segmentSize));
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(UserRequestToken uurt) {
+        Objects.requireNonNull(uurt, "the UserRequestToken is mandatory");
+        byte[] token = uurt.token().get().getBytes(StandardCharsets.UTF_8);
+        byte[] secret = uurt.tokenSecret().get().getBytes(StandardCharsets.UTF_8);
+        if (token.length + secret.length > MAXIMUM_DATA_LENGTH) {
+            throw new IllegalArgumentException(String.format(
+                    "the request token and its secret must not exceed %d bytes", MAXIMUM_DATA_LENGTH));
+        }
+        int hash = hash(token);
+        Segment segment = segment(hash);
+        synchronized (segment) {
+            FileLock lock = segment.lock();
+            try {
+                long now = this.clock.getAsLong();
+                ByteBuffer slots = segment.slots;
+                int target = -1;
+                int slot = start(hash);
+                for (int i = 0; i < this.segmentSlots; ++i, slot = next(slot)) {
+                    int offset = slot * SLOT_SIZE;
+                    byte state = slots.get(offset + STATE);
+                    if (state == USED && matches(slots, offset, token)) {
+                        target = offset;
+                        break;
+                    }
+                    if (target < 0 && (state != USED || expired(slots, offset, now))) {
+                        target = offset;
+                    }
+                    if (state == FREE) {
+                        break;
+                    }
+                }
+                if (target < 0) {
+                    throw new IllegalStateException("the pending authorization store is full");
+                }
+                slots.put(target + CALLBACK, (byte) (uurt.callback() ? 1 : 0));
+                slots.putLong(target + EXPIRES, now + this.timeToLive);
+                slots.putShort(target + TOKEN_LENGTH, (short) token.length);
+                slots.putShort(target + SECRET_LENGTH, (short) secret.length);
+                /* a reused slot may still hold a longer token or secret */
+                clear(slots, target);
+                ByteBuffer data = slots.duplicate();
+                data.position(target + DATA);
+                data.put(token).put(secret);
+                /* publish the slot last */
+                slots.put(target + STATE, USED);
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public Optional<UserRequestToken> take(RequestToken token) {
+        byte[] raw = Objects.requireNonNull(token, "the request token is mandatory").get()
+                .getBytes(StandardCharsets.UTF_8);
+        int hash = hash(raw);
+        Segment segment = segment(hash);
+        synchronized (segment) {
+            FileLock lock = segment.lock();
+            try {
+                ByteBuffer slots = segment.slots;
+                int slot = start(hash);
+                for (int i = 0; i < this.segmentSlots; ++i, slot = next(slot)) {
+                    int offset = slot * SLOT_SIZE;
+                    byte state = slots.get(offset + STATE);
+                    if (state == FREE) {
+                        break;
+                    }
+                    if (state == USED && matches(slots, offset, raw)) {
+                        boolean expired = expired(slots, offset, this.clock.getAsLong());
+                        UserRequestToken uurt = expired ? null : read(slots, offset, token);
+                        delete(slots, slot);
+                        return Optional.ofNullable(uurt);
+                    }
+                }
+                return Optional.empty();
+            } finally {
+                release(lock);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                FileLock lock = segment.lock();
+                try {
+                    for (int slot = 0; slot < this.segmentSlots; ++slot) {
+                        if (segment.slots.get(slot * SLOT_SIZE + STATE) == USED) {
+                            ++size;
+                        }
+                    }
+                } finally {
+                    release(lock);
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int cleanUp() {
+        int count = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                FileLock lock = segment.lock();
+                try {
+                    long now = this.clock.getAsLong();
+                    for (int slot = 0; slot < this.segmentSlots; ++slot) {
+                        int offset = slot * SLOT_SIZE;
+                        if (segment.slots.get(offset + STATE) == USED && expired(segment.slots, offset, now)) {
+                            delete(segment.slots, slot);
+                            ++count;
+                        }
+                    }
+                } finally {
+                    release(lock);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("file", this.file)
+                .append("segments", this.segments.length).append("segmentSlots", this.segmentSlots)
+                .append("timeToLive", this.timeToLive).build();
+    }
+
+    /**
+     * Write the header of a new file, or check the header of an existing one.
+     * 
+     * @param count the number of segments
+     * @throws IOException if accessing the file fails
+     */
+    private void header(int count) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        FileLock lock = this.channel.lock(0, HEADER_SIZE, false);
+        try {
+            if (this.channel.size() == 0) {
+                header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(this.segmentSlots).putInt(SLOT_SIZE).clear();
+                this.channel.write(header, 0);
+                return;
+            }
+            while (header.hasRemaining() && this.channel.read(header, header.position()) >= 0) {
+                /* read the complete header */
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalArgumentException(String.format("%s is not a pending authorization store", this.file));
+            }
+            if (header.getInt() != count || header.getInt() != this.segmentSlots || header.getInt() != SLOT_SIZE) {
+                throw new IllegalArgumentException(
+                        String.format("%s has been created with another capacity", this.file));
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    private Segment segment(int hash) {
+        return this.segments[hash & (this.segments.length - 1)];
+    }
+
+    private int start(int hash) {
+        return Integer.remainderUnsigned(hash >>> 6, this.segmentSlots);
+    }
+
+    private int next(int slot) {
+        return slot + 1 == this.segmentSlots ? 0 : slot + 1;
+    }
+
+    /**
+     * Mark the given slot as deleted and zero its request token and secret. A run of deleted slots followed by a free
+     * slot is not needed for probing any more, so it is freed.
+     */
+    private void delete(ByteBuffer slots, int slot) {
+        clear(slots, slot * SLOT_SIZE);
+        slots.putShort(slot * SLOT_SIZE + TOKEN_LENGTH, (short) 0);
+        slots.putShort(slot * SLOT_SIZE + SECRET_LENGTH, (short) 0);
+        int next = next(slot);
+        if (slots.get(next * SLOT_SIZE + STATE) != FREE) {
+            slots.put(slot * SLOT_SIZE + STATE, DELETED);
+            return;
+        }
+        int current = slot;
+        do {
+            slots.put(current * SLOT_SIZE + STATE, FREE);
+            current = current == 0 ? this.segmentSlots - 1 : current - 1;
+        } while (current != slot && slots.get(current * SLOT_SIZE + STATE) == DELETED);
+    }
+
+    /**
+     * Zero the data of the slot at the given offset, so no request token or secret stays in the file.
+     */
+    private static void clear(ByteBuffer slots, int offset) {
+        ByteBuffer data = slots.duplicate();
+        data.position(offset + DATA);
+        data.put(ZEROS);
+    }
+
+    private static void release(FileLock lock) {
+        try {
+            lock.release();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean expired(ByteBuffer slots, int offset, long now) {
+        return slots.getLong(offset + EXPIRES) <= now;
+    }
+
+    private static boolean matches(ByteBuffer slots, int offset, byte[] token) {
+        if (slots.getShort(offset + TOKEN_LENGTH) != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; ++i) {
+            if (slots.get(offset + DATA + i) != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static UserRequestToken read(ByteBuffer slots, int offset, RequestToken token) {
+        int tokenLength = slots.getShort(offset + TOKEN_LENGTH);
+        byte[] secret = new byte[slots.getShort(offset + SECRET_LENGTH)];
+        ByteBuffer data = slots.duplicate();
+        data.position(offset + DATA + tokenLength);
+        data.get(secret);
+        return new PendingRequestToken(token, RequestTokenSecret.of(new String(secret, StandardCharsets.UTF_8)),
+                slots.get(offset + CALLBACK) != 0);
+    }
+
+    /**
+     * A hash independent of the JVM, so every process finds the same slots.
+     */
+    private static int hash(byte[] token) {
+        int hash = 0x811c9dc5;
+        for (byte b : token) {
+            hash = (hash ^ (b & 0xff)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A mapped segment of the file.
+     */
+    private final class Segment {
+        private final long position;
+        private final long size;
+        private final MappedByteBuffer slots;
+
+        Segment(long position, long size, MappedByteBuffer slots) {
+            this.position = position;
+            this.size = size;
+            this.slots = slots;
+        }
+
+        FileLock lock() {
+            try {
+                return MappedPendingAuthorizationStore.this.channel.lock(this.position, this.size, false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.user.UserObtainRequestToken;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+/**
+ * Keeps the {@link UserRequestToken} between obtaining the request token and the callback of the service provider,
+ * which only carries the {@link RequestToken} and the verification code.
+ * <p>
+ * The flow is resumed by looking up the {@link UserRequestToken} of the callback and passing it on to an
+ * {@link AccessTokenIntermediateFactory}. Every entry can be taken once, so replayed callbacks are not accepted.
+ * <p>
+ * Use {@link #inMemory(int, Duration)} for a single node, or {@link #mapped(Path, int, Duration)} for sharing the pending
+ * authorizations between the processes of a host and across restarts.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#auth_step2">6.2. Obtaining User Authorization</a>
+ */
+public interface PendingAuthorizationStore extends Closeable {
+    /**
+     * The capacity of the store created by {@link #inMemory(Duration)}.
+     */
+    int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Store the given {@link UserRequestToken}, replacing a previous one with the same {@link RequestToken}.
+     * 
+     * @param uurt the {@link UserRequestToken}
+     * @throws IllegalStateException if the store is full
+     */
+    void put(UserRequestToken uurt);
+
+    /**
+     * Remove and retrieve the {@link UserRequestToken} of the given {@link RequestToken}.
+     * 
+     * @param token the {@link RequestToken} of the callback
+     * @return the {@link UserRequestToken}, which is empty if it is unknown or expired
+     */
+    Optional<UserRequestToken> take(RequestToken token);
+
+    /**
+     * Retrieve the number of pending authorizations, including the expired ones which have not been removed yet.
+     * 
+     * @return the size
+     */
+    int size();
+
+    /**
+     * Remove every expired entry.
+     * 
+     * @return the number of removed entries
+     */
+    int cleanUp();
+
+    /**
+     * Release the resources of this store. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+        /* nothing to release */
+    }
+
+    /**
+     * Decorate the given {@link UserObtainRequestToken}, so every obtained {@link UserRequestToken} gets stored.
+     * 
+     * @param delegate the {@link UserObtainRequestToken}
+     * @return the decorated {@link UserObtainRequestToken}
+     */
+    default UserObtainRequestToken storing(UserObtainRequestToken delegate) {
+        Objects.requireNonNull(delegate, "the UserObtainRequestToken is mandatory");
+        return headerParams -> {
+            UserRequestToken uurt = delegate.requestToken(headerParams);
+            put(uurt);
+            return uurt;
+        };
+    }
+
+    /**
+     * Create a new store, which keeps up to {@link #DEFAULT_CAPACITY} entries on the heap.
+     * 
+     * @param timeToLive the time to live of every entry
+     * @return the new {@link PendingAuthorizationStore}
+     */
+    static PendingAuthorizationStore inMemory(Duration timeToLive) {
+        return inMemory(DEFAULT_CAPACITY, timeToLive);
+    }
+
+    /**
+     * Create a new store, which keeps its entries on the heap. As soon as the capacity is reached, the expired entries
+     * get removed, and new entries are rejected if none of them has expired.
+     * 
+     * @param capacity the maximum number of entries
+     * @param timeToLive the time to live of every entry
+     * @return the new {@link PendingAuthorizationStore}
+     */
+    static PendingAuthorizationStore inMemory(int capacity, Duration timeToLive) {
+        return new InMemoryPendingAuthorizationStore(capacity, timeToLive, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new store, which keeps its entries within the given memory mapped file. The file is created if it does
+     * not exist, otherwise its entries are taken over.
+     * <p>
+     * Every process may open the same file once, the entries are guarded by file region locks. The request token and
+     * its secret must not exceed 242 bytes in total.
+     * 
+     * @param file the file
+     * @param capacity the maximum number of entries
+     * @param timeToLive the time to live of every entry
+     * @return the new {@link PendingAuthorizationStore}
+     * @throws java.io.UncheckedIOException if the file can not be mapped
+     * @throws IllegalArgumentException if the file has been created with another capacity
+     */
+    static PendingAuthorizationStore mapped(Path file, int capacity, Duration timeToLive) {
+        return new MappedPendingAuthorizationStore(file, capacity, timeToLive, System::currentTimeMillis);
+    }
+}
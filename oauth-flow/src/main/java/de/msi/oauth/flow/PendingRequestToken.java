@@ -0,0 +1,64 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+/**
+ * A {@link UserRequestToken} restored by a {@link PendingAuthorizationStore} or a {@link FlowState}.
+ *
+ * @author Martin Siegemund
+ */
+final class PendingRequestToken implements UserRequestToken {
+    private final RequestToken token;
+    private final RequestTokenSecret tokenSecret;
+    private final boolean callback;
+
+    PendingRequestToken(RequestToken token, RequestTokenSecret tokenSecret, boolean callback) {
+        this.token = Objects.requireNonNull(token, "the request token is mandatory");
+        this.tokenSecret = Objects.requireNonNull(tokenSecret, "the request token secret is mandatory");
+        this.callback = callback;
+    }
+
+    @Override
+    public RequestToken token() {
+        return this.token;
+    }
+
+    @Override
+    public RequestTokenSecret tokenSecret() {
+        return this.tokenSecret;
+    }
+
+    @Override
+    public boolean callback() {
+        return this.callback;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.token)
+                .append("callback", this.callback).build();
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * A {@link ProtectedAccess} which is prepared for accessing the same protected resource repeatedly.
+ * <p>
+ * The fields which never change (the consumer key, the token, the version information, the additional parameters of
+ * the {@link ProtectedAccessParam} and the normalized endpoint) get encoded and sorted once. Every invocation only
+ * creates the timestamp, the nonce and the signature and merges the per invocation parameters.
+ * <p>
+ * Use {@link #of(ProtectedAccessParam)} to create a new instance.
+ * 
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor12">7. Accessing Protected Resources</a>
+ */
+@FunctionalInterface
+public interface PreparedProtectedAccess extends ProtectedAccess {
+    /**
+     * Create the mandatory {@link HeaderFields} including the given parameters.
+     * 
+     * @param additionalParams the parameters of this request only
+     * @return the fields
+     */
+    HeaderFields headerFields(HeaderFields additionalParams);
+
+    @Override
+    default HeaderFields headerFields() {
+        return headerFields(HeaderFields.empty());
+    }
+
+    /**
+     * Create a new instance of the {@link PreparedProtectedAccess}.
+     * 
+     * @param pap the mandatory {@link ProtectedAccessParam}
+     * @return the new {@link PreparedProtectedAccess}
+     */
+    static PreparedProtectedAccess of(ProtectedAccessParam pap) {
+        return new DefaultPreparedProtectedAccess(pap);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.header.NonceGenerator;
+import de.msi.oauth.flow.params.header.OAuthClock;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+
+/**
+ * Creates the {@link HeaderFields} of many protected resource requests at once.
+ * <p>
+ * Every distinct {@link SignatureMethod} (endpoint and <code>HTTP</code> method) of the batch gets prepared once, so
+ * the invariant fields are encoded and sorted only once. Each item only creates its timestamp, nonce and signature.
+ * The signing engines and encoding buffers are confined to the signing thread, so a batch which is split across a
+ * {@link ForkJoinPool} shares them per worker.
+ *
+ * @author Martin Siegemund
+ */
+final class ProtectedAccessBatch {
+    /* the number of items which are not worth to be split any further */
+    private static final int THRESHOLD = 64;
+
+    private final List<? extends ProtectedAccessFlowFactoryParam> batch;
+    private final Map<SignatureMethod, PreparedProtectedAccess> prepared = new HashMap<>();
+    private final HeaderFields[] result;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param factory the {@link ProtectedAccessFlowFactory} which prepares the access of each signature method
+     * @param batch the items of the batch
+     */
+    ProtectedAccessBatch(ProtectedAccessFlowFactory factory,
+            List<? extends ProtectedAccessFlowFactoryParam> batch) {
+        Objects.requireNonNull(factory, "the ProtectedAccessFlowFactory is mandatory");
+        this.batch = Objects.requireNonNull(batch, "the batch is mandatory");
+        this.result = new HeaderFields[batch.size()];
+        /* prepare up front, the map is read only while signing */
+        for (ProtectedAccessFlowFactoryParam paffp : batch) {
+            this.prepared.computeIfAbsent(
+                    Objects.requireNonNull(paffp.signatureMethod(), "the SignatureMethod is mandatory"),
+                    method -> factory.preparedProtectedAccess(new MethodParam(method, paffp)));
+        }
+    }
+
+    /**
+     * Sign all items by the current thread.
+     * 
+     * @return the {@link HeaderFields} in the order of the batch items
+     */
+    List<HeaderFields> sign() {
+        sign(0, this.result.length);
+        return Collections.unmodifiableList(Arrays.asList(this.result));
+    }
+
+    /**
+     * Sign the items by the given pool, large batches are split into several tasks.
+     * 
+     * @param pool the {@link ForkJoinPool}
+     * @return the {@link HeaderFields} in the order of the batch items
+     */
+    List<HeaderFields> sign(ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "the ForkJoinPool is mandatory").invoke(new SigningTask(0, this.result.length));
+        return Collections.unmodifiableList(Arrays.asList(this.result));
+    }
+
+    private void sign(int from, int to) {
+        for (int i = from; i < to; i++) {
+            ProtectedAccessFlowFactoryParam paffp = this.batch.get(i);
+            this.result[i] = this.prepared.get(paffp.signatureMethod())
+                    .headerFields(Optional.ofNullable(paffp.additionalParams()).orElseGet(HeaderFields::empty));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", this.result.length)
+                .append("prepared", this.prepared.size()).build();
+    }
+
+    private final class SigningTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        SigningTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= THRESHOLD) {
+                sign(this.from, this.to);
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new SigningTask(this.from, middle), new SigningTask(middle, this.to));
+            }
+        }
+    }
+
+    private static final class MethodParam implements ProtectedAccessFlowFactoryParam {
+        private final SignatureMethod signatureMethod;
+        private final NonceGenerator nonceGenerator;
+        private final OAuthClock clock;
+
+        MethodParam(SignatureMethod signatureMethod, ProtectedAccessFlowFactoryParam first) {
+            this.signatureMethod = signatureMethod;
+            this.nonceGenerator = first.nonceGenerator();
+            this.clock = first.clock();
+        }
+
+        @Override
+        public SignatureMethod signatureMethod() {
+            return this.signatureMethod;
+        }
+
+        @Override
+        public HeaderFields additionalParams() {
+            return HeaderFields.empty();
+        }
+
+        @Override
+        public NonceGenerator nonceGenerator() {
+            return this.nonceGenerator;
+        }
+
+        @Override
+        public OAuthClock clock() {
+            return this.clock;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.signatureMethod).build();
+        }
+    }
+}
@@ -16,6 +16,18 @@
 
 package de.msi.oauth.flow;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import de.msi.oauth.flow.params.header.NonceGenerator;
+import de.msi.oauth.flow.params.header.OAuthClock;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+
 /**
  * Creates {@link ProtectedAccess} instances by consuming {@link ProtectedAccessFlowFactoryParam}. Accessing protected
  * resources is possible after a successful <code>OAuth</code> authentication flow.
@@ -32,4 +44,69 @@ public interface ProtectedAccessFlowFactory {
      * @return the {@link ProtectedAccess}
      */
     ProtectedAccess protectedAccess(ProtectedAccessFlowFactoryParam paffp);
+
+    /**
+     * Create a new {@link PreparedProtectedAccess} instance for accessing the same protected resource repeatedly.
+     * <p>
+     * The default implementation does not prepare anything, it merges the parameters of every invocation into a new
+     * {@link ProtectedAccessFlowFactoryParam} and delegates to
+     * {@link #protectedAccess(ProtectedAccessFlowFactoryParam)}.
+     * 
+     * @param paffp the mandatory {@link ProtectedAccessFlowFactoryParam}
+     * @return the {@link PreparedProtectedAccess}
+     */
+    default PreparedProtectedAccess preparedProtectedAccess(ProtectedAccessFlowFactoryParam paffp) {
+        return additionalParams -> protectedAccess(new ProtectedAccessFlowFactoryParam() {
+            @Override
+            public SignatureMethod signatureMethod() {
+                return paffp.signatureMethod();
+            }
+
+            @Override
+            public HeaderFields additionalParams() {
+                Set<HeaderField> merged = new LinkedHashSet<>(additionalParams.fields());
+                Optional.ofNullable(paffp.additionalParams()).map(HeaderFields::fields).ifPresent(merged::addAll);
+                return HeaderFields.of(merged);
+            }
+
+            @Override
+            public NonceGenerator nonceGenerator() {
+                return paffp.nonceGenerator();
+            }
+
+            @Override
+            public OAuthClock clock() {
+                return paffp.clock();
+            }
+        }).headerFields();
+    }
+
+    /**
+     * Create the {@link HeaderFields} of many protected resource requests at once.
+     * <p>
+     * Each item defines the endpoint and the <code>HTTP</code> method by its {@link SignatureMethod} and the fields of
+     * the single request by its additional parameters. Items sharing the same {@link SignatureMethod} instance share
+     * one {@link #preparedProtectedAccess(ProtectedAccessFlowFactoryParam) prepared access}, which uses the
+     * {@link NonceGenerator} and the {@link OAuthClock} of the first of these items.
+     * 
+     * @param batch the mandatory items
+     * @return the {@link HeaderFields} in the order of the given items
+     */
+    default List<HeaderFields> headerFields(List<? extends ProtectedAccessFlowFactoryParam> batch) {
+        return new ProtectedAccessBatch(this, batch).sign();
+    }
+
+    /**
+     * Create the {@link HeaderFields} of many protected resource requests at once, splitting large batches across the
+     * given {@link ForkJoinPool}.
+     * 
+     * @param batch the mandatory items
+     * @param pool the mandatory {@link ForkJoinPool}
+     * @return the {@link HeaderFields} in the order of the given items
+     * @see #headerFields(List)
+     */
+    default List<HeaderFields> headerFields(List<? extends ProtectedAccessFlowFactoryParam> batch,
+            ForkJoinPool pool) {
+        return new ProtectedAccessBatch(this, batch).sign(pool);
+    }
 }
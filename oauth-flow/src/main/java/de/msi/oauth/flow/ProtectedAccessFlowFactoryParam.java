@@ -16,6 +16,8 @@
 
 package de.msi.oauth.flow;
 
+import de.msi.oauth.flow.params.header.NonceGenerator;
+import de.msi.oauth.flow.params.header.OAuthClock;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
 import de.msi.oauth.flow.signature.SignatureMethod;
 
@@ -39,4 +41,22 @@ public interface ProtectedAccessFlowFactoryParam {
      * @return the {@link HeaderFields}
      */
     HeaderFields additionalParams();
+
+    /**
+     * Retrieve the {@link NonceGenerator} creating the <code>oauth_nonce</code> values.
+     * 
+     * @return the {@link NonceGenerator}, {@link NonceGenerator#lowercase()} by default
+     */
+    default NonceGenerator nonceGenerator() {
+        return NonceGenerator.lowercase();
+    }
+
+    /**
+     * Retrieve the {@link OAuthClock} providing the <code>oauth_timestamp</code> values.
+     * 
+     * @return the {@link OAuthClock}, {@link OAuthClock#system()} by default
+     */
+    default OAuthClock clock() {
+        return OAuthClock.system();
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import de.msi.oauth.flow.metrics.OAuthFlowStageEvent;
+import de.msi.oauth.flow.metrics.OAuthMetrics;
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+
+/**
+ * Measures a single execution of a flow phase and reports it to the installed {@link OAuthMetrics} and as
+ * {@link OAuthFlowStageEvent}.
+ * <p>
+ * A phase is reported when it ends, whether it succeeded or failed. The asynchronous variants update the measurement
+ * from the completing thread, which is ordered before the completion of every dependent stage.
+ *
+ * @author Martin Siegemund
+ */
+final class StageMeasurement {
+    private final FlowStage stage;
+    private final OAuthFlowStageEvent event;
+    private final long start;
+    private long userOperation;
+
+    private StageMeasurement(FlowStage stage) {
+        this.stage = stage;
+        this.event = OAuthFlowStageEvent.start();
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * Start measuring the given flow phase.
+     * 
+     * @param stage the {@link FlowStage}
+     * @return the new {@link StageMeasurement}
+     */
+    static StageMeasurement start(FlowStage stage) {
+        return new StageMeasurement(stage);
+    }
+
+    /**
+     * Execute the user operation of the phase and measure it separately.
+     * 
+     * @param <T> the result type
+     * @param operation the user operation
+     * @return the result of the operation
+     */
+    <T> T userOperation(Supplier<T> operation) {
+        long begin = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            this.userOperation += System.nanoTime() - begin;
+        }
+    }
+
+    /**
+     * Execute the asynchronous user operation of the phase and measure it separately until its stage completes.
+     * 
+     * @param <T> the result type
+     * @param operation the user operation
+     * @return the stage of the operation, which completes after the measuring
+     */
+    <T> CompletionStage<T> userOperationAsync(Supplier<? extends CompletionStage<T>> operation) {
+        long begin = System.nanoTime();
+        CompletionStage<T> result;
+        try {
+            result = operation.get();
+        } catch (RuntimeException e) {
+            this.userOperation += System.nanoTime() - begin;
+            throw e;
+        }
+        return result.whenComplete((value, failure) -> this.userOperation += System.nanoTime() - begin);
+    }
+
+    /**
+     * Execute the asynchronous phase and complete the measurement as soon as its stage completes, either normally or
+     * exceptionally.
+     * 
+     * @param <T> the result type
+     * @param phase the phase
+     * @return the stage of the phase, which completes after the measurement
+     */
+    <T> CompletionStage<T> completeAfter(Supplier<? extends CompletionStage<T>> phase) {
+        CompletionStage<T> result;
+        try {
+            result = phase.get();
+        } catch (RuntimeException e) {
+            complete();
+            throw e;
+        }
+        return result.whenComplete((value, failure) -> complete());
+    }
+
+    /**
+     * Complete the measurement, which has to happen once per phase, even if the phase failed.
+     */
+    void complete() {
+        OAuthMetrics.current().stage(this.stage, System.nanoTime() - this.start);
+        this.event.complete(this.stage, this.userOperation);
+    }
+}
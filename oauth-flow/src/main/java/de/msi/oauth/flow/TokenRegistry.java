@@ -0,0 +1,294 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Keeps the {@link ProtectedAccessFlowFactory} of every user or session after the token exchange, so the protected
+ * resources can be accessed without keeping the access tokens elsewhere.
+ * <p>
+ * The entries expire after their time to live and after being idle for the idle timeout. As soon as the maximum size
+ * is exceeded, the least recently accessed entries get evicted. Expired entries are removed lazily while accessing the
+ * registry, {@link #cleanUp()} removes all of them at once.
+ * <p>
+ * Use {@link #builder()} to create a new instance.
+ *
+ * @author Martin Siegemund
+ * @param <K> the type of the user or session keys
+ */
+public interface TokenRegistry<K> {
+    /**
+     * Register the given {@link ProtectedAccessFlowFactory}, replacing a previous one of the same key.
+     * 
+     * @param key the user or session key
+     * @param factory the {@link ProtectedAccessFlowFactory}, as returned by {@link AccessTokenFlow#tokenExchange()}
+     * @return the given {@link ProtectedAccessFlowFactory}
+     */
+    ProtectedAccessFlowFactory register(K key, ProtectedAccessFlowFactory factory);
+
+    /**
+     * Retrieve the {@link ProtectedAccessFlowFactory} of the given key, which resets its idle timeout.
+     * 
+     * @param key the user or session key
+     * @return the {@link ProtectedAccessFlowFactory}, which is empty if no unexpired one is registered
+     */
+    Optional<ProtectedAccessFlowFactory> get(K key);
+
+    /**
+     * Remove the {@link ProtectedAccessFlowFactory} of the given key.
+     * 
+     * @param key the user or session key
+     * @return <code>true</code> if an entry has been removed
+     */
+    boolean remove(K key);
+
+    /**
+     * Retrieve the number of entries, including the expired ones which have not been removed yet.
+     * 
+     * @return the size
+     */
+    int size();
+
+    /**
+     * Remove every expired entry.
+     * 
+     * @return the number of removed entries
+     */
+    int cleanUp();
+
+    /**
+     * Retrieve the current counters.
+     * 
+     * @return the {@link Stats}
+     */
+    Stats stats();
+
+    /**
+     * Create a new builder.
+     * 
+     * @param <K> the type of the user or session keys
+     * @return the {@link TokenRegistryBuilder}
+     */
+    static <K> TokenRegistryBuilder<K> builder() {
+        return new TokenRegistryBuilder<>();
+    }
+
+    /**
+     * A snapshot of the counters of a {@link TokenRegistry}.
+     *
+     * @author Martin Siegemund
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        /**
+         * Retrieve the number of lookups which found an unexpired entry.
+         * 
+         * @return the number of hits
+         */
+        public long hits() {
+            return this.hits;
+        }
+
+        /**
+         * Retrieve the number of lookups which did not find an unexpired entry.
+         * 
+         * @return the number of misses
+         */
+        public long misses() {
+            return this.misses;
+        }
+
+        /**
+         * Retrieve the number of entries which have been evicted to keep the maximum size.
+         * 
+         * @return the number of evictions
+         */
+        public long evictions() {
+            return this.evictions;
+        }
+
+        /**
+         * Retrieve the number of entries which have been removed after expiring.
+         * 
+         * @return the number of expirations
+         */
+        public long expirations() {
+            return this.expirations;
+        }
+
+        /**
+         * Retrieve the number of entries.
+         * 
+         * @return the size
+         */
+        public int size() {
+            return this.size;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("hits", this.hits)
+                    .append("misses", this.misses).append("evictions", this.evictions)
+                    .append("expirations", this.expirations).append("size", this.size).build();
+        }
+    }
+
+    /**
+     * Builds {@link TokenRegistry} instances.
+     *
+     * @author Martin Siegemund
+     * @param <K> the type of the user or session keys
+     */
+    public static final class TokenRegistryBuilder<K> {
+        private final AtomicInteger maximumSize = new AtomicInteger(1 << 20);
+        private final AtomicInteger stripes = new AtomicInteger(64);
+        private final AtomicReference<Duration> timeToLive = new AtomicReference<>(Duration.ZERO);
+        private final AtomicReference<Duration> idleTimeout = new AtomicReference<>(Duration.ZERO);
+        private final AtomicReference<LongSupplier> ticker = new AtomicReference<>(System::nanoTime);
+        private final AtomicReference<BiConsumer<? super K, ? super ProtectedAccessFlowFactory>> removalListener =
+                new AtomicReference<>((key, factory) -> {
+                    /* nothing to release by default */
+                });
+
+        TokenRegistryBuilder() {
+            /* use TokenRegistry.builder() */
+        }
+
+        /**
+         * Set the maximum number of entries (<code>1048576</code> by default).
+         * 
+         * @param value the maximum size
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> maximumSize(int value) {
+            if (value < 1) {
+                throw new IllegalArgumentException("the maximum size must be positive");
+            }
+            this.maximumSize.set(value);
+            return this;
+        }
+
+        /**
+         * Set the number of independently locked stripes (<code>64</code> by default), which is rounded up to a power
+         * of two.
+         * 
+         * @param value the number of stripes
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> stripes(int value) {
+            if (value < 1 || value > 1 << 16) {
+                throw new IllegalArgumentException("the number of stripes must be between 1 and 65536");
+            }
+            this.stripes.set(value);
+            return this;
+        }
+
+        /**
+         * Set the time to live of every entry, measured from its registration. Entries live forever by default.
+         * 
+         * @param value the time to live ({@link Duration#ZERO} disables the expiration)
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> timeToLive(Duration value) {
+            this.timeToLive.set(requireNotNegative(value, "time to live"));
+            return this;
+        }
+
+        /**
+         * Set the idle timeout of every entry, measured from its latest access. Entries never become idle by default.
+         * 
+         * @param value the idle timeout ({@link Duration#ZERO} disables the expiration)
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> idleTimeout(Duration value) {
+            this.idleTimeout.set(requireNotNegative(value, "idle timeout"));
+            return this;
+        }
+
+        /**
+         * Replace the time source, which provides nanoseconds like {@link System#nanoTime()}.
+         * 
+         * @param value the time source
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> ticker(LongSupplier value) {
+            this.ticker.set(Objects.requireNonNull(value, "the ticker is mandatory"));
+            return this;
+        }
+
+        /**
+         * Set the listener which gets notified about every replaced, removed, expired or evicted entry, like for
+         * removing the secret from a {@link de.msi.oauth.flow.signature.mac.SecretStore}.
+         * 
+         * @param value the listener
+         * @return the builder
+         */
+        public TokenRegistryBuilder<K> removalListener(
+                BiConsumer<? super K, ? super ProtectedAccessFlowFactory> value) {
+            this.removalListener.set(Objects.requireNonNull(value, "the removal listener is mandatory"));
+            return this;
+        }
+
+        /**
+         * Build the {@link TokenRegistry}.
+         * 
+         * @return the new {@link TokenRegistry}
+         */
+        public TokenRegistry<K> build() {
+            return new DefaultTokenRegistry<>(this.maximumSize.get(), this.stripes.get(),
+                    this.timeToLive.get().toNanos(), this.idleTimeout.get().toNanos(), this.ticker.get(),
+                    this.removalListener.get());
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("maximumSize", this.maximumSize)
+                    .append("stripes", this.stripes).append("timeToLive", this.timeToLive)
+                    .append("idleTimeout", this.idleTimeout).build();
+        }
+
+        private static Duration requireNotNegative(Duration value, String name) {
+            if (Objects.requireNonNull(value, String.format("the %s is mandatory", name)).isNegative()) {
+                throw new IllegalArgumentException(String.format("the %s must not be negative", name));
+            }
+            return value;
+        }
+    }
+}
@@ -19,17 +19,66 @@
  */
 package de.msi.oauth.flow.common;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
  * This {@link Supplier} implementation uses a simple threadsafe caching functionality.
+ * <p>
+ * The state is kept within a single field which gets updated by compare-and-set operations, so reading a present
+ * value never locks. By default {@link #getAndCache()} gets invoked exactly once: concurrent first callers spin
+ * briefly and then park on a lazily created {@link ReentrantLock} until the value is published. Unlike a monitor, the
+ * lock does not pin a virtual thread to its carrier while waiting. Implementations whose computation is idempotent
+ * may use {@link #CachedSupplier(boolean)} to let concurrent first invocations compute the value racily without any
+ * lock, whereas every caller receives the first published value.
  *
  * @author Martin Siegemund
  * @param <T> the type of the cached and supplied value
  */
 public abstract class CachedSupplier<T> implements Supplier<T> {
-    private volatile boolean supplied;
-    private volatile T suppliedValue;
+    private static final VarHandle VALUE;
+    private static final VarHandle WAITERS;
+    private static final Object UNSET = new Object();
+    private static final Object COMPUTING = new Object();
+    private static final Object NULL = new Object();
+    private static final int SPINS = 64;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(CachedSupplier.class, "value", Object.class);
+            WAITERS = lookup.findVarHandle(CachedSupplier.class, "waiters", Waiters.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final boolean idempotent;
+    @SuppressWarnings("unused") // accessed by VALUE
+    private volatile Object value = UNSET;
+    /* created by the first caller which has to block while the value gets computed */
+    @SuppressWarnings("unused") // accessed by WAITERS
+    private volatile Waiters waiters;
+
+    /**
+     * Create a new instance which invokes {@link #getAndCache()} exactly once.
+     */
+    protected CachedSupplier() {
+        this(false);
+    }
+
+    /**
+     * Create a new instance.
+     * 
+     * @param idempotent <code>true</code> if {@link #getAndCache()} may be invoked concurrently by several threads
+     *        until the first result has been published, <code>false</code> if it has to be invoked exactly once
+     */
+    protected CachedSupplier(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
 
     /**
      * Retrieve the cached value.
@@ -38,15 +87,11 @@ public abstract class CachedSupplier<T> implements Supplier<T> {
      */
     @Override
     public final T get() {
-        if (!this.supplied) {
-            synchronized (this) {
-                if (!this.supplied) {
-                    this.suppliedValue = getAndCache();
-                    this.supplied = true;
-                }
-            }
+        Object current = VALUE.getAcquire(this);
+        if (current == UNSET || current == COMPUTING) {
+            current = this.idempotent ? computeRacy() : computeOnce();
         }
-        return this.suppliedValue;
+        return unmask(current);
     }
 
     /**
@@ -55,4 +100,99 @@ public abstract class CachedSupplier<T> implements Supplier<T> {
      * @return the value
      */
     protected abstract T getAndCache();
+
+    private Object computeRacy() {
+        Object computed = mask(getAndCache());
+        /* the witness of a failed exchange is read with volatile semantics, so its fields are visible */
+        Object witness = VALUE.compareAndExchange(this, UNSET, computed);
+        return witness == UNSET ? computed : witness;
+    }
+
+    private Object computeOnce() {
+        int spins = 0;
+        for (;;) {
+            Object current = VALUE.getAcquire(this);
+            if (current == UNSET) {
+                if (VALUE.compareAndSet(this, UNSET, COMPUTING)) {
+                    Object computed;
+                    try {
+                        computed = mask(getAndCache());
+                    } catch (RuntimeException | Error e) {
+                        /* allow the next invocation to try again */
+                        publish(UNSET);
+                        throw e;
+                    }
+                    publish(computed);
+                    return computed;
+                }
+            } else if (current == COMPUTING) {
+                if (++spins < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    awaitComputed();
+                }
+            } else {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Publish the computed value (or reset the state after a failure) and wake up the blocked callers.
+     * <p>
+     * The value is written and the waiters are read with volatile semantics, whereas a blocking caller registers the
+     * waiters and reads the value with volatile semantics as well. So either the waiters are seen here or the published
+     * value is seen by the caller.
+     */
+    private void publish(Object state) {
+        VALUE.setVolatile(this, state);
+        Waiters current = (Waiters) WAITERS.getVolatile(this);
+        if (current != null) {
+            current.lock.lock();
+            try {
+                current.done.signalAll();
+            } finally {
+                current.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Block until the computing thread has published the value or reset the state.
+     */
+    private void awaitComputed() {
+        Waiters current = (Waiters) WAITERS.getVolatile(this);
+        if (current == null) {
+            Waiters created = new Waiters();
+            Waiters witness = (Waiters) WAITERS.compareAndExchange(this, null, created);
+            current = witness == null ? created : witness;
+        }
+        current.lock.lock();
+        try {
+            while (VALUE.getVolatile(this) == COMPUTING) {
+                current.done.awaitUninterruptibly();
+            }
+        } finally {
+            current.lock.unlock();
+        }
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unmask(Object value) {
+        return value == NULL ? null : (T) value;
+    }
+
+    /**
+     * The lock and the condition of the callers which wait for the computing thread.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class Waiters {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition done = this.lock.newCondition();
+    }
 }
@@ -0,0 +1,57 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.common;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * An input which is written as consecutive chunks, so it never has to be kept in memory at once.
+ * <p>
+ * The <code>signature base string</code> of a large request body is such an input, it gets passed to the signing
+ * engines chunk by chunk while it is written.
+ *
+ * @author Martin Siegemund
+ */
+@FunctionalInterface
+public interface ChunkedInput {
+    /**
+     * Write the complete input as consecutive chunks.
+     * <p>
+     * A chunk is only valid while it gets consumed, it may be reused for the next chunk afterwards.
+     * 
+     * @param chunks the consumer of every chunk, ready to be read
+     * @return the total number of written bytes
+     */
+    long writeTo(Consumer<ByteBuffer> chunks);
+
+    /**
+     * Write the complete input into a new array.
+     * 
+     * @return the bytes of the input
+     */
+    default byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTo(chunk -> {
+            byte[] copy = new byte[chunk.remaining()];
+            chunk.get(copy);
+            out.writeBytes(copy);
+        });
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,302 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.encoding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Percent encodes values as required by <code>OAuth</code>, which is the <code>RFC 3986</code> encoding of the
+ * <code>UTF-8</code> representation.
+ * <p>
+ * Only the unreserved characters (<code>ALPHA</code>, <code>DIGIT</code>, <code>'-'</code>, <code>'.'</code>,
+ * <code>'_'</code> and <code>'~'</code>) are kept, every other byte gets encoded as <code>%XX</code> with upper case
+ * hexadecimal digits. In contrast to {@link java.net.URLEncoder} a space becomes <code>%20</code> (not
+ * <code>'+'</code>) and <code>'*'</code> gets encoded.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#encoding_parameters">Parameter Encoding</a>
+ * @see <a href="https://tools.ietf.org/html/rfc3986#section-2.1">RFC 3986</a>
+ */
+public final class PercentEncoder {
+    private static final boolean[] UNRESERVED = new boolean[256];
+    private static final char[] HEX = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E',
+            'F' };
+    private static final int ENCODED_LENGTH = 3;
+    /* unpaired surrogates are encoded like String#getBytes does */
+    private static final char REPLACEMENT = '?';
+
+    static {
+        for (char c = 'a'; c <= 'z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['~'] = true;
+    }
+
+    private PercentEncoder() {
+        /* no instances */
+    }
+
+    /**
+     * Check if the given character is unreserved, which means it never gets encoded.
+     *
+     * @param c the character
+     * @return <code>true</code> if the character is unreserved
+     */
+    public static boolean isUnreserved(char c) {
+        return c < UNRESERVED.length && UNRESERVED[c];
+    }
+
+    /**
+     * Encode the given value.
+     *
+     * @param value the value to encode
+     * @return the encoded value, which is the given instance if nothing had to be encoded
+     */
+    public static String encode(String value) {
+        int first = firstReserved(value);
+        if (first < 0) {
+            return value;
+        }
+        StringBuilder target = new StringBuilder(value.length() + 2 * ENCODED_LENGTH);
+        target.append(value, 0, first);
+        encode(value, first, target);
+        return target.toString();
+    }
+
+    /**
+     * Encode the given value and append it to the given {@link StringBuilder}.
+     *
+     * @param value the value to encode
+     * @param target the {@link StringBuilder} to append to
+     * @return the given {@link StringBuilder}
+     */
+    public static StringBuilder encode(CharSequence value, StringBuilder target) {
+        Objects.requireNonNull(target, "the target is mandatory");
+        int first = firstReserved(value);
+        if (first < 0) {
+            return target.append(value);
+        }
+        target.append(value, 0, first);
+        encode(value, first, target);
+        return target;
+    }
+
+    /**
+     * Encode the given value into the given array.
+     * <p>
+     * Use {@link #encodedLength(CharSequence)} to determine the required space.
+     *
+     * @param value the value to encode
+     * @param target the array to write to
+     * @param offset the offset within the array
+     * @return the offset following the last written byte
+     * @throws IndexOutOfBoundsException if the array is too small
+     */
+    public static int encode(CharSequence value, byte[] target, int offset) {
+        int position = offset;
+        int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < UNRESERVED.length && UNRESERVED[c]) {
+                target[position++] = (byte) c;
+            } else if (c < 0x80) {
+                position = escape(c, target, position);
+            } else if (c < 0x800) {
+                position = escape(0xC0 | (c >> 6), target, position);
+                position = escape(0x80 | (c & 0x3F), target, position);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                position = escape(0xF0 | (codePoint >> 18), target, position);
+                position = escape(0x80 | ((codePoint >> 12) & 0x3F), target, position);
+                position = escape(0x80 | ((codePoint >> 6) & 0x3F), target, position);
+                position = escape(0x80 | (codePoint & 0x3F), target, position);
+            } else if (Character.isSurrogate(c)) {
+                position = escape(REPLACEMENT, target, position);
+            } else {
+                position = escape(0xE0 | (c >> 12), target, position);
+                position = escape(0x80 | ((c >> 6) & 0x3F), target, position);
+                position = escape(0x80 | (c & 0x3F), target, position);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Encode a single byte of an already <code>UTF-8</code> encoded value into the given array.
+     *
+     * @param value the byte to encode
+     * @param target the array to write to, which requires up to three bytes behind the offset
+     * @param offset the offset within the array
+     * @return the offset following the last written byte
+     * @throws IndexOutOfBoundsException if the array is too small
+     */
+    public static int encode(byte value, byte[] target, int offset) {
+        int b = value & 0xFF;
+        if (UNRESERVED[b]) {
+            target[offset] = value;
+            return offset + 1;
+        }
+        return escape(b, target, offset);
+    }
+
+    /**
+     * Calculate the length of the encoded value without encoding it.
+     *
+     * @param value the value
+     * @return the number of characters (or bytes) of the encoded value
+     */
+    public static int encodedLength(CharSequence value) {
+        int encodedLength = 0;
+        int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < UNRESERVED.length && UNRESERVED[c]) {
+                ++encodedLength;
+            } else if (c < 0x80) {
+                encodedLength += ENCODED_LENGTH;
+            } else if (c < 0x800) {
+                encodedLength += 2 * ENCODED_LENGTH;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                ++i;
+                encodedLength += 4 * ENCODED_LENGTH;
+            } else if (Character.isSurrogate(c)) {
+                encodedLength += ENCODED_LENGTH;
+            } else {
+                encodedLength += 3 * ENCODED_LENGTH;
+            }
+        }
+        return encodedLength;
+    }
+
+    private static int firstReserved(CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c >= UNRESERVED.length || !UNRESERVED[c]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void encode(CharSequence value, int from, StringBuilder target) {
+        int length = value.length();
+        for (int i = from; i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < UNRESERVED.length && UNRESERVED[c]) {
+                target.append(c);
+            } else if (c < 0x80) {
+                escape(c, target);
+            } else if (c < 0x800) {
+                escape(0xC0 | (c >> 6), target);
+                escape(0x80 | (c & 0x3F), target);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                escape(0xF0 | (codePoint >> 18), target);
+                escape(0x80 | ((codePoint >> 12) & 0x3F), target);
+                escape(0x80 | ((codePoint >> 6) & 0x3F), target);
+                escape(0x80 | (codePoint & 0x3F), target);
+            } else if (Character.isSurrogate(c)) {
+                escape(REPLACEMENT, target);
+            } else {
+                escape(0xE0 | (c >> 12), target);
+                escape(0x80 | ((c >> 6) & 0x3F), target);
+                escape(0x80 | (c & 0x3F), target);
+            }
+        }
+    }
+
+    /**
+     * Decode the given value, the reverse of {@link #encode(String)}. Consecutive escape sequences are decoded as
+     * <code>UTF-8</code>, every other character is kept.
+     *
+     * @param value the encoded value
+     * @return the decoded value, which is the given instance if nothing had to be decoded
+     * @throws IllegalArgumentException if the value contains an incomplete or invalid escape sequence
+     */
+    public static String decode(String value) {
+        int first = value.indexOf('%');
+        if (first < 0) {
+            return value;
+        }
+        StringBuilder target = new StringBuilder(value.length());
+        target.append(value, 0, first);
+        byte[] bytes = new byte[value.length() / ENCODED_LENGTH];
+        int i = first;
+        while (i < value.length()) {
+            if (value.charAt(i) != '%') {
+                target.append(value.charAt(i++));
+                continue;
+            }
+            int count = 0;
+            while (i < value.length() && value.charAt(i) == '%') {
+                int high = i + 2 < value.length() ? hexValue(value.charAt(i + 1)) : -1;
+                int low = high < 0 ? -1 : hexValue(value.charAt(i + 2));
+                if (low < 0) {
+                    throw new IllegalArgumentException(String.format("invalid escape sequence at index %d", i));
+                }
+                bytes[count++] = (byte) (high << 4 | low);
+                i += ENCODED_LENGTH;
+            }
+            target.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+        }
+        return target.toString();
+    }
+
+    /**
+     * Retrieve the value of the given hexadecimal digit.
+     *
+     * @param c the digit
+     * @return the value, <code>-1</code> if the character is no hexadecimal digit
+     */
+    public static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        return -1;
+    }
+
+    private static void escape(int b, StringBuilder target) {
+        target.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+
+    private static int escape(int b, byte[] target, int position) {
+        target[position] = '%';
+        target[position + 1] = (byte) HEX[(b >> 4) & 0x0F];
+        target[position + 2] = (byte) HEX[b & 0x0F];
+        return position + ENCODED_LENGTH;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import java.util.Map;
+
+/**
+ * {@link OAuthMetrics}, which keep every measurement in counters and {@link Histogram}s.
+ * <p>
+ * Use {@link OAuthMetrics#counting()} to create a new instance.
+ *
+ * @author Martin Siegemund
+ */
+public interface CountingOAuthMetrics extends OAuthMetrics {
+    /**
+     * Retrieve the signing durations in nanoseconds per signature method name. The count of every {@link Histogram}
+     * is the number of created signatures.
+     * 
+     * @return the {@link Histogram}s, keyed by the <code>oauth_signature_method</code> value
+     */
+    Map<String, Histogram> signatures();
+
+    /**
+     * Retrieve the sizes of the written <code>signature base strings</code> in bytes.
+     * 
+     * @return the {@link Histogram}
+     */
+    Histogram baseStrings();
+
+    /**
+     * Retrieve the number of normalized endpoint cache hits.
+     * 
+     * @return the number of hits
+     */
+    long uriCacheHits();
+
+    /**
+     * Retrieve the number of normalized endpoint cache misses.
+     * 
+     * @return the number of misses
+     */
+    long uriCacheMisses();
+
+    /**
+     * Retrieve the durations of the given flow phase in nanoseconds.
+     * 
+     * @param stage the {@link OAuthMetrics.FlowStage}
+     * @return the {@link Histogram}
+     */
+    Histogram stage(FlowStage stage);
+}
@@ -0,0 +1,105 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.SignatureMethodName;
+
+/**
+ * The default implementation of {@link CountingOAuthMetrics}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultCountingOAuthMetrics implements CountingOAuthMetrics {
+    private final ConcurrentHashMap<String, Histogram> signatures = new ConcurrentHashMap<>();
+    private final Histogram baseStrings = new DefaultHistogram();
+    private final LongAdder uriCacheHits = new LongAdder();
+    private final LongAdder uriCacheMisses = new LongAdder();
+    private final Map<FlowStage, Histogram> stages = new EnumMap<>(FlowStage.class);
+
+    DefaultCountingOAuthMetrics() {
+        for (FlowStage stage : FlowStage.values()) {
+            this.stages.put(stage, new DefaultHistogram());
+        }
+    }
+
+    @Override
+    public void signed(SignatureMethodName method, long nanos) {
+        String name = method.get();
+        /* avoid the allocating lambda once the method is known */
+        Histogram histogram = this.signatures.get(name);
+        if (histogram == null) {
+            histogram = this.signatures.computeIfAbsent(name, key -> new DefaultHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    @Override
+    public void baseString(int bytes) {
+        this.baseStrings.record(bytes);
+    }
+
+    @Override
+    public void uriCache(boolean hit) {
+        (hit ? this.uriCacheHits : this.uriCacheMisses).increment();
+    }
+
+    @Override
+    public void stage(FlowStage stage, long nanos) {
+        this.stages.get(stage).record(nanos);
+    }
+
+    @Override
+    public Map<String, Histogram> signatures() {
+        return Collections.unmodifiableMap(this.signatures);
+    }
+
+    @Override
+    public Histogram baseStrings() {
+        return this.baseStrings;
+    }
+
+    @Override
+    public long uriCacheHits() {
+        return this.uriCacheHits.sum();
+    }
+
+    @Override
+    public long uriCacheMisses() {
+        return this.uriCacheMisses.sum();
+    }
+
+    @Override
+    public Histogram stage(FlowStage stage) {
+        return this.stages.get(stage);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("signatures", this.signatures)
+                .append("baseStrings", this.baseStrings).append("uriCacheHits", uriCacheHits())
+                .append("uriCacheMisses", uriCacheMisses()).append("stages", this.stages).build();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.SignatureMethodName;
+
+/**
+ * Keeps the installed {@link OAuthMetrics}.
+ *
+ * @author Martin Siegemund
+ */
+final class InstalledOAuthMetrics {
+    static final OAuthMetrics NOOP = new OAuthMetrics() {
+        @Override
+        public void signed(SignatureMethodName method, long nanos) {
+            /* ignored */
+        }
+
+        @Override
+        public void baseString(int bytes) {
+            /* ignored */
+        }
+
+        @Override
+        public void uriCache(boolean hit) {
+            /* ignored */
+        }
+
+        @Override
+        public void stage(FlowStage stage, long nanos) {
+            /* ignored */
+        }
+
+        @Override
+        public String toString() {
+            return "OAuthMetrics.noop()";
+        }
+    };
+
+    static volatile OAuthMetrics current = NOOP;
+
+    private InstalledOAuthMetrics() {
+        /* holder */
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+
+/**
+ * A <code>Java Flight Recorder</code> event, which is emitted for every executed flow phase. Its duration includes the
+ * user operation, whose duration is recorded separately.
+ * <p>
+ * Use {@link #start()} before executing the phase and {@link #complete(FlowStage, long)} afterwards. A disabled event
+ * is neither populated nor committed.
+ *
+ * @author Martin Siegemund
+ */
+@Name(OAuthFlowStageEvent.NAME)
+@Label("OAuth Flow Stage")
+@Category("OAuth")
+@Description("The execution of an OAuth flow phase")
+@StackTrace(false)
+public final class OAuthFlowStageEvent extends Event {
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "de.msi.oauth.flow.FlowStage";
+
+    @Label("Stage")
+    String stage;
+
+    @Label("User Operation Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long userOperationDuration;
+
+    /**
+     * Create a new event and start its timing.
+     * 
+     * @return the started {@link OAuthFlowStageEvent}
+     */
+    public static OAuthFlowStageEvent start() {
+        OAuthFlowStageEvent event = new OAuthFlowStageEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop the timing and commit the event, if it is enabled.
+     * 
+     * @param flowStage the executed {@link FlowStage}
+     * @param userOperationNanos the duration of the user operation, <code>0</code> if the phase has none
+     */
+    public void complete(FlowStage flowStage, long userOperationNanos) {
+        end();
+        if (shouldCommit()) {
+            this.stage = flowStage.name();
+            this.userOperationDuration = userOperationNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import java.util.Objects;
+
+import de.msi.oauth.flow.params.SignatureMethodName;
+
+/**
+ * Receives the measurements of the signing hot path and the flow phases.
+ * <p>
+ * The library reports to the installed instance, which is {@link #noop()} by default. Use
+ * {@link #install(OAuthMetrics)} to install {@link #counting()} or an adapter to an existing metrics library.
+ * Implementations are invoked concurrently and should neither block nor allocate.
+ *
+ * @author Martin Siegemund
+ */
+public interface OAuthMetrics {
+    /**
+     * The measured flow phases.
+     *
+     * @author Martin Siegemund
+     */
+    enum FlowStage {
+        /**
+         * Obtaining the request token, including the user operation.
+         */
+        REQUEST_TOKEN,
+        /**
+         * Requesting the user authorization, including the user operation.
+         */
+        USER_AUTHORIZATION,
+        /**
+         * The token exchange, including the user operation.
+         */
+        ACCESS_TOKEN,
+        /**
+         * Creating the header fields for accessing a protected resource.
+         */
+        PROTECTED_ACCESS
+    }
+
+    /**
+     * Record a created signature.
+     * 
+     * @param method the name of the signature method
+     * @param nanos the duration of creating the signature, including the <code>signature base string</code>
+     */
+    void signed(SignatureMethodName method, long nanos);
+
+    /**
+     * Record the size of a written <code>signature base string</code>.
+     * 
+     * @param bytes the number of bytes
+     */
+    void baseString(int bytes);
+
+    /**
+     * Record a lookup of the normalized endpoint cache.
+     * 
+     * @param hit <code>true</code> if the endpoint has been cached, otherwise <code>false</code>
+     */
+    void uriCache(boolean hit);
+
+    /**
+     * Record the duration of a flow phase.
+     * 
+     * @param stage the {@link FlowStage}
+     * @param nanos the duration
+     */
+    void stage(FlowStage stage, long nanos);
+
+    /**
+     * Retrieve the installed instance.
+     * 
+     * @return the {@link OAuthMetrics}
+     */
+    static OAuthMetrics current() {
+        return InstalledOAuthMetrics.current;
+    }
+
+    /**
+     * Install the instance, which receives all following measurements.
+     * 
+     * @param metrics the {@link OAuthMetrics}
+     */
+    static void install(OAuthMetrics metrics) {
+        InstalledOAuthMetrics.current = Objects.requireNonNull(metrics, "the metrics are mandatory");
+    }
+
+    /**
+     * Retrieve the instance which ignores every measurement.
+     * 
+     * @return the {@link OAuthMetrics}
+     */
+    static OAuthMetrics noop() {
+        return InstalledOAuthMetrics.NOOP;
+    }
+
+    /**
+     * Create a new instance, which counts the measurements and keeps them in {@link Histogram}s.
+     * 
+     * @return the new {@link CountingOAuthMetrics}
+     */
+    static CountingOAuthMetrics counting() {
+        return new DefaultCountingOAuthMetrics();
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import de.msi.oauth.flow.params.SignatureMethodName;
+
+/**
+ * A <code>Java Flight Recorder</code> event, which is emitted for every computed signature. Its duration includes
+ * writing the <code>signature base string</code>.
+ * <p>
+ * Use {@link #start()} before computing the signature and {@link #complete(SignatureMethodName, int)} afterwards. A
+ * disabled event is neither populated nor committed.
+ *
+ * @author Martin Siegemund
+ */
+@Name(OAuthSignatureEvent.NAME)
+@Label("OAuth Signature")
+@Category("OAuth")
+@Description("The computation of an OAuth signature")
+@StackTrace(false)
+public final class OAuthSignatureEvent extends Event {
+    /**
+     * The name of the event.
+     */
+    public static final String NAME = "de.msi.oauth.flow.Signature";
+
+    @Label("Signature Method")
+    String method;
+
+    @Label("Signature Base String Length")
+    @DataAmount
+    int baseStringLength;
+
+    /**
+     * Create a new event and start its timing.
+     * 
+     * @return the started {@link OAuthSignatureEvent}
+     */
+    public static OAuthSignatureEvent start() {
+        OAuthSignatureEvent event = new OAuthSignatureEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop the timing and commit the event, if it is enabled.
+     * 
+     * @param signatureMethod the name of the signature method
+     * @param length the number of bytes of the <code>signature base string</code>, <code>0</code> if none is signed
+     */
+    public void complete(SignatureMethodName signatureMethod, int length) {
+        end();
+        if (shouldCommit()) {
+            this.method = signatureMethod.get();
+            this.baseStringLength = length;
+            commit();
+        }
+    }
+}
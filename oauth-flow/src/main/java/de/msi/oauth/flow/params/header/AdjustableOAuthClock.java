@@ -0,0 +1,49 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+/**
+ * An {@link OAuthClock} whose values can be shifted, so they match the clock of a service provider.
+ * <p>
+ * Service providers refuse requests whose timestamp differs too much from their own clock (see the
+ * <code>timestamp_refused</code> problem of the <code>OAuth Problem Reporting</code> extension). The skew learned from
+ * such a response is applied to every subsequent value.
+ *
+ * @author Martin Siegemund
+ */
+public interface AdjustableOAuthClock extends OAuthClock {
+    /**
+     * Retrieve the current skew.
+     * 
+     * @return the skew in seconds
+     */
+    long skew();
+
+    /**
+     * Set the skew which is added to the local time.
+     * 
+     * @param seconds the skew in seconds (negative if the service provider is behind)
+     */
+    void skew(long seconds);
+
+    /**
+     * Set the skew to the difference between the given timestamp of the service provider and the local time.
+     * 
+     * @param serviceProviderTimestamp the current seconds since the epoch according to the service provider
+     */
+    void synchronize(long serviceProviderTimestamp);
+}
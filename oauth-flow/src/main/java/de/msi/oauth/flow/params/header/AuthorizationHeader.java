@@ -0,0 +1,78 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.Collection;
+import java.util.Optional;
+
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * The fields of an <code>Authorization</code> header, as parsed by the {@link AuthorizationHeaderParser}.
+ * <p>
+ * The keys and values are views into the parsed source, they get decoded on their first access. The accessors of this
+ * interface provide the decoded keys and values. The {@link #fields()} follow the convention of the
+ * {@link HeaderFieldsBuilder} instead, which keeps the value of <code>oauth_signature</code> percent encoded, so the
+ * fields can be passed to the {@link AuthorizationHeaderSerializer} again.
+ * <p>
+ * Instances can be shared between threads, as long as the parsed source is not changed.
+ *
+ * @author Martin Siegemund
+ */
+public interface AuthorizationHeader extends HeaderFields {
+    /**
+     * Retrieve the number of fields.
+     * 
+     * @return the number of fields
+     */
+    int size();
+
+    /**
+     * Retrieve the decoded key of the given field.
+     * 
+     * @param index the index of the field, in the order of the header
+     * @return the key
+     * @throws IndexOutOfBoundsException if the index is not within the fields
+     */
+    String key(int index);
+
+    /**
+     * Retrieve the decoded value of the given field.
+     * 
+     * @param index the index of the field, in the order of the header
+     * @return the value
+     * @throws IndexOutOfBoundsException if the index is not within the fields
+     */
+    String value(int index);
+
+    /**
+     * Retrieve the decoded value of the field with the given key.
+     * 
+     * @param key the decoded key
+     * @return the value, which is empty if the header does not contain the key
+     */
+    Optional<String> value(String key);
+
+    /**
+     * Retrieve the fields as {@link HeaderField} views, with the <code>oauth_signature</code> kept percent encoded.
+     * 
+     * @return the fields, in the order of the header
+     */
+    @Override
+    Collection<HeaderField> fields();
+}
@@ -0,0 +1,80 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * Parses the value of the <code>HTTP</code> <code>Authorization</code> header, the reverse of the
+ * {@link AuthorizationHeaderSerializer}.
+ * <p>
+ * The header value is scanned once. The resulting {@link AuthorizationHeader} only keeps the offsets of the keys and
+ * values within the given source, which are decoded as soon as they are read. Malformed values are rejected by an
+ * empty result instead of an exception:
+ * <ul>
+ * <li>the scheme has to be <code>OAuth</code> (case insensitive), followed by comma separated
+ * <code>key="value"</code> pairs</li>
+ * <li>every key and value has to consist of printable <code>ASCII</code> characters, percent escapes have to be
+ * complete</li>
+ * <li>only the <code>realm</code> may contain quoted pairs like <code>\"</code>, it is not percent decoded</li>
+ * <li>a key must not occur twice</li>
+ * </ul>
+ * <p>
+ * Use {@link #shared()} to retrieve the shared instance.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#auth_header">5.4. OAuth HTTP Authorization Scheme</a>
+ */
+public interface AuthorizationHeaderParser {
+    /**
+     * Parse the given header value.
+     * 
+     * @param value the header value, which must not be changed while the {@link AuthorizationHeader} is used
+     * @return the {@link AuthorizationHeader}, which is empty if the value is malformed
+     */
+    Optional<AuthorizationHeader> parse(CharSequence value);
+
+    /**
+     * Parse the header value within the given array, which is read as <code>US-ASCII</code>.
+     * 
+     * @param value the array, which must not be changed while the {@link AuthorizationHeader} is used
+     * @param offset the offset of the header value
+     * @param length the length of the header value
+     * @return the {@link AuthorizationHeader}, which is empty if the value is malformed
+     * @throws IndexOutOfBoundsException if offset and length are outside of the array
+     */
+    Optional<AuthorizationHeader> parse(byte[] value, int offset, int length);
+
+    /**
+     * Parse the remaining bytes of the given buffer, which are read as <code>US-ASCII</code>. The position of the
+     * buffer is not changed.
+     * 
+     * @param value the buffer, whose content must not be changed while the {@link AuthorizationHeader} is used
+     * @return the {@link AuthorizationHeader}, which is empty if the value is malformed
+     */
+    Optional<AuthorizationHeader> parse(ByteBuffer value);
+
+    /**
+     * Retrieve the shared instance.
+     * 
+     * @return the {@link AuthorizationHeaderParser}
+     */
+    static AuthorizationHeaderParser shared() {
+        return DefaultAuthorizationHeaderParser.SHARED;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * Writes the value of the <code>HTTP</code> <code>Authorization</code> header, like
+ * <code>OAuth realm="http://sp.example.com/", oauth_consumer_key="0685bd9184jfhq22", ...</code>.
+ * <p>
+ * The <code>realm</code> field is written first and quoted only, every other key and value gets percent encoded. The
+ * value of <code>oauth_signature</code> is written as it is, because the {@link HeaderFieldsBuilder} provides it
+ * percent encoded already.
+ * <p>
+ * Use {@link #shared()} to retrieve the shared instance.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#auth_header">5.4. OAuth HTTP Authorization Scheme</a>
+ */
+public interface AuthorizationHeaderSerializer {
+    /**
+     * Calculate the number of bytes required by the header value.
+     * 
+     * @param fields the {@link HeaderFields}
+     * @return the exact number of bytes
+     * @throws IllegalArgumentException if the <code>realm</code> is not made of printable <code>ASCII</code>
+     *         characters
+     */
+    int size(HeaderFields fields);
+
+    /**
+     * Write the header value into the given array.
+     * 
+     * @param fields the {@link HeaderFields}
+     * @param target the target array, which requires at least {@link #size(HeaderFields)} bytes behind the offset
+     * @param offset the offset within the target
+     * @return the offset behind the last written byte
+     * @throws IndexOutOfBoundsException if the target is too small
+     * @throws IllegalArgumentException if the <code>realm</code> is not made of printable <code>ASCII</code>
+     *         characters
+     */
+    int write(HeaderFields fields, byte[] target, int offset);
+
+    /**
+     * Write the header value into the given buffer, starting at its position. The position will be behind the last
+     * written byte afterwards.
+     * 
+     * @param fields the {@link HeaderFields}
+     * @param target the target buffer, which requires at least {@link #size(HeaderFields)} remaining bytes
+     * @throws java.nio.BufferOverflowException if the target is too small, nothing is written in this case
+     * @throws IllegalArgumentException if the <code>realm</code> is not made of printable <code>ASCII</code>
+     *         characters
+     */
+    void write(HeaderFields fields, ByteBuffer target);
+
+    /**
+     * Create the header value as {@link String}.
+     * 
+     * @param fields the {@link HeaderFields}
+     * @return the header value
+     */
+    default String value(HeaderFields fields) {
+        byte[] value = new byte[size(fields)];
+        write(fields, value, 0);
+        return new String(value, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Retrieve the shared instance.
+     * 
+     * @return the {@link AuthorizationHeaderSerializer}
+     */
+    static AuthorizationHeaderSerializer shared() {
+        return DefaultAuthorizationHeaderSerializer.SHARED;
+    }
+}
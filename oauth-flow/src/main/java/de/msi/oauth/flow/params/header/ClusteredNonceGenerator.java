@@ -0,0 +1,53 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Creates values consisting of a node id, a start time and a counter.
+ *
+ * @author Martin Siegemund
+ */
+final class ClusteredNonceGenerator implements NonceGenerator {
+    private static final int RADIX = Character.MAX_RADIX;
+    private static final char SEPARATOR = '-';
+
+    private final String prefix;
+    private final AtomicLong counter = new AtomicLong();
+
+    ClusteredNonceGenerator(int nodeId, long start) {
+        if (nodeId < 0) {
+            throw new IllegalArgumentException("the node id must not be negative");
+        }
+        this.prefix = Integer.toString(nodeId, RADIX) + SEPARATOR + Long.toString(start, RADIX) + SEPARATOR;
+    }
+
+    @Override
+    public String nonce() {
+        return this.prefix.concat(Long.toString(this.counter.getAndIncrement(), RADIX));
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("prefix", this.prefix)
+                .append("counter", this.counter).build();
+    }
+}
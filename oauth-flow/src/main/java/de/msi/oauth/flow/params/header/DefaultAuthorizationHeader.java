@@ -0,0 +1,343 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+
+/**
+ * The {@link AuthorizationHeader} created by the {@link DefaultAuthorizationHeaderParser}.
+ * <p>
+ * Every field takes {@link #STRIDE} integers: the start and end of key and value within the {@link Source}, followed
+ * by the flags of the field. The decoded keys and values are cached, racing threads may decode the same value twice.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultAuthorizationHeader implements AuthorizationHeader {
+    static final int STRIDE = 5;
+    static final int KEY_ESCAPED = 1;
+    static final int VALUE_ESCAPED = 2;
+    static final int VALUE_QUOTED = 4;
+    static final int REALM = 8;
+
+    private static final int FLAGS = 4;
+    private final Source source;
+    private final int[] fields;
+    private final int size;
+    private final String[] decoded;
+
+    DefaultAuthorizationHeader(Source source, int[] fields, int size) {
+        this.source = source;
+        this.fields = fields;
+        this.size = size;
+        this.decoded = new String[size * 2];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public String key(int index) {
+        int offset = offset(index);
+        String key = this.decoded[2 * index];
+        if (key == null) {
+            key = this.source.ascii(this.fields[offset], this.fields[offset + 1]);
+            if ((this.fields[offset + FLAGS] & KEY_ESCAPED) != 0) {
+                key = PercentEncoder.decode(key);
+            }
+            this.decoded[2 * index] = key;
+        }
+        return key;
+    }
+
+    @Override
+    public String value(int index) {
+        int offset = offset(index);
+        String value = this.decoded[2 * index + 1];
+        if (value == null) {
+            int flags = this.fields[offset + FLAGS];
+            if ((flags & VALUE_QUOTED) != 0) {
+                value = this.source.unquote(this.fields[offset + 2], this.fields[offset + 3]);
+            } else {
+                value = this.source.ascii(this.fields[offset + 2], this.fields[offset + 3]);
+                if ((flags & VALUE_ESCAPED) != 0) {
+                    value = PercentEncoder.decode(value);
+                }
+            }
+            this.decoded[2 * index + 1] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public Optional<String> value(String key) {
+        int index = indexOf(Objects.requireNonNull(key, "the key is mandatory"));
+        return index < 0 ? Optional.empty() : Optional.of(value(index));
+    }
+
+    @Override
+    public Collection<HeaderField> fields() {
+        return new FieldList();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", this.size).build();
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < this.size; ++i) {
+            int offset = i * STRIDE;
+            if ((this.fields[offset + FLAGS] & KEY_ESCAPED) != 0) {
+                if (key.equals(key(i))) {
+                    return i;
+                }
+            } else if (this.fields[offset + 1] - this.fields[offset] == key.length()
+                    && this.source.regionMatches(this.fields[offset], this.fields[offset + 1], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int offset(int index) {
+        return Objects.checkIndex(index, this.size) * STRIDE;
+    }
+
+    /**
+     * Provides the value of a field in the form of the {@link HeaderFieldsBuilder}, which keeps the signature percent
+     * encoded.
+     */
+    private Optional<String> fieldValue(int index) {
+        int offset = offset(index);
+        if (!DefaultHeaderFieldsBuilder.SIGNATURE_KEY.equals(key(index))) {
+            return Optional.of(value(index));
+        }
+        return Optional.of(this.source.ascii(this.fields[offset + 2], this.fields[offset + 3]));
+    }
+
+    private final class FieldList extends AbstractList<HeaderField> {
+        @Override
+        public HeaderField get(int index) {
+            return new FieldView(Objects.checkIndex(index, DefaultAuthorizationHeader.this.size));
+        }
+
+        @Override
+        public int size() {
+            return DefaultAuthorizationHeader.this.size;
+        }
+    }
+
+    private final class FieldView implements HeaderField {
+        private final int index;
+
+        FieldView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String key() {
+            return DefaultAuthorizationHeader.this.key(this.index);
+        }
+
+        @Override
+        public Optional<String> value() {
+            return fieldValue(this.index);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("key", key())
+                    .append("value", value().orElse(null)).build();
+        }
+    }
+
+    /**
+     * The characters of a parsed header value, which are accessed by their index relative to the start of the header
+     * value.
+     *
+     * @author Martin Siegemund
+     */
+    abstract static class Source {
+        /**
+         * Retrieve the number of characters.
+         * 
+         * @return the length
+         */
+        abstract int length();
+
+        /**
+         * Retrieve the character at the given index.
+         * 
+         * @param index the index
+         * @return the character, bytes are read unsigned
+         */
+        abstract int at(int index);
+
+        /**
+         * Retrieve the characters of the given range, which are known to be printable <code>ASCII</code>.
+         * 
+         * @param from the start (inclusive)
+         * @param to the end (exclusive)
+         * @return the characters
+         */
+        String ascii(int from, int to) {
+            char[] chars = new char[to - from];
+            for (int i = from; i < to; ++i) {
+                chars[i - from] = (char) at(i);
+            }
+            return new String(chars);
+        }
+
+        /**
+         * Check if the given range equals the given value.
+         * 
+         * @param from the start (inclusive)
+         * @param to the end (exclusive)
+         * @param value the value, which has the length of the range
+         * @return <code>true</code> if the characters are equal
+         */
+        boolean regionMatches(int from, int to, String value) {
+            if (to - from != value.length()) {
+                return false;
+            }
+            for (int i = from; i < to; ++i) {
+                if (at(i) != value.charAt(i - from)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Check if the given ranges are equal.
+         * 
+         * @param first the start of the first range
+         * @param second the start of the second range
+         * @param length the length of both ranges
+         * @return <code>true</code> if the characters are equal
+         */
+        boolean regionMatches(int first, int second, int length) {
+            for (int i = 0; i < length; ++i) {
+                if (at(first + i) != at(second + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Retrieve the characters of the given range with their quoted pairs resolved.
+         * 
+         * @param from the start (inclusive)
+         * @param to the end (exclusive)
+         * @return the unquoted characters
+         */
+        String unquote(int from, int to) {
+            StringBuilder target = new StringBuilder(to - from);
+            for (int i = from; i < to; ++i) {
+                int c = at(i);
+                target.append((char) (c == '\\' ? at(++i) : c));
+            }
+            return target.toString();
+        }
+
+        static final class Chars extends Source {
+            private final CharSequence chars;
+
+            Chars(CharSequence chars) {
+                this.chars = chars;
+            }
+
+            @Override
+            int length() {
+                return this.chars.length();
+            }
+
+            @Override
+            int at(int index) {
+                return this.chars.charAt(index);
+            }
+
+            @Override
+            String ascii(int from, int to) {
+                return this.chars.subSequence(from, to).toString();
+            }
+        }
+
+        static final class Bytes extends Source {
+            private final byte[] bytes;
+            private final int offset;
+            private final int length;
+
+            Bytes(byte[] bytes, int offset, int length) {
+                this.bytes = bytes;
+                this.offset = offset;
+                this.length = length;
+            }
+
+            @Override
+            int length() {
+                return this.length;
+            }
+
+            @Override
+            int at(int index) {
+                return this.bytes[this.offset + index] & 0xFF;
+            }
+
+            @Override
+            String ascii(int from, int to) {
+                return new String(this.bytes, this.offset + from, to - from, StandardCharsets.US_ASCII);
+            }
+        }
+
+        static final class Buffer extends Source {
+            private final ByteBuffer buffer;
+            private final int offset;
+            private final int length;
+
+            Buffer(ByteBuffer buffer, int offset, int length) {
+                this.buffer = buffer;
+                this.offset = offset;
+                this.length = length;
+            }
+
+            @Override
+            int length() {
+                return this.length;
+            }
+
+            @Override
+            int at(int index) {
+                return this.buffer.get(this.offset + index) & 0xFF;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.header.DefaultAuthorizationHeader.Source;
+
+/**
+ * The default implementation of the {@link AuthorizationHeaderParser}.
+ * <p>
+ * The scan records five integers per field, the bounds of key and value and whether they contain escapes, so the
+ * only allocations are the {@link DefaultAuthorizationHeader} and its offsets. Percent escapes are validated while
+ * scanning, which allows decoding them later without any further checks.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultAuthorizationHeaderParser implements AuthorizationHeaderParser {
+    static final AuthorizationHeaderParser SHARED = new DefaultAuthorizationHeaderParser();
+
+    private static final String SCHEME = "oauth";
+    private static final String REALM_KEY = "realm";
+    private static final int INITIAL_FIELDS = 10;
+    private static final int FAILED = -1;
+
+    private DefaultAuthorizationHeaderParser() {
+        /* use the shared instance */
+    }
+
+    @Override
+    public Optional<AuthorizationHeader> parse(CharSequence value) {
+        return parse(new Source.Chars(Objects.requireNonNull(value, "the value is mandatory")));
+    }
+
+    @Override
+    public Optional<AuthorizationHeader> parse(byte[] value, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, value.length);
+        return parse(new Source.Bytes(value, offset, length));
+    }
+
+    @Override
+    public Optional<AuthorizationHeader> parse(ByteBuffer value) {
+        if (value.hasArray()) {
+            return parse(value.array(), value.arrayOffset() + value.position(), value.remaining());
+        }
+        return parse(new Source.Buffer(value, value.position(), value.remaining()));
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+    }
+
+    private static Optional<AuthorizationHeader> parse(Source source) {
+        int length = source.length();
+        if (length < SCHEME.length()) {
+            return Optional.empty();
+        }
+        for (int i = 0; i < SCHEME.length(); ++i) {
+            if ((source.at(i) | 0x20) != SCHEME.charAt(i)) {
+                return Optional.empty();
+            }
+        }
+        int position = SCHEME.length();
+        if (position < length && !isWhitespace(source.at(position))) {
+            return Optional.empty();
+        }
+        position = skipWhitespace(source, position);
+        int[] fields = new int[INITIAL_FIELDS * DefaultAuthorizationHeader.STRIDE];
+        int count = 0;
+        while (position < length) {
+            if ((count + 1) * DefaultAuthorizationHeader.STRIDE > fields.length) {
+                fields = Arrays.copyOf(fields, fields.length * 2);
+            }
+            position = field(source, position, fields, count * DefaultAuthorizationHeader.STRIDE);
+            if (position == FAILED || isDuplicate(source, fields, count)) {
+                return Optional.empty();
+            }
+            ++count;
+            position = skipWhitespace(source, position);
+            if (position < length) {
+                if (source.at(position) != ',') {
+                    return Optional.empty();
+                }
+                position = skipWhitespace(source, position + 1);
+                if (position == length) {
+                    /* a trailing separator */
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(new DefaultAuthorizationHeader(source, fields, count));
+    }
+
+    /**
+     * Scan a single <code>key="value"</code> pair and record its bounds.
+     * 
+     * @return the position behind the closing quote, or {@link #FAILED}
+     */
+    private static int field(Source source, int start, int[] fields, int offset) {
+        int length = source.length();
+        int flags = 0;
+        int position = start;
+        /* the key */
+        while (position < length && source.at(position) != '=') {
+            int c = source.at(position);
+            if (c == '%') {
+                if (!isEscape(source, position)) {
+                    return FAILED;
+                }
+                flags |= DefaultAuthorizationHeader.KEY_ESCAPED;
+                position += 3;
+            } else if (isKeyCharacter(c)) {
+                ++position;
+            } else {
+                return FAILED;
+            }
+        }
+        int keyEnd = position;
+        if (keyEnd == start || keyEnd + 1 >= length || source.at(keyEnd + 1) != '"') {
+            return FAILED;
+        }
+        boolean realm = flags == 0 && source.regionMatches(start, keyEnd, REALM_KEY);
+        /* the value */
+        position = keyEnd + 2;
+        int valueStart = position;
+        while (true) {
+            if (position == length) {
+                /* the closing quote is missing */
+                return FAILED;
+            }
+            int c = source.at(position);
+            if (c == '"') {
+                break;
+            }
+            if (c == '\\' && realm) {
+                if (position + 1 == length || !isPrintable(source.at(position + 1))) {
+                    return FAILED;
+                }
+                flags |= DefaultAuthorizationHeader.VALUE_QUOTED;
+                position += 2;
+            } else if (c == '%' && !realm) {
+                if (!isEscape(source, position)) {
+                    return FAILED;
+                }
+                flags |= DefaultAuthorizationHeader.VALUE_ESCAPED;
+                position += 3;
+            } else if (isPrintable(c) && c != '\\') {
+                ++position;
+            } else {
+                return FAILED;
+            }
+        }
+        fields[offset] = start;
+        fields[offset + 1] = keyEnd;
+        fields[offset + 2] = valueStart;
+        fields[offset + 3] = position;
+        fields[offset + 4] = flags | (realm ? DefaultAuthorizationHeader.REALM : 0);
+        return position + 1;
+    }
+
+    private static boolean isDuplicate(Source source, int[] fields, int index) {
+        int offset = index * DefaultAuthorizationHeader.STRIDE;
+        int start = fields[offset];
+        int length = fields[offset + 1] - start;
+        boolean escaped = (fields[offset + 4] & DefaultAuthorizationHeader.KEY_ESCAPED) != 0;
+        for (int other = 0; other < offset; other += DefaultAuthorizationHeader.STRIDE) {
+            boolean otherEscaped = (fields[other + 4] & DefaultAuthorizationHeader.KEY_ESCAPED) != 0;
+            if (escaped || otherEscaped) {
+                /* escaped keys are rare, compare them decoded */
+                if (PercentEncoder.decode(source.ascii(start, start + length))
+                        .equals(PercentEncoder.decode(source.ascii(fields[other], fields[other + 1])))) {
+                    return true;
+                }
+            } else if (fields[other + 1] - fields[other] == length
+                    && source.regionMatches(fields[other], start, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEscape(Source source, int position) {
+        return position + 2 < source.length() && PercentEncoder.hexValue((char) source.at(position + 1)) >= 0
+                && PercentEncoder.hexValue((char) source.at(position + 2)) >= 0;
+    }
+
+    private static boolean isKeyCharacter(int c) {
+        return c > ' ' && c <= '~' && c != '"' && c != ',' && c != '\\';
+    }
+
+    private static boolean isPrintable(int c) {
+        return c >= ' ' && c <= '~';
+    }
+
+    private static int skipWhitespace(Source source, int start) {
+        int position = start;
+        while (position < source.length() && isWhitespace(source.at(position))) {
+            ++position;
+        }
+        return position;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t';
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * The default implementation of the {@link AuthorizationHeaderSerializer}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultAuthorizationHeaderSerializer implements AuthorizationHeaderSerializer {
+    static final AuthorizationHeaderSerializer SHARED = new DefaultAuthorizationHeaderSerializer();
+
+    private static final String REALM_KEY = "realm";
+    private static final byte[] SCHEME = { 'O', 'A', 'u', 't', 'h' };
+    private static final byte[] SEPARATOR = { ',', ' ' };
+    private static final byte[] ASSIGNMENT = { '=', '"' };
+    private static final byte SPACE = ' ';
+    private static final byte QUOTE = '"';
+    private static final byte BACKSLASH = '\\';
+    private static final char FIRST_PRINTABLE = 0x20;
+    private static final char LAST_PRINTABLE = 0x7E;
+    /* larger scratch arrays are not retained by the thread */
+    private static final int MAX_RETAINED_SCRATCH = 8 * 1024;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[512]);
+
+    private DefaultAuthorizationHeaderSerializer() {
+        /* use the shared instance */
+    }
+
+    @Override
+    public int size(HeaderFields fields) {
+        int size = SCHEME.length;
+        for (HeaderField field : Objects.requireNonNull(fields, "the HeaderFields are mandatory").fields()) {
+            /* the leading space or separator, the assignment and the closing quote */
+            size += (size == SCHEME.length ? 1 : SEPARATOR.length) + ASSIGNMENT.length + 1;
+            String key = field.key();
+            String value = field.value().orElse(null);
+            if (REALM_KEY.equals(key)) {
+                size += key.length() + (value == null ? 0 : quotedLength(value));
+            } else {
+                size += PercentEncoder.encodedLength(key);
+                if (value != null) {
+                    size += isEncoded(key) ? value.length() : PercentEncoder.encodedLength(value);
+                }
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int write(HeaderFields fields, byte[] target, int offset) {
+        int required = size(fields);
+        Objects.checkFromIndexSize(offset, required, target.length);
+        int position = put(SCHEME, target, offset);
+        boolean first = true;
+        /* the realm comes first */
+        for (HeaderField field : fields.fields()) {
+            if (REALM_KEY.equals(field.key())) {
+                position = putSeparator(first, target, position);
+                position = put(ASSIGNMENT, target, PercentEncoder.encode(REALM_KEY, target, position));
+                position = quote(field.value().orElse(null), target, position);
+                target[position++] = QUOTE;
+                first = false;
+            }
+        }
+        for (HeaderField field : fields.fields()) {
+            String key = field.key();
+            if (!REALM_KEY.equals(key)) {
+                position = putSeparator(first, target, position);
+                position = put(ASSIGNMENT, target, PercentEncoder.encode(key, target, position));
+                String value = field.value().orElse(null);
+                if (value != null) {
+                    position = isEncoded(key) ? ascii(value, target, position)
+                            : PercentEncoder.encode(value, target, position);
+                }
+                target[position++] = QUOTE;
+                first = false;
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public void write(HeaderFields fields, ByteBuffer target) {
+        int required = size(fields);
+        if (target.remaining() < required) {
+            throw new BufferOverflowException();
+        }
+        if (target.hasArray()) {
+            /* write straight into the backing array */
+            int offset = target.arrayOffset() + target.position();
+            write(fields, target.array(), offset);
+            target.position(target.position() + required);
+            return;
+        }
+        byte[] scratch = SCRATCH.get();
+        if (scratch.length < required) {
+            scratch = new byte[Math.max(required, scratch.length * 2)];
+            if (scratch.length <= MAX_RETAINED_SCRATCH) {
+                SCRATCH.set(scratch);
+            }
+        }
+        write(fields, scratch, 0);
+        target.put(scratch, 0, required);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+    }
+
+    private static boolean isEncoded(String key) {
+        return DefaultHeaderFieldsBuilder.SIGNATURE_KEY.equals(key);
+    }
+
+    private static int quotedLength(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c < FIRST_PRINTABLE || c > LAST_PRINTABLE) {
+                throw new IllegalArgumentException("the realm must consist of printable ASCII characters");
+            }
+            if (c == QUOTE || c == BACKSLASH) {
+                ++length;
+            }
+        }
+        return length;
+    }
+
+    private static int quote(String value, byte[] target, int offset) {
+        int position = offset;
+        if (value != null) {
+            for (int i = 0; i < value.length(); ++i) {
+                char c = value.charAt(i);
+                if (c == QUOTE || c == BACKSLASH) {
+                    target[position++] = BACKSLASH;
+                }
+                target[position++] = (byte) c;
+            }
+        }
+        return position;
+    }
+
+    private static int ascii(String value, byte[] target, int offset) {
+        int position = offset;
+        for (int i = 0; i < value.length(); ++i) {
+            target[position++] = (byte) value.charAt(i);
+        }
+        return position;
+    }
+
+    private static int putSeparator(boolean first, byte[] target, int position) {
+        if (first) {
+            target[position] = SPACE;
+            return position + 1;
+        }
+        return put(SEPARATOR, target, position);
+    }
+
+    private static int put(byte[] source, byte[] target, int position) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+}
@@ -16,24 +16,32 @@
 
 package de.msi.oauth.flow.params.header;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.metrics.OAuthMetrics;
 import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.Signature;
 import de.msi.oauth.flow.params.Token;
 import de.msi.oauth.flow.params.TokenSecret;
 import de.msi.oauth.flow.params.VerificationCode;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
 import de.msi.oauth.flow.signature.HmacSha1Signature;
 import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.RsaSha1Signature;
 import de.msi.oauth.flow.signature.SignatureMethod;
 import de.msi.oauth.flow.signature.SignatureMethodHandler;
 import de.msi.oauth.flow.signature.base.DefaultSignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.base.FormParameters;
 import de.msi.oauth.flow.signature.base.SignatureBaseStringBuilder;
 import de.msi.oauth.flow.signature.params.PlainTextSignatureParams;
 import de.msi.oauth.flow.signature.params.PlainTextSignatureParams.DefaultPlainTextSignatureParams;
@@ -48,21 +56,25 @@ import de.msi.oauth.flow.signature.params.SignedTextSignatureParams.DefaultSigne
  */
 final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFieldsBuilderWithCallback {
 
+    static final String TIMESTAMP_KEY = "oauth_timestamp";
+    static final String NONCE_KEY = "oauth_nonce";
+    static final String SIGNATURE_KEY = "oauth_signature";
     private static final String OAUTH_TOKEN_KEY = "oauth_token";
     private static final String CONSUMER_KEY_KEY = "oauth_consumer_key";
     private static final String SIGNATURE_METHOD_KEY = "oauth_signature_method";
     private static final String VERSION_KEY = "oauth_version";
     private static final String OAUTH_VERSION = "1.0";
     private static final String CALLBACK_KEY = "oauth_callback";
-    private static final String TIMESTAMP_KEY = "oauth_timestamp";
-    private static final String NONCE_KEY = "oauth_nonce";
-    private static final String SIGNATURE_KEY = "oauth_signature";
     private static final String VERIFIER_KEY = "oauth_verifier";
 
-    private final OrderedHeaderFields fields = new OrderedHeaderFields();
+    private final SortedHeaderFields fields = new SortedHeaderFields();
+    private final List<FormParameters> bodyParams = new ArrayList<>(0);
     private final AtomicReference<TokenSecret> ts = new AtomicReference<>();
     private final OauthHeaderFieldsValues ohpv;
     private final CallbackParameter cp;
+    /* replacements of the values, kept apart so building does not wrap them per request */
+    private NonceGenerator nonceGenerator;
+    private OAuthClock clock;
 
     /**
      * Create a new instance.
@@ -77,25 +89,25 @@ final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFie
 
     @Override
     public HeaderFieldsBuilder consumerKey(ConsumerKey consumerKey) {
-        this.fields.add(CONSUMER_KEY_KEY, consumerKey.get());
+        this.fields.add(new OrderedHeaderField(CONSUMER_KEY_KEY, consumerKey.get()));
         return this;
     }
 
     @Override
     public HeaderFieldsBuilder versionInformation() {
-        this.fields.add(VERSION_KEY, OAUTH_VERSION);
+        this.fields.add(new OrderedHeaderField(VERSION_KEY, OAUTH_VERSION));
         return this;
     }
 
     @Override
     public HeaderFieldsBuilder callback(String callback) {
-        this.fields.add(CALLBACK_KEY, callback);
+        this.fields.add(new OrderedHeaderField(CALLBACK_KEY, callback));
         return this;
     }
 
     @Override
     public HeaderFieldsBuilder token(Token token) {
-        this.fields.add(OAUTH_TOKEN_KEY, token.get());
+        this.fields.add(new OrderedHeaderField(OAUTH_TOKEN_KEY, token.get()));
         return this;
     }
 
@@ -107,13 +119,31 @@ final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFie
 
     @Override
     public HeaderFieldsBuilder verifier(VerificationCode verifier) {
-        this.fields.add(VERIFIER_KEY, verifier.get());
+        this.fields.add(new OrderedHeaderField(VERIFIER_KEY, verifier.get()));
         return this;
     }
 
     @Override
     public HeaderFieldsBuilder additionalParameter(HeaderFields additionalParams) {
-        additionalParams.fields().forEach(this.fields::add);
+        additionalParams.fields().forEach(hf -> this.fields.add(OrderedHeaderField.of(hf)));
+        return this;
+    }
+
+    @Override
+    public HeaderFieldsBuilder bodyParameter(FormParameters bodyParameters) {
+        this.bodyParams.add(Objects.requireNonNull(bodyParameters, "the body parameters are mandatory"));
+        return this;
+    }
+
+    @Override
+    public HeaderFieldsBuilder nonceGenerator(NonceGenerator nonceGenerator) {
+        this.nonceGenerator = Objects.requireNonNull(nonceGenerator, "the NonceGenerator is mandatory");
+        return this;
+    }
+
+    @Override
+    public HeaderFieldsBuilder clock(OAuthClock clock) {
+        this.clock = Objects.requireNonNull(clock, "the OAuthClock is mandatory");
         return this;
     }
 
@@ -122,22 +152,64 @@ final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFie
         /* handle the callback field */
         this.cp.set(this);
         /* add timestamp */
-        this.fields.add(TIMESTAMP_KEY, this.ohpv.timestamp());
+        this.fields.add(new OrderedHeaderField(TIMESTAMP_KEY,
+                this.clock == null ? this.ohpv.timestamp() : this.clock.timestamp()));
         /* add nonce */
-        this.fields.add(NONCE_KEY, this.ohpv.nonce());
+        this.fields.add(new OrderedHeaderField(NONCE_KEY,
+                this.nonceGenerator == null ? this.ohpv.nonce() : this.nonceGenerator.nonce()));
         /* add signature */
-        this.fields.add(SIGNATURE_METHOD_KEY, signatureMethod.oAuthName().get());
-        this.fields.add(SIGNATURE_KEY,
-                URLEncoder.encode(
-                        (signatureMethod.signature(signatureMethod.handle(new SignatureParamBuilder()))).get(),
-                        StandardCharsets.UTF_8));
-        /* return complete header */
-        return this.fields;
+        this.fields.add(new OrderedHeaderField(SIGNATURE_METHOD_KEY, signatureMethod.oAuthName().get()));
+        this.fields.add(new OrderedHeaderField(SIGNATURE_KEY, PercentEncoder
+                .encode(signature(signatureMethod, signatureMethod.handle(new SignatureParamBuilder())))));
+        /* return complete header, the builder keeps the only modifiable reference */
+        return this.fields.unmodifiableView();
+    }
+
+    @Override
+    public HeaderFieldsTemplate prepare(SignatureMethod signatureMethod) {
+        if (!this.bodyParams.isEmpty()) {
+            throw new IllegalStateException("body parameters differ per request and can not be prepared");
+        }
+        /* handle the callback field */
+        this.cp.set(this);
+        /* add signature method, the remaining fields differ per instance */
+        this.fields.add(new OrderedHeaderField(SIGNATURE_METHOD_KEY, signatureMethod.oAuthName().get()));
+        return new DefaultHeaderFieldsTemplate(values(), this.fields, this.ts.get(), signatureMethod);
+    }
+
+    /**
+     * Combine the replaced {@link NonceGenerator} and {@link OAuthClock} with the values given on creation.
+     * 
+     * @return the {@link OauthHeaderFieldsValues}
+     */
+    private OauthHeaderFieldsValues values() {
+        if (this.nonceGenerator == null && this.clock == null) {
+            return this.ohpv;
+        }
+        return new OauthHeaderFieldsValues.DefaultOauthHeaderFieldsValues(
+                this.nonceGenerator == null ? this.ohpv::nonce : this.nonceGenerator,
+                this.clock == null ? this.ohpv::timestamp : this.clock);
+    }
+
+    /**
+     * Compute the signature and report its duration to the installed {@link OAuthMetrics}. The {@link Signature} of a
+     * {@link SignatureMethod} may be lazy, so its value is retrieved while measuring.
+     * 
+     * @param signatureMethod the {@link SignatureMethod}
+     * @param params the {@link SignatureParams}
+     * @return the value of the {@link Signature}
+     */
+    static String signature(SignatureMethod signatureMethod, SignatureParams params) {
+        long start = System.nanoTime();
+        String signature = signatureMethod.signature(params).get();
+        OAuthMetrics.current().signed(signatureMethod.oAuthName(), System.nanoTime() - start);
+        return signature;
     }
 
     @Override
     public String toString() {
-        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.ohpv).append(this.cp).build();
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.ohpv)
+                .append(this.nonceGenerator).append(this.clock).append(this.cp).build();
     }
 
     private final class SignatureParamBuilder
@@ -148,13 +220,16 @@ final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFie
          */
         @Override
         public SignatureParams visit(HmacSha1Signature method) throws UnsupportedOperationException {
-            /* make use of base string builder */
-            SignatureBaseStringBuilder sbsb = new DefaultSignatureBaseStringBuilder(method.method(), method.endpoint());
-            /* put all header parameters into signature builder */
-            DefaultHeaderFieldsBuilder.this.fields.fields().forEach(sbsb::add);
-            /* return params containing the base string */
-            return new SignedTextSignatureParams.DefaultSignedTextSignatureParams(sbsb.build(),
-                    DefaultHeaderFieldsBuilder.this.ts.get());
+            return signedText(method.method(), method.endpoint());
+        }
+
+        /**
+         * Returns an instance of {@link DefaultSignedTextSignatureParams} with
+         * using {@link DefaultHeaderFieldsBuilder#fields} as content.
+         */
+        @Override
+        public SignatureParams visit(RsaSha1Signature method) throws UnsupportedOperationException {
+            return signedText(method.method(), method.endpoint());
         }
 
         /**
@@ -167,5 +242,17 @@ final class DefaultHeaderFieldsBuilder implements HeaderFieldsBuilder, HeaderFie
             return new PlainTextSignatureParams.DefaultPlainTextSignatureParams(
                     DefaultHeaderFieldsBuilder.this.ts.get());
         }
+
+        private SignatureParams signedText(HttpMethod method, URI endpoint) {
+            /* make use of base string builder */
+            SignatureBaseStringBuilder sbsb = new DefaultSignatureBaseStringBuilder(method, endpoint);
+            /* put all header parameters into signature builder */
+            DefaultHeaderFieldsBuilder.this.fields.fields().forEach(sbsb::add);
+            /* body parameters are part of the signature only */
+            DefaultHeaderFieldsBuilder.this.bodyParams.forEach(sbsb::add);
+            /* return params writing the base string on demand */
+            return new SignedTextSignatureParams.BuilderSignedTextSignatureParams(sbsb,
+                    DefaultHeaderFieldsBuilder.this.ts.get());
+        }
     }
 }
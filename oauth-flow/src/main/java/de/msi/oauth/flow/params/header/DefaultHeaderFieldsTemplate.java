@@ -0,0 +1,126 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.TokenSecret;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.RsaSha1Signature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.signature.SignatureMethodHandler;
+import de.msi.oauth.flow.signature.base.SignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.base.SignatureBaseStringTemplate;
+import de.msi.oauth.flow.signature.params.PlainTextSignatureParams;
+import de.msi.oauth.flow.signature.params.SignatureParams;
+import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
+
+/**
+ * The default implementation of the {@link HeaderFieldsTemplate}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultHeaderFieldsTemplate implements HeaderFieldsTemplate {
+    private final OauthHeaderFieldsValues ohpv;
+    private final SortedHeaderFields invariants;
+    private final TokenSecret tokenSecret;
+    private final SignatureMethod signatureMethod;
+    /* empty for signature methods which do not sign the fields */
+    private final Optional<SignatureBaseStringTemplate> baseStringTemplate;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param ohfv mandatory values for creating the field information
+     * @param invariants the fields which are part of every instance
+     * @param tokenSecret the <code>token secret</code> (can be <code>null</code>)
+     * @param signatureMethod the {@link SignatureMethod}
+     */
+    DefaultHeaderFieldsTemplate(OauthHeaderFieldsValues ohfv, SortedHeaderFields invariants, TokenSecret tokenSecret,
+            SignatureMethod signatureMethod) {
+        this.ohpv = Objects.requireNonNull(ohfv);
+        this.invariants = new SortedHeaderFields(Objects.requireNonNull(invariants));
+        this.tokenSecret = tokenSecret;
+        this.signatureMethod = Objects.requireNonNull(signatureMethod, "the signature method is mandatory");
+        this.baseStringTemplate = signatureMethod.handle(new BaseStringTemplateCreation());
+    }
+
+    @Override
+    public HeaderFields build(HeaderFields additionalParams) {
+        String timestamp = this.ohpv.timestamp();
+        String nonce = this.ohpv.nonce();
+        /* copy the sorted invariants and add the fields of this instance */
+        SortedHeaderFields fields = new SortedHeaderFields(this.invariants);
+        fields.add(new OrderedHeaderField(DefaultHeaderFieldsBuilder.TIMESTAMP_KEY, timestamp));
+        fields.add(new OrderedHeaderField(DefaultHeaderFieldsBuilder.NONCE_KEY, nonce));
+        additionalParams.fields().forEach(hf -> fields.add(OrderedHeaderField.of(hf)));
+        /* add signature */
+        SignatureParams params = this.baseStringTemplate.map(template -> signedText(template, timestamp, nonce,
+                additionalParams)).orElseGet(this::plainText);
+        fields.add(new OrderedHeaderField(DefaultHeaderFieldsBuilder.SIGNATURE_KEY,
+                PercentEncoder.encode(DefaultHeaderFieldsBuilder.signature(this.signatureMethod, params))));
+        return fields.unmodifiableView();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.invariants)
+                .append(this.signatureMethod).build();
+    }
+
+    private SignatureParams signedText(SignatureBaseStringTemplate template, String timestamp, String nonce,
+            HeaderFields additionalParams) {
+        SignatureBaseStringBuilder sbsb = template.builder()
+                .add(HeaderField.of(DefaultHeaderFieldsBuilder.TIMESTAMP_KEY, timestamp))
+                .add(HeaderField.of(DefaultHeaderFieldsBuilder.NONCE_KEY, nonce));
+        additionalParams.fields().forEach(sbsb::add);
+        return new SignedTextSignatureParams.BuilderSignedTextSignatureParams(sbsb, this.tokenSecret);
+    }
+
+    private SignatureParams plainText() {
+        return new PlainTextSignatureParams.DefaultPlainTextSignatureParams(this.tokenSecret);
+    }
+
+    private final class BaseStringTemplateCreation
+            implements SignatureMethodHandler<Optional<SignatureBaseStringTemplate>, UnsupportedOperationException> {
+        @Override
+        public Optional<SignatureBaseStringTemplate> visit(HmacSha1Signature method) {
+            return Optional.of(SignatureBaseStringTemplate.of(method.method(), method.endpoint(),
+                    DefaultHeaderFieldsTemplate.this.invariants.fields()));
+        }
+
+        @Override
+        public Optional<SignatureBaseStringTemplate> visit(RsaSha1Signature method) {
+            return Optional.of(SignatureBaseStringTemplate.of(method.method(), method.endpoint(),
+                    DefaultHeaderFieldsTemplate.this.invariants.fields()));
+        }
+
+        @Override
+        public Optional<SignatureBaseStringTemplate> visit(@SuppressWarnings("unused") PlainTextSignature method) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.Objects;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The default implementation of {@link TickingOAuthClock}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultTickingOAuthClock extends SkewedOAuthClock implements TickingOAuthClock {
+    private final ScheduledExecutorService executor;
+    private volatile String value;
+    private volatile Future<?> next;
+    private volatile boolean closed;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param millis the source of the milliseconds since the epoch
+     * @param executor the {@link ScheduledExecutorService} running the ticker
+     */
+    DefaultTickingOAuthClock(LongSupplier millis, ScheduledExecutorService executor) {
+        super(millis);
+        this.executor = Objects.requireNonNull(executor, "the executor is mandatory");
+        tick();
+    }
+
+    @Override
+    public String timestamp() {
+        return this.value;
+    }
+
+    @Override
+    public void skew(long seconds) {
+        super.skew(seconds);
+        this.value = Long.toString(seconds());
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this.next.cancel(false);
+    }
+
+    private void tick() {
+        this.value = Long.toString(seconds());
+        if (!this.closed) {
+            this.next = this.executor.schedule(this::tick, untilNextSecond(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("value", this.value)
+                .append("skew", skew()).append("closed", this.closed).build();
+    }
+}
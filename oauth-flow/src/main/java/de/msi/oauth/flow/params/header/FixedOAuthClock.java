@@ -0,0 +1,48 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Always returns the same value.
+ *
+ * @author Martin Siegemund
+ */
+final class FixedOAuthClock implements OAuthClock {
+    private final String value;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param epochSecond the seconds since the epoch
+     */
+    FixedOAuthClock(long epochSecond) {
+        this.value = Long.toString(epochSecond);
+    }
+
+    @Override
+    public String timestamp() {
+        return this.value;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("value", this.value).build();
+    }
+}
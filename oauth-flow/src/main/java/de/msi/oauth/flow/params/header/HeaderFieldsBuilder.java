@@ -24,6 +24,7 @@ import de.msi.oauth.flow.params.TokenSecret;
 import de.msi.oauth.flow.params.VerificationCode;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
 import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.signature.base.FormParameters;
 
 /**
  * Helps building a {@link HeaderFields} instance in regard to the fields which
@@ -82,6 +83,58 @@ public interface HeaderFieldsBuilder {
      */
     HeaderFieldsBuilder additionalParameter(HeaderFields additionalParams);
 
+    /**
+     * Add the parameters of an <code>application/x-www-form-urlencoded</code>
+     * request body, which are part of the signature but not of the header
+     * fields.
+     * <p>
+     * The parameters are read while building the signature, so they must not
+     * be closed before {@link #build(SignatureMethod)} returns. They can not
+     * be {@link #prepare(SignatureMethod) prepared}.
+     * <p>
+     * Builders which do not support streamed body parameters keep this
+     * default, so they stay compatible by rejecting the parameters.
+     * 
+     * @param bodyParams the body parameters
+     * @return the builder
+     * @throws IllegalStateException if the builder can not stream body
+     *         parameters
+     */
+    default HeaderFieldsBuilder bodyParameter(FormParameters bodyParams) {
+        throw new IllegalStateException("body parameters are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Replace the {@link NonceGenerator#lowercase() default} generator of
+     * the <code>oauth_nonce</code> values.
+     * <p>
+     * Builders which do not support other generators keep this default, so
+     * they stay compatible by rejecting the generator.
+     * 
+     * @param nonceGenerator the {@link NonceGenerator}
+     * @return the builder
+     * @throws IllegalStateException if the builder can not replace the
+     *         generator
+     */
+    default HeaderFieldsBuilder nonceGenerator(NonceGenerator nonceGenerator) {
+        throw new IllegalStateException("nonce generators are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Replace the {@link OAuthClock#system() default} clock providing the
+     * <code>oauth_timestamp</code> values.
+     * <p>
+     * Builders which do not support other clocks keep this default, so they
+     * stay compatible by rejecting the clock.
+     * 
+     * @param clock the {@link OAuthClock}
+     * @return the builder
+     * @throws IllegalStateException if the builder can not replace the clock
+     */
+    default HeaderFieldsBuilder clock(OAuthClock clock) {
+        throw new IllegalStateException("clocks are not supported by " + getClass().getName());
+    }
+
     /**
      * Build the {@link HeaderFields} instance by using the given
      * {@link SignatureMethod}.
@@ -91,6 +144,26 @@ public interface HeaderFieldsBuilder {
      */
     HeaderFields build(SignatureMethod signatureMethod);
 
+    /**
+     * Prepare a {@link HeaderFieldsTemplate} by using the given
+     * {@link SignatureMethod}.
+     * <p>
+     * The fields which have been added so far are invariant for every
+     * {@link HeaderFields} instance built by the template, whereas the
+     * <code>oauth_timestamp</code>, the <code>oauth_nonce</code> and the
+     * <code>oauth_signature</code> are created per instance.
+     * <p>
+     * Builders which do not support templates keep this default, so they
+     * stay compatible by rejecting the preparation.
+     * 
+     * @param signatureMethod the desired {@link SignatureMethod}
+     * @return the resulting {@link HeaderFieldsTemplate}
+     * @throws IllegalStateException if the builder can not prepare templates
+     */
+    default HeaderFieldsTemplate prepare(SignatureMethod signatureMethod) {
+        throw new IllegalStateException("preparing a template is not supported by " + getClass().getName());
+    }
+
     /**
      * Create a new {@link HeaderFieldsBuilder} which provides an <code>oauth_callback</code>.
      * 
@@ -0,0 +1,52 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.SignatureMethod;
+
+/**
+ * Builds {@link HeaderFields} instances which share the same invariant fields
+ * and {@link SignatureMethod}.
+ * <p>
+ * The invariant fields are encoded and sorted once, so building an instance
+ * mainly consists of calculating the signature. Instances are created by
+ * {@link HeaderFieldsBuilder#prepare(SignatureMethod)} and can be used
+ * concurrently.
+ *
+ * @author Martin Siegemund
+ */
+public interface HeaderFieldsTemplate {
+    /**
+     * Build a new {@link HeaderFields} instance which additionally contains
+     * the given fields.
+     * 
+     * @param additionalParams the fields of this instance only
+     * @return the resulting {@link HeaderFields}
+     */
+    HeaderFields build(HeaderFields additionalParams);
+
+    /**
+     * Build a new {@link HeaderFields} instance which only contains the
+     * invariant fields.
+     * 
+     * @return the resulting {@link HeaderFields}
+     */
+    default HeaderFields build() {
+        return build(HeaderFields.empty());
+    }
+}
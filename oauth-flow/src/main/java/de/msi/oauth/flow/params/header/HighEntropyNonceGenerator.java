@@ -0,0 +1,64 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Creates 128 random bits, encoded as <code>base64url</code> without padding.
+ *
+ * @author Martin Siegemund
+ */
+final class HighEntropyNonceGenerator implements NonceGenerator {
+    static final NonceGenerator INSTANCE = new HighEntropyNonceGenerator();
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .toCharArray();
+    private static final int BITS = 6;
+    private static final int MASK = 0x3F;
+    /* 64 bits are covered by 10 full characters and 4 remaining bits */
+    private static final int CHARS_PER_LONG = 10;
+    private static final int LENGTH = 22;
+
+    private HighEntropyNonceGenerator() {
+        /* use the shared instance */
+    }
+
+    @Override
+    public String nonce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low = random.nextLong();
+        char[] value = new char[LENGTH];
+        for (int i = 0; i < CHARS_PER_LONG; ++i) {
+            value[i] = ALPHABET[(int) (high >>> (i * BITS)) & MASK];
+            value[CHARS_PER_LONG + i] = ALPHABET[(int) (low >>> (i * BITS)) & MASK];
+        }
+        /* the remaining 4 bits of each long */
+        value[LENGTH - 2] = ALPHABET[(int) (high >>> (CHARS_PER_LONG * BITS))];
+        value[LENGTH - 1] = ALPHABET[(int) (low >>> (CHARS_PER_LONG * BITS))];
+        return new String(value);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+    }
+}
+
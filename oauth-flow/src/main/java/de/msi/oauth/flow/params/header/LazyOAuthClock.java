@@ -0,0 +1,72 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.function.LongSupplier;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Caches the value of the current second and replaces it on rollover.
+ *
+ * @author Martin Siegemund
+ */
+final class LazyOAuthClock extends SkewedOAuthClock {
+    static final LazyOAuthClock SYSTEM = new LazyOAuthClock(System::currentTimeMillis);
+
+    private volatile Tick tick = new Tick(Long.MIN_VALUE);
+
+    /**
+     * Create a new instance.
+     * 
+     * @param millis the source of the milliseconds since the epoch
+     */
+    LazyOAuthClock(LongSupplier millis) {
+        super(millis);
+    }
+
+    @Override
+    public String timestamp() {
+        long seconds = seconds();
+        Tick current = this.tick;
+        if (current.seconds != seconds) {
+            /* concurrent rollovers create equal values, so the last one wins */
+            current = new Tick(seconds);
+            this.tick = current;
+        }
+        return current.value;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("skew", skew()).build();
+    }
+
+    /**
+     * The value of a single second.
+     */
+    private static final class Tick {
+        private final long seconds;
+        private final String value;
+
+        Tick(long seconds) {
+            this.seconds = seconds;
+            this.value = Long.toString(seconds);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Creates random lowercase letters.
+ *
+ * @author Martin Siegemund
+ */
+final class LowercaseNonceGenerator implements NonceGenerator {
+    static final NonceGenerator INSTANCE = new LowercaseNonceGenerator();
+    private static final int LENGTH = 8;
+    private static final int LETTERS = 26;
+
+    private LowercaseNonceGenerator() {
+        /* use the shared instance */
+    }
+
+    @Override
+    public String nonce() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] value = new char[LENGTH];
+        for (int i = 0; i < LENGTH; ++i) {
+            value[i] = (char) ('a' + random.nextInt(LETTERS));
+        }
+        return new String(value);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+    }
+}
+
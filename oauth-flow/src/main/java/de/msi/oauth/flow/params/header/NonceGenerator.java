@@ -0,0 +1,72 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+/**
+ * Generates the values of the <code>oauth_nonce</code> field.
+ * <p>
+ * The values are used as they are, so implementations have to return unreserved characters only (see
+ * {@link de.msi.oauth.flow.encoding.PercentEncoder#isUnreserved(char)}). Implementations have to be thread safe.
+ * <p>
+ * Use {@link #lowercase()}, {@link #highEntropy()} or {@link #clustered(int)} to retrieve a provided implementation.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#nonce">8. Nonce and Timestamp</a>
+ */
+@FunctionalInterface
+public interface NonceGenerator {
+    /**
+     * Generate a new value.
+     * 
+     * @return the value
+     */
+    String nonce();
+
+    /**
+     * Retrieve the default generator, creating 8 random lowercase letters.
+     * <p>
+     * The values are short, but there are only 26<sup>8</sup> of them. Service providers receiving many requests of
+     * the same consumer within one second should rather be served by {@link #highEntropy()} or {@link #clustered(int)}.
+     * 
+     * @return the {@link NonceGenerator}
+     */
+    static NonceGenerator lowercase() {
+        return LowercaseNonceGenerator.INSTANCE;
+    }
+
+    /**
+     * Retrieve a generator creating 128 random bits, encoded by 22 characters of the <code>base64url</code> alphabet.
+     * 
+     * @return the {@link NonceGenerator}
+     */
+    static NonceGenerator highEntropy() {
+        return HighEntropyNonceGenerator.INSTANCE;
+    }
+
+    /**
+     * Create a generator whose values are unique across several nodes.
+     * <p>
+     * The values consist of the node id, the creation time of the generator and a counter. They never collide as long
+     * as every node uses a distinct id and a single generator instance.
+     * 
+     * @param nodeId the non-negative id of this node
+     * @return the {@link NonceGenerator}
+     */
+    static NonceGenerator clustered(int nodeId) {
+        return new ClusteredNonceGenerator(nodeId, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Provides the values of the <code>oauth_timestamp</code> field, the number of seconds since January 1, 1970 00:00:00
+ * GMT.
+ * <p>
+ * Use {@link #system()}, {@link #lazy()}, {@link #ticking(ScheduledExecutorService)} or {@link #fixed(long)} to
+ * retrieve a provided implementation. Implementations have to be thread safe.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#nonce">8. Nonce and Timestamp</a>
+ */
+@FunctionalInterface
+public interface OAuthClock {
+    /**
+     * Retrieve the current value.
+     * 
+     * @return the value
+     */
+    String timestamp();
+
+    /**
+     * Retrieve the default clock, a shared {@link #lazy()} clock without any skew.
+     * 
+     * @return the {@link OAuthClock}
+     */
+    static OAuthClock system() {
+        return LazyOAuthClock.SYSTEM;
+    }
+
+    /**
+     * Create a new clock which caches the value of the current second and creates the next value on the first
+     * invocation after the rollover.
+     * 
+     * @return the {@link AdjustableOAuthClock}
+     */
+    static AdjustableOAuthClock lazy() {
+        return new LazyOAuthClock(System::currentTimeMillis);
+    }
+
+    /**
+     * Create a new clock whose value is replaced by a task of the given executor at the start of every second. The
+     * invocation of {@link #timestamp()} does not even read the system time.
+     * <p>
+     * The clock has to be {@link TickingOAuthClock#close() closed} if it is no longer required.
+     * 
+     * @param executor the {@link ScheduledExecutorService} running the ticker
+     * @return the {@link TickingOAuthClock}
+     */
+    static TickingOAuthClock ticking(ScheduledExecutorService executor) {
+        return new DefaultTickingOAuthClock(System::currentTimeMillis, executor);
+    }
+
+    /**
+     * Create a clock which always returns the same value, useful for tests.
+     * 
+     * @param epochSecond the seconds since the epoch
+     * @return the {@link OAuthClock}
+     */
+    static OAuthClock fixed(long epochSecond) {
+        return new FixedOAuthClock(epochSecond);
+    }
+}
@@ -16,10 +16,7 @@
 
 package de.msi.oauth.flow.params.header;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
+import java.util.Objects;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -50,28 +47,42 @@ interface OauthHeaderFieldsValues {
      * @author Martin Siegemund
      */
     static final class DefaultOauthHeaderFieldsValues implements OauthHeaderFieldsValues {
-        private static final int LOWER_LIMIT = 0x61;
-        private static final int UPPER_LIMIT = 0x7A;
-        private static final int NONCE_BYTES = 8;
+        private final NonceGenerator nonceGenerator;
+        private final OAuthClock clock;
+
+        /**
+         * Create a new instance using the {@link NonceGenerator#lowercase() default} {@link NonceGenerator} and the
+         * {@link OAuthClock#system() default} {@link OAuthClock}.
+         */
+        DefaultOauthHeaderFieldsValues() {
+            this(NonceGenerator.lowercase(), OAuthClock.system());
+        }
+
+        /**
+         * Create a new instance.
+         * 
+         * @param nonceGenerator the {@link NonceGenerator}
+         * @param clock the {@link OAuthClock}
+         */
+        DefaultOauthHeaderFieldsValues(NonceGenerator nonceGenerator, OAuthClock clock) {
+            this.nonceGenerator = Objects.requireNonNull(nonceGenerator, "the NonceGenerator is mandatory");
+            this.clock = Objects.requireNonNull(clock, "the OAuthClock is mandatory");
+        }
 
         @Override
         public String timestamp() {
-            return Long.toString(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+            return this.clock.timestamp();
         }
 
         @Override
         public String nonce() {
-            ThreadLocalRandom threadLocalRandom = ThreadLocalRandom.current();
-            byte[] rnd = new byte[NONCE_BYTES];
-            for (int i = 0; i < NONCE_BYTES; ++i) {
-                rnd[i] = (byte) threadLocalRandom.nextInt(LOWER_LIMIT, UPPER_LIMIT);
-            }
-            return URLEncoder.encode(new String(rnd, StandardCharsets.US_ASCII), StandardCharsets.US_ASCII);
+            return this.nonceGenerator.nonce();
         }
 
         @Override
         public String toString() {
-            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.nonceGenerator)
+                    .append(this.clock).build();
         }
     }
 }
@@ -19,13 +19,11 @@ package de.msi.oauth.flow.params.header;
 import java.util.Objects;
 import java.util.Optional;
 
-import org.apache.commons.lang3.builder.CompareToBuilder;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
 
 /**
  * Represents a {@link HeaderField} which implements the {@link Comparable} interface to provide the capability of being
@@ -35,6 +33,9 @@ import de.msi.oauth.flow.params.header.fields.HeaderField;
  * @see #compareTo(HeaderField)
  */
 final class OrderedHeaderField implements HeaderField, Comparable<HeaderField> {
+    private static final int HASH_SEED = 17;
+    private static final int HASH_MULTIPLIER = 37;
+
     private final String key;
     private final String value;
 
@@ -58,6 +59,19 @@ final class OrderedHeaderField implements HeaderField, Comparable<HeaderField> {
         this(key, null);
     }
 
+    /**
+     * Convert the given field.
+     * 
+     * @param headerField the {@link HeaderField}
+     * @return the given instance if it is an {@link OrderedHeaderField} already, otherwise a new instance
+     */
+    static OrderedHeaderField of(HeaderField headerField) {
+        if (headerField instanceof OrderedHeaderField) {
+            return (OrderedHeaderField) headerField;
+        }
+        return new OrderedHeaderField(headerField.key(), headerField.value().orElse(null));
+    }
+
     @Override
     public String key() {
         return this.key;
@@ -78,14 +92,20 @@ final class OrderedHeaderField implements HeaderField, Comparable<HeaderField> {
      */
     @Override
     public int compareTo(HeaderField o) {
-        CompareToBuilder ctb = new CompareToBuilder().append(this.key, o.key());
-        int result = ctb.toComparison();
-        return result != 0 ? result : ctb.append(this.value, o.value().orElse(null)).toComparison();
+        if (o instanceof OrderedHeaderField) {
+            OrderedHeaderField other = (OrderedHeaderField) o;
+            return SortedHeaderFields.compare(this.key, this.value, other.key, other.value);
+        }
+        return SortedHeaderFields.compare(this.key, this.value, o.key(), o.value().orElse(null));
     }
 
+    /**
+     * Equal to the hash code of {@link HeaderField#of(String, String)}, which
+     * is built by the <code>HashCodeBuilder</code> of <code>commons-lang</code>.
+     */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this.key).append(this.value).toHashCode();
+        return (HASH_SEED * HASH_MULTIPLIER + this.key.hashCode()) * HASH_MULTIPLIER + Objects.hashCode(this.value);
     }
 
     @Override
@@ -97,7 +117,7 @@ final class OrderedHeaderField implements HeaderField, Comparable<HeaderField> {
             return false;
         }
         OrderedHeaderField other = (OrderedHeaderField) obj;
-        return new EqualsBuilder().append(this.key, other.key).append(this.value, other.value).isEquals();
+        return this.key.equals(other.key) && Objects.equals(this.value, other.value);
     }
 
     @Override
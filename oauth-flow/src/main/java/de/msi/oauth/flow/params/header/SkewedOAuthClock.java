@@ -0,0 +1,74 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * The base of the clocks which support a skew.
+ *
+ * @author Martin Siegemund
+ */
+abstract class SkewedOAuthClock implements AdjustableOAuthClock {
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private final LongSupplier millis;
+    private volatile long skew;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param millis the source of the milliseconds since the epoch
+     */
+    SkewedOAuthClock(LongSupplier millis) {
+        this.millis = Objects.requireNonNull(millis, "the time source is mandatory");
+    }
+
+    @Override
+    public long skew() {
+        return this.skew;
+    }
+
+    @Override
+    public void skew(long seconds) {
+        this.skew = seconds;
+    }
+
+    @Override
+    public void synchronize(long serviceProviderTimestamp) {
+        skew(serviceProviderTimestamp - Math.floorDiv(this.millis.getAsLong(), MILLIS_PER_SECOND));
+    }
+
+    /**
+     * Retrieve the current time including the skew.
+     * 
+     * @return the seconds since the epoch
+     */
+    final long seconds() {
+        return Math.floorDiv(this.millis.getAsLong(), MILLIS_PER_SECOND) + this.skew;
+    }
+
+    /**
+     * Retrieve the milliseconds until the next second starts.
+     * 
+     * @return the delay
+     */
+    final long untilNextSecond() {
+        return MILLIS_PER_SECOND - Math.floorMod(this.millis.getAsLong(), MILLIS_PER_SECOND);
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+/**
+ * An {@link AdjustableOAuthClock} whose value is replaced by a background task at the start of every second.
+ *
+ * @author Martin Siegemund
+ * @see OAuthClock#ticking(java.util.concurrent.ScheduledExecutorService)
+ */
+public interface TickingOAuthClock extends AdjustableOAuthClock, AutoCloseable {
+    /**
+     * Stop the ticker, the last value is kept.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,262 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header.fields;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * A compact {@link HeaderFields} implementation which keeps its fields ordered by key and value, as required for
+ * <code>9.1.1. Normalize Request Parameters</code> of <code>OAuth Core 1.0 Revision A</code>.
+ * <p>
+ * The fields are kept within arrays and every field is inserted at its sorted position. Fields which are added in
+ * ascending order (like the fields of another {@link SortedHeaderFields}) are appended in constant time. A header
+ * consists of a few fields only, so this is cheaper than any tree or hash based collection.
+ * <p>
+ * Instances are not thread safe. Hand out an {@link #unmodifiableView()} of instances which must not be changed
+ * anymore, like the fields of a signed header.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor13">Signature Base String</a>
+ */
+public final class SortedHeaderFields implements HeaderFields {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private HeaderField[] fields;
+    private String[] keys;
+    private String[] values;
+    private int size;
+
+    /**
+     * Create a new and empty instance.
+     */
+    public SortedHeaderFields() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a new and empty instance.
+     * 
+     * @param capacity the expected number of fields
+     */
+    public SortedHeaderFields(int capacity) {
+        this.fields = new HeaderField[capacity];
+        this.keys = new String[capacity];
+        this.values = new String[capacity];
+    }
+
+    /**
+     * Create a new instance containing the fields of the given instance.
+     * <p>
+     * The fields are sorted already, so the copying takes linear time.
+     * 
+     * @param template the {@link SortedHeaderFields} to copy
+     */
+    public SortedHeaderFields(SortedHeaderFields template) {
+        int capacity = Math.max(template.size + DEFAULT_CAPACITY / 2, DEFAULT_CAPACITY);
+        this.fields = Arrays.copyOf(template.fields, capacity);
+        this.keys = Arrays.copyOf(template.keys, capacity);
+        this.values = Arrays.copyOf(template.values, capacity);
+        this.size = template.size;
+    }
+
+    /**
+     * Add the given field at its sorted position.
+     * 
+     * @param headerField the {@link HeaderField}
+     * @throws IllegalArgumentException if the same key-value pair is present already
+     */
+    public void add(HeaderField headerField) {
+        String key = Objects.requireNonNull(headerField.key(), "the key is mandatory");
+        String value = headerField.value().orElse(null);
+        int index = insertionPoint(key, value);
+        if (index < 0) {
+            throw new IllegalArgumentException(String.format("key-value pair '%s=%s' already present", key, value));
+        }
+        if (this.size == this.fields.length) {
+            int capacity = Math.max(this.size * 2, DEFAULT_CAPACITY);
+            this.fields = Arrays.copyOf(this.fields, capacity);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        int moved = this.size - index;
+        if (moved > 0) {
+            System.arraycopy(this.fields, index, this.fields, index + 1, moved);
+            System.arraycopy(this.keys, index, this.keys, index + 1, moved);
+            System.arraycopy(this.values, index, this.values, index + 1, moved);
+        }
+        this.fields[index] = headerField;
+        this.keys[index] = key;
+        this.values[index] = value;
+        ++this.size;
+    }
+
+    /**
+     * Add a new field at its sorted position.
+     * 
+     * @param key the key
+     * @param value the value (can be <code>null</code>)
+     * @throws IllegalArgumentException if the same key-value pair is present already
+     */
+    public void add(String key, String value) {
+        add(HeaderField.of(key, value));
+    }
+
+    /**
+     * Check if the given key-value pair is present.
+     * 
+     * @param key the key
+     * @param value the value (can be <code>null</code>)
+     * @return <code>true</code> if the pair is present
+     */
+    public boolean contains(String key, String value) {
+        return insertionPoint(Objects.requireNonNull(key, "the key is mandatory"), value) < 0;
+    }
+
+    /**
+     * Retrieve the number of fields.
+     * 
+     * @return the number of fields
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Retrieve the key of the field at the given position.
+     * 
+     * @param index the position
+     * @return the key
+     */
+    public String key(int index) {
+        return this.keys[Objects.checkIndex(index, this.size)];
+    }
+
+    /**
+     * Retrieve the value of the field at the given position.
+     * 
+     * @param index the position
+     * @return the value or <code>null</code>
+     */
+    public String value(int index) {
+        return this.values[Objects.checkIndex(index, this.size)];
+    }
+
+    @Override
+    public Collection<HeaderField> fields() {
+        return new FieldsView();
+    }
+
+    /**
+     * Retrieve a view of this instance, which can not be used for adding fields.
+     * 
+     * @return the {@link HeaderFields}
+     */
+    public HeaderFields unmodifiableView() {
+        return new UnmodifiableView();
+    }
+
+    /**
+     * Compare two fields by their keys and, for equal keys, by their values. A missing value (<code>null</code>)
+     * precedes every other value.
+     * 
+     * @param key the key of the first field
+     * @param value the value of the first field (can be <code>null</code>)
+     * @param otherKey the key of the second field
+     * @param otherValue the value of the second field (can be <code>null</code>)
+     * @return a negative integer, zero, or a positive integer as the first field is less than, equal to, or greater
+     *         than the second field
+     */
+    public static int compare(String key, String value, String otherKey, String otherValue) {
+        int result = key.compareTo(otherKey);
+        if (result != 0 || value == otherValue) {
+            return result;
+        }
+        if (value == null) {
+            return -1;
+        }
+        return otherValue == null ? 1 : value.compareTo(otherValue);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("fields", fields()).build();
+    }
+
+    /**
+     * Find the position of the given key-value pair.
+     * 
+     * @return the position to insert, or a negative value if the pair is present already
+     */
+    private int insertionPoint(String key, String value) {
+        if (this.size == 0) {
+            return 0;
+        }
+        /* fields are usually added in ascending order */
+        int last = compare(key, value, this.keys[this.size - 1], this.values[this.size - 1]);
+        if (last > 0) {
+            return this.size;
+        }
+        if (last == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = this.size - 2;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = compare(key, value, this.keys[middle], this.values[middle]);
+            if (result > 0) {
+                low = middle + 1;
+            } else if (result < 0) {
+                high = middle - 1;
+            } else {
+                return -1;
+            }
+        }
+        return low;
+    }
+
+    private final class UnmodifiableView implements HeaderFields {
+        @Override
+        public Collection<HeaderField> fields() {
+            return SortedHeaderFields.this.fields();
+        }
+
+        @Override
+        public String toString() {
+            return SortedHeaderFields.this.toString();
+        }
+    }
+
+    private final class FieldsView extends AbstractList<HeaderField> implements RandomAccess {
+        @Override
+        public HeaderField get(int index) {
+            return SortedHeaderFields.this.fields[Objects.checkIndex(index, SortedHeaderFields.this.size)];
+        }
+
+        @Override
+        public int size() {
+            return SortedHeaderFields.this.size;
+        }
+    }
+}
@@ -17,25 +17,21 @@
 package de.msi.oauth.flow.signature;
 
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Objects;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
 import de.msi.oauth.flow.common.CachedSupplier;
+import de.msi.oauth.flow.metrics.OAuthSignatureEvent;
 import de.msi.oauth.flow.params.ConsumerSecret;
 import de.msi.oauth.flow.params.HttpMethod;
 import de.msi.oauth.flow.params.Signature;
 import de.msi.oauth.flow.params.SignatureMethodName;
-import de.msi.oauth.flow.params.TokenSecret;
+import de.msi.oauth.flow.signature.mac.MacEngine;
+import de.msi.oauth.flow.signature.mac.MacKey;
 import de.msi.oauth.flow.signature.params.SignatureParams;
-import de.msi.oauth.flow.signature.params.SignatureParamsHandler;
 import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
 
 /**
@@ -59,6 +55,7 @@ public interface HmacSha1Signature extends SignedTextSignature {
      */
     public static final class DefaultHmacSha1Signature extends DefaultSignedTextSignature implements HmacSha1Signature {
         private static final SignatureMethodName HMAC_SHA1 = SignatureMethodName.of("HMAC-SHA1");
+        private static final MacEngine MAC_ENGINE = MacEngine.hmacSha1();
 
         /**
          * Create a new instance.
@@ -86,48 +83,36 @@ public interface HmacSha1Signature extends SignedTextSignature {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).appendSuper(super.toString()).build();
         }
 
-        private static final class SignedTextSignatureParamsExtraction
-                implements SignatureParamsHandler<SignedTextSignatureParams, RuntimeException> {
-            @Override
-            public SignedTextSignatureParams visit(SignedTextSignatureParams params) throws RuntimeException {
-                return params;
-            }
-        }
-
         /**
          * A lazy {@link Signature} implementation which uses the functionality of the {@link CachedSupplier}.
          *
          * @author Martin Siegemund
          */
         private final class CachedHmacSha1Signature extends CachedSupplier<String> implements Signature {
-            private static final String CONCAT_FORMAT = "%s&%s";
-            private static final String JAVA_ALGORITHM_NAME = "HmacSHA1";
-
             private final SignatureParams params;
 
             CachedHmacSha1Signature(SignatureParams params) {
+                /* the calculation is cheap and deterministic, so concurrent first invocations may race */
+                super(true);
                 this.params = Objects.requireNonNull(params, "the SignatureParams are mandatory");
             }
 
             @Override
             protected String getAndCache() {
+                OAuthSignatureEvent event = OAuthSignatureEvent.start();
                 try {
                     /* extract params */
                     SignedTextSignatureParams signatureParams = this.params
                             .handle(new SignedTextSignatureParamsExtraction());
-                    /* create key */
-                    SecretKeySpec signingKey = new SecretKeySpec(String
-                            .format(CONCAT_FORMAT, consumerSecret().get(),
-                                    signatureParams.tokenSecret().map(TokenSecret::get).orElse(StringUtils.EMPTY))
-                            .getBytes(StandardCharsets.UTF_8), JAVA_ALGORITHM_NAME);
-                    /* create and initialize algorithm */
-                    Mac mac = Mac.getInstance(JAVA_ALGORITHM_NAME);
-                    mac.init(signingKey);
+                    /* identify key (the engine reuses algorithm instances which are initialized already) */
+                    MacKey key = MacKey.of(consumerSecret(), signatureParams.tokenSecret().orElse(null));
                     /* generate hash */
-                    byte[] hash = mac
-                            .doFinal(signatureParams.signatureBaseString().get().getBytes(StandardCharsets.UTF_8));
+                    MeasuredInput input = new MeasuredInput(signatureParams.signatureBaseStringInput());
+                    byte[] hash = MAC_ENGINE.doFinal(key, input);
                     /* return encoded */
-                    return Base64.getEncoder().encodeToString(hash);
+                    String signature = Base64.getEncoder().encodeToString(hash);
+                    event.complete(HMAC_SHA1, input.length());
+                    return signature;
                 } catch (Exception e) {
                     throw new IllegalStateException("could not calculate HMAC-SHA1 signature", e);
                 }
@@ -0,0 +1,57 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+
+/**
+ * Keeps the length of a {@link ChunkedInput}, which is written by a signing engine, for the signature event.
+ *
+ * @author Martin Siegemund
+ */
+final class MeasuredInput implements ChunkedInput {
+    private final ChunkedInput input;
+    private long length;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param input the {@link ChunkedInput} to measure
+     */
+    MeasuredInput(ChunkedInput input) {
+        this.input = Objects.requireNonNull(input, "the input is mandatory");
+    }
+
+    @Override
+    public long writeTo(Consumer<ByteBuffer> chunks) {
+        this.length = this.input.writeTo(chunks);
+        return this.length;
+    }
+
+    /**
+     * Retrieve the length of the previously written input.
+     * 
+     * @return the number of bytes, limited to {@link Integer#MAX_VALUE}
+     */
+    int length() {
+        return (int) Math.min(this.length, Integer.MAX_VALUE);
+    }
+}
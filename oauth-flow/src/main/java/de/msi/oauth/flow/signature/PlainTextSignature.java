@@ -16,14 +16,14 @@
 
 package de.msi.oauth.flow.signature;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.metrics.OAuthSignatureEvent;
 import de.msi.oauth.flow.params.ConsumerSecret;
 import de.msi.oauth.flow.params.Signature;
 import de.msi.oauth.flow.params.SignatureMethodName;
@@ -80,9 +80,13 @@ public interface PlainTextSignature extends SignatureMethod {
 
         @Override
         public Signature signature(SignatureParams params) {
-            return Signature.of(String.format(CONCAT_FORMAT, encode(this.consumerSecret.get()),
+            OAuthSignatureEvent event = OAuthSignatureEvent.start();
+            Signature signature = Signature.of(String.format(CONCAT_FORMAT, encode(this.consumerSecret.get()),
                     encode(params.handle(new PlainTextSignatureParamExtraction()).tokenSecret().map(TokenSecret::get)
                             .orElse(null))));
+            /* there is no signature base string */
+            event.complete(PLAINTEXT, 0);
+            return signature;
         }
 
         @Override
@@ -91,7 +95,7 @@ public interface PlainTextSignature extends SignatureMethod {
         }
 
         private static String encode(String toEncode) {
-            return toEncode == null ? StringUtils.EMPTY : URLEncoder.encode(toEncode, StandardCharsets.UTF_8);
+            return toEncode == null ? StringUtils.EMPTY : PercentEncoder.encode(toEncode);
         }
 
         private static final class PlainTextSignatureParamExtraction
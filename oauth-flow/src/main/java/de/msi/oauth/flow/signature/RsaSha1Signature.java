@@ -17,15 +17,23 @@
 package de.msi.oauth.flow.signature;
 
 import java.net.URI;
+import java.security.PrivateKey;
+import java.util.Base64;
+import java.util.Objects;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.common.CachedSupplier;
+import de.msi.oauth.flow.metrics.OAuthSignatureEvent;
 import de.msi.oauth.flow.params.ConsumerSecret;
 import de.msi.oauth.flow.params.HttpMethod;
 import de.msi.oauth.flow.params.Signature;
 import de.msi.oauth.flow.params.SignatureMethodName;
 import de.msi.oauth.flow.signature.params.SignatureParams;
+import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
+import de.msi.oauth.flow.signature.rsa.RsaKeys;
+import de.msi.oauth.flow.signature.rsa.RsaSha1Engine;
 
 /**
  * Represents the <code>RSA-SHA1</code> signature method.
@@ -44,12 +52,16 @@ public interface RsaSha1Signature extends SignedTextSignature {
     /**
      * The default implementation of the {@link RsaSha1Signature}.
      * <p>
-     * <b>Attention: not yet implemented</b>
+     * The consumers private key gets parsed once (see {@link RsaKeys}) and the signing itself reuses thread confined
+     * algorithm instances of the shared {@link RsaSha1Engine}.
      *
      * @author Martin Siegemund
      */
     public static final class DefaultRsaSha1Signature extends DefaultSignedTextSignature implements RsaSha1Signature {
         private static final SignatureMethodName RSA_SHA1 = SignatureMethodName.of("RSA-SHA1");
+        private static final RsaSha1Engine RSA_ENGINE = RsaSha1Engine.shared();
+
+        private final PrivateKey privateKey;
 
         /**
          * Create a new instance.
@@ -57,9 +69,12 @@ public interface RsaSha1Signature extends SignedTextSignature {
          * @param endpoint the endpoint of the ongoing <code>HTTP</code> request
          * @param method the method of the ongoing <code>HTTP</code> request
          * @param consumerSecret the <code>consumer secret</code>
+         * @param privateKey the consumers <code>RSA</code> private key
          */
-        public DefaultRsaSha1Signature(URI endpoint, HttpMethod method, ConsumerSecret consumerSecret) {
+        public DefaultRsaSha1Signature(URI endpoint, HttpMethod method, ConsumerSecret consumerSecret,
+                PrivateKey privateKey) {
             super(endpoint, method, consumerSecret);
+            this.privateKey = Objects.requireNonNull(privateKey, "the private key is mandatory");
         }
 
         @Override
@@ -68,14 +83,46 @@ public interface RsaSha1Signature extends SignedTextSignature {
         }
 
         @Override
-        public Signature signature(@SuppressWarnings("unused") SignatureParams params) {
-            // TODO implement
-            throw new UnsupportedOperationException("RSA-SHA1 is not yet implemented");
+        public Signature signature(SignatureParams params) {
+            return new CachedRsaSha1Signature(params);
         }
 
         @Override
         public String toString() {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).appendSuper(super.toString()).build();
         }
+
+        /**
+         * A lazy {@link Signature} implementation which uses the functionality of the {@link CachedSupplier}.
+         *
+         * @author Martin Siegemund
+         */
+        private final class CachedRsaSha1Signature extends CachedSupplier<String> implements Signature {
+            private final SignatureParams params;
+
+            CachedRsaSha1Signature(SignatureParams params) {
+                this.params = Objects.requireNonNull(params, "the SignatureParams are mandatory");
+            }
+
+            @Override
+            protected String getAndCache() {
+                OAuthSignatureEvent event = OAuthSignatureEvent.start();
+                /* extract params */
+                SignedTextSignatureParams signatureParams = this.params
+                        .handle(new SignedTextSignatureParamsExtraction());
+                /* sign */
+                MeasuredInput input = new MeasuredInput(signatureParams.signatureBaseStringInput());
+                byte[] signature = RSA_ENGINE.sign(DefaultRsaSha1Signature.this.privateKey, input);
+                /* return encoded */
+                String encoded = Base64.getEncoder().encodeToString(signature);
+                event.complete(RSA_SHA1, input.length());
+                return encoded;
+            }
+
+            @Override
+            public String toString() {
+                return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.params).build();
+            }
+        }
     }
 }
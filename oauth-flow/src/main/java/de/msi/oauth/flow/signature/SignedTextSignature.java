@@ -24,6 +24,9 @@ import org.apache.commons.lang3.builder.ToStringStyle;
 
 import de.msi.oauth.flow.params.ConsumerSecret;
 import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.signature.params.SignatureParams;
+import de.msi.oauth.flow.signature.params.SignatureParamsHandler;
+import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
 
 /**
  * A hidden intermediate interface to bundle functionalities which represent all
@@ -84,5 +87,18 @@ interface SignedTextSignature extends SignatureMethod {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("endpoint", this.endpoint)
                     .append("method", this.method).build();
         }
+
+        /**
+         * Extracts the {@link SignedTextSignatureParams} from generic {@link SignatureParams}.
+         *
+         * @author Martin Siegemund
+         */
+        static final class SignedTextSignatureParamsExtraction
+                implements SignatureParamsHandler<SignedTextSignatureParams, RuntimeException> {
+            @Override
+            public SignedTextSignatureParams visit(SignedTextSignatureParams params) throws RuntimeException {
+                return params;
+            }
+        }
     }
 }
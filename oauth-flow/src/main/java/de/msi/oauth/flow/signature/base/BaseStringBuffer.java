@@ -0,0 +1,507 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.metrics.OAuthMetrics;
+import de.msi.oauth.flow.signature.base.uri.NormalizedUri;
+
+/**
+ * A reusable, thread confined buffer which writes the <code>signature base string</code> as <code>US-ASCII</code>
+ * bytes without creating intermediate {@link String} instances.
+ * <p>
+ * The writing happens in two phases. First every parameter key and value gets percent encoded into the scratch area
+ * (see {@link #parameter(CharSequence, CharSequence)} and {@link #query(String)}). Afterwards
+ * {@link #write(String, NormalizedUri)} sorts the encoded parameters and writes the complete base string into the
+ * output area, percent encoding the already encoded parameters a second time on the fly.
+ * <p>
+ * After {@link #stream(Consumer)} the output area is not grown but passed on as a chunk whenever it is full, so the
+ * <code>signature base string</code> of a large request body is never kept as a whole.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor13">Signature Base String</a>
+ */
+final class BaseStringBuffer {
+    private static final ThreadLocal<BaseStringBuffer> CURRENT = ThreadLocal.withInitial(BaseStringBuffer::new);
+    private static final int INITIAL_CAPACITY = 1024;
+    /* larger buffers get released on the next use to not retain memory of a single big request forever */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final int SLOTS = ParameterSort.SLOTS;
+    private static final byte AMPERSAND = '&';
+    private static final byte PERCENT = '%';
+    /* the most bytes a code point of a raw query is encoded to: four UTF-8 bytes, escaped each */
+    private static final int MAX_ENCODED_CODE_POINT = 12;
+    private static final byte[] ENCODED_AMPERSAND = { '%', '2', '6' };
+    private static final byte[] ENCODED_EQUALS = { '%', '3', 'D' };
+    private static final byte[] ENCODED_PERCENT = { '%', '2', '5' };
+
+    private byte[] scratch = new byte[INITIAL_CAPACITY];
+    private int scratchSize;
+    /* [keyStart, keyEnd, valueStart, valueEnd] per parameter */
+    private int[] slots = new int[16 * SLOTS];
+    private int count;
+    private int[] order = new int[16];
+    private int[] orderTmp = new int[16];
+    private byte[] out = new byte[INITIAL_CAPACITY];
+    private int outSize;
+    private ByteBuffer view = ByteBuffer.wrap(this.out);
+    /* the consumer of the output chunks, or null if the output is kept */
+    private Consumer<ByteBuffer> chunks;
+    private long flushed;
+
+    /**
+     * Retrieve the reset buffer of the calling thread.
+     *
+     * @return the thread confined {@link BaseStringBuffer}
+     */
+    static BaseStringBuffer current() {
+        BaseStringBuffer buffer = CURRENT.get();
+        buffer.reset();
+        return buffer;
+    }
+
+    /**
+     * Reset the buffer before writing a new <code>signature base string</code>.
+     */
+    void reset() {
+        if (this.scratch.length > MAX_RETAINED_CAPACITY) {
+            this.scratch = new byte[INITIAL_CAPACITY];
+        }
+        if (this.out.length > MAX_RETAINED_CAPACITY) {
+            this.out = new byte[INITIAL_CAPACITY];
+            this.view = ByteBuffer.wrap(this.out);
+        }
+        this.scratchSize = 0;
+        this.count = 0;
+        this.outSize = 0;
+        this.chunks = null;
+        this.flushed = 0;
+    }
+
+    /**
+     * Pass the output on to the given consumer in chunks while writing, instead of keeping it.
+     * <p>
+     * The chunks are at most as large as the output area (unless a single part like the normalized <code>URI</code>
+     * exceeds it) and only valid while they are consumed. The content can not be retrieved afterwards.
+     *
+     * @param consumer the consumer of every chunk
+     */
+    void stream(Consumer<ByteBuffer> consumer) {
+        this.chunks = consumer;
+    }
+
+    /**
+     * Add a parameter by percent encoding its key and value.
+     *
+     * @param key the raw key
+     * @param value the raw value (can be <code>null</code>)
+     */
+    void parameter(CharSequence key, CharSequence value) {
+        int slot = this.count * SLOTS;
+        if (slot + SLOTS > this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+        }
+        this.slots[slot] = this.scratchSize;
+        encode(key);
+        this.slots[slot + 1] = this.scratchSize;
+        this.slots[slot + 2] = this.scratchSize;
+        if (value != null) {
+            encode(value);
+        }
+        this.slots[slot + 3] = this.scratchSize;
+        ++this.count;
+    }
+
+    /**
+     * Add the parameters of a raw <code>application/x-www-form-urlencoded</code> query, like the one of
+     * {@link java.net.URI#getRawQuery()}.
+     * <p>
+     * Every character is decoded and percent encoded again straight into the scratch area, without creating a
+     * {@link String} per key or value. Repeated key-value pairs are added once per occurrence.
+     *
+     * @param rawQuery the raw query
+     * @throws IllegalArgumentException if the percent encoding is invalid
+     */
+    void query(String rawQuery) {
+        int length = rawQuery.length();
+        int from = 0;
+        while (from < length) {
+            int to = rawQuery.indexOf('&', from);
+            if (to < 0) {
+                to = length;
+            }
+            /* skip empty pairs like in "a=1&&b=2" */
+            if (to > from) {
+                queryParameter(rawQuery, from, to);
+            }
+            from = to + 1;
+        }
+    }
+
+    /**
+     * Write the complete <code>signature base string</code>.
+     *
+     * @param method the <code>HTTP</code> method
+     * @param normalizedUri the normalized request <code>URI</code>
+     */
+    void write(String method, NormalizedUri normalizedUri) {
+        sort();
+        writePrefix(method, normalizedUri);
+        writeParameters(Prepared.EMPTY);
+        written();
+    }
+
+    /**
+     * Write the complete <code>signature base string</code> by merging the parameters added to this buffer with the
+     * streamed ones of the given {@link ParameterCursor}.
+     *
+     * @param method the <code>HTTP</code> method
+     * @param normalizedUri the normalized request <code>URI</code>
+     * @param streamed the sorted parameters which are not added to this buffer
+     */
+    void write(String method, NormalizedUri normalizedUri, ParameterCursor streamed) {
+        sort();
+        writePrefix(method, normalizedUri);
+        writeParameters(Prepared.EMPTY, streamed);
+        written();
+    }
+
+    /**
+     * Write the complete <code>signature base string</code> by merging the parameters added to this buffer with the
+     * already encoded and sorted ones of the given {@link Prepared} instance.
+     *
+     * @param prepared the invariant part of the <code>signature base string</code>
+     */
+    void write(Prepared prepared) {
+        sort();
+        putOut(prepared.prefix, 0, prepared.prefix.length);
+        writeParameters(prepared);
+        written();
+    }
+
+    /**
+     * Write the complete <code>signature base string</code> by merging the parameters added to this buffer with the
+     * already encoded and sorted ones of the given {@link Prepared} instance and the streamed ones of the given
+     * {@link ParameterCursor}.
+     *
+     * @param prepared the invariant part of the <code>signature base string</code>
+     * @param streamed the sorted parameters which are not added to this buffer
+     */
+    void write(Prepared prepared, ParameterCursor streamed) {
+        sort();
+        putOut(prepared.prefix, 0, prepared.prefix.length);
+        writeParameters(prepared, streamed);
+        written();
+    }
+
+    /**
+     * Capture the method, the <code>URI</code> and the parameters added so far in their encoded and sorted form.
+     * <p>
+     * The buffer has to be reset before it can be used again.
+     *
+     * @param method the <code>HTTP</code> method
+     * @param normalizedUri the normalized request <code>URI</code>
+     * @return the new {@link Prepared} instance which is independent of this buffer
+     */
+    Prepared prepare(String method, NormalizedUri normalizedUri) {
+        sort();
+        writePrefix(method, normalizedUri);
+        int[] sortedSlots = new int[this.count * SLOTS];
+        for (int i = 0; i < this.count; ++i) {
+            System.arraycopy(this.slots, this.order[i] * SLOTS, sortedSlots, i * SLOTS, SLOTS);
+        }
+        return new Prepared(Arrays.copyOf(this.out, this.outSize), Arrays.copyOf(this.scratch, this.scratchSize),
+                sortedSlots, this.count);
+    }
+
+    /**
+     * Retrieve the previously written content.
+     *
+     * @return a reused view of the content, valid until the next usage of this buffer
+     */
+    ByteBuffer bytes() {
+        this.view.clear().limit(this.outSize);
+        return this.view;
+    }
+
+    /**
+     * Retrieve the size of the previously written content, including the already streamed chunks.
+     *
+     * @return the size in bytes
+     */
+    long size() {
+        return this.flushed + this.outSize;
+    }
+
+    /**
+     * Retrieve the previously written content as {@link String}.
+     *
+     * @return the content
+     */
+    String string() {
+        return new String(this.out, 0, this.outSize, StandardCharsets.US_ASCII);
+    }
+
+    private void written() {
+        if (this.chunks != null) {
+            flush();
+        }
+        OAuthMetrics.current().baseString((int) Math.min(size(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Pass the current output on as a chunk and empty the output area.
+     */
+    private void flush() {
+        if (this.outSize > 0) {
+            this.view.clear().limit(this.outSize);
+            this.chunks.accept(this.view);
+            this.flushed += this.outSize;
+            this.outSize = 0;
+        }
+    }
+
+    private void writePrefix(String method, NormalizedUri normalizedUri) {
+        /* add HTTP method */
+        for (int i = 0; i < method.length(); ++i) {
+            putOut((byte) method.charAt(i));
+        }
+        putOut(AMPERSAND);
+        /* add the already encoded URI */
+        ensureOut(normalizedUri.encodedLength());
+        this.outSize = normalizedUri.encode(this.out, this.outSize);
+        putOut(AMPERSAND);
+    }
+
+    /**
+     * Merge the sorted parameters of this buffer with the sorted parameters of the given {@link Prepared} instance.
+     */
+    private void writeParameters(Prepared prepared) {
+        int own = 0;
+        int fixed = 0;
+        while (own < this.count || fixed < prepared.count) {
+            if (own + fixed > 0) {
+                putOut(ENCODED_AMPERSAND, 0, ENCODED_AMPERSAND.length);
+            }
+            /* equal parameters are byte-wise identical, so every one of them gets written in any order */
+            int result = own == this.count ? 1
+                    : fixed == prepared.count ? -1
+                            : ParameterSort.compare(this.scratch, this.slots, this.order[own] * SLOTS, prepared.data,
+                                    prepared.slots, fixed * SLOTS);
+            if (result <= 0) {
+                putOutParameter(this.scratch, this.slots, this.order[own++] * SLOTS);
+            } else {
+                putOutParameter(prepared.data, prepared.slots, fixed++ * SLOTS);
+            }
+        }
+    }
+
+    /**
+     * Merge the sorted parameters of this buffer with the sorted parameters of the given {@link Prepared} instance and
+     * the streamed parameters of the given {@link ParameterCursor}, which are written before advancing the cursor.
+     */
+    private void writeParameters(Prepared prepared, ParameterCursor streamed) {
+        int own = 0;
+        int fixed = 0;
+        boolean pending = streamed.next();
+        boolean first = true;
+        while (own < this.count || fixed < prepared.count || pending) {
+            if (!first) {
+                putOut(ENCODED_AMPERSAND, 0, ENCODED_AMPERSAND.length);
+            }
+            first = false;
+            /* select the smallest of the current parameters */
+            byte[] data = null;
+            int[] dataSlots = null;
+            int slot = 0;
+            boolean isPrepared = false;
+            if (own < this.count) {
+                data = this.scratch;
+                dataSlots = this.slots;
+                slot = this.order[own] * SLOTS;
+            }
+            if (fixed < prepared.count && (data == null
+                    || isSmaller(prepared.data, prepared.slots, fixed * SLOTS, data, dataSlots, slot))) {
+                data = prepared.data;
+                dataSlots = prepared.slots;
+                slot = fixed * SLOTS;
+                isPrepared = true;
+            }
+            /* equal parameters are byte-wise identical, so every one of them gets written in any order */
+            if (pending && (data == null
+                    || isSmaller(streamed.data(), streamed.slots(), streamed.slot(), data, dataSlots, slot))) {
+                putOutParameter(streamed.data(), streamed.slots(), streamed.slot());
+                pending = streamed.next();
+            } else {
+                putOutParameter(data, dataSlots, slot);
+                if (isPrepared) {
+                    ++fixed;
+                } else {
+                    ++own;
+                }
+            }
+        }
+    }
+
+    private static boolean isSmaller(byte[] data, int[] dataSlots, int slot, byte[] other, int[] otherSlots,
+            int otherSlot) {
+        return ParameterSort.compare(data, dataSlots, slot, other, otherSlots, otherSlot) < 0;
+    }
+
+    private void putOutParameter(byte[] data, int[] dataSlots, int slot) {
+        putOutEncoded(data, dataSlots[slot], dataSlots[slot + 1]);
+        putOut(ENCODED_EQUALS, 0, ENCODED_EQUALS.length);
+        putOutEncoded(data, dataSlots[slot + 2], dataSlots[slot + 3]);
+    }
+
+    private void sort() {
+        if (this.order.length < this.count) {
+            this.order = new int[this.count];
+            this.orderTmp = new int[this.count];
+        }
+        ParameterSort.sort(this.scratch, this.slots, this.order, this.orderTmp, this.count);
+    }
+
+    private void queryParameter(String rawQuery, int from, int to) {
+        int slot = this.count * SLOTS;
+        if (slot + SLOTS > this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+        }
+        this.slots[slot] = this.scratchSize;
+        int keyEnd = -1;
+        for (int i = from; i < to; ++i) {
+            if (this.scratchSize + MAX_ENCODED_CODE_POINT > this.scratch.length) {
+                this.scratch = Arrays.copyOf(this.scratch, this.scratch.length * 2);
+            }
+            char c = rawQuery.charAt(i);
+            if (c == '=' && keyEnd < 0) {
+                keyEnd = this.scratchSize;
+            } else if (c == '%') {
+                int high = i + 2 < to ? PercentEncoder.hexValue(rawQuery.charAt(i + 1)) : -1;
+                int low = high < 0 ? -1 : PercentEncoder.hexValue(rawQuery.charAt(i + 2));
+                if (low < 0) {
+                    throw new IllegalArgumentException("invalid percent encoding");
+                }
+                this.scratchSize = PercentEncoder.encode((byte) (high << 4 | low), this.scratch, this.scratchSize);
+                i += 2;
+            } else if (c == '+') {
+                this.scratchSize = PercentEncoder.encode((byte) ' ', this.scratch, this.scratchSize);
+            } else if (c < 0x80) {
+                this.scratchSize = PercentEncoder.encode((byte) c, this.scratch, this.scratchSize);
+            } else {
+                /* raw non ASCII characters are rare and taken as UTF-8, keeping surrogate pairs together */
+                int end = Character.isHighSurrogate(c) && i + 1 < to ? i + 2 : i + 1;
+                this.scratchSize = PercentEncoder.encode(rawQuery.subSequence(i, end), this.scratch,
+                        this.scratchSize);
+                i = end - 1;
+            }
+        }
+        if (keyEnd < 0) {
+            keyEnd = this.scratchSize;
+        }
+        this.slots[slot + 1] = keyEnd;
+        this.slots[slot + 2] = keyEnd;
+        this.slots[slot + 3] = this.scratchSize;
+        ++this.count;
+    }
+
+    /**
+     * Percent encode the given characters into the scratch area.
+     */
+    private void encode(CharSequence value) {
+        int required = this.scratchSize + PercentEncoder.encodedLength(value);
+        if (required > this.scratch.length) {
+            this.scratch = Arrays.copyOf(this.scratch, Math.max(this.scratch.length * 2, required));
+        }
+        this.scratchSize = PercentEncoder.encode(value, this.scratch, this.scratchSize);
+    }
+
+    /**
+     * Copy an already encoded range of the scratch area into the output by encoding it a second time. Encoded content
+     * solely consists of unreserved characters and percent signs, so only the latter need to be escaped.
+     */
+    private void putOutEncoded(byte[] data, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            byte b = data[i];
+            if (b == PERCENT) {
+                putOut(ENCODED_PERCENT, 0, ENCODED_PERCENT.length);
+            } else {
+                putOut(b);
+            }
+        }
+    }
+
+    private void putOut(byte b) {
+        ensureOut(1);
+        this.out[this.outSize++] = b;
+    }
+
+    private void putOut(byte[] src, int from, int to) {
+        int length = to - from;
+        ensureOut(length);
+        System.arraycopy(src, from, this.out, this.outSize, length);
+        this.outSize += length;
+    }
+
+    private void ensureOut(int additional) {
+        if (this.outSize + additional <= this.out.length) {
+            return;
+        }
+        if (this.chunks != null) {
+            flush();
+        }
+        if (this.outSize + additional > this.out.length) {
+            this.out = Arrays.copyOf(this.out, Math.max(this.out.length * 2, this.outSize + additional));
+            this.view = ByteBuffer.wrap(this.out);
+        }
+    }
+
+    /**
+     * The immutable, already encoded and sorted invariant part of a <code>signature base string</code>.
+     *
+     * @author Martin Siegemund
+     */
+    static final class Prepared {
+        static final Prepared EMPTY = new Prepared(new byte[0], new byte[0], new int[0], 0);
+
+        private final byte[] prefix;
+        private final byte[] data;
+        private final int[] slots;
+        private final int count;
+
+        Prepared(byte[] prefix, byte[] data, int[] slots, int count) {
+            this.prefix = prefix;
+            this.data = data;
+            this.slots = slots;
+            this.count = count;
+        }
+
+        /**
+         * Retrieve the number of parameters.
+         *
+         * @return the number of parameters
+         */
+        int count() {
+            return this.count;
+        }
+    }
+}
@@ -17,12 +17,11 @@
 package de.msi.oauth.flow.signature.base;
 
 import java.net.URI;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,20 +29,34 @@ import org.apache.commons.logging.LogFactory;
 import de.msi.oauth.flow.params.HttpMethod;
 import de.msi.oauth.flow.params.SignatureBaseString;
 import de.msi.oauth.flow.params.header.fields.HeaderField;
-import de.msi.oauth.flow.signature.base.uri.DefaultNormalizeUri;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
+import de.msi.oauth.flow.signature.base.uri.NormalizedUri;
+import de.msi.oauth.flow.signature.base.uri.NormalizedUriCache;
 
 /**
  * The default implementation of the {@link SignatureBaseStringBuilder}.
+ * <p>
+ * Both {@link #build()} and {@link #buildBytes()} write the <code>signature base string</code> into a buffer which is
+ * reused by every builder on the same thread, whereas {@link #writeTo(java.util.function.Consumer)} passes it on in
+ * chunks of that buffer. Keys and values get percent encoded straight into that buffer. The fields
+ * are kept ordered by their plain keys and values, which is almost the order of the encoded fields, so the final sort
+ * of the buffer takes about linear time.
+ * <p>
+ * The endpoint is normalized once by the {@link NormalizedUriCache}, whereas the parameters of its query are decoded
+ * and encoded again straight into the buffer per build. Added {@link FormParameters} are not copied, their sorted
+ * parameters are merged into the <code>signature base string</code> while writing it.
+ * <p>
+ * Adding the same header field twice throws an {@link IllegalArgumentException}. Repeated key-value pairs of the query
+ * or of the {@link FormParameters} are part of the <code>signature base string</code> once per occurrence.
  *
  * @author Martin Siegemund
  */
 public final class DefaultSignatureBaseStringBuilder implements SignatureBaseStringBuilder {
 
     private static final Log LOG = LogFactory.getLog(DefaultSignatureBaseStringBuilder.class);
-
     private static final String REALM_KEY = "realm";
-    private static final String DELIMITER = "&";
-    private final Set<Parameter> parameters = new TreeSet<>();
+    private final SortedHeaderFields parameters = new SortedHeaderFields();
+    private final List<FormParameters> streamed = new ArrayList<>(0);
     private final HttpMethod httpMethod;
     private final URI uri;
 
@@ -60,29 +73,93 @@ public final class DefaultSignatureBaseStringBuilder implements SignatureBaseStr
 
     @Override
     public SignatureBaseStringBuilder add(HeaderField headerField) {
-        String key = headerField.key();
-        if (REALM_KEY.equals(key)) {
-            LOG.trace("filtering 'realm' parameter for building signature base string");
-        } else if (!this.parameters.add(new Parameter(key, headerField.value().orElse(null)))) {
-            throw new IllegalArgumentException("duplicated entries detected");
+        if (isIncluded(headerField)) {
+            this.parameters.add(headerField);
         }
         return this;
     }
 
+    @Override
+    public SignatureBaseStringBuilder add(FormParameters formParameters) {
+        this.streamed.add(Objects.requireNonNull(formParameters, "the form parameters are mandatory"));
+        return this;
+    }
+
     @Override
     public SignatureBaseString build() {
-        StringBuilder sb = new StringBuilder();
-        /* add HTTP method */
-        sb.append(this.httpMethod.identifier()).append(DELIMITER);
-        /* add URI */
-        sb.append(encode(new DefaultNormalizeUri(this.uri).normalize())).append(DELIMITER);
-        /* add parameters */
-        sb.append(encode(this.parameters.stream().map(Parameter::normalized).collect(Collectors.joining(DELIMITER))));
-        /* return resulting string */
-        return SignatureBaseString.of(sb.toString());
+        return SignatureBaseString.of(write(null).string());
+    }
+
+    @Override
+    public ByteBuffer buildBytes() {
+        return write(null).bytes();
     }
 
-    private static String encode(String toEncode) {
-        return URLEncoder.encode(toEncode, StandardCharsets.UTF_8);
+    @Override
+    public long writeTo(Consumer<ByteBuffer> chunks) {
+        return write(Objects.requireNonNull(chunks, "the chunk consumer is mandatory")).size();
+    }
+
+    /**
+     * Check if the given field is part of the <code>signature base string</code>, which is true for every field except
+     * <code>realm</code>.
+     * 
+     * @param headerField the {@link HeaderField}
+     * @return <code>true</code> if the field is included
+     */
+    static boolean isIncluded(HeaderField headerField) {
+        if (REALM_KEY.equals(headerField.key())) {
+            LOG.trace("filtering 'realm' parameter for building signature base string");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Open a single cursor over all parameters of the given {@link FormParameters}.
+     * 
+     * @param formParameters the {@link FormParameters}
+     * @return the {@link ParameterCursor}, which has to be closed
+     */
+    static ParameterCursor cursor(List<FormParameters> formParameters) {
+        List<ParameterCursor> cursors = new ArrayList<>();
+        try {
+            formParameters.forEach(fp -> fp.cursors(cursors));
+        } catch (RuntimeException e) {
+            cursors.forEach(ParameterCursor::close);
+            throw e;
+        }
+        return ParameterCursor.merge(cursors);
+    }
+
+    /**
+     * Write the <code>signature base string</code> into the buffer of the current thread.
+     * 
+     * @param chunks the consumer of the streamed chunks, or <code>null</code> to keep the content in the buffer
+     * @return the {@link BaseStringBuffer}
+     */
+    private BaseStringBuffer write(Consumer<ByteBuffer> chunks) {
+        BaseStringBuffer buffer = BaseStringBuffer.current();
+        if (chunks != null) {
+            buffer.stream(chunks);
+        }
+        NormalizedUri normalizedUri = NormalizedUriCache.shared().normalize(this.uri);
+        /* encode the parameters and the query parameters */
+        for (int i = 0; i < this.parameters.size(); ++i) {
+            buffer.parameter(this.parameters.key(i), this.parameters.value(i));
+        }
+        String rawQuery = this.uri.getRawQuery();
+        if (rawQuery != null) {
+            buffer.query(rawQuery);
+        }
+        /* sort the parameters and write method, URI and parameters */
+        if (this.streamed.isEmpty()) {
+            buffer.write(this.httpMethod.identifier(), normalizedUri);
+            return buffer;
+        }
+        try (ParameterCursor cursor = cursor(this.streamed)) {
+            buffer.write(this.httpMethod.identifier(), normalizedUri, cursor);
+        }
+        return buffer;
     }
 }
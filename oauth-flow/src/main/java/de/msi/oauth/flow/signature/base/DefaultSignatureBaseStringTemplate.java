@@ -0,0 +1,157 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.SignatureBaseString;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
+import de.msi.oauth.flow.signature.base.uri.NormalizedUri;
+import de.msi.oauth.flow.signature.base.uri.NormalizedUriCache;
+
+/**
+ * The default implementation of the {@link SignatureBaseStringTemplate}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultSignatureBaseStringTemplate implements SignatureBaseStringTemplate {
+    private final HttpMethod httpMethod;
+    private final URI uri;
+    private final SortedHeaderFields invariants = new SortedHeaderFields();
+    private final BaseStringBuffer.Prepared prepared;
+
+    /**
+     * Create a new instance.
+     * 
+     * @param httpMethod the {@link HttpMethod}
+     * @param endpoint the {@link URI} of the endpoint
+     * @param invariants the parameters which are part of every <code>signature base string</code>
+     */
+    DefaultSignatureBaseStringTemplate(HttpMethod httpMethod, URI endpoint,
+            Iterable<? extends HeaderField> invariants) {
+        this.httpMethod = Objects.requireNonNull(httpMethod, "the http method is mandatory");
+        this.uri = Objects.requireNonNull(endpoint, "the endpoint is mandatory");
+        for (HeaderField parameter : Objects.requireNonNull(invariants, "the invariants are mandatory")) {
+            if (DefaultSignatureBaseStringBuilder.isIncluded(parameter)) {
+                this.invariants.add(parameter);
+            }
+        }
+        /* use a dedicated buffer, the prepared content must not be shared with the thread confined one */
+        BaseStringBuffer buffer = new BaseStringBuffer();
+        for (int i = 0; i < this.invariants.size(); ++i) {
+            buffer.parameter(this.invariants.key(i), this.invariants.value(i));
+        }
+        /* the query parameters are invariant as well */
+        String rawQuery = endpoint.getRawQuery();
+        if (rawQuery != null) {
+            buffer.query(rawQuery);
+        }
+        NormalizedUri normalizedUri = NormalizedUriCache.shared().normalize(endpoint);
+        this.prepared = buffer.prepare(httpMethod.identifier(), normalizedUri);
+    }
+
+    @Override
+    public SignatureBaseStringBuilder builder() {
+        return new TemplateSignatureBaseStringBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("method", this.httpMethod)
+                .append("endpoint", this.uri).append("invariants", this.prepared.count()).build();
+    }
+
+    private final class TemplateSignatureBaseStringBuilder implements SignatureBaseStringBuilder {
+        private final SortedHeaderFields parameters = new SortedHeaderFields();
+        private final List<FormParameters> streamed = new ArrayList<>(0);
+
+        @Override
+        public SignatureBaseStringBuilder add(HeaderField headerField) {
+            if (DefaultSignatureBaseStringBuilder.isIncluded(headerField)) {
+                String key = headerField.key();
+                String value = headerField.value().orElse(null);
+                if (DefaultSignatureBaseStringTemplate.this.invariants.contains(key, value)) {
+                    throw new IllegalArgumentException(
+                            String.format("key-value pair '%s=%s' already present", key, value));
+                }
+                this.parameters.add(headerField);
+            }
+            return this;
+        }
+
+        @Override
+        public SignatureBaseStringBuilder add(FormParameters formParameters) {
+            this.streamed.add(Objects.requireNonNull(formParameters, "the form parameters are mandatory"));
+            return this;
+        }
+
+        @Override
+        public SignatureBaseString build() {
+            return SignatureBaseString.of(write(null).string());
+        }
+
+        @Override
+        public ByteBuffer buildBytes() {
+            return write(null).bytes();
+        }
+
+        @Override
+        public long writeTo(Consumer<ByteBuffer> chunks) {
+            return write(Objects.requireNonNull(chunks, "the chunk consumer is mandatory")).size();
+        }
+
+        /**
+         * Write the <code>signature base string</code> into the buffer of the current thread.
+         * 
+         * @param chunks the consumer of the streamed chunks, or <code>null</code> to keep the content in the buffer
+         * @return the {@link BaseStringBuffer}
+         */
+        private BaseStringBuffer write(Consumer<ByteBuffer> chunks) {
+            BaseStringBuffer buffer = BaseStringBuffer.current();
+            if (chunks != null) {
+                buffer.stream(chunks);
+            }
+            for (int i = 0; i < this.parameters.size(); ++i) {
+                buffer.parameter(this.parameters.key(i), this.parameters.value(i));
+            }
+            if (this.streamed.isEmpty()) {
+                buffer.write(DefaultSignatureBaseStringTemplate.this.prepared);
+                return buffer;
+            }
+            try (ParameterCursor cursor = DefaultSignatureBaseStringBuilder.cursor(this.streamed)) {
+                buffer.write(DefaultSignatureBaseStringTemplate.this.prepared, cursor);
+            }
+            return buffer;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append(DefaultSignatureBaseStringTemplate.this).build();
+        }
+    }
+}
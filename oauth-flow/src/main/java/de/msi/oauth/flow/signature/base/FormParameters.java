@@ -0,0 +1,572 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+
+/**
+ * The parameters of an <code>application/x-www-form-urlencoded</code> request body or query string, which are part of
+ * the <code>signature base string</code>.
+ * <p>
+ * The parameters get decoded, percent encoded as required by <code>OAuth</code> and sorted while parsing, without
+ * creating a {@link String} per key or value. As soon as the encoded parameters exceed the memory threshold, they get
+ * written as a sorted run into a temporary file, the runs are merged while writing the <code>signature base
+ * string</code> (see {@link SignatureBaseStringBuilder#add(FormParameters)}). The temporary files get deleted by
+ * {@link #close()}, so an instance should be closed as soon as the signature has been created.
+ * <p>
+ * A single key-value pair is always kept in memory as a whole, so one value larger than the threshold is collected
+ * completely before it can be written. The merged <code>signature base string</code> is passed on to the signing
+ * engines in chunks of a fixed size (see {@link SignatureBaseStringBuilder#writeTo(java.util.function.Consumer)}),
+ * so the encoded body is never kept in memory at once while signing.
+ * <p>
+ * Use one of the <code>parse</code> methods to create a new instance.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor13">9.1.1. Normalize Request Parameters</a>
+ */
+public final class FormParameters implements Closeable {
+    /**
+     * The number of encoded bytes which are kept in memory by default before writing a temporary file.
+     */
+    public static final int DEFAULT_MEMORY_THRESHOLD = 4 * 1024 * 1024;
+
+    private static final int SLOTS = ParameterSort.SLOTS;
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final String RUN_PREFIX = "oauth-form-";
+    private static final String RUN_SUFFIX = ".run";
+    private static final FormParameters EMPTY = new FormParameters(new byte[0], new int[0], 0, List.of(), 0);
+
+    private final byte[] data;
+    private final int[] slots;
+    private final int count;
+    private final List<Path> runs;
+    private final long size;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private FormParameters(byte[] data, int[] slots, int count, List<Path> runs, long size) {
+        this.data = data;
+        this.slots = slots;
+        this.count = count;
+        this.runs = runs;
+        this.size = size;
+    }
+
+    /**
+     * Retrieve an instance without parameters.
+     *
+     * @return the empty {@link FormParameters}
+     */
+    public static FormParameters empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Parse the given encoded parameters, like the raw query of an {@link java.net.URI}, in memory.
+     * <p>
+     * The characters are decoded one by one, without creating a {@link String} per key or value.
+     *
+     * @param encoded the encoded parameters
+     * @return the new {@link FormParameters}
+     * @throws IllegalArgumentException if the percent encoding is invalid
+     */
+    public static FormParameters parse(CharSequence encoded) {
+        if (encoded.length() == 0) {
+            return EMPTY;
+        }
+        Collector collector = new Collector(Integer.MAX_VALUE, null);
+        try {
+            int length = encoded.length();
+            for (int i = 0; i < length; ++i) {
+                char c = encoded.charAt(i);
+                if (c >= 0x80) {
+                    /* raw non ASCII characters are taken as UTF-8 */
+                    byte[] bytes = encoded.subSequence(i, length).toString().getBytes(StandardCharsets.UTF_8);
+                    collector.accept(bytes, 0, bytes.length);
+                    break;
+                }
+                collector.accept((byte) c);
+            }
+            return collector.finish();
+        } catch (IOException e) {
+            /* never happens, the collector does not spill without a directory */
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parse the parameters read from the given {@link InputStream}, which is not closed.
+     *
+     * @param input the {@link InputStream} providing the <code>application/x-www-form-urlencoded</code> content
+     * @return the new {@link FormParameters}
+     * @throws IOException if reading the input or writing a temporary file fails
+     * @throws IllegalArgumentException if the percent encoding is invalid
+     */
+    public static FormParameters parse(InputStream input) throws IOException {
+        return parse(Channels.newChannel(input));
+    }
+
+    /**
+     * Parse the parameters read from the given {@link ReadableByteChannel}, which is not closed, by using the
+     * {@link #DEFAULT_MEMORY_THRESHOLD} and the directory of temporary files.
+     *
+     * @param channel the {@link ReadableByteChannel} providing the <code>application/x-www-form-urlencoded</code>
+     *        content
+     * @return the new {@link FormParameters}
+     * @throws IOException if reading the input or writing a temporary file fails
+     * @throws IllegalArgumentException if the percent encoding is invalid
+     */
+    public static FormParameters parse(ReadableByteChannel channel) throws IOException {
+        return parse(channel, DEFAULT_MEMORY_THRESHOLD, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Parse the parameters read from the given {@link ReadableByteChannel}, which is not closed.
+     *
+     * @param channel the {@link ReadableByteChannel} providing the <code>application/x-www-form-urlencoded</code>
+     *        content
+     * @param memoryThreshold the number of encoded bytes which are kept in memory before writing a temporary file,
+     *        checked after every complete key-value pair
+     * @param spillDirectory the directory of the temporary files
+     * @return the new {@link FormParameters}
+     * @throws IOException if reading the input or writing a temporary file fails
+     * @throws IllegalArgumentException if the percent encoding is invalid or the threshold is not positive
+     */
+    public static FormParameters parse(ReadableByteChannel channel, int memoryThreshold, Path spillDirectory)
+            throws IOException {
+        Objects.requireNonNull(channel, "the channel is mandatory");
+        Objects.requireNonNull(spillDirectory, "the spill directory is mandatory");
+        if (memoryThreshold < 1) {
+            throw new IllegalArgumentException("the memory threshold must be positive");
+        }
+        Collector collector = new Collector(memoryThreshold, spillDirectory);
+        try {
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            while (channel.read(chunk) >= 0) {
+                collector.accept(chunk.array(), 0, chunk.position());
+                chunk.clear();
+            }
+            return collector.finish();
+        } catch (IOException | RuntimeException e) {
+            collector.discard();
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieve the number of parameters.
+     *
+     * @return the number of parameters
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * Pass every decoded parameter to the given consumer, in the order of the <code>signature base string</code>.
+     * <p>
+     * This creates a {@link String} per key and value, so it should only be used for a moderate number of
+     * parameters.
+     *
+     * @param consumer the consumer of every key and value
+     * @throws UncheckedIOException if reading a temporary file fails
+     */
+    public void forEach(BiConsumer<String, String> consumer) {
+        try (ParameterCursor cursor = ParameterCursor.merge(cursors(new ArrayList<>()))) {
+            while (cursor.next()) {
+                int[] current = cursor.slots();
+                int slot = cursor.slot();
+                consumer.accept(decode(cursor.data(), current[slot], current[slot + 1]),
+                        decode(cursor.data(), current[slot + 2], current[slot + 3]));
+            }
+        }
+    }
+
+    /**
+     * Delete the temporary files. Instances without temporary files remain usable.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        IOException failure = null;
+        for (Path run : this.runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", this.size)
+                .append("runs", this.runs.size()).build();
+    }
+
+    /**
+     * Retrieve the number of temporary files.
+     *
+     * @return the number of runs
+     */
+    int runs() {
+        return this.runs.size();
+    }
+
+    /**
+     * Add a sorted {@link ParameterCursor} per run to the given list.
+     *
+     * @param target the list to add to
+     * @return the given list
+     * @throws IllegalStateException if this instance has been closed
+     * @throws UncheckedIOException if opening a temporary file fails
+     */
+    List<ParameterCursor> cursors(List<ParameterCursor> target) {
+        if (this.closed.get() && !this.runs.isEmpty()) {
+            throw new IllegalStateException("the form parameters have been closed");
+        }
+        int first = target.size();
+        target.add(new ArrayCursor(this.data, this.slots, this.count));
+        try {
+            for (Path run : this.runs) {
+                target.add(new RunCursor(run));
+            }
+        } catch (IOException e) {
+            target.subList(first, target.size()).forEach(ParameterCursor::close);
+            throw new UncheckedIOException(e);
+        }
+        return target;
+    }
+
+    private static String decode(byte[] encoded, int from, int to) {
+        byte[] decoded = new byte[to - from];
+        int length = 0;
+        for (int i = from; i < to; ++i) {
+            if (encoded[i] == '%') {
+                decoded[length++] = (byte) (Character.digit(encoded[i + 1], 16) << 4
+                        | Character.digit(encoded[i + 2], 16));
+                i += 2;
+            } else {
+                decoded[length++] = encoded[i];
+            }
+        }
+        return new String(decoded, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the <code>application/x-www-form-urlencoded</code> content byte by byte and encodes every decoded byte
+     * straight away, writing sorted runs whenever the memory threshold is exceeded.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class Collector {
+        private static final int NO_ESCAPE = -1;
+        private final int memoryThreshold;
+        private final Path directory;
+        private final List<Path> runs = new ArrayList<>();
+        private byte[] data = new byte[256];
+        private int dataSize;
+        /* [keyStart, keyEnd, valueStart, valueEnd] per parameter */
+        private int[] slots = new int[16 * SLOTS];
+        private int count;
+        private long size;
+        private int pairStart;
+        /* negative while the key is read */
+        private int keyEnd = -1;
+        /* the number of hexadecimal digits read after a '%' */
+        private int escape = NO_ESCAPE;
+        private int escaped;
+
+        Collector(int memoryThreshold, Path directory) {
+            this.memoryThreshold = memoryThreshold;
+            this.directory = directory;
+        }
+
+        void accept(byte[] source, int from, int to) throws IOException {
+            for (int i = from; i < to; ++i) {
+                accept(source[i]);
+            }
+        }
+
+        void accept(byte b) throws IOException {
+            if (this.escape != NO_ESCAPE) {
+                int digit = Character.digit(b, 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("invalid percent encoding");
+                }
+                this.escaped = this.escaped << 4 | digit;
+                if (++this.escape == 2) {
+                    this.escape = NO_ESCAPE;
+                    put((byte) this.escaped);
+                }
+                return;
+            }
+            switch (b) {
+            case '&':
+                finishPair();
+                break;
+            case '=':
+                if (this.keyEnd < 0) {
+                    this.keyEnd = this.dataSize;
+                } else {
+                    put(b);
+                }
+                break;
+            case '%':
+                this.escape = 0;
+                this.escaped = 0;
+                break;
+            case '+':
+                put((byte) ' ');
+                break;
+            default:
+                put(b);
+            }
+        }
+
+        FormParameters finish() throws IOException {
+            finishPair();
+            int[] sorted = sortedSlots();
+            return new FormParameters(Arrays.copyOf(this.data, this.dataSize), sorted, this.count,
+                    List.copyOf(this.runs), this.size);
+        }
+
+        void discard() {
+            for (Path run : this.runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    /* the original failure is more important */
+                }
+            }
+        }
+
+        private void put(byte raw) {
+            if (this.dataSize + 3 > this.data.length) {
+                this.data = Arrays.copyOf(this.data, this.data.length * 2);
+            }
+            this.dataSize = PercentEncoder.encode(raw, this.data, this.dataSize);
+        }
+
+        private void finishPair() throws IOException {
+            if (this.escape != NO_ESCAPE) {
+                throw new IllegalArgumentException("incomplete percent encoding");
+            }
+            if (this.keyEnd < 0) {
+                if (this.dataSize == this.pairStart) {
+                    /* skip empty pairs like in "a=1&&b=2" */
+                    return;
+                }
+                this.keyEnd = this.dataSize;
+            }
+            int slot = this.count * SLOTS;
+            if (slot + SLOTS > this.slots.length) {
+                this.slots = Arrays.copyOf(this.slots, this.slots.length * 2);
+            }
+            this.slots[slot] = this.pairStart;
+            this.slots[slot + 1] = this.keyEnd;
+            this.slots[slot + 2] = this.keyEnd;
+            this.slots[slot + 3] = this.dataSize;
+            ++this.count;
+            ++this.size;
+            this.keyEnd = -1;
+            this.pairStart = this.dataSize;
+            if (this.directory != null && this.dataSize >= this.memoryThreshold) {
+                spill();
+            }
+        }
+
+        private int[] sortedSlots() {
+            int[] order = new int[this.count];
+            ParameterSort.sort(this.data, this.slots, order, new int[this.count], this.count);
+            int[] sorted = new int[this.count * SLOTS];
+            for (int i = 0; i < this.count; ++i) {
+                System.arraycopy(this.slots, order[i] * SLOTS, sorted, i * SLOTS, SLOTS);
+            }
+            return sorted;
+        }
+
+        private void spill() throws IOException {
+            int[] sorted = sortedSlots();
+            Path run = Files.createTempFile(this.directory, RUN_PREFIX, RUN_SUFFIX);
+            this.runs.add(run);
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), CHUNK_SIZE))) {
+                output.writeInt(this.count);
+                for (int slot = 0; slot < sorted.length; slot += SLOTS) {
+                    output.writeInt(sorted[slot + 1] - sorted[slot]);
+                    output.write(this.data, sorted[slot], sorted[slot + 1] - sorted[slot]);
+                    output.writeInt(sorted[slot + 3] - sorted[slot + 2]);
+                    output.write(this.data, sorted[slot + 2], sorted[slot + 3] - sorted[slot + 2]);
+                }
+            }
+            this.dataSize = 0;
+            this.count = 0;
+            this.pairStart = 0;
+        }
+    }
+
+    /**
+     * Iterates the sorted parameters kept in memory.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class ArrayCursor implements ParameterCursor {
+        private final byte[] data;
+        private final int[] slots;
+        private final int count;
+        private int index = -1;
+
+        ArrayCursor(byte[] data, int[] slots, int count) {
+            this.data = data;
+            this.slots = slots;
+            this.count = count;
+        }
+
+        @Override
+        public boolean next() {
+            return ++this.index < this.count;
+        }
+
+        @Override
+        public byte[] data() {
+            return this.data;
+        }
+
+        @Override
+        public int[] slots() {
+            return this.slots;
+        }
+
+        @Override
+        public int slot() {
+            return this.index * SLOTS;
+        }
+
+        @Override
+        public void close() {
+            /* nothing to release */
+        }
+    }
+
+    /**
+     * Reads the sorted parameters of a temporary file, reusing a single data array.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class RunCursor implements ParameterCursor {
+        private final DataInputStream input;
+        private final int[] slots = new int[SLOTS];
+        private byte[] data = new byte[256];
+        private int remaining;
+
+        RunCursor(Path run) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), CHUNK_SIZE));
+            try {
+                this.remaining = this.input.readInt();
+            } catch (IOException e) {
+                this.input.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean next() {
+            if (this.remaining == 0) {
+                return false;
+            }
+            --this.remaining;
+            try {
+                int keyLength = this.input.readInt();
+                ensure(keyLength);
+                this.input.readFully(this.data, 0, keyLength);
+                int valueLength = this.input.readInt();
+                ensure(keyLength + valueLength);
+                this.input.readFully(this.data, keyLength, valueLength);
+                this.slots[1] = keyLength;
+                this.slots[2] = keyLength;
+                this.slots[3] = keyLength + valueLength;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public byte[] data() {
+            return this.data;
+        }
+
+        @Override
+        public int[] slots() {
+            return this.slots;
+        }
+
+        @Override
+        public int slot() {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            try {
+                this.input.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void ensure(int capacity) {
+            if (capacity > this.data.length) {
+                this.data = Arrays.copyOf(this.data, Math.max(capacity, this.data.length * 2));
+            }
+        }
+    }
+}
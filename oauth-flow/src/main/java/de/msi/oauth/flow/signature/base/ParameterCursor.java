@@ -0,0 +1,144 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Iterates percent encoded parameters in their sorted order, the current parameter being described by a slot of
+ * four indices into a data array (see {@link ParameterSort}).
+ * <p>
+ * The data array and the slots may be reused by every invocation of {@link #next()}. Failing reads are reported as
+ * {@link java.io.UncheckedIOException}.
+ *
+ * @author Martin Siegemund
+ */
+interface ParameterCursor extends AutoCloseable {
+    /**
+     * Move to the next parameter.
+     *
+     * @return <code>true</code> if a parameter is available
+     */
+    boolean next();
+
+    /**
+     * Retrieve the data array of the current parameter.
+     *
+     * @return the data array
+     */
+    byte[] data();
+
+    /**
+     * Retrieve the slots of the current parameter.
+     *
+     * @return the slots
+     */
+    int[] slots();
+
+    /**
+     * Retrieve the position of the current parameter within the {@link #slots()}.
+     *
+     * @return the slot
+     */
+    int slot();
+
+    @Override
+    void close();
+
+    /**
+     * Merge the given cursors, which have to be positioned in front of their first parameter.
+     *
+     * @param cursors the sorted cursors
+     * @return the merging {@link ParameterCursor}, which closes the given cursors
+     */
+    static ParameterCursor merge(List<? extends ParameterCursor> cursors) {
+        return cursors.size() == 1 ? cursors.get(0) : new MergingParameterCursor(cursors);
+    }
+
+    /**
+     * Merges sorted cursors by keeping them in a {@link PriorityQueue} ordered by their current parameter. Equal
+     * parameters of different cursors are all passed on, they are byte-wise identical, so their order does not matter.
+     *
+     * @author Martin Siegemund
+     */
+    static final class MergingParameterCursor implements ParameterCursor {
+        private final List<? extends ParameterCursor> cursors;
+        private final PriorityQueue<ParameterCursor> queue;
+        private boolean started;
+        private ParameterCursor current;
+
+        MergingParameterCursor(List<? extends ParameterCursor> cursors) {
+            this.cursors = cursors;
+            this.queue = new PriorityQueue<>(Math.max(1, cursors.size()), MergingParameterCursor::compare);
+        }
+
+        @Override
+        public boolean next() {
+            if (!this.started) {
+                this.started = true;
+                for (ParameterCursor cursor : this.cursors) {
+                    if (cursor.next()) {
+                        this.queue.add(cursor);
+                    }
+                }
+            } else if (this.current != null && this.current.next()) {
+                this.queue.add(this.current);
+            }
+            this.current = this.queue.poll();
+            return this.current != null;
+        }
+
+        @Override
+        public byte[] data() {
+            return this.current.data();
+        }
+
+        @Override
+        public int[] slots() {
+            return this.current.slots();
+        }
+
+        @Override
+        public int slot() {
+            return this.current.slot();
+        }
+
+        @Override
+        public void close() {
+            RuntimeException failure = null;
+            for (ParameterCursor cursor : this.cursors) {
+                try {
+                    cursor.close();
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private static int compare(ParameterCursor a, ParameterCursor b) {
+            return ParameterSort.compare(a.data(), a.slots(), a.slot(), b.data(), b.slots(), b.slot());
+        }
+    }
+}
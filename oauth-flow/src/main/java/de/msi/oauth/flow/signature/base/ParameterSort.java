@@ -0,0 +1,99 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.util.Arrays;
+
+/**
+ * Sorts and compares percent encoded parameters which are described by slots of four indices
+ * (<code>[keyStart, keyEnd, valueStart, valueEnd]</code>) into a data array.
+ * <p>
+ * The sort is stable and keeps equal parameters, as a repeated key-value pair of a query or a request body is part of
+ * the <code>signature base string</code> once per occurrence.
+ *
+ * @author Martin Siegemund
+ */
+final class ParameterSort {
+    static final int SLOTS = 4;
+
+    private ParameterSort() {
+        /* no instances */
+    }
+
+    /**
+     * Sort the given number of parameters by writing their slot numbers into the order array.
+     *
+     * @param data the encoded parameters
+     * @param slots the slots of the parameters
+     * @param order receives the sorted slot numbers, requires at least <code>count</code> entries
+     * @param tmp a temporary array of the same size as the order array
+     * @param count the number of parameters
+     */
+    static void sort(byte[] data, int[] slots, int[] order, int[] tmp, int count) {
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+        }
+        mergeSort(data, slots, order, tmp, 0, count);
+    }
+
+    /**
+     * Compare two parameters by their encoded key and afterwards by their encoded value.
+     */
+    static int compare(byte[] dataA, int[] slotsA, int slotA, byte[] dataB, int[] slotsB, int slotB) {
+        int result = Arrays.compare(dataA, slotsA[slotA], slotsA[slotA + 1], dataB, slotsB[slotB],
+                slotsB[slotB + 1]);
+        return result != 0 ? result
+                : Arrays.compare(dataA, slotsA[slotA + 2], slotsA[slotA + 3], dataB, slotsB[slotB + 2],
+                        slotsB[slotB + 3]);
+    }
+
+    private static int compare(byte[] data, int[] slots, int a, int b) {
+        return compare(data, slots, a * SLOTS, data, slots, b * SLOTS);
+    }
+
+    private static void mergeSort(byte[] data, int[] slots, int[] order, int[] tmp, int from, int to) {
+        if (to - from < 8) {
+            /* insertion sort for short ranges */
+            for (int i = from + 1; i < to; ++i) {
+                int current = order[i];
+                int j = i - 1;
+                while (j >= from && compare(data, slots, order[j], current) > 0) {
+                    order[j + 1] = order[j];
+                    --j;
+                }
+                order[j + 1] = current;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(data, slots, order, tmp, from, middle);
+        mergeSort(data, slots, order, tmp, middle, to);
+        if (compare(data, slots, order[middle - 1], order[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, tmp, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; ++i) {
+            if (right >= to || (left < middle && compare(data, slots, tmp[left], tmp[right]) <= 0)) {
+                order[i] = tmp[left++];
+            } else {
+                order[i] = tmp[right++];
+            }
+        }
+    }
+}
@@ -16,17 +16,25 @@
 
 package de.msi.oauth.flow.signature.base;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import de.msi.oauth.flow.common.ChunkedInput;
 import de.msi.oauth.flow.params.SignatureBaseString;
 import de.msi.oauth.flow.params.header.fields.HeaderField;
 
 /**
  * Builds <code>signature base strings</code>.
+ * <p>
+ * Every builder is a {@link ChunkedInput} of its <code>signature base string</code>, which the signing engines
+ * consume while it is written.
  * 
  * @author Martin Siegemund
  * @see <a href="https://oauth.net/core/1.0a/#anchor13">Signature Base
  *      String</a>
  */
-public interface SignatureBaseStringBuilder {
+public interface SignatureBaseStringBuilder extends ChunkedInput {
     /**
      * Add a new {@link HeaderField}.
      * 
@@ -35,10 +43,55 @@ public interface SignatureBaseStringBuilder {
      */
     SignatureBaseStringBuilder add(HeaderField headerField);
 
+    /**
+     * Add the parameters of a request body or query string.
+     * <p>
+     * Implementations may read the parameters while building the <code>signature base string</code>, so the
+     * {@link FormParameters} must not be closed before.
+     * 
+     * @param parameters the {@link FormParameters} to add
+     * @return the builder instance
+     */
+    default SignatureBaseStringBuilder add(FormParameters parameters) {
+        parameters.forEach((key, value) -> add(HeaderField.of(key, value)));
+        return this;
+    }
+
     /**
      * Build the <code>signature base string</code>.
      * 
      * @return the <code>signature base string</code>
      */
     SignatureBaseString build();
+
+    /**
+     * Build the <code>signature base string</code> as <code>US-ASCII</code> bytes.
+     * <p>
+     * Implementations may return a buffer which is reused by the calling thread. The content is only guaranteed to be
+     * valid on the calling thread until the next <code>signature base string</code> gets built, so it should be
+     * consumed right away (e.g. by <code>Mac.update</code>).
+     * 
+     * @return the <code>signature base string</code> bytes, ready to be read
+     */
+    default ByteBuffer buildBytes() {
+        return ByteBuffer.wrap(build().get().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Write the <code>signature base string</code> as <code>US-ASCII</code> bytes in chunks.
+     * <p>
+     * This default passes the result of {@link #buildBytes()} as a single chunk. Implementations should rather pass
+     * the content on while writing it, so the <code>signature base string</code> of a large request body is never
+     * kept as a whole.
+     * 
+     * @param chunks the consumer of every chunk, ready to be read
+     * @return the length of the <code>signature base string</code>
+     */
+    @Override
+    default long writeTo(Consumer<ByteBuffer> chunks) {
+        ByteBuffer bytes = buildBytes();
+        int length = bytes.remaining();
+        chunks.accept(bytes);
+        return length;
+    }
 }
@@ -0,0 +1,57 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.net.URI;
+
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+
+/**
+ * A precompiled <code>signature base string</code> for repeated signing against the same endpoint.
+ * <p>
+ * The <code>HTTP</code> method, the normalized <code>URI</code>, its query parameters and the invariant parameters get
+ * encoded and sorted once. Every {@link SignatureBaseStringBuilder} created by {@link #builder()} only encodes the
+ * parameters added to it and merges them with the invariant ones.
+ * <p>
+ * Use {@link #of(HttpMethod, URI, Iterable)} to create a new instance.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor13">Signature Base String</a>
+ */
+public interface SignatureBaseStringTemplate {
+    /**
+     * Create a new {@link SignatureBaseStringBuilder} which contains the invariant parameters already.
+     * 
+     * @return the new {@link SignatureBaseStringBuilder}
+     */
+    SignatureBaseStringBuilder builder();
+
+    /**
+     * Create a new instance.
+     * 
+     * @param httpMethod the {@link HttpMethod}
+     * @param endpoint the {@link URI} of the endpoint
+     * @param invariants the parameters which are part of every <code>signature base string</code>
+     * @return the new {@link SignatureBaseStringTemplate}
+     * @throws IllegalArgumentException if the invariants contain duplicated entries
+     */
+    static SignatureBaseStringTemplate of(HttpMethod httpMethod, URI endpoint,
+            Iterable<? extends HeaderField> invariants) {
+        return new DefaultSignatureBaseStringTemplate(httpMethod, endpoint, invariants);
+    }
+}
@@ -17,6 +17,7 @@
 package de.msi.oauth.flow.signature.base.uri;
 
 import java.net.URI;
+import java.util.Locale;
 import java.util.Objects;
 
 import org.apache.commons.lang3.StringUtils;
@@ -25,7 +26,9 @@ import org.apache.commons.lang3.StringUtils;
  * The default implementation of {@link NormalizeUri}.
  * <p>
  * This implementation produces results in regard to the <code>OAuth</code> specification
- * <code>9.1.2. Construct Request URL</code>.
+ * <code>9.1.2. Construct Request URL</code>. Only the scheme and the host get lowercased, the path is case sensitive.
+ * <p>
+ * Use {@link NormalizedUriCache} for endpoints which get normalized repeatedly.
  *
  * @author Martin Siegemund
  * @see <a href="https://oauth.net/core/1.0a/#anchor13">9.1.2. Construct Request URL</a>
@@ -46,9 +49,9 @@ public final class DefaultNormalizeUri implements NormalizeUri {
     @Override
     public String normalize() {
         StringBuilder sb = new StringBuilder();
-        sb.append(this.uri.getScheme()).append(DELIMITER).append(this.uri.getHost()).append(port())
-                .append(this.uri.getPath());
-        return sb.toString().toLowerCase();
+        sb.append(this.uri.getScheme().toLowerCase(Locale.ROOT)).append(DELIMITER)
+                .append(this.uri.getHost().toLowerCase(Locale.ROOT)).append(port()).append(this.uri.getPath());
+        return sb.toString();
     }
 
     private String port() {
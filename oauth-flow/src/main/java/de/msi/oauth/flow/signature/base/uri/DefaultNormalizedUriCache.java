@@ -0,0 +1,186 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base.uri;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.metrics.OAuthMetrics;
+
+/**
+ * The default implementation of {@link NormalizedUriCache}.
+ * <p>
+ * The entries are spread across independently locked stripes, every stripe being an access ordered
+ * {@link LinkedHashMap} which evicts its least recently used entry. The normalization of a missing entry happens
+ * outside of the lock, so concurrent misses of the same {@link URI} may normalize it more than once.
+ * <p>
+ * The entries are keyed by the scheme, the authority and the path of the raw {@link URI}, which are compared without
+ * creating a query-less copy of the {@link URI}.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultNormalizedUriCache implements NormalizedUriCache {
+    static final NormalizedUriCache SHARED = new DefaultNormalizedUriCache(SHARED_MAXIMUM_SIZE);
+
+    private static final int MAX_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    DefaultNormalizedUriCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("the maximum size must be positive");
+        }
+        this.maximumSize = maximumSize;
+        /* a power of two, but every stripe holds at least a single entry */
+        int count = Math.min(MAX_STRIPES, Integer.highestOneBit(maximumSize));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; ++i) {
+            this.stripes[i] = new Stripe(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    @Override
+    public NormalizedUri normalize(URI uri) {
+        Endpoint endpoint = new Endpoint(Objects.requireNonNull(uri, "the uri is mandatory"));
+        Stripe stripe = stripe(endpoint);
+        NormalizedUri normalized;
+        synchronized (stripe) {
+            normalized = stripe.get(endpoint);
+        }
+        if (normalized != null) {
+            this.hits.increment();
+            OAuthMetrics.current().uriCache(true);
+            return normalized;
+        }
+        this.misses.increment();
+        OAuthMetrics.current().uriCache(false);
+        normalized = NormalizedUri.of(uri);
+        synchronized (stripe) {
+            NormalizedUri present = stripe.putIfAbsent(endpoint, normalized);
+            return present == null ? normalized : present;
+        }
+    }
+
+    @Override
+    public long hits() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long misses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("maximumSize", this.maximumSize)
+                .append("size", size()).append("hits", hits()).append("misses", misses()).build();
+    }
+
+    private Stripe stripe(Endpoint endpoint) {
+        int hash = endpoint.hashCode();
+        return this.stripes[(hash ^ (hash >>> 16)) & (this.stripes.length - 1)];
+    }
+
+    /**
+     * A single stripe, which has to be guarded by its own monitor.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class Stripe extends LinkedHashMap<Endpoint, NormalizedUri> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Endpoint, NormalizedUri> eldest) {
+            return size() > this.capacity;
+        }
+    }
+
+    /**
+     * The key of an entry, which ignores the query and the fragment of its {@link URI}.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class Endpoint {
+        private final String scheme;
+        private final String authority;
+        private final String path;
+        private final int hash;
+
+        Endpoint(URI uri) {
+            /* the raw components are kept by the URI, so retrieving them does not copy anything */
+            this.scheme = uri.getScheme();
+            this.authority = uri.getRawAuthority();
+            this.path = uri.getRawPath();
+            this.hash = 31 * (31 * Objects.hashCode(this.scheme) + Objects.hashCode(this.authority))
+                    + Objects.hashCode(this.path);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Endpoint)) {
+                return false;
+            }
+            Endpoint other = (Endpoint) obj;
+            return this.hash == other.hash && Objects.equals(this.path, other.path)
+                    && Objects.equals(this.authority, other.authority) && Objects.equals(this.scheme, other.scheme);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
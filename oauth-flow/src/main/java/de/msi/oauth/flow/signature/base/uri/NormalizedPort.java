@@ -16,6 +16,7 @@
 
 package de.msi.oauth.flow.signature.base.uri;
 
+import java.util.Locale;
 import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
@@ -47,8 +48,7 @@ enum NormalizedPort implements Identifiable<String> {
     }
 
     String normalize(int portToNormalize) {
-        return portToNormalize == this.port ? StringUtils.EMPTY
-                : String.format(":%d", Integer.valueOf(portToNormalize));
+        return portToNormalize == this.port ? StringUtils.EMPTY : ":" + portToNormalize;
     }
 
     @Override
@@ -57,6 +57,6 @@ enum NormalizedPort implements Identifiable<String> {
     }
 
     static Optional<NormalizedPort> lookup(String scheme) {
-        return LOOKUP.lookup(scheme.toLowerCase());
+        return LOOKUP.lookup(scheme.toLowerCase(Locale.ROOT));
     }
 }
@@ -0,0 +1,111 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base.uri;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+
+/**
+ * A normalized request <code>URI</code>, which additionally holds its percent encoded representation as it appears
+ * within the <code>signature base string</code>.
+ * <p>
+ * The normalized <code>URI</code> excludes the query and the fragment, so every query of the same endpoint shares a
+ * single instance. The query parameters are added per request while writing the <code>signature base string</code>.
+ * <p>
+ * Use {@link #of(URI)} to normalize a single <code>URI</code> or {@link NormalizedUriCache} to reuse the instances of
+ * repeatedly used endpoints.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor13">9.1.2. Construct Request URL</a>
+ */
+public interface NormalizedUri {
+    /**
+     * Retrieve the normalized <code>URI</code>.
+     * 
+     * @return the normalized <code>URI</code>
+     */
+    String get();
+
+    /**
+     * Retrieve the length of the percent encoded <code>URI</code>.
+     * 
+     * @return the number of <code>US-ASCII</code> bytes
+     */
+    int encodedLength();
+
+    /**
+     * Copy the percent encoded <code>URI</code> into the given array.
+     * 
+     * @param target the target array, which requires at least {@link #encodedLength()} bytes behind the offset
+     * @param offset the offset within the target
+     * @return the offset behind the last written byte
+     */
+    int encode(byte[] target, int offset);
+
+    /**
+     * Normalize the given <code>URI</code>.
+     * 
+     * @param uri the {@link URI} to normalize
+     * @return the new {@link NormalizedUri}
+     */
+    static NormalizedUri of(URI uri) {
+        return new DefaultNormalizedUri(new DefaultNormalizeUri(uri).normalize());
+    }
+
+    /**
+     * The default implementation of {@link NormalizedUri}.
+     *
+     * @author Martin Siegemund
+     */
+    static final class DefaultNormalizedUri implements NormalizedUri {
+        private final String normalized;
+        private final byte[] encoded;
+
+        DefaultNormalizedUri(String normalized) {
+            this.normalized = Objects.requireNonNull(normalized, "the normalized uri is mandatory");
+            this.encoded = PercentEncoder.encode(normalized).getBytes(StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String get() {
+            return this.normalized;
+        }
+
+        @Override
+        public int encodedLength() {
+            return this.encoded.length;
+        }
+
+        @Override
+        public int encode(byte[] target, int offset) {
+            System.arraycopy(this.encoded, 0, target, offset, this.encoded.length);
+            return offset + this.encoded.length;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("normalized", this.normalized)
+                    .build();
+        }
+    }
+}
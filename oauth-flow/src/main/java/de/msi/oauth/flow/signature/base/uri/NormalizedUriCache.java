@@ -0,0 +1,91 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base.uri;
+
+import java.net.URI;
+
+/**
+ * A bounded and threadsafe cache of {@link NormalizedUri} instances, keyed by the endpoint {@link URI} without its
+ * query and fragment, so requests with varying queries share the entry of their endpoint.
+ * <p>
+ * The least recently used entries get evicted as soon as the maximum size is exceeded. Use {@link #shared()} to
+ * retrieve the cache which is used while building <code>signature base strings</code>, or {@link #of(int)} to create
+ * a separate one.
+ *
+ * @author Martin Siegemund
+ */
+public interface NormalizedUriCache {
+    /**
+     * The maximum size of the shared cache.
+     */
+    int SHARED_MAXIMUM_SIZE = 1024;
+
+    /**
+     * Retrieve the cached {@link NormalizedUri} of the given {@link URI}, normalizing it on a miss. The query and the
+     * fragment are ignored.
+     * 
+     * @param uri the {@link URI} to normalize
+     * @return the {@link NormalizedUri}
+     */
+    NormalizedUri normalize(URI uri);
+
+    /**
+     * Retrieve the number of lookups which have been answered by the cache.
+     * 
+     * @return the number of hits
+     */
+    long hits();
+
+    /**
+     * Retrieve the number of lookups which required a normalization.
+     * 
+     * @return the number of misses
+     */
+    long misses();
+
+    /**
+     * Retrieve the number of cached entries.
+     * 
+     * @return the size
+     */
+    int size();
+
+    /**
+     * Remove all entries, the counters are retained.
+     */
+    void clear();
+
+    /**
+     * Retrieve the shared cache, which holds up to {@value #SHARED_MAXIMUM_SIZE} entries.
+     * 
+     * @return the shared {@link NormalizedUriCache}
+     */
+    static NormalizedUriCache shared() {
+        return DefaultNormalizedUriCache.SHARED;
+    }
+
+    /**
+     * Create a new cache.
+     * 
+     * @param maximumSize the maximum number of entries
+     * @return the new {@link NormalizedUriCache}
+     * @throws IllegalArgumentException if the maximum size is not positive
+     */
+    static NormalizedUriCache of(int maximumSize) {
+        return new DefaultNormalizedUriCache(maximumSize);
+    }
+}
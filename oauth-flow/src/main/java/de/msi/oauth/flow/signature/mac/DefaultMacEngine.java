@@ -0,0 +1,279 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The default implementation of {@link MacEngine}.
+ * <p>
+ * Every thread keeps a small least recently used cache of {@link Mac} instances, each one initialized with its
+ * {@link MacKey}. The provider lookup only happens while the cache fills up, afterwards the evicted instances get
+ * initialized with the new key.
+ * <p>
+ * Virtual threads usually run a single task, so a cache per thread would look up a new instance for every signature.
+ * They borrow a cache from a small shared pool instead, holding one cache per available processor. A virtual thread
+ * which finds the pool empty uses a new cache and returns it to the pool, unless the pool is full already.
+ * <p>
+ * Destroying a {@link StoredTokenSecret} advances a shared generation. Every thread compares it on its next use of
+ * any engine and drops the instances of destroyed secrets, after overwriting their key state. A thread which never
+ * uses an engine again keeps its instances until it terminates.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultMacEngine implements MacEngine {
+    static final MacEngine HMAC_SHA1 = new DefaultMacEngine("HmacSHA1", 16);
+    private static final AtomicLong DESTROYED = new AtomicLong();
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private final String algorithm;
+    private final int keysPerThread;
+    private final ThreadLocal<MacCache> cache;
+    private final BooleanSupplier shared;
+    private final AtomicReferenceArray<MacCache> pool;
+
+    /**
+     * Create a new instance.
+     *
+     * @param algorithm the <code>JCA</code> algorithm name
+     * @param keysPerThread the maximum number of initialized instances per thread
+     */
+    DefaultMacEngine(String algorithm, int keysPerThread) {
+        this(algorithm, keysPerThread, DefaultMacEngine::isVirtualThread);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param algorithm the <code>JCA</code> algorithm name
+     * @param keysPerThread the maximum number of initialized instances per thread
+     * @param shared decides whether the current thread borrows its cache from the shared pool
+     */
+    DefaultMacEngine(String algorithm, int keysPerThread, BooleanSupplier shared) {
+        this.algorithm = Objects.requireNonNull(algorithm, "the algorithm is mandatory");
+        if (keysPerThread < 1) {
+            throw new IllegalArgumentException("at least one key per thread is required");
+        }
+        this.keysPerThread = keysPerThread;
+        this.cache = ThreadLocal.withInitial(() -> new MacCache(false));
+        this.shared = Objects.requireNonNull(shared, "the shared pool decision is mandatory");
+        this.pool = new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Notify every engine, that a {@link StoredTokenSecret} has been destroyed.
+     */
+    static void destroyed() {
+        DESTROYED.incrementAndGet();
+    }
+
+    /**
+     * Check whether the current thread is a virtual thread, which is never the case before Java 21.
+     * 
+     * @return <code>true</code> if the current thread is virtual
+     */
+    static boolean isVirtualThread() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("could not check the current thread", e);
+        }
+    }
+
+    @Override
+    public byte[] doFinal(MacKey key, byte[] input, int offset, int length) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        MacCache macs = acquire();
+        try {
+            Mac mac = macs.mac(key);
+            try {
+                mac.update(input, offset, length);
+                return mac.doFinal();
+            } catch (RuntimeException e) {
+                /* never leave a partially updated instance behind */
+                mac.reset();
+                throw e;
+            }
+        } finally {
+            release(macs);
+        }
+    }
+
+    @Override
+    public byte[] doFinal(MacKey key, ByteBuffer input) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        MacCache macs = acquire();
+        try {
+            Mac mac = macs.mac(key);
+            try {
+                mac.update(input);
+                return mac.doFinal();
+            } catch (RuntimeException e) {
+                mac.reset();
+                throw e;
+            }
+        } finally {
+            release(macs);
+        }
+    }
+
+    @Override
+    public byte[] doFinal(MacKey key, ChunkedInput input) {
+        Objects.requireNonNull(key, "the key is mandatory");
+        MacCache macs = acquire();
+        try {
+            Mac mac = macs.mac(key);
+            try {
+                /* every chunk is consumed right away, so the input is never kept as a whole */
+                input.writeTo(mac::update);
+                return mac.doFinal();
+            } catch (RuntimeException e) {
+                mac.reset();
+                throw e;
+            }
+        } finally {
+            release(macs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("algorithm", this.algorithm)
+                .append("keysPerThread", this.keysPerThread).build();
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual",
+                    MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            /* the runtime does not provide virtual threads */
+            return null;
+        }
+    }
+
+    private MacCache acquire() {
+        if (!this.shared.getAsBoolean()) {
+            return this.cache.get();
+        }
+        for (int i = 0; i < this.pool.length(); ++i) {
+            /* read first, so empty slots are not written by every borrower */
+            MacCache pooled = this.pool.get(i) == null ? null : this.pool.getAndSet(i, null);
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return new MacCache(true);
+    }
+
+    private void release(MacCache macs) {
+        if (!macs.pooled) {
+            return;
+        }
+        for (int i = 0; i < this.pool.length(); ++i) {
+            if (this.pool.get(i) == null && this.pool.compareAndSet(i, null, macs)) {
+                return;
+            }
+        }
+        /* the pool is full, the cache gets dropped */
+    }
+
+    private final class MacCache extends LinkedHashMap<MacKey, Mac> {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean pooled;
+        private long destroyed = DESTROYED.get();
+
+        MacCache(boolean pooled) {
+            super(16, 0.75f, true);
+            this.pooled = pooled;
+        }
+
+        Mac mac(MacKey key) {
+            long current = DESTROYED.get();
+            if (current != this.destroyed) {
+                this.destroyed = current;
+                evictDestroyed();
+            }
+            Mac mac = get(key);
+            if (mac != null) {
+                return mac;
+            }
+            try {
+                mac = size() < DefaultMacEngine.this.keysPerThread ? Mac.getInstance(DefaultMacEngine.this.algorithm)
+                        : evictEldest();
+                mac.init(key.secretKey(DefaultMacEngine.this.algorithm));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(
+                        String.format("could not initialize '%s' instance", DefaultMacEngine.this.algorithm), e);
+            }
+            put(key, mac);
+            return mac;
+        }
+
+        private void evictDestroyed() {
+            Iterator<Map.Entry<MacKey, Mac>> iterator = entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<MacKey, Mac> entry = iterator.next();
+                if (entry.getKey() instanceof StoredTokenSecret && ((StoredTokenSecret) entry.getKey()).isDestroyed()) {
+                    iterator.remove();
+                    scrub(entry.getValue());
+                }
+            }
+        }
+
+        private void scrub(Mac mac) {
+            try {
+                /* replace the padded key state of the destroyed secret before dropping the instance */
+                mac.init(new SecretKeySpec(new byte[1], DefaultMacEngine.this.algorithm));
+            } catch (GeneralSecurityException e) {
+                mac.reset();
+            }
+        }
+
+        private Mac evictEldest() {
+            Iterator<Mac> iterator = values().iterator();
+            Mac eldest = iterator.next();
+            iterator.remove();
+            return eldest;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.TokenSecret;
+
+/**
+ * The default implementation of {@link SecretStore}.
+ * <p>
+ * Every secret keeps its derived key material (<code>encoded consumer secret &amp; encoded token secret</code>) in a
+ * slot of a direct buffer. Slots of up to {@value #MAX_SLOT} bytes are cut from shared slabs in power of two sizes and
+ * reused after being zeroed, larger ones get a dedicated buffer.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultSecretStore implements SecretStore {
+    private static final int SLAB_SIZE = 64 * 1024;
+    private static final int MIN_SLOT = 32;
+    private static final int MAX_SLOT = 4 * 1024;
+    private static final byte AMPERSAND = '&';
+    private static final byte PERCENT = '%';
+
+    private final ConsumerSecret consumerSecret;
+    private final ConcurrentMap<String, DefaultStoredTokenSecret> secrets = new ConcurrentHashMap<>();
+    private final Slots slots = new Slots();
+
+    DefaultSecretStore(ConsumerSecret consumerSecret) {
+        this.consumerSecret = Objects.requireNonNull(consumerSecret, "the consumer secret is mandatory");
+    }
+
+    @Override
+    public ConsumerSecret consumerSecret() {
+        return this.consumerSecret;
+    }
+
+    @Override
+    public StoredTokenSecret put(String id, TokenSecret tokenSecret) {
+        Objects.requireNonNull(id, "the id is mandatory");
+        String rawConsumerSecret = this.consumerSecret.get();
+        String rawTokenSecret = Objects.requireNonNull(tokenSecret, "the token secret is mandatory").get();
+        /* write the key material into a temporary array, which gets zeroed after copying it into the slot */
+        int tokenOffset = PercentEncoder.encodedLength(rawConsumerSecret) + 1;
+        byte[] material = new byte[tokenOffset + PercentEncoder.encodedLength(rawTokenSecret)];
+        PercentEncoder.encode(rawConsumerSecret, material, 0);
+        material[tokenOffset - 1] = AMPERSAND;
+        PercentEncoder.encode(rawTokenSecret, material, tokenOffset);
+        ByteBuffer slot = this.slots.allocate(material.length);
+        slot.duplicate().put(material);
+        Arrays.fill(material, (byte) 0);
+
+        DefaultStoredTokenSecret stored = new DefaultStoredTokenSecret(id, slot, material.length, tokenOffset);
+        DefaultStoredTokenSecret previous = this.secrets.put(id, stored);
+        if (previous != null) {
+            previous.destroy();
+        }
+        return stored;
+    }
+
+    @Override
+    public Optional<StoredTokenSecret> get(String id) {
+        return Optional.ofNullable(this.secrets.get(id));
+    }
+
+    @Override
+    public boolean remove(String id) {
+        DefaultStoredTokenSecret removed = this.secrets.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        removed.destroy();
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.secrets.size();
+    }
+
+    @Override
+    public void clear() {
+        for (String id : this.secrets.keySet()) {
+            remove(id);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("size", size()).build();
+    }
+
+    /**
+     * A stored secret, which is its own {@link MacKey}. The identity of the instance identifies the key material, so
+     * a {@link MacEngine} never compares the secrets themselves.
+     *
+     * @author Martin Siegemund
+     */
+    private final class DefaultStoredTokenSecret implements StoredTokenSecret, MacKey {
+        private final String id;
+        private final ByteBuffer slot;
+        private final int length;
+        private final int tokenOffset;
+        /* guarded by this */
+        private boolean destroyed;
+
+        DefaultStoredTokenSecret(String id, ByteBuffer slot, int length, int tokenOffset) {
+            this.id = id;
+            this.slot = slot;
+            this.length = length;
+            this.tokenOffset = tokenOffset;
+        }
+
+        @Override
+        public String id() {
+            return this.id;
+        }
+
+        @Override
+        public synchronized String get() {
+            checkNotDestroyed();
+            /* decode the percent encoded token secret */
+            byte[] decoded = new byte[this.length - this.tokenOffset];
+            int size = 0;
+            for (int i = this.tokenOffset; i < this.length; ++i) {
+                byte b = this.slot.get(i);
+                if (b == PERCENT) {
+                    b = (byte) (Character.digit(this.slot.get(i + 1), 16) << 4
+                            | Character.digit(this.slot.get(i + 2), 16));
+                    i += 2;
+                }
+                decoded[size++] = b;
+            }
+            String value = new String(decoded, 0, size, StandardCharsets.UTF_8);
+            Arrays.fill(decoded, (byte) 0);
+            return value;
+        }
+
+        @Override
+        public MacKey macKey(ConsumerSecret otherConsumerSecret) {
+            if (DefaultSecretStore.this.consumerSecret.equals(otherConsumerSecret)) {
+                synchronized (this) {
+                    checkNotDestroyed();
+                }
+                return this;
+            }
+            return MacKey.of(otherConsumerSecret, AccessTokenSecret.of(get()));
+        }
+
+        @Override
+        public synchronized SecretKey secretKey(String algorithm) {
+            checkNotDestroyed();
+            byte[] material = new byte[this.length];
+            this.slot.duplicate().get(material);
+            try {
+                /* the specification copies the material */
+                return new SecretKeySpec(material, algorithm);
+            } finally {
+                Arrays.fill(material, (byte) 0);
+            }
+        }
+
+        @Override
+        public synchronized boolean isDestroyed() {
+            return this.destroyed;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("id", this.id)
+                    .append("destroyed", isDestroyed()).build();
+        }
+
+        synchronized void destroy() {
+            if (this.destroyed) {
+                return;
+            }
+            this.destroyed = true;
+            for (int i = 0; i < this.slot.capacity(); ++i) {
+                this.slot.put(i, (byte) 0);
+            }
+            DefaultSecretStore.this.slots.release(this.slot);
+            DefaultMacEngine.destroyed();
+        }
+
+        private void checkNotDestroyed() {
+            if (this.destroyed) {
+                throw new IllegalStateException(String.format("the secret '%s' has been destroyed", this.id));
+            }
+        }
+    }
+
+    /**
+     * Hands out zeroed slots of direct buffers, grouped by power of two sizes.
+     *
+     * @author Martin Siegemund
+     */
+    private static final class Slots {
+        private final List<ArrayDeque<ByteBuffer>> free = new ArrayList<>();
+
+        Slots() {
+            for (int size = MIN_SLOT; size <= MAX_SLOT; size <<= 1) {
+                this.free.add(new ArrayDeque<>());
+            }
+        }
+
+        synchronized ByteBuffer allocate(int length) {
+            if (length > MAX_SLOT) {
+                return ByteBuffer.allocateDirect(length);
+            }
+            int size = Math.max(MIN_SLOT, Integer.highestOneBit(length - 1) << 1);
+            ArrayDeque<ByteBuffer> available = this.free.get(sizeClass(size));
+            if (available.isEmpty()) {
+                ByteBuffer slab = ByteBuffer.allocateDirect(SLAB_SIZE);
+                for (int offset = 0; offset + size <= SLAB_SIZE; offset += size) {
+                    slab.limit(offset + size).position(offset);
+                    available.push(slab.slice());
+                }
+            }
+            return available.pop();
+        }
+
+        synchronized void release(ByteBuffer slot) {
+            if (slot.capacity() <= MAX_SLOT) {
+                this.free.get(sizeClass(slot.capacity())).push(slot);
+            }
+        }
+
+        private static int sizeClass(int size) {
+            return Integer.numberOfTrailingZeros(size) - Integer.numberOfTrailingZeros(MIN_SLOT);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.nio.ByteBuffer;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+
+/**
+ * Calculates message authentication codes by reusing already initialized algorithm instances.
+ * <p>
+ * Use {@link #hmacSha1()} to retrieve the shared <code>HMAC-SHA1</code> engine.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor15">HMAC-SHA1</a>
+ */
+public interface MacEngine {
+    /**
+     * Calculate the message authentication code of the given input.
+     *
+     * @param key the {@link MacKey}
+     * @param input the input
+     * @param offset the offset within the input
+     * @param length the number of bytes to process
+     * @return the resulting code
+     */
+    byte[] doFinal(MacKey key, byte[] input, int offset, int length);
+
+    /**
+     * Calculate the message authentication code of the given input.
+     *
+     * @param key the {@link MacKey}
+     * @param input the input
+     * @return the resulting code
+     */
+    default byte[] doFinal(MacKey key, byte[] input) {
+        return doFinal(key, input, 0, input.length);
+    }
+
+    /**
+     * Calculate the message authentication code of the remaining bytes of the given input.
+     * <p>
+     * The position of the input will be equal to its limit afterwards.
+     *
+     * @param key the {@link MacKey}
+     * @param input the input
+     * @return the resulting code
+     */
+    byte[] doFinal(MacKey key, ByteBuffer input);
+
+    /**
+     * Calculate the message authentication code of an input which is written in chunks.
+     * <p>
+     * This default collects the chunks first. Implementations should rather update the algorithm instance with every
+     * chunk, so the input never has to be kept in memory at once.
+     *
+     * @param key the {@link MacKey}
+     * @param input the {@link ChunkedInput}
+     * @return the resulting code
+     */
+    default byte[] doFinal(MacKey key, ChunkedInput input) {
+        return doFinal(key, input.toByteArray());
+    }
+
+    /**
+     * Retrieve the shared <code>HMAC-SHA1</code> engine.
+     * <p>
+     * Every thread owns its algorithm instances, each of them initialized with one of the most recently used keys.
+     *
+     * @return the {@link MacEngine}
+     */
+    static MacEngine hmacSha1() {
+        return DefaultMacEngine.HMAC_SHA1;
+    }
+}
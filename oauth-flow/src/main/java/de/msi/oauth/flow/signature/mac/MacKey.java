@@ -0,0 +1,116 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.util.Objects;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.TokenSecret;
+
+/**
+ * Identifies the key material of a signed text signature, which is the pair of <code>consumer secret</code> and
+ * <code>token secret</code>.
+ * <p>
+ * Two instances are equal if they refer to the same secrets. This allows a {@link MacEngine} to cache initialized
+ * algorithm instances per key without deriving the key material again.
+ * <p>
+ * Use {@link #of(ConsumerSecret, TokenSecret)} to create a new instance. The key material of a
+ * {@link StoredTokenSecret} gets resolved through its {@link SecretStore}, which derives it only once.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor15">HMAC-SHA1</a>
+ */
+public interface MacKey {
+    /**
+     * Derive the {@link SecretKey} for the given algorithm, which is based on the percent encoded secrets separated by
+     * <code>'&amp;'</code>.
+     *
+     * @param algorithm the <code>JCA</code> algorithm name
+     * @return the new {@link SecretKey}
+     */
+    SecretKey secretKey(String algorithm);
+
+    /**
+     * Create a new instance.
+     *
+     * @param consumerSecret the mandatory <code>consumer secret</code>
+     * @param tokenSecret the <code>token secret</code> (can be <code>null</code>)
+     * @return the new {@link MacKey}
+     */
+    static MacKey of(ConsumerSecret consumerSecret, TokenSecret tokenSecret) {
+        Objects.requireNonNull(consumerSecret, "the consumer secret is mandatory");
+        if (tokenSecret instanceof StoredTokenSecret) {
+            return ((StoredTokenSecret) tokenSecret).macKey(consumerSecret);
+        }
+        return new DefaultMacKey(consumerSecret.get(), tokenSecret == null ? StringUtils.EMPTY : tokenSecret.get());
+    }
+
+    /**
+     * The default implementation of {@link MacKey}.
+     *
+     * @author Martin Siegemund
+     */
+    static final class DefaultMacKey implements MacKey {
+        private final String consumerSecret;
+        private final String tokenSecret;
+
+        DefaultMacKey(String consumerSecret, String tokenSecret) {
+            this.consumerSecret = consumerSecret;
+            this.tokenSecret = tokenSecret;
+        }
+
+        @Override
+        public SecretKey secretKey(String algorithm) {
+            int tokenOffset = PercentEncoder.encodedLength(this.consumerSecret) + 1;
+            byte[] material = new byte[tokenOffset + PercentEncoder.encodedLength(this.tokenSecret)];
+            PercentEncoder.encode(this.consumerSecret, material, 0);
+            material[tokenOffset - 1] = '&';
+            PercentEncoder.encode(this.tokenSecret, material, tokenOffset);
+            return new SecretKeySpec(material, algorithm);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.consumerSecret.hashCode() + this.tokenSecret.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DefaultMacKey)) {
+                return false;
+            }
+            DefaultMacKey other = (DefaultMacKey) obj;
+            return this.consumerSecret.equals(other.consumerSecret) && this.tokenSecret.equals(other.tokenSecret);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.util.Optional;
+
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.TokenSecret;
+
+/**
+ * Keeps the <code>token secrets</code> of a single consumer by an identifier, like the user or session key.
+ * <p>
+ * The returned {@link StoredTokenSecret} instances can be used wherever an
+ * {@link de.msi.oauth.flow.params.AccessTokenSecret} is required. Removing or replacing a secret destroys the
+ * previous {@link StoredTokenSecret}, so it can not be used for signing anymore. The {@link MacEngine#hmacSha1()}
+ * instances initialized with it are dropped by every thread on its next signature.
+ * <p>
+ * Use {@link #offHeap(ConsumerSecret)} to create a store which keeps the key material outside of the heap.
+ *
+ * @author Martin Siegemund
+ */
+public interface SecretStore {
+    /**
+     * Retrieve the <code>consumer secret</code> every key material is derived with.
+     * 
+     * @return the {@link ConsumerSecret}
+     */
+    ConsumerSecret consumerSecret();
+
+    /**
+     * Store the given <code>token secret</code>, replacing and destroying a previous one of the same identifier.
+     * 
+     * @param id the identifier
+     * @param tokenSecret the <code>token secret</code>
+     * @return the {@link StoredTokenSecret}
+     */
+    StoredTokenSecret put(String id, TokenSecret tokenSecret);
+
+    /**
+     * Retrieve the secret of the given identifier.
+     * 
+     * @param id the identifier
+     * @return the {@link StoredTokenSecret}, which is empty if no secret is stored
+     */
+    Optional<StoredTokenSecret> get(String id);
+
+    /**
+     * Remove and destroy the secret of the given identifier.
+     * 
+     * @param id the identifier
+     * @return <code>true</code> if a secret has been removed
+     */
+    boolean remove(String id);
+
+    /**
+     * Retrieve the number of stored secrets.
+     * 
+     * @return the size
+     */
+    int size();
+
+    /**
+     * Remove and destroy every secret.
+     */
+    void clear();
+
+    /**
+     * Create a new store, which keeps the derived key material of every secret within direct buffers and zeroes it
+     * when the secret gets destroyed.
+     * <p>
+     * The key material is copied onto the heap while a {@link MacEngine} initializes an algorithm instance, which may
+     * keep its own copy until the instance gets initialized with another key.
+     * 
+     * @param consumerSecret the <code>consumer secret</code>
+     * @return the new {@link SecretStore}
+     */
+    static SecretStore offHeap(ConsumerSecret consumerSecret) {
+        return new DefaultSecretStore(consumerSecret);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerSecret;
+
+/**
+ * A <code>token secret</code> which is kept by a {@link SecretStore}.
+ * <p>
+ * The signature methods resolve the key material through {@link #macKey(ConsumerSecret)} (see
+ * {@link MacKey#of(ConsumerSecret, de.msi.oauth.flow.params.TokenSecret)}), so the secrets are not concatenated per
+ * request. {@link #get()} creates a new {@link String} of the raw secret on every invocation and should be avoided.
+ *
+ * @author Martin Siegemund
+ */
+public interface StoredTokenSecret extends AccessTokenSecret {
+    /**
+     * Retrieve the identifier within the {@link SecretStore}.
+     * 
+     * @return the identifier
+     */
+    String id();
+
+    /**
+     * Retrieve the key material of this secret combined with the given <code>consumer secret</code>.
+     * 
+     * @param consumerSecret the <code>consumer secret</code>
+     * @return the {@link MacKey}, which is cached if the <code>consumer secret</code> is the one of the
+     *         {@link SecretStore}
+     * @throws IllegalStateException if the secret has been destroyed
+     */
+    MacKey macKey(ConsumerSecret consumerSecret);
+
+    /**
+     * Check if the secret has been destroyed.
+     * 
+     * @return <code>true</code> if the secret has been removed from its {@link SecretStore}
+     */
+    boolean isDestroyed();
+}
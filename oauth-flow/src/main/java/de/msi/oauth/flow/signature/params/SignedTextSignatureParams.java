@@ -16,14 +16,18 @@
 
 package de.msi.oauth.flow.signature.params;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
+import de.msi.oauth.flow.common.ChunkedInput;
 import de.msi.oauth.flow.params.SignatureBaseString;
 import de.msi.oauth.flow.params.TokenSecret;
+import de.msi.oauth.flow.signature.base.SignatureBaseStringBuilder;
 
 /**
  * Parameter implementation required for the <code>HMAC-SHA1</code> method and
@@ -46,6 +50,34 @@ public interface SignedTextSignatureParams extends SignatureParams {
      */
     SignatureBaseString signatureBaseString();
 
+    /**
+     * Retrieve the <code>signature base string</code> as bytes.
+     * <p>
+     * The returned buffer may be reused by the calling thread, so it has to be consumed right away.
+     * 
+     * @return the <code>UTF-8</code> encoded <code>signature base string</code>
+     */
+    default ByteBuffer signatureBaseStringBytes() {
+        return ByteBuffer.wrap(signatureBaseString().get().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Retrieve the <code>signature base string</code> as {@link ChunkedInput}, which writes the bytes while they get
+     * consumed.
+     * <p>
+     * This default passes {@link #signatureBaseStringBytes()} as a single chunk.
+     * 
+     * @return the {@link ChunkedInput} of the <code>UTF-8</code> encoded <code>signature base string</code>
+     */
+    default ChunkedInput signatureBaseStringInput() {
+        return chunks -> {
+            ByteBuffer bytes = signatureBaseStringBytes();
+            int length = bytes.remaining();
+            chunks.accept(bytes);
+            return length;
+        };
+    }
+
     @Override
     default <R, E extends Exception> R handle(SignatureParamsHandler<R, E> handler) throws E {
         return handler.visit(this);
@@ -97,4 +129,55 @@ public interface SignedTextSignatureParams extends SignatureParams {
             return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.signatureBaseString).build();
         }
     }
+
+    /**
+     * An implementation of the {@link SignedTextSignatureParams} which writes the <code>signature base string</code>
+     * on demand by using a {@link SignatureBaseStringBuilder}.
+     * <p>
+     * Signature methods consuming {@link #signatureBaseStringBytes()} never create the <code>signature base
+     * string</code> as {@link String}, those consuming {@link #signatureBaseStringInput()} never keep it as a whole.
+     * 
+     * @author Martin Siegemund
+     */
+    public static final class BuilderSignedTextSignatureParams implements SignedTextSignatureParams {
+        private final SignatureBaseStringBuilder builder;
+        private final TokenSecret tokenSecret;
+
+        /**
+         * Create a new instance.
+         * 
+         * @param builder the completely filled {@link SignatureBaseStringBuilder}
+         * @param tokenSecret the <code>token secret</code> (can be
+         *        <code>null</code>)
+         */
+        public BuilderSignedTextSignatureParams(SignatureBaseStringBuilder builder, TokenSecret tokenSecret) {
+            this.builder = Objects.requireNonNull(builder, "the signature base string builder is mandatory");
+            this.tokenSecret = tokenSecret;
+        }
+
+        @Override
+        public SignatureBaseString signatureBaseString() {
+            return this.builder.build();
+        }
+
+        @Override
+        public ByteBuffer signatureBaseStringBytes() {
+            return this.builder.buildBytes();
+        }
+
+        @Override
+        public ChunkedInput signatureBaseStringInput() {
+            return this.builder;
+        }
+
+        @Override
+        public Optional<TokenSecret> tokenSecret() {
+            return Optional.ofNullable(this.tokenSecret);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append(this.builder).build();
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.rsa;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+
+/**
+ * The default implementation of {@link RsaSha1Engine}.
+ * <p>
+ * Every thread owns one signing and one verifying {@link Signature} instance. An instance only gets initialized again
+ * if the key differs from the one used by the previous invocation on the same thread.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultRsaSha1Engine implements RsaSha1Engine {
+    static final RsaSha1Engine SHARED = new DefaultRsaSha1Engine();
+
+    private static final String JAVA_ALGORITHM_NAME = "SHA1withRSA";
+
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+
+    @Override
+    public byte[] sign(PrivateKey key, byte[] input, int offset, int length) {
+        Objects.requireNonNull(key, "the private key is mandatory");
+        ThreadState ts = this.state.get();
+        try {
+            Signature signer = ts.signer(key);
+            signer.update(input, offset, length);
+            return signer.sign();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            ts.reset();
+            throw new IllegalStateException("could not calculate RSA-SHA1 signature", e);
+        }
+    }
+
+    @Override
+    public byte[] sign(PrivateKey key, ByteBuffer input) {
+        Objects.requireNonNull(key, "the private key is mandatory");
+        ThreadState ts = this.state.get();
+        try {
+            Signature signer = ts.signer(key);
+            signer.update(input);
+            return signer.sign();
+        } catch (GeneralSecurityException | RuntimeException e) {
+            ts.reset();
+            throw new IllegalStateException("could not calculate RSA-SHA1 signature", e);
+        }
+    }
+
+    @Override
+    public byte[] sign(PrivateKey key, ChunkedInput input) {
+        Objects.requireNonNull(key, "the private key is mandatory");
+        ThreadState ts = this.state.get();
+        try {
+            Signature signer = ts.signer(key);
+            /* every chunk is consumed right away, so the input is never kept as a whole */
+            input.writeTo(chunk -> update(signer, chunk));
+            return signer.sign();
+        } catch (GeneralSecurityException e) {
+            ts.reset();
+            throw new IllegalStateException("could not calculate RSA-SHA1 signature", e);
+        } catch (RuntimeException e) {
+            /* failures of the input itself are passed on unchanged */
+            ts.reset();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean verify(PublicKey key, byte[] input, int offset, int length, byte[] signature) {
+        Objects.requireNonNull(key, "the public key is mandatory");
+        ThreadState ts = this.state.get();
+        try {
+            Signature verifier = ts.verifier(key);
+            verifier.update(input, offset, length);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            /* malformed signatures are invalid ones */
+            ts.reset();
+            return false;
+        } catch (RuntimeException e) {
+            ts.reset();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean verify(PublicKey key, ChunkedInput input, byte[] signature) {
+        Objects.requireNonNull(key, "the public key is mandatory");
+        ThreadState ts = this.state.get();
+        try {
+            Signature verifier = ts.verifier(key);
+            input.writeTo(chunk -> update(verifier, chunk));
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            /* malformed signatures are invalid ones */
+            ts.reset();
+            return false;
+        } catch (RuntimeException e) {
+            ts.reset();
+            throw e;
+        }
+    }
+
+    private static void update(Signature signature, ByteBuffer chunk) {
+        try {
+            signature.update(chunk);
+        } catch (SignatureException e) {
+            /* the instance has been initialized already */
+            throw new IllegalStateException("could not update RSA-SHA1 instance", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+    }
+
+    private static final class ThreadState {
+        private Signature signer;
+        private PrivateKey signerKey;
+        private Signature verifier;
+        private PublicKey verifierKey;
+
+        Signature signer(PrivateKey key) throws GeneralSecurityException {
+            if (this.signer == null) {
+                this.signer = Signature.getInstance(JAVA_ALGORITHM_NAME);
+            }
+            if (this.signerKey != key) {
+                this.signerKey = null;
+                this.signer.initSign(key);
+                this.signerKey = key;
+            }
+            return this.signer;
+        }
+
+        Signature verifier(PublicKey key) throws GeneralSecurityException {
+            if (this.verifier == null) {
+                this.verifier = Signature.getInstance(JAVA_ALGORITHM_NAME);
+            }
+            if (this.verifierKey != key) {
+                this.verifierKey = null;
+                this.verifier.initVerify(key);
+                this.verifierKey = key;
+            }
+            return this.verifier;
+        }
+
+        /**
+         * Enforce the initialization of both instances on the next invocation, which discards any partial state.
+         */
+        void reset() {
+            this.signerKey = null;
+            this.verifierKey = null;
+        }
+    }
+}
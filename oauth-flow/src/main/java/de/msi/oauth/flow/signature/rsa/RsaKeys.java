@@ -0,0 +1,90 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.rsa;
+
+import java.io.ByteArrayInputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Parses <code>RSA</code> keys which are required by the <code>RSA-SHA1</code> signature method.
+ * <p>
+ * The keys are expected to be <code>PEM</code> encoded. A private key has to be encoded as <code>PKCS#8</code>
+ * (<code>BEGIN PRIVATE KEY</code>), a public key either as <code>X.509</code> subject public key info
+ * (<code>BEGIN PUBLIC KEY</code>) or as part of an <code>X.509</code> certificate (<code>BEGIN CERTIFICATE</code>).
+ * The parsing is expensive, so the resulting keys should be kept and reused.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor18">RSA-SHA1</a>
+ */
+public final class RsaKeys {
+    private static final String ALGORITHM = "RSA";
+    private static final String CERTIFICATE_TYPE = "X.509";
+    private static final String CERTIFICATE_MARKER = "-----BEGIN CERTIFICATE-----";
+    private static final Pattern PEM_BOUNDARY = Pattern.compile("-----(BEGIN|END) [A-Z ]+-----|\\s");
+
+    private RsaKeys() {
+        /* no instances */
+    }
+
+    /**
+     * Parse a <code>PKCS#8</code> private key.
+     *
+     * @param pem the <code>PEM</code> encoded key
+     * @return the {@link PrivateKey}
+     * @throws IllegalArgumentException if the key could not be parsed
+     */
+    public static PrivateKey privateKey(String pem) {
+        try {
+            return KeyFactory.getInstance(ALGORITHM).generatePrivate(new PKCS8EncodedKeySpec(der(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("could not parse the RSA private key", e);
+        }
+    }
+
+    /**
+     * Parse a public key or extract it from a certificate.
+     *
+     * @param pem the <code>PEM</code> encoded key or certificate
+     * @return the {@link PublicKey}
+     * @throws IllegalArgumentException if the key could not be parsed
+     */
+    public static PublicKey publicKey(String pem) {
+        try {
+            if (pem.contains(CERTIFICATE_MARKER)) {
+                return CertificateFactory.getInstance(CERTIFICATE_TYPE)
+                        .generateCertificate(new ByteArrayInputStream(der(pem))).getPublicKey();
+            }
+            return KeyFactory.getInstance(ALGORITHM).generatePublic(new X509EncodedKeySpec(der(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("could not parse the RSA public key", e);
+        }
+    }
+
+    private static byte[] der(String pem) {
+        return Base64.getDecoder()
+                .decode(PEM_BOUNDARY.matcher(Objects.requireNonNull(pem, "the key is mandatory")).replaceAll(""));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.rsa;
+
+import java.nio.ByteBuffer;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+
+/**
+ * Creates and verifies <code>RSA-SHA1</code> signatures by reusing thread confined algorithm instances.
+ * <p>
+ * Use {@link #shared()} to retrieve the shared engine.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor18">RSA-SHA1</a>
+ */
+public interface RsaSha1Engine {
+    /**
+     * Sign the given input.
+     *
+     * @param key the {@link PrivateKey}
+     * @param input the input
+     * @param offset the offset within the input
+     * @param length the number of bytes to process
+     * @return the raw signature
+     */
+    byte[] sign(PrivateKey key, byte[] input, int offset, int length);
+
+    /**
+     * Sign the remaining bytes of the given input.
+     * <p>
+     * The position of the input will be equal to its limit afterwards.
+     *
+     * @param key the {@link PrivateKey}
+     * @param input the input
+     * @return the raw signature
+     */
+    byte[] sign(PrivateKey key, ByteBuffer input);
+
+    /**
+     * Sign an input which is written in chunks.
+     * <p>
+     * This default collects the chunks first. Implementations should rather update the algorithm instance with every
+     * chunk, so the input never has to be kept in memory at once.
+     *
+     * @param key the {@link PrivateKey}
+     * @param input the {@link ChunkedInput}
+     * @return the raw signature
+     */
+    default byte[] sign(PrivateKey key, ChunkedInput input) {
+        byte[] bytes = input.toByteArray();
+        return sign(key, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Verify the signature of the given input.
+     *
+     * @param key the {@link PublicKey}
+     * @param input the input
+     * @param offset the offset within the input
+     * @param length the number of bytes to process
+     * @param signature the raw signature
+     * @return <code>true</code> if the signature is valid, otherwise <code>false</code>
+     */
+    boolean verify(PublicKey key, byte[] input, int offset, int length, byte[] signature);
+
+    /**
+     * Verify the signature of an input which is written in chunks.
+     * <p>
+     * This default collects the chunks first, like {@link #sign(PrivateKey, ChunkedInput)}.
+     *
+     * @param key the {@link PublicKey}
+     * @param input the {@link ChunkedInput}
+     * @param signature the raw signature
+     * @return <code>true</code> if the signature is valid, otherwise <code>false</code>
+     */
+    default boolean verify(PublicKey key, ChunkedInput input, byte[] signature) {
+        byte[] bytes = input.toByteArray();
+        return verify(key, bytes, 0, bytes.length, signature);
+    }
+
+    /**
+     * Retrieve the shared engine.
+     *
+     * @return the {@link RsaSha1Engine}
+     */
+    static RsaSha1Engine shared() {
+        return DefaultRsaSha1Engine.SHARED;
+    }
+}
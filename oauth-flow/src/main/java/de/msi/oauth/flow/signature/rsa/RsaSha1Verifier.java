@@ -0,0 +1,88 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.rsa;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.Signature;
+import de.msi.oauth.flow.params.SignatureBaseString;
+
+/**
+ * Verifies <code>RSA-SHA1</code> signatures by using the consumers public key.
+ * <p>
+ * Use {@link #of(PublicKey)} to create a new instance.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor18">RSA-SHA1</a>
+ */
+@FunctionalInterface
+public interface RsaSha1Verifier {
+    /**
+     * Verify the given signature.
+     *
+     * @param signatureBaseString the <code>signature base string</code>
+     * @param signature the <code>Base64</code> encoded (not percent encoded) signature
+     * @return <code>true</code> if the signature is valid, otherwise <code>false</code>
+     */
+    boolean verify(SignatureBaseString signatureBaseString, Signature signature);
+
+    /**
+     * Create a new instance.
+     *
+     * @param publicKey the consumers {@link PublicKey}
+     * @return the new {@link RsaSha1Verifier}
+     */
+    static RsaSha1Verifier of(PublicKey publicKey) {
+        return new DefaultRsaSha1Verifier(publicKey);
+    }
+
+    /**
+     * The default implementation of {@link RsaSha1Verifier}.
+     *
+     * @author Martin Siegemund
+     */
+    static final class DefaultRsaSha1Verifier implements RsaSha1Verifier {
+        private final PublicKey publicKey;
+
+        DefaultRsaSha1Verifier(PublicKey publicKey) {
+            this.publicKey = Objects.requireNonNull(publicKey, "the public key is mandatory");
+        }
+
+        @Override
+        public boolean verify(SignatureBaseString signatureBaseString, Signature signature) {
+            byte[] raw;
+            try {
+                raw = Base64.getDecoder().decode(signature.get());
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            byte[] input = signatureBaseString.get().getBytes(StandardCharsets.UTF_8);
+            return RsaSha1Engine.shared().verify(this.publicKey, input, 0, input.length, raw);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).build();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.user;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.VerificationCode;
+
+/**
+ * The asynchronous variant of the {@link UserAuthorization} process.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#auth_step2">6.2 Obtaining an
+ *      Unauthorized Request Token</a>
+ */
+@FunctionalInterface
+public interface AsyncUserAuthorization {
+    /**
+     * Retrieve the users <code>verification code</code>.
+     * 
+     * @param requestToken the processes <code>request token</code>
+     * @return the {@link CompletionStage} which completes with the
+     *         <code>verification code</code>, provided by the service provider
+     */
+    CompletionStage<VerificationCode> verificationCode(RequestToken requestToken);
+
+    /**
+     * Adapt a blocking {@link UserAuthorization} by running it on the given
+     * {@link Executor} (e.g. one creating a virtual thread per task).
+     * 
+     * @param blocking the blocking process
+     * @param executor the {@link Executor} running the process
+     * @return the new {@link AsyncUserAuthorization}
+     */
+    static AsyncUserAuthorization of(UserAuthorization blocking, Executor executor) {
+        Objects.requireNonNull(blocking, "the UserAuthorization is mandatory");
+        Objects.requireNonNull(executor, "the executor is mandatory");
+        return requestToken -> CompletableFuture.supplyAsync(() -> blocking.verificationCode(requestToken),
+                executor);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.user;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+
+/**
+ * The asynchronous variant of the {@link UserObtainRequestToken} operation.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#auth_step1">Obtaining an
+ *      Unauthorized Request Token</a>
+ */
+@FunctionalInterface
+public interface AsyncUserObtainRequestToken {
+    /**
+     * Obtain an unauthorized request token.
+     * 
+     * @param headerParams the generated {@link HeaderFields} which MUST be
+     *        sent to the service provider
+     * @return the {@link CompletionStage} which completes with the
+     *         {@link UserRequestToken}
+     */
+    CompletionStage<UserRequestToken> requestToken(HeaderFields headerParams);
+
+    /**
+     * Adapt a blocking {@link UserObtainRequestToken} by running it on the
+     * given {@link Executor} (e.g. one creating a virtual thread per task).
+     * 
+     * @param blocking the blocking operation
+     * @param executor the {@link Executor} running the operation
+     * @return the new {@link AsyncUserObtainRequestToken}
+     */
+    static AsyncUserObtainRequestToken of(UserObtainRequestToken blocking, Executor executor) {
+        Objects.requireNonNull(blocking, "the UserObtainRequestToken is mandatory");
+        Objects.requireNonNull(executor, "the executor is mandatory");
+        return headerParams -> CompletableFuture.supplyAsync(() -> blocking.requestToken(headerParams), executor);
+    }
+}
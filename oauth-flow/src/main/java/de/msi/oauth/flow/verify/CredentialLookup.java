@@ -0,0 +1,62 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.security.PublicKey;
+import java.util.Optional;
+
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.TokenSecret;
+
+/**
+ * Provides the credentials of the consumers and tokens known by the service provider.
+ * <p>
+ * Implementations have to be thread safe, they are called by every verification.
+ *
+ * @author Martin Siegemund
+ */
+public interface CredentialLookup {
+    /**
+     * Retrieve the secret of the given consumer.
+     * 
+     * @param consumerKey the {@link ConsumerKey}
+     * @return the {@link ConsumerSecret}, which is empty if the consumer is unknown
+     */
+    Optional<ConsumerSecret> consumerSecret(ConsumerKey consumerKey);
+
+    /**
+     * Retrieve the secret of the given token, which has been issued to the given consumer.
+     * 
+     * @param consumerKey the {@link ConsumerKey}
+     * @param token the value of the <code>oauth_token</code> field
+     * @return the {@link TokenSecret}, which is empty if the token is unknown or has not been issued to the consumer
+     */
+    Optional<TokenSecret> tokenSecret(ConsumerKey consumerKey, String token);
+
+    /**
+     * Retrieve the public key of the given consumer, which is required to verify <code>RSA-SHA1</code> signatures.
+     * <p>
+     * The default implementation does not know any public key.
+     * 
+     * @param consumerKey the {@link ConsumerKey}
+     * @return the {@link PublicKey}, which is empty if the consumer does not use <code>RSA-SHA1</code>
+     */
+    default Optional<PublicKey> publicKey(ConsumerKey consumerKey) {
+        return Optional.empty();
+    }
+}
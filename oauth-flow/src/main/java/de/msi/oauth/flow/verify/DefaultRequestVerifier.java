@@ -0,0 +1,249 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.TokenSecret;
+import de.msi.oauth.flow.params.header.AuthorizationHeader;
+import de.msi.oauth.flow.params.header.AuthorizationHeaderParser;
+import de.msi.oauth.flow.params.header.OAuthClock;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.signature.base.DefaultSignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.base.FormParameters;
+import de.msi.oauth.flow.signature.base.SignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.mac.MacEngine;
+import de.msi.oauth.flow.signature.mac.MacKey;
+import de.msi.oauth.flow.signature.rsa.RsaSha1Engine;
+import de.msi.oauth.flow.verify.Verification.DefaultVerification;
+import de.msi.oauth.flow.verify.Verification.Result;
+
+/**
+ * The default implementation of the {@link RequestVerifier}.
+ * <p>
+ * The checks which do not need the credentials come first, so malformed or outdated requests are rejected cheaply.
+ * The nonce is remembered only after the signature has been verified, so forged requests can not fill the
+ * {@link NonceCache} or block the nonces of the consumers.
+ *
+ * @author Martin Siegemund
+ */
+final class DefaultRequestVerifier implements RequestVerifier {
+    private static final Log LOG = LogFactory.getLog(DefaultRequestVerifier.class);
+
+    private static final String VERSION = "1.0";
+    private static final String HMAC_SHA1 = "HMAC-SHA1";
+    private static final String PLAINTEXT = "PLAINTEXT";
+    private static final String RSA_SHA1 = "RSA-SHA1";
+    private static final String CONSUMER_KEY_KEY = "oauth_consumer_key";
+    private static final String TOKEN_KEY = "oauth_token";
+    private static final String SIGNATURE_METHOD_KEY = "oauth_signature_method";
+    private static final String SIGNATURE_KEY = "oauth_signature";
+    private static final String TIMESTAMP_KEY = "oauth_timestamp";
+    private static final String NONCE_KEY = "oauth_nonce";
+    private static final String VERSION_KEY = "oauth_version";
+    private static final int MAXIMUM_TIMESTAMP_DIGITS = 18;
+
+    private final CredentialLookup credentialLookup;
+    private final OAuthClock clock;
+    private final long timestampWindow;
+    private final NonceCache nonceCache;
+
+    DefaultRequestVerifier(CredentialLookup credentialLookup, OAuthClock clock, long timestampWindow,
+            NonceCache nonceCache) {
+        this.credentialLookup = Objects.requireNonNull(credentialLookup, "the credential lookup is mandatory");
+        this.clock = Objects.requireNonNull(clock, "the clock is mandatory");
+        this.timestampWindow = timestampWindow;
+        this.nonceCache = Objects.requireNonNull(nonceCache, "the nonce cache is mandatory");
+    }
+
+    @Override
+    public Verification verify(HttpMethod httpMethod, URI uri, CharSequence authorization, FormParameters body) {
+        Objects.requireNonNull(httpMethod, "the http method is mandatory");
+        Objects.requireNonNull(uri, "the uri is mandatory");
+        Objects.requireNonNull(body, "the body is mandatory");
+        AuthorizationHeader fields = AuthorizationHeaderParser.shared()
+                .parse(Objects.requireNonNull(authorization, "the authorization is mandatory")).orElse(null);
+        if (fields == null) {
+            return new DefaultVerification(Result.MALFORMED_HEADER, null, null);
+        }
+        String consumerKeyValue = fields.value(CONSUMER_KEY_KEY).orElse(null);
+        ConsumerKey consumerKey = consumerKeyValue == null ? null : ConsumerKey.of(consumerKeyValue);
+        String token = fields.value(TOKEN_KEY).orElse(null);
+        String version = fields.value(VERSION_KEY).orElse(null);
+        if (version != null && !VERSION.equals(version)) {
+            return new DefaultVerification(Result.UNSUPPORTED_VERSION, consumerKey, token);
+        }
+        String signatureMethod = fields.value(SIGNATURE_METHOD_KEY).orElse(null);
+        String signature = fields.value(SIGNATURE_KEY).orElse(null);
+        String timestampValue = fields.value(TIMESTAMP_KEY).orElse(null);
+        String nonce = fields.value(NONCE_KEY).orElse(null);
+        if (consumerKey == null || signatureMethod == null || signature == null || timestampValue == null
+                || nonce == null) {
+            return new DefaultVerification(Result.MISSING_PARAMETER, consumerKey, token);
+        }
+        long timestamp = timestamp(timestampValue);
+        if (timestamp < 0) {
+            return new DefaultVerification(Result.MALFORMED_HEADER, consumerKey, token);
+        }
+        if (Math.abs(timestamp(this.clock.timestamp()) - timestamp) > this.timestampWindow) {
+            return new DefaultVerification(Result.TIMESTAMP_OUT_OF_WINDOW, consumerKey, token);
+        }
+        ConsumerSecret consumerSecret = this.credentialLookup.consumerSecret(consumerKey).orElse(null);
+        if (consumerSecret == null) {
+            return new DefaultVerification(Result.UNKNOWN_CONSUMER, consumerKey, token);
+        }
+        TokenSecret tokenSecret = null;
+        if (token != null) {
+            tokenSecret = this.credentialLookup.tokenSecret(consumerKey, token).orElse(null);
+            if (tokenSecret == null) {
+                return new DefaultVerification(Result.UNKNOWN_TOKEN, consumerKey, token);
+            }
+        }
+        Result result;
+        switch (signatureMethod) {
+        case HMAC_SHA1:
+            result = hmacSha1(httpMethod, uri, fields, body, MacKey.of(consumerSecret, tokenSecret), signature);
+            break;
+        case PLAINTEXT:
+            result = plainText(consumerSecret, tokenSecret, signature);
+            break;
+        case RSA_SHA1:
+            PublicKey publicKey = this.credentialLookup.publicKey(consumerKey).orElse(null);
+            result = publicKey == null ? Result.UNSUPPORTED_SIGNATURE_METHOD
+                    : rsaSha1(httpMethod, uri, fields, body, publicKey, signature);
+            break;
+        default:
+            result = Result.UNSUPPORTED_SIGNATURE_METHOD;
+        }
+        if (result == Result.VALID && !this.nonceCache.add(consumerKeyValue, token, timestamp, nonce)) {
+            result = Result.REPLAYED_NONCE;
+        }
+        if (LOG.isDebugEnabled() && result != Result.VALID) {
+            LOG.debug(String.format("rejected request of consumer '%s': %s", consumerKeyValue, result));
+        }
+        return new DefaultVerification(result, consumerKey, token);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("clock", this.clock)
+                .append("timestampWindow", this.timestampWindow).append("nonceCache", this.nonceCache).build();
+    }
+
+    private static Result hmacSha1(HttpMethod httpMethod, URI uri, AuthorizationHeader fields, FormParameters body,
+            MacKey key, String signature) {
+        byte[] expected = base64(signature);
+        if (expected == null) {
+            return Result.INVALID_SIGNATURE;
+        }
+        byte[] actual;
+        try {
+            actual = MacEngine.hmacSha1().doFinal(key, baseString(httpMethod, uri, fields, body));
+        } catch (IllegalArgumentException e) {
+            LOG.debug("invalid request uri", e);
+            return Result.INVALID_SIGNATURE;
+        }
+        return MessageDigest.isEqual(expected, actual) ? Result.VALID : Result.INVALID_SIGNATURE;
+    }
+
+    private static Result plainText(ConsumerSecret consumerSecret, TokenSecret tokenSecret, String signature) {
+        String expected = PercentEncoder.encode(consumerSecret.get()) + '&'
+                + (tokenSecret == null ? "" : PercentEncoder.encode(tokenSecret.get()));
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8)) ? Result.VALID : Result.INVALID_SIGNATURE;
+    }
+
+    private static Result rsaSha1(HttpMethod httpMethod, URI uri, AuthorizationHeader fields, FormParameters body,
+            PublicKey publicKey, String signature) {
+        byte[] raw = base64(signature);
+        if (raw == null) {
+            return Result.INVALID_SIGNATURE;
+        }
+        boolean valid;
+        try {
+            valid = RsaSha1Engine.shared().verify(publicKey, baseString(httpMethod, uri, fields, body), raw);
+        } catch (IllegalArgumentException e) {
+            LOG.debug("invalid request uri", e);
+            return Result.INVALID_SIGNATURE;
+        }
+        return valid ? Result.VALID : Result.INVALID_SIGNATURE;
+    }
+
+    /**
+     * Prepare the <code>signature base string</code> of the request, which the engines stream in chunks.
+     * <p>
+     * Writing it throws an {@link IllegalArgumentException} if the request <code>URI</code> can not be normalized.
+     * 
+     * @return the {@link SignatureBaseStringBuilder} with all parameters but the signature
+     */
+    private static SignatureBaseStringBuilder baseString(HttpMethod httpMethod, URI uri, AuthorizationHeader fields,
+            FormParameters body) {
+        SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(httpMethod, uri);
+        for (int i = 0; i < fields.size(); ++i) {
+            String key = fields.key(i);
+            if (!SIGNATURE_KEY.equals(key)) {
+                builder.add(HeaderField.of(key, fields.value(i)));
+            }
+        }
+        if (body.size() > 0) {
+            builder.add(body);
+        }
+        return builder;
+    }
+
+    private static byte[] base64(String value) {
+        try {
+            return Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse the given timestamp.
+     * 
+     * @return the number of seconds, or <code>-1</code> if the value is not a plain positive integer
+     */
+    private static long timestamp(String value) {
+        if (value.isEmpty() || value.length() > MAXIMUM_TIMESTAMP_DIGITS) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + c - '0';
+        }
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Remembers the nonces of verified requests to reject replayed requests.
+ * <p>
+ * The combination of consumer key, token, timestamp and nonce has to be unique. A request is only accepted by the
+ * {@link RequestVerifier} if its timestamp is within the timestamp window, so a nonce only has to be remembered as long
+ * as its timestamp is within that window.
+ * <p>
+ * Use {@link #builder()} to create the default implementation, or {@link #timeBucketed(Duration, int)} for a simple
+ * implementation based on concurrent sets. Implementations have to be thread safe.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#nonce">8. Nonce and Timestamp</a>
+ */
+public interface NonceCache {
+    /**
+     * Remember the given nonce.
+     * 
+     * @param consumerKey the value of the <code>oauth_consumer_key</code> field
+     * @param token the value of the <code>oauth_token</code> field (can be <code>null</code>)
+     * @param timestamp the value of the <code>oauth_timestamp</code> field
+     * @param nonce the value of the <code>oauth_nonce</code> field
+     * @return <code>true</code> if the nonce is new, <code>false</code> if it has been used before or can not be
+     *         remembered, so the request has to be rejected
+     */
+    boolean add(String consumerKey, String token, long timestamp, String nonce);
+
+    /**
+     * Create a new cache which keeps the nonces in buckets of consecutive seconds. The buckets are reused as soon as
+     * their timestamps left the timestamp window, which drops their nonces at once.
+     * <p>
+     * The cache rejects every nonce which would exceed its maximum size, it never drops a nonce before its timestamp
+     * left the timestamp window.
+     * 
+     * @param timestampWindow the maximum difference between the timestamps of accepted requests and the current time
+     * @param maximumSize the maximum number of remembered nonces
+     * @return the new {@link NonceCache}
+     */
+    static NonceCache timeBucketed(Duration timestampWindow, int maximumSize) {
+        return new TimeBucketedNonceCache(timestampWindow, maximumSize);
+    }
+
+    /**
+     * Create a new builder of a cache which keeps 64 bit fingerprints of the nonces in lock striped open addressing
+     * tables. Like {@link #timeBucketed(Duration, int)}, the nonces are kept in buckets of consecutive seconds which
+     * are dropped at once as soon as their timestamps left the timestamp window.
+     * 
+     * @return the {@link NonceCacheBuilder}
+     */
+    static NonceCacheBuilder builder() {
+        return new NonceCacheBuilder();
+    }
+
+    /**
+     * Builds the {@link NonceCache} which keeps fingerprints in lock striped tables.
+     *
+     * @author Martin Siegemund
+     */
+    public static final class NonceCacheBuilder {
+        private final AtomicReference<Duration> timestampWindow = new AtomicReference<>(Duration.ofMinutes(5));
+        private final AtomicInteger maximumSize = new AtomicInteger(1 << 20);
+        private final AtomicInteger stripes = new AtomicInteger(64);
+        private final AtomicBoolean bloomFilter = new AtomicBoolean();
+
+        NonceCacheBuilder() {
+            /* use NonceCache.builder() */
+        }
+
+        /**
+         * Set the maximum difference between the timestamps of accepted requests and the current time (<code>5</code>
+         * minutes by default), which has to match the timestamp window of the {@link RequestVerifier}.
+         * 
+         * @param value the timestamp window
+         * @return the builder
+         */
+        public NonceCacheBuilder timestampWindow(Duration value) {
+            if (Objects.requireNonNull(value, "the timestamp window is mandatory").isNegative()) {
+                throw new IllegalArgumentException("the timestamp window must not be negative");
+            }
+            this.timestampWindow.set(value);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of remembered nonces (<code>1048576</code> by default), which are spread over the
+         * buckets and stripes evenly. The tables take between 16 and 32 bytes per nonce of the maximum size.
+         * 
+         * @param value the maximum size
+         * @return the builder
+         */
+        public NonceCacheBuilder maximumSize(int value) {
+            if (value < StripedNonceCache.BUCKETS + 1) {
+                throw new IllegalArgumentException(
+                        String.format("the maximum size must be at least %d", StripedNonceCache.BUCKETS + 1));
+            }
+            this.maximumSize.set(value);
+            return this;
+        }
+
+        /**
+         * Set the number of independently locked stripes per bucket (<code>64</code> by default), which is rounded
+         * down to a power of two.
+         * 
+         * @param value the number of stripes
+         * @return the builder
+         */
+        public NonceCacheBuilder stripes(int value) {
+            if (value < 1 || value > 1 << 16) {
+                throw new IllegalArgumentException("the number of stripes must be between 1 and 65536");
+            }
+            this.stripes.set(value);
+            return this;
+        }
+
+        /**
+         * Enable the Bloom filter behind every full stripe (disabled by default). Instead of rejecting every further
+         * nonce, a full stripe adds them to its Bloom filter, which takes between 2 and 4 bytes per nonce of the
+         * maximum size. The filter never accepts a replayed nonce, but rejects a small share of new nonces while the
+         * stripe is full.
+         * 
+         * @param value <code>true</code> to enable the Bloom filter
+         * @return the builder
+         */
+        public NonceCacheBuilder bloomFilter(boolean value) {
+            this.bloomFilter.set(value);
+            return this;
+        }
+
+        /**
+         * Build the {@link NonceCache}.
+         * 
+         * @return the new {@link NonceCache}
+         */
+        public NonceCache build() {
+            return new StripedNonceCache(this.timestampWindow.get(), this.maximumSize.get(), this.stripes.get(),
+                    this.bloomFilter.get());
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("timestampWindow", this.timestampWindow).append("maximumSize", this.maximumSize)
+                    .append("stripes", this.stripes).append("bloomFilter", this.bloomFilter).build();
+        }
+    }
+}
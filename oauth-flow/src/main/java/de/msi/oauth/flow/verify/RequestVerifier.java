@@ -0,0 +1,155 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.header.OAuthClock;
+import de.msi.oauth.flow.signature.base.FormParameters;
+
+/**
+ * Verifies incoming requests of consumers, the service provider side of the {@link de.msi.oauth.flow.OAuthFlow}.
+ * <p>
+ * The <code>Authorization</code> header gets parsed and the <code>signature base string</code> is rebuilt from the
+ * header fields, the query of the {@link URI} and the form encoded body. <code>HMAC-SHA1</code>,
+ * <code>PLAINTEXT</code> and <code>RSA-SHA1</code> signatures are compared in constant time. The timestamp has to be
+ * within the timestamp window and every nonce is only accepted once.
+ * <p>
+ * Use {@link #builder(CredentialLookup)} to create a new instance. The instances are thread safe.
+ *
+ * @author Martin Siegemund
+ * @see <a href="https://oauth.net/core/1.0a/#anchor12">9. Signing Requests</a>
+ */
+public interface RequestVerifier {
+    /**
+     * Verify a request without a form encoded body.
+     * 
+     * @param httpMethod the {@link HttpMethod} of the request
+     * @param uri the {@link URI} of the request, including its query
+     * @param authorization the value of the <code>Authorization</code> header
+     * @return the {@link Verification}
+     */
+    default Verification verify(HttpMethod httpMethod, URI uri, CharSequence authorization) {
+        return verify(httpMethod, uri, authorization, FormParameters.empty());
+    }
+
+    /**
+     * Verify a request with a form encoded body.
+     * 
+     * @param httpMethod the {@link HttpMethod} of the request
+     * @param uri the {@link URI} of the request, including its query
+     * @param authorization the value of the <code>Authorization</code> header
+     * @param body the parameters of the <code>application/x-www-form-urlencoded</code> body
+     * @return the {@link Verification}
+     */
+    Verification verify(HttpMethod httpMethod, URI uri, CharSequence authorization, FormParameters body);
+
+    /**
+     * Create a new builder.
+     * 
+     * @param credentialLookup the {@link CredentialLookup}
+     * @return the {@link RequestVerifierBuilder}
+     */
+    static RequestVerifierBuilder builder(CredentialLookup credentialLookup) {
+        return new RequestVerifierBuilder(credentialLookup);
+    }
+
+    /**
+     * Builds {@link RequestVerifier} instances.
+     *
+     * @author Martin Siegemund
+     */
+    public static final class RequestVerifierBuilder {
+        /** the default maximum size of the {@link NonceCache} */
+        public static final int DEFAULT_NONCE_CACHE_SIZE = 1 << 20;
+
+        private final AtomicReference<Duration> timestampWindow = new AtomicReference<>(Duration.ofMinutes(5));
+        private final AtomicReference<OAuthClock> clock = new AtomicReference<>(OAuthClock.system());
+        private final AtomicReference<NonceCache> nonceCache = new AtomicReference<>();
+        private final CredentialLookup credentialLookup;
+
+        RequestVerifierBuilder(CredentialLookup credentialLookup) {
+            this.credentialLookup = Objects.requireNonNull(credentialLookup, "the credential lookup is mandatory");
+        }
+
+        /**
+         * Set the maximum difference between the timestamp of a request and the current time (<code>5</code>
+         * minutes by default).
+         * 
+         * @param value the timestamp window
+         * @return the builder
+         */
+        public RequestVerifierBuilder timestampWindow(Duration value) {
+            if (Objects.requireNonNull(value, "the timestamp window is mandatory").isNegative()) {
+                throw new IllegalArgumentException("the timestamp window must not be negative");
+            }
+            this.timestampWindow.set(value);
+            return this;
+        }
+
+        /**
+         * Replace the clock which provides the current time ({@link OAuthClock#system()} by default).
+         * 
+         * @param value the {@link OAuthClock}
+         * @return the builder
+         */
+        public RequestVerifierBuilder clock(OAuthClock value) {
+            this.clock.set(Objects.requireNonNull(value, "the clock is mandatory"));
+            return this;
+        }
+
+        /**
+         * Replace the {@link NonceCache}. By default every verifier gets its own {@link NonceCache#builder()} cache
+         * for its timestamp window with a maximum size of {@link #DEFAULT_NONCE_CACHE_SIZE}.
+         * 
+         * @param value the {@link NonceCache}
+         * @return the builder
+         */
+        public RequestVerifierBuilder nonceCache(NonceCache value) {
+            this.nonceCache.set(Objects.requireNonNull(value, "the nonce cache is mandatory"));
+            return this;
+        }
+
+        /**
+         * Build the {@link RequestVerifier}.
+         * 
+         * @return the new {@link RequestVerifier}
+         */
+        public RequestVerifier build() {
+            Duration window = this.timestampWindow.get();
+            NonceCache cache = this.nonceCache.get();
+            return new DefaultRequestVerifier(this.credentialLookup, this.clock.get(), window.getSeconds(),
+                    cache == null
+                            ? NonceCache.builder().timestampWindow(window).maximumSize(DEFAULT_NONCE_CACHE_SIZE).build()
+                            : cache);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("timestampWindow", this.timestampWindow).append("clock", this.clock)
+                    .append("nonceCache", this.nonceCache).build();
+        }
+    }
+}
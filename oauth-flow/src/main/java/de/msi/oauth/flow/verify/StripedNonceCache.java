@@ -0,0 +1,236 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The {@link NonceCache} built by the {@link NonceCache.NonceCacheBuilder}.
+ * <p>
+ * Like the {@link TimeBucketedNonceCache}, the accepted timestamps are split into {@link #BUCKETS} buckets of
+ * consecutive seconds, which are kept in a ring with one additional slot. Every slot is split into independently locked
+ * stripes. A stripe keeps the id of its current bucket and an open addressing table of 64 bit fingerprints, so the
+ * entries are neither boxed nor allocated. As soon as a newer bucket takes over the stripe, the table gets cleared at
+ * once.
+ * <p>
+ * The fingerprint is a seeded hash of consumer key, token, timestamp and nonce, which is computed straight from the
+ * characters. The nonces of every {@link de.msi.oauth.flow.params.header.NonceGenerator} are spread evenly, two
+ * different requests share a fingerprint with a probability of about <code>2^-64</code>.
+ * <p>
+ * Without a Bloom filter, a full stripe rejects every further nonce. With a Bloom filter, the nonces which do not fit
+ * into the table are added to the filter of the stripe instead. The filter never misses a replayed nonce, but it
+ * rejects a small share of new nonces once it holds nonces.
+ *
+ * @author Martin Siegemund
+ */
+final class StripedNonceCache implements NonceCache {
+    static final int BUCKETS = 16;
+
+    private static final int INITIAL_TABLE_SIZE = 16;
+    private static final int BLOOM_BITS_PER_ENTRY = 16;
+    private static final int BLOOM_HASHES = 3;
+    private static final long EMPTY = 0L;
+    private static final long PRIME = 0x100000001B3L;
+    private static final long MIX_1 = 0xFF51AFD7ED558CCDL;
+    private static final long MIX_2 = 0xC4CEB9FE1A85EC53L;
+    private final Stripe[] stripes;
+    private final int stripesPerBucket;
+    private final int stripeShift;
+    private final long bucketSeconds;
+    private final int stripeCapacity;
+    private final boolean bloomFilter;
+    private final long seed = new SplittableRandom().nextLong();
+
+    StripedNonceCache(Duration timestampWindow, int maximumSize, int stripes, boolean bloomFilter) {
+        /* both ends of the window are included */
+        long seconds = 2 * timestampWindow.getSeconds() + 1;
+        this.bucketSeconds = (seconds + BUCKETS - 1) / BUCKETS;
+        this.stripesPerBucket = Integer.highestOneBit(Math.max(1, Math.min(stripes, maximumSize / (BUCKETS + 1))));
+        this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(this.stripesPerBucket);
+        this.stripeCapacity = Math.max(1, maximumSize / ((BUCKETS + 1) * this.stripesPerBucket));
+        this.bloomFilter = bloomFilter;
+        this.stripes = new Stripe[(BUCKETS + 1) * this.stripesPerBucket];
+        for (int i = 0; i < this.stripes.length; ++i) {
+            this.stripes[i] = new Stripe(this.stripeCapacity, bloomFilter);
+        }
+    }
+
+    @Override
+    public boolean add(String consumerKey, String token, long timestamp, String nonce) {
+        if (timestamp < 0) {
+            return false;
+        }
+        long fingerprint = fingerprint(consumerKey, token, timestamp, nonce);
+        long id = timestamp / this.bucketSeconds;
+        int slot = (int) (id % (BUCKETS + 1));
+        /* the upper bits select the stripe, the lower bits the position within its table */
+        int stripe = this.stripesPerBucket == 1 ? 0 : (int) (fingerprint >>> this.stripeShift);
+        return this.stripes[slot * this.stripesPerBucket + stripe].add(id, fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("bucketSeconds", this.bucketSeconds)
+                .append("stripesPerBucket", this.stripesPerBucket).append("stripeCapacity", this.stripeCapacity)
+                .append("bloomFilter", this.bloomFilter).build();
+    }
+
+    long fingerprint(String consumerKey, String token, long timestamp, String nonce) {
+        long hash = hash(this.seed, consumerKey);
+        hash = token == null ? hash * PRIME : hash(hash ^ 1, token);
+        hash = (hash ^ timestamp) * PRIME;
+        hash = mix(hash(hash, nonce));
+        /* zero marks the empty slots */
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static long hash(long seed, String value) {
+        long hash = (seed ^ value.length()) * PRIME;
+        for (int i = 0; i < value.length(); ++i) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        long hash = (value ^ (value >>> 33)) * MIX_1;
+        hash = (hash ^ (hash >>> 33)) * MIX_2;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static final class Stripe {
+        private final int capacity;
+        private final int maximumTableSize;
+        private final boolean bloomFilter;
+        private long id = Long.MIN_VALUE;
+        private long[] table = new long[0];
+        private int size;
+        private long[] bloom;
+        private boolean overflowed;
+
+        Stripe(int capacity, boolean bloomFilter) {
+            this.capacity = capacity;
+            /* keep the load factor at 0.5 at most */
+            this.maximumTableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+            this.bloomFilter = bloomFilter;
+        }
+
+        synchronized boolean add(long bucketId, long fingerprint) {
+            if (bucketId < this.id) {
+                /* the timestamp left the window already */
+                return false;
+            }
+            if (bucketId > this.id) {
+                clear(bucketId);
+            }
+            if (contains(fingerprint)) {
+                return false;
+            }
+            if (this.size < this.capacity) {
+                insert(fingerprint);
+                return true;
+            }
+            return this.bloomFilter && addToBloomFilter(fingerprint);
+        }
+
+        private void clear(long bucketId) {
+            this.id = bucketId;
+            if (this.size > 0) {
+                Arrays.fill(this.table, EMPTY);
+                this.size = 0;
+            }
+            if (this.overflowed) {
+                Arrays.fill(this.bloom, 0L);
+                this.overflowed = false;
+            }
+        }
+
+        private boolean contains(long fingerprint) {
+            int mask = this.table.length - 1;
+            for (int i = (int) fingerprint & mask; this.size > 0; i = (i + 1) & mask) {
+                long current = this.table[i];
+                if (current == fingerprint) {
+                    return true;
+                }
+                if (current == EMPTY) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void insert(long fingerprint) {
+            if ((this.size + 1) * 2 > this.table.length) {
+                grow();
+            }
+            int mask = this.table.length - 1;
+            int i = (int) fingerprint & mask;
+            while (this.table[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            this.table[i] = fingerprint;
+            ++this.size;
+        }
+
+        private void grow() {
+            long[] previous = this.table;
+            int length = Math.min(this.maximumTableSize, Math.max(INITIAL_TABLE_SIZE, previous.length * 2));
+            if (length == previous.length) {
+                return;
+            }
+            this.table = new long[length];
+            int mask = length - 1;
+            for (long fingerprint : previous) {
+                if (fingerprint != EMPTY) {
+                    int i = (int) fingerprint & mask;
+                    while (this.table[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    this.table[i] = fingerprint;
+                }
+            }
+        }
+
+        private boolean addToBloomFilter(long fingerprint) {
+            if (this.bloom == null) {
+                this.bloom = new long[Math.max(1, this.maximumTableSize * BLOOM_BITS_PER_ENTRY / 2 / Long.SIZE)];
+            }
+            long bits = (long) this.bloom.length * Long.SIZE;
+            /* derive the positions from both halves of the fingerprint */
+            long high = fingerprint >>> 32;
+            long low = fingerprint & 0xFFFFFFFFL;
+            boolean present = true;
+            for (int k = 0; k < BLOOM_HASHES; ++k) {
+                long bit = Long.remainderUnsigned(low + k * high, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((this.bloom[word] & mask) == 0) {
+                    present = false;
+                    this.bloom[word] |= mask;
+                }
+            }
+            this.overflowed = true;
+            return !present;
+        }
+    }
+}
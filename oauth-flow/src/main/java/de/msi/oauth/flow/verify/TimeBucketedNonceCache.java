@@ -0,0 +1,133 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * The {@link NonceCache} returned by {@link NonceCache#timeBucketed(Duration, int)}.
+ * <p>
+ * The accepted timestamps, twice the timestamp window, are split into {@link #BUCKETS} buckets of consecutive seconds.
+ * The buckets are kept in a ring with one additional slot, so the bucket of a new timestamp can only replace a bucket
+ * whose timestamps left the window already. Every bucket holds a concurrent set and an equal share of the maximum
+ * size.
+ *
+ * @author Martin Siegemund
+ */
+final class TimeBucketedNonceCache implements NonceCache {
+    static final int BUCKETS = 16;
+
+    private static final char SEPARATOR = ':';
+    private static final char NO_TOKEN = '-';
+    private final AtomicReferenceArray<Bucket> ring = new AtomicReferenceArray<>(BUCKETS + 1);
+    private final long bucketSeconds;
+    private final int bucketCapacity;
+
+    TimeBucketedNonceCache(Duration timestampWindow, int maximumSize) {
+        if (Objects.requireNonNull(timestampWindow, "the timestamp window is mandatory").isNegative()) {
+            throw new IllegalArgumentException("the timestamp window must not be negative");
+        }
+        if (maximumSize < BUCKETS + 1) {
+            throw new IllegalArgumentException(String.format("the maximum size must be at least %d", BUCKETS + 1));
+        }
+        /* both ends of the window are included */
+        long seconds = 2 * timestampWindow.getSeconds() + 1;
+        this.bucketSeconds = (seconds + BUCKETS - 1) / BUCKETS;
+        this.bucketCapacity = maximumSize / (BUCKETS + 1);
+    }
+
+    @Override
+    public boolean add(String consumerKey, String token, long timestamp, String nonce) {
+        if (timestamp < 0) {
+            return false;
+        }
+        Bucket bucket = bucket(timestamp / this.bucketSeconds);
+        return bucket != null && bucket.add(key(consumerKey, token, timestamp, nonce));
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("bucketSeconds", this.bucketSeconds)
+                .append("bucketCapacity", this.bucketCapacity).build();
+    }
+
+    private Bucket bucket(long id) {
+        int slot = (int) (id % this.ring.length());
+        while (true) {
+            Bucket current = this.ring.get(slot);
+            if (current != null && current.id == id) {
+                return current;
+            }
+            if (current != null && current.id > id) {
+                /* the timestamp left the window already */
+                return null;
+            }
+            Bucket next = new Bucket(id, this.bucketCapacity);
+            if (this.ring.compareAndSet(slot, current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Join the given values to a distinct key. Consumer key and token are prefixed by their lengths, so values
+     * containing the separator can not collide, and a missing token differs from an empty one.
+     */
+    private static String key(String consumerKey, String token, long timestamp, String nonce) {
+        StringBuilder key = new StringBuilder(
+                consumerKey.length() + (token == null ? 0 : token.length()) + nonce.length() + 48);
+        key.append(consumerKey.length()).append(SEPARATOR).append(consumerKey);
+        if (token == null) {
+            key.append(NO_TOKEN);
+        } else {
+            key.append(token.length()).append(SEPARATOR).append(token);
+        }
+        return key.append(timestamp).append(SEPARATOR).append(nonce).toString();
+    }
+
+    private static final class Bucket {
+        private final Set<String> nonces = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger size = new AtomicInteger();
+        private final long id;
+        private final int capacity;
+
+        Bucket(long id, int capacity) {
+            this.id = id;
+            this.capacity = capacity;
+        }
+
+        boolean add(String key) {
+            if (this.size.incrementAndGet() > this.capacity) {
+                this.size.decrementAndGet();
+                return false;
+            }
+            if (!this.nonces.add(key)) {
+                this.size.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+    }
+}
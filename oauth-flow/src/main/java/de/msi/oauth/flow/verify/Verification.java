@@ -0,0 +1,128 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import de.msi.oauth.flow.params.ConsumerKey;
+
+/**
+ * The outcome of a verification by the {@link RequestVerifier}.
+ *
+ * @author Martin Siegemund
+ */
+public interface Verification {
+    /**
+     * Retrieve the result.
+     * 
+     * @return the {@link Result}
+     */
+    Result result();
+
+    /**
+     * Check if the request has been verified successfully.
+     * 
+     * @return <code>true</code> if the result is {@link Result#VALID}
+     */
+    default boolean valid() {
+        return result() == Result.VALID;
+    }
+
+    /**
+     * Retrieve the consumer which sent the request.
+     * 
+     * @return the {@link ConsumerKey}, which is empty if the header could not be parsed or did not contain one
+     */
+    Optional<ConsumerKey> consumerKey();
+
+    /**
+     * Retrieve the token which has been used by the request.
+     * 
+     * @return the value of the <code>oauth_token</code> field, which is empty if the request did not contain one
+     */
+    Optional<String> token();
+
+    /**
+     * The possible results of a verification, in the order they are checked.
+     *
+     * @author Martin Siegemund
+     */
+    enum Result {
+        /** the request is authentic */
+        VALID,
+        /** the header is not a valid <code>OAuth</code> <code>Authorization</code> header */
+        MALFORMED_HEADER,
+        /** the <code>oauth_version</code> is not <code>1.0</code> */
+        UNSUPPORTED_VERSION,
+        /** a mandatory field is missing */
+        MISSING_PARAMETER,
+        /** the <code>oauth_timestamp</code> is outside of the timestamp window */
+        TIMESTAMP_OUT_OF_WINDOW,
+        /** the consumer is not known by the {@link CredentialLookup} */
+        UNKNOWN_CONSUMER,
+        /** the token is not known by the {@link CredentialLookup} */
+        UNKNOWN_TOKEN,
+        /** the <code>oauth_signature_method</code> is not supported or the consumer has no public key */
+        UNSUPPORTED_SIGNATURE_METHOD,
+        /** the signature does not match the request */
+        INVALID_SIGNATURE,
+        /** the nonce has been used before */
+        REPLAYED_NONCE
+    }
+
+    /**
+     * The default implementation of {@link Verification}.
+     *
+     * @author Martin Siegemund
+     */
+    static final class DefaultVerification implements Verification {
+        private final Result result;
+        private final ConsumerKey consumerKey;
+        private final String token;
+
+        DefaultVerification(Result result, ConsumerKey consumerKey, String token) {
+            this.result = Objects.requireNonNull(result, "the result is mandatory");
+            this.consumerKey = consumerKey;
+            this.token = token;
+        }
+
+        @Override
+        public Result result() {
+            return this.result;
+        }
+
+        @Override
+        public Optional<ConsumerKey> consumerKey() {
+            return Optional.ofNullable(this.consumerKey);
+        }
+
+        @Override
+        public Optional<String> token() {
+            return Optional.ofNullable(this.token);
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE).append("result", this.result)
+                    .append("consumerKey", this.consumerKey).append("token", this.token).build();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.metrics.CountingOAuthMetrics;
+import de.msi.oauth.flow.metrics.OAuthMetrics;
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.params.VerificationCode;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.AsyncUserAuthorization;
+import de.msi.oauth.flow.user.AsyncUserObtainAccessToken;
+import de.msi.oauth.flow.user.AsyncUserObtainRequestToken;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+final class AsyncOAuthFlowTest {
+    private static final Log LOG = LogFactory.getLog(AsyncOAuthFlowTest.class);
+    private static final URI CALLBACK = URI.create("http://printer.example.com/request_token_ready");
+    private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final SignatureMethod PLAIN_TEXT_SIGNATURE = new PlainTextSignature.DefaultPlainTextSignature(
+            CONSUMER_SECRET);
+    private static final SignatureMethod HMAC_SHA1_SIGNATURE_FOR_ACCESS_TOKEN = new HmacSha1Signature.DefaultHmacSha1Signature(
+            URI.create("https://photos.example.net/access_token"), HttpMethod.POST, CONSUMER_SECRET);
+    private static final SignatureMethod HMAC_SHA1_SIGNATURE_FOR_PROTECTED_RESOURCE_ACCESS = new HmacSha1Signature.DefaultHmacSha1Signature(
+            URI.create("http://photos.example.net/photos"), HttpMethod.GET, CONSUMER_SECRET);
+    private static final RequestToken REQUEST_TOKEN = RequestToken.of("hh5s93j4hdidpola");
+    private static final RequestTokenSecret REQUEST_TOKEN_SECRET = RequestTokenSecret.of("hdhd0244k9j7ao03");
+    private static final VerificationCode VERIFICATION_CODE = VerificationCode.of("hfdp7dh39dks9884");
+    private static final AccessToken ACCESS_TOKEN = AccessToken.of("nnch734d00sl2jdk");
+    private static final AccessTokenSecret ACCESS_TOKEN_SECRET = AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+
+    private static ExecutorService executor;
+
+    @BeforeAll
+    static void createExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterAll
+    static void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAuthorize() {
+        AsyncOAuthFlow flow = AsyncOAuthFlow.of(new AsyncOAuthFlowParam.AsyncOAuthFlowParamBuilder(CONSUMER_KEY,
+                PLAIN_TEXT_SIGNATURE, AsyncOAuthFlowTest::requestToken, AsyncOAuthFlowTest::verificationCode,
+                HMAC_SHA1_SIGNATURE_FOR_ACCESS_TOKEN, AsyncOAuthFlowTest::accessToken).includeVersion(true)
+                        .callback(CALLBACK).build(),
+                executor);
+        LOG.info(flow);
+
+        ProtectedAccessFlowFactory protectedAccessFlowFactory = flow.authorize().toCompletableFuture().join();
+        Assertions.assertNotNull(protectedAccessFlowFactory);
+        LOG.info(protectedAccessFlowFactory);
+
+        Map<String, String> fields = values(protectedAccessFlowFactory
+                .protectedAccess(new ProtectedAccessFlowFactoryParam() {
+                    @Override
+                    public SignatureMethod signatureMethod() {
+                        return HMAC_SHA1_SIGNATURE_FOR_PROTECTED_RESOURCE_ACCESS;
+                    }
+
+                    @Override
+                    public HeaderFields additionalParams() {
+                        return HeaderFields.of(Set.of(HeaderField.of("file", "vacation.jpg")));
+                    }
+                }).headerFields());
+        Assertions.assertEquals(CONSUMER_KEY.get(), fields.get("oauth_consumer_key"));
+        Assertions.assertEquals(ACCESS_TOKEN.get(), fields.get("oauth_token"));
+        Assertions.assertEquals("HMAC-SHA1", fields.get("oauth_signature_method"));
+        Assertions.assertEquals("1.0", fields.get("oauth_version"));
+        Assertions.assertEquals("vacation.jpg", fields.get("file"));
+        Assertions.assertTrue(fields.containsKey("oauth_signature"));
+    }
+
+    @Test
+    void testFailure() {
+        AsyncUserAuthorization rejecting = requestToken -> CompletableFuture
+                .failedFuture(new IllegalStateException("access denied"));
+        AsyncOAuthFlow flow = AsyncOAuthFlow.of(
+                new AsyncOAuthFlowParam.AsyncOAuthFlowParamBuilder(CONSUMER_KEY, PLAIN_TEXT_SIGNATURE,
+                        AsyncOAuthFlowTest::requestToken, rejecting, HMAC_SHA1_SIGNATURE_FOR_ACCESS_TOKEN,
+                        AsyncUserObtainAccessToken.of(hf -> Assertions.fail("unexpected token exchange"), executor))
+                                .callback(CALLBACK).build(),
+                executor);
+
+        CompletionException e = Assertions.assertThrows(CompletionException.class,
+                () -> flow.authorize().toCompletableFuture().join());
+        Assertions.assertEquals(IllegalStateException.class, e.getCause().getClass());
+    }
+
+    @Test
+    void testMetrics() {
+        CountingOAuthMetrics metrics = OAuthMetrics.counting();
+        OAuthMetrics.install(metrics);
+        try {
+            AsyncOAuthFlow.of(new AsyncOAuthFlowParam.AsyncOAuthFlowParamBuilder(CONSUMER_KEY, PLAIN_TEXT_SIGNATURE,
+                    AsyncOAuthFlowTest::requestToken, AsyncOAuthFlowTest::verificationCode,
+                    HMAC_SHA1_SIGNATURE_FOR_ACCESS_TOKEN, AsyncOAuthFlowTest::accessToken).callback(CALLBACK).build(),
+                    executor).authorize().toCompletableFuture().join();
+            Assertions.assertEquals(1, metrics.stage(FlowStage.REQUEST_TOKEN).count());
+            Assertions.assertEquals(1, metrics.stage(FlowStage.USER_AUTHORIZATION).count());
+            Assertions.assertEquals(1, metrics.stage(FlowStage.ACCESS_TOKEN).count());
+
+            /* failed phases are reported as well */
+            AsyncUserAuthorization rejecting = requestToken -> CompletableFuture
+                    .failedFuture(new IllegalStateException("access denied"));
+            CompletableFuture<ProtectedAccessFlowFactory> failed = AsyncOAuthFlow.of(
+                    new AsyncOAuthFlowParam.AsyncOAuthFlowParamBuilder(CONSUMER_KEY, PLAIN_TEXT_SIGNATURE,
+                            AsyncOAuthFlowTest::requestToken, rejecting, HMAC_SHA1_SIGNATURE_FOR_ACCESS_TOKEN,
+                            AsyncOAuthFlowTest::accessToken).callback(CALLBACK).build(),
+                    executor).authorize().toCompletableFuture();
+            Assertions.assertThrows(CompletionException.class, failed::join);
+            LOG.info(metrics);
+            Assertions.assertEquals(2, metrics.stage(FlowStage.REQUEST_TOKEN).count());
+            Assertions.assertEquals(2, metrics.stage(FlowStage.USER_AUTHORIZATION).count());
+            Assertions.assertEquals(1, metrics.stage(FlowStage.ACCESS_TOKEN).count());
+        } finally {
+            OAuthMetrics.install(OAuthMetrics.noop());
+        }
+    }
+
+    private static CompletableFuture<UserRequestToken> requestToken(HeaderFields headerFields) {
+        Map<String, String> fields = values(headerFields);
+        Assertions.assertEquals(CONSUMER_KEY.get(), fields.get("oauth_consumer_key"));
+        Assertions.assertEquals("kd94hf93k423kf44%26", fields.get("oauth_signature"));
+        Assertions.assertEquals(CALLBACK.toString(), fields.get("oauth_callback"));
+        return CompletableFuture.completedFuture(new UserRequestToken() {
+            @Override
+            public RequestToken token() {
+                return REQUEST_TOKEN;
+            }
+
+            @Override
+            public RequestTokenSecret tokenSecret() {
+                return REQUEST_TOKEN_SECRET;
+            }
+
+            @Override
+            public boolean callback() {
+                return true;
+            }
+        });
+    }
+
+    private static CompletableFuture<VerificationCode> verificationCode(RequestToken requestToken) {
+        Assertions.assertEquals(REQUEST_TOKEN, requestToken);
+        /* complete on another thread, as a redirect of the user agent would */
+        return CompletableFuture.supplyAsync(() -> VERIFICATION_CODE, executor);
+    }
+
+    private static CompletableFuture<UserAccessTokenParameter> accessToken(HeaderFields headerFields) {
+        Map<String, String> fields = values(headerFields);
+        Assertions.assertEquals(REQUEST_TOKEN.get(), fields.get("oauth_token"));
+        Assertions.assertEquals(VERIFICATION_CODE.get(), fields.get("oauth_verifier"));
+        Assertions.assertEquals("HMAC-SHA1", fields.get("oauth_signature_method"));
+        return CompletableFuture.completedFuture(new UserAccessTokenParameter() {
+            @Override
+            public AccessToken accessToken() {
+                return ACCESS_TOKEN;
+            }
+
+            @Override
+            public AccessTokenSecret accessTokenSecret() {
+                return ACCESS_TOKEN_SECRET;
+            }
+        });
+    }
+
+    private static Map<String, String> values(HeaderFields headerFields) {
+        LOG.info(headerFields);
+        return headerFields.fields().stream()
+                .collect(Collectors.toMap(HeaderField::key, hf -> hf.value().orElse("")));
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.params.VerificationCode;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+import de.msi.oauth.flow.user.UserObtainAccessToken;
+
+final class FlowStateTest {
+    private static final Log LOG = LogFactory.getLog(FlowStateTest.class);
+    private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+    private static final SignatureMethod PLAIN_TEXT_SIGNATURE = new PlainTextSignature.DefaultPlainTextSignature(
+            ConsumerSecret.of("kd94hf93k423kf44"));
+    private static final PendingRequestToken REQUEST_TOKEN = new PendingRequestToken(
+            RequestToken.of("hh5s93j4hdidpola"), RequestTokenSecret.of("hdhd0244k9j7ao03"), true);
+    private static final VerificationCode VERIFICATION_CODE = VerificationCode.of("hfdp7dh39dks9884");
+    private static final AccessToken ACCESS_TOKEN = AccessToken.of("nnch734d00sl2jdk");
+    private static final AccessTokenSecret ACCESS_TOKEN_SECRET = AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+
+    @Test
+    void testUserAuthorization() {
+        FlowState state = resume(FlowState
+                .of(new DefaultUserAuthorizationFlowFactory(CONSUMER_KEY, true, REQUEST_TOKEN)));
+        Assertions.assertEquals(FlowState.Stage.USER_AUTHORIZATION, state.stage());
+        AtomicReference<RequestToken> authorized = new AtomicReference<>();
+        AccessTokenFlowFactory atff = state.userAuthorizationFlowFactory().userAuthorizationFlow(() -> token -> {
+            authorized.set(token);
+            return VERIFICATION_CODE;
+        }).userAuthorization();
+        Assertions.assertEquals(REQUEST_TOKEN.token().get(), authorized.get().get());
+        /* the resumed flow can be exported again */
+        Assertions.assertEquals(FlowState.Stage.ACCESS_TOKEN, FlowState.of(atff).stage());
+        Assertions.assertThrows(IllegalStateException.class, state::protectedAccessFlowFactory);
+    }
+
+    @Test
+    void testAccessToken() {
+        FlowState state = resume(FlowState
+                .of(new DefaultAccessTokenFlowFactory(CONSUMER_KEY, false, REQUEST_TOKEN, VERIFICATION_CODE)));
+        Assertions.assertEquals(FlowState.Stage.ACCESS_TOKEN, state.stage());
+        AtomicReference<HeaderFields> sent = new AtomicReference<>();
+        state.accessTokenFlowFactory().accessTokenFlow(new AccessTokenFlowFactoryParam() {
+            @Override
+            public SignatureMethod signatureMethod() {
+                return PLAIN_TEXT_SIGNATURE;
+            }
+
+            @Override
+            public UserObtainAccessToken userObtainAccessToken() {
+                return fields -> {
+                    sent.set(fields);
+                    return userAccessTokenParameter();
+                };
+            }
+        }).tokenExchange();
+        Map<String, String> fields = values(sent.get());
+        Assertions.assertEquals(CONSUMER_KEY.get(), fields.get("oauth_consumer_key"));
+        Assertions.assertEquals(REQUEST_TOKEN.token().get(), fields.get("oauth_token"));
+        Assertions.assertEquals(VERIFICATION_CODE.get(), fields.get("oauth_verifier"));
+        Assertions.assertEquals("kd94hf93k423kf44%26hdhd0244k9j7ao03", fields.get("oauth_signature"));
+        Assertions.assertFalse(fields.containsKey("oauth_version"));
+    }
+
+    @Test
+    void testProtectedAccess() {
+        FlowState state = resume(
+                FlowState.of(new DefaultProtectedAccessFlowFactory(CONSUMER_KEY, true, userAccessTokenParameter())));
+        Assertions.assertEquals(FlowState.Stage.PROTECTED_ACCESS, state.stage());
+        HeaderFields headerFields = state.protectedAccessFlowFactory()
+                .protectedAccess(new ProtectedAccessFlowFactoryParam() {
+                    @Override
+                    public SignatureMethod signatureMethod() {
+                        return PLAIN_TEXT_SIGNATURE;
+                    }
+
+                    @Override
+                    public HeaderFields additionalParams() {
+                        return HeaderFields.empty();
+                    }
+                }).headerFields();
+        Map<String, String> fields = values(headerFields);
+        Assertions.assertEquals(ACCESS_TOKEN.get(), fields.get("oauth_token"));
+        Assertions.assertEquals("1.0", fields.get("oauth_version"));
+        Assertions.assertEquals("kd94hf93k423kf44%26pfkkdhi9sl3r4s00", fields.get("oauth_signature"));
+    }
+
+    @Test
+    void testMalformed() {
+        byte[] bytes = FlowState.of(new DefaultUserAuthorizationFlowFactory(CONSUMER_KEY, true, REQUEST_TOKEN))
+                .toByteArray();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FlowState.read(ByteBuffer.wrap(bytes, 0, bytes.length - 1)));
+        bytes[0] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FlowState.read(ByteBuffer.wrap(bytes)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FlowState.of((ProtectedAccessFlowFactory) paffp -> null));
+    }
+
+    /**
+     * Write the given state behind some other data and read it again.
+     */
+    private static FlowState resume(FlowState exported) {
+        LOG.info(exported);
+        ByteBuffer buffer = ByteBuffer.allocate(exported.size() + 2);
+        buffer.put((byte) 42);
+        exported.write(buffer);
+        Assertions.assertEquals(exported.size() + 1, buffer.position());
+        buffer.flip().get();
+        FlowState state = FlowState.read(buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+        Assertions.assertArrayEquals(exported.toByteArray(), state.toByteArray());
+        return state;
+    }
+
+    private static Map<String, String> values(HeaderFields headerFields) {
+        return headerFields.fields().stream()
+                .collect(Collectors.toMap(HeaderField::key, field -> field.value().orElse("")));
+    }
+
+    private static UserAccessTokenParameter userAccessTokenParameter() {
+        return new UserAccessTokenParameter() {
+            @Override
+            public AccessToken accessToken() {
+                return ACCESS_TOKEN;
+            }
+
+            @Override
+            public AccessTokenSecret accessTokenSecret() {
+                return ACCESS_TOKEN_SECRET;
+            }
+        };
+    }
+}
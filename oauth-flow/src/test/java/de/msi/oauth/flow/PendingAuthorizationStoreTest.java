@@ -0,0 +1,179 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.msi.oauth.flow.params.RequestToken;
+import de.msi.oauth.flow.params.RequestTokenSecret;
+import de.msi.oauth.flow.user.UserObtainRequestToken;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+final class PendingAuthorizationStoreTest {
+    private static final Log LOG = LogFactory.getLog(PendingAuthorizationStoreTest.class);
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+    private static final RequestToken TOKEN = RequestToken.of("hh5s93j4hdidpola");
+    private static final RequestTokenSecret TOKEN_SECRET = RequestTokenSecret.of("hdhd0244k9j7ao03");
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testInMemory() {
+        try (PendingAuthorizationStore store = new InMemoryPendingAuthorizationStore(16, TIME_TO_LIVE,
+                this.clock::get)) {
+            LOG.info(store);
+            testStore(store);
+        }
+    }
+
+    @Test
+    void testInMemoryCapacity() {
+        try (PendingAuthorizationStore store = new InMemoryPendingAuthorizationStore(2, TIME_TO_LIVE,
+                this.clock::get)) {
+            store.put(userRequestToken("a", false));
+            store.put(userRequestToken("b", false));
+            /* replacing an entry does not need any capacity */
+            store.put(userRequestToken("b", true));
+            Assertions.assertThrows(IllegalStateException.class, () -> store.put(userRequestToken("c", false)));
+            Assertions.assertTrue(store.take(RequestToken.of("b")).orElseThrow().callback());
+            store.put(userRequestToken("c", false));
+            /* the expired entries make room */
+            this.clock.addAndGet(TIME_TO_LIVE.toMillis());
+            store.put(userRequestToken("d", false));
+            Assertions.assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void testMappedZeroing() throws IOException {
+        Path file = this.directory.resolve("zeroed");
+        byte[] secret = TOKEN_SECRET.get().getBytes(StandardCharsets.UTF_8);
+        try (PendingAuthorizationStore store = mapped(file, 16)) {
+            store.put(userRequestToken(TOKEN.get(), false));
+            Assertions.assertTrue(contains(Files.readAllBytes(file), secret));
+            store.take(TOKEN).orElseThrow();
+            Assertions.assertFalse(contains(Files.readAllBytes(file), secret));
+            /* a reused slot does not keep the tail of a longer secret */
+            store.put(new PendingRequestToken(TOKEN, RequestTokenSecret.of("s".repeat(40)), false));
+            this.clock.addAndGet(TIME_TO_LIVE.toMillis());
+            store.put(userRequestToken(TOKEN.get(), false));
+            Assertions.assertFalse(contains(Files.readAllBytes(file), "s".repeat(20).getBytes(StandardCharsets.UTF_8)));
+            /* cleaning up zeroes the expired entries */
+            this.clock.addAndGet(TIME_TO_LIVE.toMillis());
+            Assertions.assertEquals(1, store.cleanUp());
+            Assertions.assertFalse(contains(Files.readAllBytes(file), secret));
+        }
+    }
+
+    @Test
+    void testMapped() {
+        Path file = this.directory.resolve("pending");
+        try (PendingAuthorizationStore store = mapped(file, 16)) {
+            LOG.info(store);
+            testStore(store);
+            store.put(userRequestToken(TOKEN.get(), true));
+        }
+        /* another process resumes the flow */
+        try (PendingAuthorizationStore store = mapped(file, 16)) {
+            UserRequestToken uurt = store.take(TOKEN).orElseThrow();
+            Assertions.assertEquals(TOKEN_SECRET.get(), uurt.tokenSecret().get());
+            Assertions.assertTrue(uurt.callback());
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> mapped(file, 1024));
+    }
+
+    @Test
+    void testMappedCapacity() {
+        try (PendingAuthorizationStore store = mapped(this.directory.resolve("capacity"), 4)) {
+            /* the slots of deleted entries are reused */
+            for (int round = 0; round < 3; ++round) {
+                for (int i = 0; i < 8; ++i) {
+                    store.put(userRequestToken("token" + i, false));
+                }
+                Assertions.assertEquals(8, store.size());
+                Assertions.assertThrows(IllegalStateException.class,
+                        () -> store.put(userRequestToken("overflow", false)));
+                for (int i = 0; i < 8; ++i) {
+                    Assertions.assertTrue(store.take(RequestToken.of("token" + i)).isPresent());
+                }
+                Assertions.assertEquals(0, store.size());
+            }
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> store.put(userRequestToken("x".repeat(300), false)));
+        }
+    }
+
+    @Test
+    void testStoring() {
+        try (PendingAuthorizationStore store = PendingAuthorizationStore.inMemory(TIME_TO_LIVE)) {
+            UserRequestToken uurt = userRequestToken(TOKEN.get(), true);
+            UserObtainRequestToken obtain = store.storing(headerParams -> uurt);
+            Assertions.assertSame(uurt, obtain.requestToken(null));
+            Assertions.assertEquals(TOKEN_SECRET.get(), store.take(TOKEN).orElseThrow().tokenSecret().get());
+        }
+    }
+
+    private void testStore(PendingAuthorizationStore store) {
+        store.put(userRequestToken(TOKEN.get(), true));
+        store.put(userRequestToken("other", false));
+        Assertions.assertEquals(2, store.size());
+        UserRequestToken uurt = store.take(TOKEN).orElseThrow();
+        Assertions.assertEquals(TOKEN.get(), uurt.token().get());
+        Assertions.assertEquals(TOKEN_SECRET.get(), uurt.tokenSecret().get());
+        Assertions.assertTrue(uurt.callback());
+        /* a replayed callback is not accepted */
+        Assertions.assertTrue(store.take(TOKEN).isEmpty());
+        /* expired entries are neither taken nor kept */
+        store.put(userRequestToken(TOKEN.get(), true));
+        this.clock.addAndGet(TIME_TO_LIVE.toMillis());
+        Assertions.assertTrue(store.take(TOKEN).isEmpty());
+        Assertions.assertEquals(1, store.cleanUp());
+        Assertions.assertEquals(0, store.size());
+    }
+
+    private PendingAuthorizationStore mapped(Path file, int capacity) {
+        return new MappedPendingAuthorizationStore(file, capacity, TIME_TO_LIVE, this.clock::get);
+    }
+
+    private static boolean contains(byte[] data, byte[] value) {
+        for (int i = 0; i + value.length <= data.length; ++i) {
+            if (Arrays.equals(data, i, i + value.length, value, 0, value.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static UserRequestToken userRequestToken(String token, boolean callback) {
+        return new PendingRequestToken(RequestToken.of(token), TOKEN_SECRET, callback);
+    }
+}
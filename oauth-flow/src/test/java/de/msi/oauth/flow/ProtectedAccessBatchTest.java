@@ -0,0 +1,179 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.VerificationCode;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.signature.base.DefaultSignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.base.SignatureBaseStringBuilder;
+import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+import de.msi.oauth.flow.user.UserObtainAccessToken;
+import de.msi.oauth.flow.user.UserRequestToken;
+
+final class ProtectedAccessBatchTest {
+    private static final Log LOG = LogFactory.getLog(ProtectedAccessBatchTest.class);
+    private static final String PAGE_KEY = "page";
+    private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final AccessToken ACCESS_TOKEN = AccessToken.of("nnch734d00sl2jdk");
+    private static final AccessTokenSecret ACCESS_TOKEN_SECRET = AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+    private static final HmacSha1Signature PHOTOS = new HmacSha1Signature.DefaultHmacSha1Signature(
+            URI.create("http://photos.example.net/photos"), HttpMethod.GET, CONSUMER_SECRET);
+    private static final HmacSha1Signature ALBUMS = new HmacSha1Signature.DefaultHmacSha1Signature(
+            URI.create("http://photos.example.net/albums"), HttpMethod.POST, CONSUMER_SECRET);
+
+    @Test
+    void testSequential() {
+        List<Item> batch = batch(10);
+        List<HeaderFields> result = factory().headerFields(batch);
+        LOG.info(result.get(0));
+        check(batch, result);
+    }
+
+    @Test
+    void testForkJoin() {
+        List<Item> batch = batch(1000);
+        List<HeaderFields> result = factory().headerFields(batch, ForkJoinPool.commonPool());
+        check(batch, result);
+    }
+
+    @Test
+    void testEmpty() {
+        Assertions.assertTrue(factory().headerFields(List.of()).isEmpty());
+    }
+
+    private static void check(List<Item> batch, List<HeaderFields> result) {
+        Assertions.assertEquals(batch.size(), result.size());
+        Set<String> nonces = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            HeaderFields fields = result.get(i);
+            Assertions.assertEquals(String.valueOf(i), value(fields, PAGE_KEY));
+            Assertions.assertEquals(ACCESS_TOKEN.get(), value(fields, "oauth_token"));
+            Assertions.assertTrue(nonces.add(value(fields, "oauth_nonce")));
+            /* recalculate the signature of every item */
+            SignatureBaseStringBuilder sbsb = new DefaultSignatureBaseStringBuilder(item.method.method(),
+                    item.method.endpoint());
+            fields.fields().stream().filter(hf -> !"oauth_signature".equals(hf.key())).forEach(sbsb::add);
+            String expected = item.method
+                    .signature(new SignedTextSignatureParams.BuilderSignedTextSignatureParams(sbsb,
+                            ACCESS_TOKEN_SECRET))
+                    .get();
+            Assertions.assertEquals(PercentEncoder.encode(expected), value(fields, "oauth_signature"));
+        }
+    }
+
+    private static String value(HeaderFields fields, String key) {
+        return fields.fields().stream().filter(hf -> key.equals(hf.key())).findFirst()
+                .flatMap(HeaderField::value).orElseThrow();
+    }
+
+    private static List<Item> batch(int size) {
+        List<Item> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(new Item(i % 3 == 0 ? ALBUMS : PHOTOS,
+                    HeaderFields.of(Set.of(HeaderField.of(PAGE_KEY, String.valueOf(i))))));
+        }
+        return batch;
+    }
+
+    private static ProtectedAccessFlowFactory factory() {
+        return new DefaultProtectedAccessFlowFactory(new AccessTokenFlowParam() {
+            @Override
+            public ConsumerKey consumerKey() {
+                return CONSUMER_KEY;
+            }
+
+            @Override
+            public boolean includeVersion() {
+                return true;
+            }
+
+            @Override
+            public UserRequestToken userUnauthorizedRequestToken() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public VerificationCode verificationCode() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public SignatureMethod signatureMethod() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public UserObtainAccessToken userObtainAccessToken() {
+                throw new UnsupportedOperationException();
+            }
+        }, new UserAccessTokenParameter() {
+            @Override
+            public AccessToken accessToken() {
+                return ACCESS_TOKEN;
+            }
+
+            @Override
+            public AccessTokenSecret accessTokenSecret() {
+                return ACCESS_TOKEN_SECRET;
+            }
+        });
+    }
+
+    private static final class Item implements ProtectedAccessFlowFactoryParam {
+        private final HmacSha1Signature method;
+        private final HeaderFields additionalParams;
+
+        Item(HmacSha1Signature method, HeaderFields additionalParams) {
+            this.method = method;
+            this.additionalParams = additionalParams;
+        }
+
+        @Override
+        public SignatureMethod signatureMethod() {
+            return this.method;
+        }
+
+        @Override
+        public HeaderFields additionalParams() {
+            return this.additionalParams;
+        }
+    }
+}
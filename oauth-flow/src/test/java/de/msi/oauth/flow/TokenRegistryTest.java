@@ -0,0 +1,126 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class TokenRegistryTest {
+    private static final Log LOG = LogFactory.getLog(TokenRegistryTest.class);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final List<String> removed = new ArrayList<>();
+
+    @Test
+    void testHitsAndMisses() {
+        TokenRegistry<String> registry = builder().build();
+        ProtectedAccessFlowFactory factory = factory();
+        Assertions.assertSame(factory, registry.register("alice", factory));
+        Assertions.assertSame(factory, registry.get("alice").orElseThrow());
+        Assertions.assertTrue(registry.get("bob").isEmpty());
+        /* replacing an entry notifies the listener */
+        registry.register("alice", factory());
+        Assertions.assertNotSame(factory, registry.get("alice").orElseThrow());
+        Assertions.assertTrue(registry.remove("alice"));
+        Assertions.assertFalse(registry.remove("alice"));
+        Assertions.assertEquals(List.of("alice", "alice"), this.removed);
+        TokenRegistry.Stats stats = registry.stats();
+        LOG.info(stats);
+        Assertions.assertEquals(2, stats.hits());
+        Assertions.assertEquals(1, stats.misses());
+        Assertions.assertEquals(0, stats.size());
+    }
+
+    @Test
+    void testTimeToLive() {
+        TokenRegistry<String> registry = builder().timeToLive(Duration.ofNanos(100)).build();
+        registry.register("alice", factory());
+        this.ticker.set(99);
+        Assertions.assertTrue(registry.get("alice").isPresent());
+        /* accessing the entry does not extend its lifetime */
+        this.ticker.set(100);
+        Assertions.assertTrue(registry.get("alice").isEmpty());
+        Assertions.assertEquals(List.of("alice"), this.removed);
+        Assertions.assertEquals(1, registry.stats().expirations());
+    }
+
+    @Test
+    void testIdleTimeout() {
+        TokenRegistry<String> registry = builder().idleTimeout(Duration.ofNanos(100)).build();
+        registry.register("alice", factory());
+        registry.register("bob", factory());
+        this.ticker.set(90);
+        Assertions.assertTrue(registry.get("alice").isPresent());
+        this.ticker.set(150);
+        Assertions.assertEquals(1, registry.cleanUp());
+        Assertions.assertEquals(List.of("bob"), this.removed);
+        Assertions.assertTrue(registry.get("alice").isPresent());
+        Assertions.assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testMaximumSize() {
+        TokenRegistry<Integer> registry = TokenRegistry.<Integer> builder().maximumSize(4).stripes(1).build();
+        for (int i = 0; i < 4; ++i) {
+            registry.register(i, factory());
+        }
+        /* the least recently accessed entry gets evicted */
+        Assertions.assertTrue(registry.get(0).isPresent());
+        registry.register(4, factory());
+        Assertions.assertEquals(4, registry.size());
+        Assertions.assertTrue(registry.get(1).isEmpty());
+        Assertions.assertTrue(registry.get(0).isPresent());
+        Assertions.assertEquals(1, registry.stats().evictions());
+        LOG.info(registry);
+
+        /* the maximum size is kept even if there are more stripes than entries */
+        TokenRegistry<Integer> small = TokenRegistry.<Integer> builder().maximumSize(3).build();
+        for (int i = 0; i < 100; ++i) {
+            small.register(i, factory());
+        }
+        Assertions.assertTrue(small.size() <= 3);
+    }
+
+    @Test
+    void testTokenExchange() {
+        TokenRegistry<String> registry = builder().build();
+        ProtectedAccessFlowFactory factory = factory();
+        AccessTokenFlow flow = () -> factory;
+        Assertions.assertSame(factory, flow.tokenExchange(registry, "alice"));
+        Assertions.assertSame(factory, registry.get("alice").orElseThrow());
+    }
+
+    private TokenRegistry.TokenRegistryBuilder<String> builder() {
+        return TokenRegistry.<String> builder().ticker(this.ticker::get)
+                .removalListener((key, factory) -> this.removed.add(key));
+    }
+
+    private static ProtectedAccessFlowFactory factory() {
+        /* every instance must be distinct */
+        Object identity = new Object();
+        return paffp -> {
+            throw new UnsupportedOperationException(identity.toString());
+        };
+    }
+}
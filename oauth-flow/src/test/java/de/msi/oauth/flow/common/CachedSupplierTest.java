@@ -0,0 +1,122 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class CachedSupplierTest {
+    private static final int THREADS = 8;
+
+    @Test
+    void testExactlyOnce() throws Exception {
+        CountingSupplier supplier = new CountingSupplier(false);
+        Assertions.assertEquals(Integer.valueOf(1), supplyConcurrently(supplier));
+        Assertions.assertEquals(1, supplier.invocations.get());
+    }
+
+    @Test
+    void testBlocking() throws Exception {
+        AtomicInteger invocations = new AtomicInteger();
+        CachedSupplier<Integer> supplier = new CachedSupplier<>() {
+            @Override
+            protected Integer getAndCache() {
+                invocations.incrementAndGet();
+                try {
+                    /* keep the concurrent callers waiting beyond their spin budget */
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Integer.valueOf(1000);
+            }
+        };
+        Assertions.assertEquals(Integer.valueOf(1000), supplyConcurrently(supplier));
+        Assertions.assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void testIdempotent() throws Exception {
+        CountingSupplier supplier = new CountingSupplier(true);
+        /* every caller receives the first published value */
+        Integer value = supplyConcurrently(supplier);
+        Assertions.assertEquals(value, supplier.get());
+        Assertions.assertTrue(supplier.invocations.get() >= 1);
+    }
+
+    @Test
+    void testNullAndFailure() {
+        AtomicInteger attempts = new AtomicInteger();
+        CachedSupplier<String> supplier = new CachedSupplier<>() {
+            @Override
+            protected String getAndCache() {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first attempt fails");
+                }
+                return null;
+            }
+        };
+        Assertions.assertThrows(IllegalStateException.class, supplier::get);
+        Assertions.assertNull(supplier.get());
+        Assertions.assertNull(supplier.get());
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    private static Integer supplyConcurrently(CachedSupplier<Integer> supplier) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; ++i) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return supplier.get();
+                }));
+            }
+            start.countDown();
+            Integer first = results.get(0).get();
+            for (Future<Integer> result : results) {
+                Assertions.assertSame(first, result.get());
+            }
+            return first;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class CountingSupplier extends CachedSupplier<Integer> {
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        CountingSupplier(boolean idempotent) {
+            super(idempotent);
+        }
+
+        @Override
+        protected Integer getAndCache() {
+            /* values above 127 are not cached by Integer.valueOf, so instances differ per invocation */
+            return Integer.valueOf(this.invocations.incrementAndGet() == 1 ? 1 : 1000);
+        }
+    }
+}
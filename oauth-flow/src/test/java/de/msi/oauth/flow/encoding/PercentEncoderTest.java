@@ -0,0 +1,48 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.encoding;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class PercentEncoderTest {
+
+    @Test
+    void testUnreserved() {
+        String value = "abcXYZ019-._~";
+        Assertions.assertSame(value, PercentEncoder.encode(value));
+    }
+
+    @Test
+    void testReserved() {
+        Assertions.assertEquals("a%20b%2A%2Bc%26%3D%25", PercentEncoder.encode("a b*+c&=%"));
+        Assertions.assertEquals("%C3%A4%E2%82%AC%F0%9F%98%80", PercentEncoder.encode("ä€😀"));
+        Assertions.assertEquals("x%3Fy", PercentEncoder.encode("x\ud83dy"));
+    }
+
+    @Test
+    void testTargets() {
+        String value = "Ladies + Gentlemen ä";
+        String expected = PercentEncoder.encode(value);
+        Assertions.assertEquals("<" + expected, PercentEncoder.encode(value, new StringBuilder("<")).toString());
+        byte[] target = new byte[PercentEncoder.encodedLength(value) + 1];
+        Assertions.assertEquals(target.length, PercentEncoder.encode(value, target, 1));
+        Assertions.assertEquals(expected, new String(target, 1, target.length - 1, StandardCharsets.US_ASCII));
+    }
+}
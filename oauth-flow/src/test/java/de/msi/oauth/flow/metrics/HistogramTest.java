@@ -0,0 +1,66 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class HistogramTest {
+    private static final Log LOG = LogFactory.getLog(HistogramTest.class);
+
+    @Test
+    void testPercentiles() {
+        Histogram histogram = Histogram.of();
+        Assertions.assertEquals(0, histogram.valueAtPercentile(99));
+        for (long value = 1; value <= 10_000; ++value) {
+            histogram.record(value);
+        }
+        LOG.info(histogram);
+        Assertions.assertEquals(10_000, histogram.count());
+        Assertions.assertEquals(50_005_000, histogram.sum());
+        Assertions.assertEquals(10_000, histogram.max());
+        assertWithin(5_000, histogram.valueAtPercentile(50));
+        assertWithin(9_900, histogram.valueAtPercentile(99));
+        Assertions.assertEquals(10_000, histogram.valueAtPercentile(100));
+        Assertions.assertEquals(1, histogram.valueAtPercentile(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+    }
+
+    @Test
+    void testBuckets() {
+        /* the buckets are contiguous up to the largest value */
+        long previous = -1;
+        for (int index = 0; DefaultHistogram.highest(index) != Long.MAX_VALUE; ++index) {
+            long highest = DefaultHistogram.highest(index);
+            Assertions.assertEquals(index, DefaultHistogram.index(previous + 1));
+            Assertions.assertEquals(index, DefaultHistogram.index(highest));
+            previous = highest;
+        }
+        Assertions.assertEquals(DefaultHistogram.index(Long.MAX_VALUE), DefaultHistogram.index(previous + 1));
+        Histogram histogram = Histogram.of();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        Assertions.assertEquals(0, histogram.valueAtPercentile(50));
+        Assertions.assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        Assertions.assertTrue(Math.abs(actual - expected) <= expected * 0.07, () -> expected + " ~ " + actual);
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import de.msi.oauth.flow.ProtectedAccessIntermediateFactory;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.SignatureMethodName;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.params.PlainTextSignatureParams;
+
+final class OAuthEventsTest {
+    private static final Log LOG = LogFactory.getLog(OAuthEventsTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEvents() throws IOException {
+        Path file = this.directory.resolve("oauth.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(OAuthSignatureEvent.NAME);
+            recording.enable(OAuthFlowStageEvent.NAME);
+            recording.start();
+            ProtectedAccessIntermediateFactory.of(new OAuthMetricsTest.MockProtectedAccessParam()).protectedAccess()
+                    .headerFields();
+            new PlainTextSignature.DefaultPlainTextSignature(ConsumerSecret.of("kd94hf93k423kf44"))
+                    .signature(new PlainTextSignatureParams.DefaultPlainTextSignatureParams());
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        LOG.info(events);
+        List<RecordedEvent> signatures = events.stream()
+                .filter(event -> OAuthSignatureEvent.NAME.equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(2, signatures.size());
+        Assertions.assertEquals("HMAC-SHA1", signatures.get(0).getString("method"));
+        Assertions.assertTrue(signatures.get(0).getInt("baseStringLength") > 100);
+        Assertions.assertEquals("PLAINTEXT", signatures.get(1).getString("method"));
+        Assertions.assertEquals(0, signatures.get(1).getInt("baseStringLength"));
+        RecordedEvent stage = events.stream()
+                .filter(event -> OAuthFlowStageEvent.NAME.equals(event.getEventType().getName())).findFirst()
+                .orElseThrow();
+        Assertions.assertEquals("PROTECTED_ACCESS", stage.getString("stage"));
+        Assertions.assertEquals(0, stage.getLong("userOperationDuration"));
+    }
+
+    @Test
+    void testDisabled() {
+        /* a disabled event is not populated */
+        OAuthSignatureEvent event = OAuthSignatureEvent.start();
+        event.complete(SignatureMethodName.of("HMAC-SHA1"), 42);
+        Assertions.assertNull(event.method);
+    }
+}
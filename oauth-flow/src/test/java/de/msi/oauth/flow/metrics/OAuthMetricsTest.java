@@ -0,0 +1,123 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.metrics;
+
+import java.net.URI;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.PreparedProtectedAccess;
+import de.msi.oauth.flow.ProtectedAccessIntermediateFactory;
+import de.msi.oauth.flow.ProtectedAccessParam;
+import de.msi.oauth.flow.metrics.OAuthMetrics.FlowStage;
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.user.UserAccessTokenParameter;
+
+final class OAuthMetricsTest {
+    private static final Log LOG = LogFactory.getLog(OAuthMetricsTest.class);
+    private static final SignatureMethod HMAC_SHA1 = new HmacSha1Signature.DefaultHmacSha1Signature(
+            URI.create("http://photos.example.net/photos"), HttpMethod.GET, ConsumerSecret.of("kd94hf93k423kf44"));
+
+    @AfterEach
+    void uninstall() {
+        OAuthMetrics.install(OAuthMetrics.noop());
+    }
+
+    @Test
+    void testCounting() {
+        CountingOAuthMetrics metrics = OAuthMetrics.counting();
+        OAuthMetrics.install(metrics);
+        Assertions.assertSame(metrics, OAuthMetrics.current());
+        for (int i = 0; i < 3; ++i) {
+            ProtectedAccessIntermediateFactory.of(new MockProtectedAccessParam()).protectedAccess().headerFields();
+        }
+        LOG.info(metrics);
+        Assertions.assertEquals(3, metrics.signatures().get("HMAC-SHA1").count());
+        Assertions.assertEquals(3, metrics.baseStrings().count());
+        Assertions.assertTrue(metrics.baseStrings().max() > 100);
+        Assertions.assertEquals(3, metrics.uriCacheHits() + metrics.uriCacheMisses());
+        Assertions.assertTrue(metrics.uriCacheHits() >= 2);
+        Assertions.assertEquals(3, metrics.stage(FlowStage.PROTECTED_ACCESS).count());
+        Assertions.assertEquals(0, metrics.stage(FlowStage.REQUEST_TOKEN).count());
+    }
+
+    @Test
+    void testPrepared() {
+        CountingOAuthMetrics metrics = OAuthMetrics.counting();
+        OAuthMetrics.install(metrics);
+        PreparedProtectedAccess prepared = PreparedProtectedAccess.of(new MockProtectedAccessParam());
+        for (int i = 0; i < 3; ++i) {
+            prepared.headerFields();
+        }
+        Assertions.assertEquals(3, metrics.signatures().get("HMAC-SHA1").count());
+        Assertions.assertEquals(3, metrics.stage(FlowStage.PROTECTED_ACCESS).count());
+    }
+
+    @Test
+    void testNoop() {
+        ProtectedAccessIntermediateFactory.of(new MockProtectedAccessParam()).protectedAccess().headerFields();
+        Assertions.assertSame(OAuthMetrics.noop(), OAuthMetrics.current());
+    }
+
+    static final class MockProtectedAccessParam implements ProtectedAccessParam {
+        @Override
+        public SignatureMethod signatureMethod() {
+            return HMAC_SHA1;
+        }
+
+        @Override
+        public HeaderFields additionalParams() {
+            return HeaderFields.empty();
+        }
+
+        @Override
+        public ConsumerKey consumerKey() {
+            return ConsumerKey.of("dpf43f3p2l4k3l03");
+        }
+
+        @Override
+        public boolean includeVersion() {
+            return true;
+        }
+
+        @Override
+        public UserAccessTokenParameter userAccessTokenParameter() {
+            return new UserAccessTokenParameter() {
+                @Override
+                public AccessToken accessToken() {
+                    return AccessToken.of("nnch734d00sl2jdk");
+                }
+
+                @Override
+                public AccessTokenSecret accessTokenSecret() {
+                    return AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+
+final class AuthorizationHeaderParserTest {
+    private static final Log LOG = LogFactory.getLog(AuthorizationHeaderParserTest.class);
+    private static final String HEADER = "OAuth realm=\"http://sp.example.com/\", "
+            + "oauth_consumer_key=\"0685bd9184jfhq22\", oauth_nonce=\"4572616e48616d6d65724c61686176\", "
+            + "oauth_signature=\"wOJIO9A2W5mFwDgiDvZbTSMK%2FPY%3D\", oauth_signature_method=\"HMAC-SHA1\", "
+            + "oauth_timestamp=\"137131200\", oauth_token=\"ad180jjd733klru7\", oauth_version=\"1.0\"";
+
+    private final AuthorizationHeaderParser parser = AuthorizationHeaderParser.shared();
+
+    @Test
+    void testSources() {
+        byte[] bytes = ("##" + HEADER).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().position(2);
+        List<Optional<AuthorizationHeader>> headers = List.of(this.parser.parse(HEADER),
+                this.parser.parse(bytes, 2, bytes.length - 2),
+                this.parser.parse(ByteBuffer.wrap(bytes, 2, HEADER.length())), this.parser.parse(direct));
+        Assertions.assertEquals(2, direct.position());
+        for (Optional<AuthorizationHeader> parsed : headers) {
+            AuthorizationHeader header = parsed.orElseThrow();
+            LOG.info(header);
+            Assertions.assertEquals(8, header.size());
+            Assertions.assertEquals("realm", header.key(0));
+            Assertions.assertEquals("http://sp.example.com/", header.value(0));
+            Assertions.assertEquals(Optional.of("wOJIO9A2W5mFwDgiDvZbTSMK/PY="), header.value("oauth_signature"));
+            Assertions.assertEquals(Optional.of("1.0"), header.value("oauth_version"));
+            Assertions.assertEquals(Optional.empty(), header.value("oauth_callback"));
+            /* the fields keep the signature encoded, like the fields of the HeaderFieldsBuilder */
+            Assertions.assertEquals(HEADER, AuthorizationHeaderSerializer.shared().value(header));
+        }
+    }
+
+    @Test
+    void testDecoding() {
+        AuthorizationHeader header = this.parser
+                .parse("oauth  realm=\"a \\\"b\\\" %20\",oauth_token=\"a%20b\" ,\tx%3Dy=\"%C3%A4\", empty=\"\"")
+                .orElseThrow();
+        Assertions.assertEquals(4, header.size());
+        Assertions.assertEquals("a \"b\" %20", header.value(0));
+        Assertions.assertEquals(Optional.of("a b"), header.value("oauth_token"));
+        Assertions.assertEquals(Optional.of("ä"), header.value("x=y"));
+        Assertions.assertEquals(Optional.of(""), header.value("empty"));
+        Assertions.assertEquals(List.of("realm", "oauth_token", "x=y", "empty"),
+                header.fields().stream().map(HeaderField::key).collect(Collectors.toList()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> header.key(4));
+        Assertions.assertEquals(0, this.parser.parse("OAuth").orElseThrow().size());
+        Assertions.assertEquals(0, this.parser.parse("OAUTH  ").orElseThrow().size());
+    }
+
+    @Test
+    void testMalformed() {
+        for (String malformed : new String[] { "", "Basic abc", "OAuthx a=\"b\"", "OAuth a=\"b\" c=\"d\"",
+                "OAuth a=\"b\",", "OAuth a=b", "OAuth a=\"b", "OAuth =\"b\"", "OAuth a b=\"c\"", "OAuth a=\"%2\"",
+                "OAuth a=\"%zz\"", "OAuth a=\"b\\\"c\"", "OAuth a=\"ä\"", "OAuth a=\"b\", a=\"c\"",
+                "OAuth a=\"b\", %61=\"c\"", "OAuth realm=\"a\\" }) {
+            Assertions.assertEquals(Optional.empty(), this.parser.parse(malformed), malformed);
+            byte[] bytes = malformed.getBytes(StandardCharsets.UTF_8);
+            Assertions.assertEquals(Optional.empty(), this.parser.parse(bytes, 0, bytes.length), malformed);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
+
+final class AuthorizationHeaderSerializerTest {
+    private static final Log LOG = LogFactory.getLog(AuthorizationHeaderSerializerTest.class);
+    private static final String EXPECTED = "OAuth realm=\"http://sp.example.com/\", "
+            + "oauth_consumer_key=\"0685bd9184jfhq22\", oauth_nonce=\"4572616e48616d6d65724c61686176\", "
+            + "oauth_signature=\"wOJIO9A2W5mFwDgiDvZbTSMK%2FPY%3D\", oauth_signature_method=\"HMAC-SHA1\", "
+            + "oauth_timestamp=\"137131200\", oauth_token=\"ad180jjd733klru7\", oauth_version=\"1.0\"";
+
+    private final AuthorizationHeaderSerializer serializer = AuthorizationHeaderSerializer.shared();
+
+    @Test
+    void testArray() {
+        HeaderFields fields = fields();
+        int size = this.serializer.size(fields);
+        Assertions.assertEquals(EXPECTED.length(), size);
+        byte[] target = new byte[size + 4];
+        Assertions.assertEquals(size + 2, this.serializer.write(fields, target, 2));
+        Assertions.assertEquals(EXPECTED, new String(target, 2, size, StandardCharsets.US_ASCII));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> this.serializer.write(fields, new byte[size], 1));
+        LOG.info(this.serializer.value(fields));
+    }
+
+    @Test
+    void testByteBuffer() {
+        HeaderFields fields = fields();
+        for (ByteBuffer target : new ByteBuffer[] { ByteBuffer.allocate(512), ByteBuffer.allocateDirect(512) }) {
+            target.put((byte) '#');
+            this.serializer.write(fields, target);
+            Assertions.assertEquals(EXPECTED.length() + 1, target.position());
+            target.flip().get();
+            Assertions.assertEquals(EXPECTED, StandardCharsets.US_ASCII.decode(target).toString());
+        }
+        ByteBuffer small = ByteBuffer.allocateDirect(EXPECTED.length() - 1);
+        Assertions.assertThrows(BufferOverflowException.class, () -> this.serializer.write(fields, small));
+        Assertions.assertEquals(0, small.position());
+    }
+
+    @Test
+    void testEncoding() {
+        SortedHeaderFields sorted = new SortedHeaderFields();
+        sorted.add("realm", "say \"hi\"");
+        sorted.add("a b", "c&d");
+        sorted.add("empty", null);
+        HeaderFields fields = sorted::fields;
+        Assertions.assertEquals("OAuth realm=\"say \\\"hi\\\"\", a%20b=\"c%26d\", empty=\"\"",
+                this.serializer.value(fields));
+        Assertions.assertEquals("OAuth", this.serializer.value(HeaderFields.empty()));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> this.serializer.size(HeaderFields.of(Set.of(HeaderField.of("realm", "ä")))));
+    }
+
+    private static HeaderFields fields() {
+        SortedHeaderFields fields = new SortedHeaderFields();
+        fields.add("oauth_consumer_key", "0685bd9184jfhq22");
+        fields.add("oauth_token", "ad180jjd733klru7");
+        fields.add("oauth_signature_method", "HMAC-SHA1");
+        fields.add("oauth_signature", "wOJIO9A2W5mFwDgiDvZbTSMK%2FPY%3D");
+        fields.add("oauth_timestamp", "137131200");
+        fields.add("oauth_nonce", "4572616e48616d6d65724c61686176");
+        fields.add("oauth_version", "1.0");
+        fields.add("realm", "http://sp.example.com/");
+        return fields::fields;
+    }
+}
@@ -31,6 +31,7 @@ import de.msi.oauth.flow.params.RequestToken;
 import de.msi.oauth.flow.params.RequestTokenSecret;
 import de.msi.oauth.flow.params.header.fields.HeaderField;
 import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
 import de.msi.oauth.flow.signature.HmacSha1Signature;
 
 final class DefaultHeaderParameterBuilderTest {
@@ -61,6 +62,8 @@ final class DefaultHeaderParameterBuilderTest {
                         .build(new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, METHOD, CONSUMER_SECRET));
         /* check for expected values */
         LOG.info(headerParameters);
+        /* the signed fields can not be changed anymore */
+        Assertions.assertFalse(headerParameters instanceof SortedHeaderFields);
         Set<HeaderField> parameters = new HashSet<>(headerParameters.fields());
         Assertions.assertNotNull(parameters);
         Assertions.assertTrue(parameters.contains(new OrderedHeaderField("oauth_consumer_key", CONSUMER_KEY.get())));
@@ -76,6 +79,43 @@ final class DefaultHeaderParameterBuilderTest {
                 parameters.contains(new OrderedHeaderField("oauth_signature", "tR3%2BTy81lMeYAr%2FFid0kMTYa%2FWM%3D")));
     }
 
+    @Test
+    void testQuery() {
+        URI endpoint = URI.create(ENDPOINT + "?" + FILE_KEY + "=" + FILE_VAL + "&" + SIZE_KEY + "=" + SIZE_VAL);
+        HeaderFields headerParameters = new DefaultHeaderFieldsBuilder(new MockOauthHeaderParameterValues(),
+                new CallbackParameter.NoCallback()).consumerKey(CONSUMER_KEY).versionInformation().token(TOKEN)
+                        .tokenSecret(TOKEN_SECRET)
+                        .build(new HmacSha1Signature.DefaultHmacSha1Signature(endpoint, METHOD, CONSUMER_SECRET));
+        Set<HeaderField> parameters = new HashSet<>(headerParameters.fields());
+        /* the query parameters are signed, but not part of the header */
+        Assertions.assertEquals(7, parameters.size());
+        Assertions.assertFalse(parameters.contains(new OrderedHeaderField(FILE_KEY, FILE_VAL)));
+        Assertions.assertTrue(
+                parameters.contains(new OrderedHeaderField("oauth_signature", "tR3%2BTy81lMeYAr%2FFid0kMTYa%2FWM%3D")));
+    }
+
+    @Test
+    void testPrepared() {
+        HeaderFieldsTemplate template = new DefaultHeaderFieldsBuilder(new MockOauthHeaderParameterValues(),
+                new CallbackParameter.NoCallback()).consumerKey(CONSUMER_KEY).versionInformation().token(TOKEN)
+                        .tokenSecret(TOKEN_SECRET)
+                        .additionalParameter(HeaderFields.of(Set.of(HeaderField.of(REALM_KEY, REALM_VAL))))
+                        .prepare(new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, METHOD, CONSUMER_SECRET));
+        LOG.info(template);
+        for (int i = 0; i < 2; ++i) {
+            HeaderFields headerParameters = template.build(HeaderFields
+                    .of(Set.of(HeaderField.of(FILE_KEY, FILE_VAL), HeaderField.of(SIZE_KEY, SIZE_VAL))));
+            Set<HeaderField> parameters = new HashSet<>(headerParameters.fields());
+            Assertions.assertEquals(10, parameters.size());
+            Assertions.assertTrue(parameters.contains(new OrderedHeaderField(FILE_KEY, FILE_VAL)));
+            Assertions.assertTrue(parameters.contains(new OrderedHeaderField(REALM_KEY, REALM_VAL)));
+            Assertions.assertTrue(parameters
+                    .contains(new OrderedHeaderField("oauth_signature", "tR3%2BTy81lMeYAr%2FFid0kMTYa%2FWM%3D")));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> template.build(HeaderFields.of(Set.of(HeaderField.of("oauth_version", "1.0")))));
+    }
+
     private static HeaderFields additionalParams() {
         return HeaderFields.of(Set.of(HeaderField.of(FILE_KEY, FILE_VAL), HeaderField.of(SIZE_KEY, SIZE_VAL),
                 HeaderField.of(REALM_KEY, REALM_VAL)));
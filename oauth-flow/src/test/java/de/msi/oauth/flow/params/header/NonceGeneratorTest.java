@@ -0,0 +1,78 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.encoding.PercentEncoder;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+
+final class NonceGeneratorTest {
+    private static final int ITERATIONS = 10_000;
+
+    @Test
+    void testLowercase() {
+        NonceGenerator generator = NonceGenerator.lowercase();
+        Set<Character> letters = new HashSet<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            String nonce = generator.nonce();
+            Assertions.assertEquals(8, nonce.length());
+            for (char c : nonce.toCharArray()) {
+                Assertions.assertTrue(c >= 'a' && c <= 'z', nonce);
+                letters.add(c);
+            }
+        }
+        /* every letter including 'z' has to be used */
+        Assertions.assertEquals(26, letters.size());
+    }
+
+    @Test
+    void testHighEntropy() {
+        NonceGenerator generator = NonceGenerator.highEntropy();
+        Set<String> nonces = new HashSet<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            String nonce = generator.nonce();
+            Assertions.assertEquals(22, nonce.length());
+            Assertions.assertSame(nonce, PercentEncoder.encode(nonce));
+            Assertions.assertTrue(nonces.add(nonce));
+        }
+    }
+
+    @Test
+    void testClustered() {
+        NonceGenerator first = new ClusteredNonceGenerator(1, 1_600_000_000_000L);
+        NonceGenerator second = new ClusteredNonceGenerator(2, 1_600_000_000_000L);
+        Assertions.assertEquals("1-kf12ot8g-0", first.nonce());
+        Assertions.assertEquals("1-kf12ot8g-1", first.nonce());
+        Assertions.assertEquals("2-kf12ot8g-0", second.nonce());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> NonceGenerator.clustered(-1));
+    }
+
+    @Test
+    void testBuilder() {
+        HeaderFields fields = HeaderFieldsBuilder.withoutCallback().nonceGenerator(() -> "fixed-nonce")
+                .build(new PlainTextSignature.DefaultPlainTextSignature(ConsumerSecret.of("kd94hf93k423kf44")));
+        Assertions.assertTrue(fields.fields().stream().anyMatch(
+                hf -> "oauth_nonce".equals(hf.key()) && hf.value().filter("fixed-nonce"::equals).isPresent()));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+
+final class OAuthClockTest {
+
+    @Test
+    void testLazy() {
+        AtomicLong millis = new AtomicLong(1_191_242_096_000L);
+        LazyOAuthClock clock = new LazyOAuthClock(millis::get);
+        String first = clock.timestamp();
+        Assertions.assertEquals("1191242096", first);
+        millis.addAndGet(999);
+        /* the cached value is reused within the same second */
+        Assertions.assertSame(first, clock.timestamp());
+        millis.incrementAndGet();
+        Assertions.assertEquals("1191242097", clock.timestamp());
+    }
+
+    @Test
+    void testSkew() {
+        AtomicLong millis = new AtomicLong(1_191_242_096_500L);
+        LazyOAuthClock clock = new LazyOAuthClock(millis::get);
+        clock.skew(-30);
+        Assertions.assertEquals("1191242066", clock.timestamp());
+        clock.synchronize(1_191_242_196L);
+        Assertions.assertEquals(100, clock.skew());
+        Assertions.assertEquals("1191242196", clock.timestamp());
+    }
+
+    @Test
+    void testTicking() throws InterruptedException {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try (TickingOAuthClock clock = OAuthClock.ticking(executor)) {
+            long before = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            long value = Long.parseLong(clock.timestamp());
+            Assertions.assertTrue(value >= before - 1 && value <= before + 1);
+            /* the ticker replaces the value after the rollover */
+            Thread.sleep(1_500);
+            Assertions.assertTrue(Long.parseLong(clock.timestamp()) > value);
+            clock.skew(3_600);
+            Assertions.assertTrue(Long.parseLong(clock.timestamp()) >= value + 3_600);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBuilder() {
+        HeaderFields fields = HeaderFieldsBuilder.withoutCallback().clock(OAuthClock.fixed(1_191_242_096L))
+                .build(new PlainTextSignature.DefaultPlainTextSignature(ConsumerSecret.of("kd94hf93k423kf44")));
+        Assertions.assertTrue(fields.fields().stream().anyMatch(
+                hf -> "oauth_timestamp".equals(hf.key()) && hf.value().filter("1191242096"::equals).isPresent()));
+    }
+}
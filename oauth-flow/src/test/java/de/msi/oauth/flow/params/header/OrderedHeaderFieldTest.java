@@ -20,32 +20,41 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.SortedHeaderFields;
 
 final class OrderedHeaderFieldTest {
 
     @Test
     void testOrderingSuccessful() {
-        OrderedHeaderFields orderedHeaderFields = new OrderedHeaderFields();
-        orderedHeaderFields.add("KEY_g", "VAL_g");
-        orderedHeaderFields.add("KEY_j", "VAL_j");
-        orderedHeaderFields.add("KEY_e", "VAL_e");
-        orderedHeaderFields.add("KEY_a", "VAL_a");
-        orderedHeaderFields.add("KEY_c", "VAL_c");
-        orderedHeaderFields.add("KEY_a", "VAL_b");
+        SortedHeaderFields orderedHeaderFields = new SortedHeaderFields();
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_g", "VAL_g"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_j", "VAL_j"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_e", "VAL_e"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_a", "VAL_a"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_c", "VAL_c"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_a", "VAL_b"));
         testSuccessfulOrdering(orderedHeaderFields);
     }
 
     @Test
     void testOrderingDuplicates() {
-        OrderedHeaderFields orderedHeaderFields = new OrderedHeaderFields();
-        orderedHeaderFields.add("KEY_g", "VAL_g");
-        orderedHeaderFields.add("KEY_j", "VAL_j");
-        orderedHeaderFields.add("KEY_e", "VAL_e");
-        Assertions.assertThrows(IllegalArgumentException.class, () -> orderedHeaderFields.add("KEY_g", "VAL_g"),
+        SortedHeaderFields orderedHeaderFields = new SortedHeaderFields();
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_g", "VAL_g"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_j", "VAL_j"));
+        orderedHeaderFields.add(new OrderedHeaderField("KEY_e", "VAL_e"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> orderedHeaderFields.add(new OrderedHeaderField("KEY_g", "VAL_g")),
                 "duplicated entry not successfully detected");
     }
 
-    private static void testSuccessfulOrdering(OrderedHeaderFields orderedHeaderFields) {
+    @Test
+    void testHashCode() {
+        Assertions.assertEquals(HeaderField.of("KEY_a", "VAL_a").hashCode(),
+                new OrderedHeaderField("KEY_a", "VAL_a").hashCode());
+        Assertions.assertEquals(HeaderField.of("KEY_a").hashCode(), new OrderedHeaderField("KEY_a").hashCode());
+    }
+
+    private static void testSuccessfulOrdering(SortedHeaderFields orderedHeaderFields) {
         HeaderField successor = null;
         for (HeaderField headerField : orderedHeaderFields.fields()) {
             if (successor != null) {
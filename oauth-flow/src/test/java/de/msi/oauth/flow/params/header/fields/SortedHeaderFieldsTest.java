@@ -0,0 +1,93 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.params.header.fields;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class SortedHeaderFieldsTest {
+
+    @Test
+    void testOrdering() {
+        SortedHeaderFields fields = new SortedHeaderFields(2);
+        fields.add("oauth_token", "nnch734d00sl2jdk");
+        fields.add("a", "2");
+        fields.add("a", null);
+        fields.add("size", "original");
+        fields.add("a", "1");
+        fields.add("file", "vacation.jpg");
+        Assertions.assertEquals(6, fields.size());
+        Assertions.assertEquals(List.of("a=null", "a=1", "a=2", "file=vacation.jpg", "oauth_token=nnch734d00sl2jdk",
+                "size=original"), render(fields));
+        Assertions.assertNull(fields.value(0));
+        Assertions.assertEquals("size", fields.key(5));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> fields.key(6));
+    }
+
+    @Test
+    void testDuplicates() {
+        SortedHeaderFields fields = new SortedHeaderFields();
+        fields.add("b", "1");
+        fields.add("c", "1");
+        fields.add("a", null);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fields.add("b", "1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fields.add("c", "1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> fields.add("a", null));
+        Assertions.assertEquals(3, fields.size());
+    }
+
+    @Test
+    void testCopy() {
+        SortedHeaderFields template = new SortedHeaderFields();
+        template.add("b", "1");
+        template.add("d", "1");
+        SortedHeaderFields copy = new SortedHeaderFields(template);
+        for (int i = 0; i < 20; i++) {
+            copy.add("c", Integer.toString(i + 10));
+        }
+        copy.add("a", "1");
+        Assertions.assertEquals(List.of("b=1", "d=1"), render(template));
+        Assertions.assertEquals(23, copy.size());
+        Assertions.assertEquals("a", copy.key(0));
+        Assertions.assertEquals("d", copy.key(22));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> copy.fields().add(HeaderField.of("e", "1")));
+    }
+
+    @Test
+    void testUnmodifiableView() {
+        SortedHeaderFields fields = new SortedHeaderFields();
+        fields.add("b", "1");
+        HeaderFields view = fields.unmodifiableView();
+        Assertions.assertFalse(view instanceof SortedHeaderFields);
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> view.fields().add(HeaderField.of("a", "1")));
+        fields.add("a", "1");
+        Assertions.assertEquals(List.of("a=1", "b=1"), render(view));
+    }
+
+    private static List<String> render(HeaderFields fields) {
+        List<String> result = new ArrayList<>();
+        for (HeaderField hf : fields.fields()) {
+            result.add(hf.key() + "=" + hf.value().orElse("null"));
+        }
+        return result;
+    }
+}
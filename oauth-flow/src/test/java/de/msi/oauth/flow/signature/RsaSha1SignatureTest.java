@@ -0,0 +1,78 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package de.msi.oauth.flow.signature;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.Signature;
+import de.msi.oauth.flow.params.SignatureBaseString;
+import de.msi.oauth.flow.signature.params.SignedTextSignatureParams;
+import de.msi.oauth.flow.signature.rsa.RsaKeys;
+import de.msi.oauth.flow.signature.rsa.RsaSha1Verifier;
+
+final class RsaSha1SignatureTest {
+    private static final Log LOG = LogFactory.getLog(RsaSha1SignatureTest.class);
+    private static final SignatureBaseString BASE_STRING = SignatureBaseString.of(
+            "GET&http%3A%2F%2Fphotos.example.net%2Fphotos&file%3Dvacaction.jpg%26oauth_consumer_key%3Ddpf43f3p2l4k3l03%26oauth_nonce%3D13917289812797014437%26oauth_signature_method%3DRSA-SHA1%26oauth_timestamp%3D1196666512%26oauth_version%3D1.0%26size%3Doriginal");
+
+    private static String privateKeyPem;
+    private static String publicKeyPem;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        KeyPair keyPair = generator.generateKeyPair();
+        privateKeyPem = pem("PRIVATE KEY", keyPair.getPrivate().getEncoded());
+        publicKeyPem = pem("PUBLIC KEY", keyPair.getPublic().getEncoded());
+    }
+
+    @Test
+    void testSignAndVerify() {
+        RsaSha1Signature rsaSha1Signature = new RsaSha1Signature.DefaultRsaSha1Signature(
+                URI.create("http://photos.example.net/photos"), HttpMethod.GET, ConsumerSecret.of("kd94hf93k423kf44"),
+                RsaKeys.privateKey(privateKeyPem));
+        LOG.info(rsaSha1Signature);
+        Assertions.assertEquals("RSA-SHA1", rsaSha1Signature.oAuthName().get());
+
+        Signature signature = rsaSha1Signature
+                .signature(new SignedTextSignatureParams.DefaultSignedTextSignatureParams(BASE_STRING));
+        LOG.info(signature);
+
+        RsaSha1Verifier verifier = RsaSha1Verifier.of(RsaKeys.publicKey(publicKeyPem));
+        Assertions.assertTrue(verifier.verify(BASE_STRING, signature));
+        Assertions.assertFalse(verifier.verify(SignatureBaseString.of(BASE_STRING.get() + "%26x%3Dy"), signature));
+        Assertions.assertFalse(verifier.verify(BASE_STRING, Signature.of("not-base64!")));
+        /* the engine must recover from the failed verifications above */
+        Assertions.assertTrue(verifier.verify(BASE_STRING, signature));
+    }
+
+    private static String pem(String type, byte[] der) {
+        return String.format("-----BEGIN %s-----%n%s%n-----END %s-----%n", type,
+                Base64.getMimeEncoder().encodeToString(der), type);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+
+final class FormParametersTest {
+    private static final Log LOG = LogFactory.getLog(FormParametersTest.class);
+    private static final URI ENDPOINT = URI.create("http://photos.example.net/photos");
+    private static final String EXPECTED = "GET&http%3A%2F%2Fphotos.example.net%2Fphotos&file%3Dvacation.jpg%26oauth_consumer_key%3Ddpf43f3p2l4k3l03%26oauth_nonce%3Dkllo9940pd9333jh%26oauth_signature_method%3DHMAC-SHA1%26oauth_timestamp%3D1191242096%26oauth_token%3Dnnch734d00sl2jdk%26oauth_version%3D1.0%26size%3Doriginal";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testDecoding() {
+        List<String> parameters = new ArrayList<>();
+        FormParameters.parse("b=2&a=1+x&&c=%7e&a=%C3%A4&d&e=x=y").forEach((k, v) -> parameters.add(k + '=' + v));
+        /* sorted by the encoded values, so "%C3%A4" precedes "1%20x" */
+        Assertions.assertEquals(List.of("a=\u00e4", "a=1 x", "b=2", "c=~", "d=", "e=x=y"), parameters);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FormParameters.parse("a=%4"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FormParameters.parse("a=%zz"));
+    }
+
+    @Test
+    void testBaseString() {
+        FormParameters body = FormParameters.parse("size=original&file=vacation.jpg");
+        SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(HttpMethod.GET, ENDPOINT)
+                .add(HeaderField.of("oauth_consumer_key", "dpf43f3p2l4k3l03"))
+                .add(HeaderField.of("oauth_token", "nnch734d00sl2jdk"))
+                .add(HeaderField.of("oauth_signature_method", "HMAC-SHA1"))
+                .add(HeaderField.of("oauth_timestamp", "1191242096"))
+                .add(HeaderField.of("oauth_nonce", "kllo9940pd9333jh")).add(HeaderField.of("oauth_version", "1.0"))
+                .add(body);
+        Assertions.assertEquals(EXPECTED, builder.build().get());
+        Assertions.assertEquals(EXPECTED, StandardCharsets.US_ASCII.decode(builder.buildBytes()).toString());
+
+        SignatureBaseStringBuilder template = SignatureBaseStringTemplate
+                .of(HttpMethod.GET, ENDPOINT,
+                        List.of(HeaderField.of("oauth_consumer_key", "dpf43f3p2l4k3l03"),
+                                HeaderField.of("oauth_token", "nnch734d00sl2jdk"),
+                                HeaderField.of("oauth_signature_method", "HMAC-SHA1"),
+                                HeaderField.of("oauth_version", "1.0")))
+                .builder().add(HeaderField.of("oauth_timestamp", "1191242096"))
+                .add(HeaderField.of("oauth_nonce", "kllo9940pd9333jh")).add(body);
+        Assertions.assertEquals(EXPECTED, template.build().get());
+    }
+
+    @Test
+    void testSpill() throws IOException {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            pairs.add("key" + (i % 37) + '=' + i + "+%2F" + i);
+        }
+        Collections.shuffle(pairs, new Random(42));
+        byte[] content = String.join("&", pairs).getBytes(StandardCharsets.US_ASCII);
+
+        SignatureBaseStringBuilder expected = new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT);
+        FormParameters.parse(new String(content, StandardCharsets.US_ASCII))
+                .forEach((k, v) -> expected.add(HeaderField.of(k, v)));
+
+        try (FormParameters body = FormParameters.parse(Channels.newChannel(new ByteArrayInputStream(content)), 1024,
+                this.directory)) {
+            LOG.info(body);
+            Assertions.assertEquals(2000, body.size());
+            Assertions.assertTrue(body.runs() > 1);
+            Assertions.assertEquals(expected.build().get(),
+                    new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT).add(body).build().get());
+        }
+        try (Stream<Path> files = Files.list(this.directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testChunks() throws IOException {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < 20000; ++i) {
+            pairs.add("key" + (i % 37) + '=' + i + "+%2F" + i);
+        }
+        Collections.shuffle(pairs, new Random(42));
+        byte[] content = String.join("&", pairs).getBytes(StandardCharsets.US_ASCII);
+
+        try (FormParameters body = FormParameters.parse(Channels.newChannel(new ByteArrayInputStream(content)), 1024,
+                this.directory)) {
+            SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT)
+                    .add(body);
+            ByteBuffer bytes = builder.buildBytes();
+            byte[] expected = new byte[bytes.remaining()];
+            bytes.get(expected);
+
+            /* the streamed chunks are never as large as the whole signature base string */
+            ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+            List<Integer> chunks = new ArrayList<>();
+            long length = builder.writeTo(chunk -> {
+                chunks.add(chunk.remaining());
+                byte[] copy = new byte[chunk.remaining()];
+                chunk.get(copy);
+                streamed.write(copy, 0, copy.length);
+            });
+            Assertions.assertEquals(expected.length, length);
+            Assertions.assertArrayEquals(expected, streamed.toByteArray());
+            Assertions.assertTrue(chunks.size() > 1);
+            Assertions.assertTrue(Collections.max(chunks) < expected.length);
+        }
+    }
+
+    @Test
+    void testDuplicates() throws IOException {
+        String expected = "POST&http%3A%2F%2Fphotos.example.net%2Fphotos&a%3D1%26a%3D1%26b%3D2%26c%3D3%26tag%3Dx"
+                + "%26tag%3Dx";
+        byte[] content = "tag=x&a=1&b=2&c=3&a=1&tag=x".getBytes(StandardCharsets.US_ASCII);
+        /* the duplicates of a single run */
+        Assertions.assertEquals(expected, new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT)
+                .add(FormParameters.parse(new String(content, StandardCharsets.US_ASCII))).build().get());
+        /* the duplicates of different runs */
+        try (FormParameters body = FormParameters.parse(Channels.newChannel(new ByteArrayInputStream(content)), 4,
+                this.directory)) {
+            Assertions.assertTrue(body.runs() > 1);
+            Assertions.assertEquals(expected,
+                    new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT).add(body).build().get());
+            List<String> parameters = new ArrayList<>();
+            body.forEach((k, v) -> parameters.add(k + '=' + v));
+            Assertions.assertEquals(List.of("a=1", "a=1", "b=2", "c=3", "tag=x", "tag=x"), parameters);
+        }
+        /* a body parameter equal to a header field */
+        Assertions.assertEquals("POST&http%3A%2F%2Fphotos.example.net%2Fphotos&b%3D2%26b%3D2",
+                new DefaultSignatureBaseStringBuilder(HttpMethod.POST, ENDPOINT).add(HeaderField.of("b", "2"))
+                        .add(FormParameters.parse("b=2")).build().get());
+    }
+}
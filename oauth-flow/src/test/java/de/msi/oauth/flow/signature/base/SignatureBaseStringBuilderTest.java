@@ -16,6 +16,9 @@
 package de.msi.oauth.flow.signature.base;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -43,4 +46,68 @@ final class SignatureBaseStringBuilderTest {
         LOG.info(baseString);
         Assertions.assertEquals(EXPECTED, baseString.get());
     }
+
+    @Test
+    void testQuery() {
+        URI endpoint = URI.create(URL + "?size=original&file=vacation.jpg");
+        SignatureBaseString baseString = new DefaultSignatureBaseStringBuilder(HttpMethod.GET, endpoint)
+                .add(HeaderField.of("oauth_consumer_key", "dpf43f3p2l4k3l03"))
+                .add(HeaderField.of("oauth_token", "nnch734d00sl2jdk"))
+                .add(HeaderField.of("oauth_signature_method", "HMAC-SHA1"))
+                .add(HeaderField.of("oauth_timestamp", "1191242096"))
+                .add(HeaderField.of("oauth_nonce", "kllo9940pd9333jh")).add(HeaderField.of("oauth_version", "1.0"))
+                .build();
+        Assertions.assertEquals(EXPECTED, baseString.get());
+        SignatureBaseStringBuilder template = SignatureBaseStringTemplate.of(HttpMethod.GET, endpoint,
+                List.of(HeaderField.of("oauth_consumer_key", "dpf43f3p2l4k3l03"),
+                        HeaderField.of("oauth_token", "nnch734d00sl2jdk"),
+                        HeaderField.of("oauth_signature_method", "HMAC-SHA1"), HeaderField.of("oauth_version", "1.0")))
+                .builder();
+        Assertions.assertEquals(EXPECTED, template.add(HeaderField.of("oauth_timestamp", "1191242096"))
+                .add(HeaderField.of("oauth_nonce", "kllo9940pd9333jh")).build().get());
+        Assertions.assertEquals("POST&http%3A%2F%2Fexample.com%2F&a%3D1%2520%252B%26b%3D",
+                new DefaultSignatureBaseStringBuilder(HttpMethod.POST, URI.create("http://example.com/?b&a=1+%2B"))
+                        .build().get());
+    }
+
+    @Test
+    void testBytesAndEncoding() {
+        SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(HttpMethod.POST,
+                URI.create("https://example.com/request"))
+                        .add(HeaderField.of("c2", "")).add(HeaderField.of("a3", "2 q"))
+                        .add(HeaderField.of("a3", "a")).add(HeaderField.of("b5", "=%3D"))
+                        .add(HeaderField.of("realm", "Example"));
+        String expected = "POST&https%3A%2F%2Fexample.com%2Frequest&a3%3D2%2520q%26a3%3Da%26b5%3D%253D%25253D%26c2%3D";
+        Assertions.assertEquals(expected, builder.build().get());
+        ByteBuffer bytes = builder.buildBytes();
+        Assertions.assertEquals(expected, StandardCharsets.US_ASCII.decode(bytes).toString());
+    }
+
+    @Test
+    void testDuplicates() {
+        SignatureBaseStringBuilder builder = new DefaultSignatureBaseStringBuilder(HttpMethod.GET, URI.create(URL))
+                .add(HeaderField.of("file", "vacation.jpg"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> builder.add(HeaderField.of("file", "vacation.jpg")).build());
+        SignatureBaseStringBuilder template = SignatureBaseStringTemplate
+                .of(HttpMethod.GET, URI.create(URL), List.of(HeaderField.of("file", "vacation.jpg"))).builder();
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> template.add(HeaderField.of("file", "vacation.jpg")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SignatureBaseStringTemplate.of(HttpMethod.GET,
+                URI.create(URL), List.of(HeaderField.of("a", "1"), HeaderField.of("a", "1"))));
+    }
+
+    @Test
+    void testQueryDuplicates() {
+        URI endpoint = URI.create("http://example.com/?a=1&a=1");
+        String expected = "GET&http%3A%2F%2Fexample.com%2F&a%3D1%26a%3D1%26a%3D1";
+        Assertions.assertEquals(expected, new DefaultSignatureBaseStringBuilder(HttpMethod.GET, endpoint)
+                .add(HeaderField.of("a", "1")).build().get());
+        Assertions.assertEquals(expected,
+                SignatureBaseStringTemplate.of(HttpMethod.GET, endpoint, List.of()).builder()
+                        .add(HeaderField.of("a", "1")).build().get());
+        Assertions.assertEquals("GET&http%3A%2F%2Fexample.com%2F&%25C3%25A4%3D%25F0%259F%2598%2580%26b%3D",
+                new DefaultSignatureBaseStringBuilder(HttpMethod.GET,
+                        URI.create("http://example.com/?b=&\u00e4=\ud83d\ude00")).build().get());
+    }
 }
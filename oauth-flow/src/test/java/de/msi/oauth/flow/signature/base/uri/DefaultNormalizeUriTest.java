@@ -35,6 +35,7 @@ final class DefaultNormalizeUriTest {
         return Stream.of(Arguments.of("HTTP://Example.com:80/resource?id=123", "http://example.com/resource"),
                 Arguments.of("HTTP://Example.com:443/resource?id=123", "http://example.com:443/resource"),
                 Arguments.of("HTTP://Example.com:1234/resource?id=123", "http://example.com:1234/resource"),
-                Arguments.of("HTTPS://Example.com:443/resource/res2?id=123", "https://example.com/resource/res2"));
+                Arguments.of("HTTPS://Example.com:443/resource/res2?id=123", "https://example.com/resource/res2"),
+                Arguments.of("https://Example.com/Photos/IMG.jpg", "https://example.com/Photos/IMG.jpg"));
     }
 }
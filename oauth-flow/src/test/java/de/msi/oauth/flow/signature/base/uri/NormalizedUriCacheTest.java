@@ -0,0 +1,72 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.base.uri;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+final class NormalizedUriCacheTest {
+    private static final Log LOG = LogFactory.getLog(NormalizedUriCacheTest.class);
+
+    @Test
+    void testHitsAndMisses() {
+        NormalizedUriCache cache = NormalizedUriCache.of(8);
+        URI endpoint = URI.create("HTTP://Photos.Example.net:8080/Photos");
+        NormalizedUri normalized = cache.normalize(endpoint);
+        Assertions.assertEquals("http://photos.example.net:8080/Photos", normalized.get());
+        Assertions.assertSame(normalized, cache.normalize(URI.create("HTTP://Photos.Example.net:8080/Photos")));
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+        Assertions.assertEquals(1, cache.size());
+        LOG.info(cache);
+        /* the query and the fragment do not take entries of their own */
+        Assertions.assertSame(normalized,
+                cache.normalize(URI.create("HTTP://Photos.Example.net:8080/Photos?size=original#top")));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertEquals(2, cache.hits());
+
+        byte[] encoded = new byte[normalized.encodedLength() + 1];
+        Assertions.assertEquals(encoded.length, normalized.encode(encoded, 1));
+        Assertions.assertEquals("http%3A%2F%2Fphotos.example.net%3A8080%2FPhotos",
+                new String(encoded, 1, normalized.encodedLength(), StandardCharsets.US_ASCII));
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertNotSame(normalized, cache.normalize(endpoint));
+        Assertions.assertEquals(2, cache.misses());
+        Assertions.assertNotSame(cache.normalize(endpoint),
+                cache.normalize(URI.create("HTTP://Photos.Example.net:8080/Videos")));
+    }
+
+    @Test
+    void testEviction() {
+        NormalizedUriCache cache = NormalizedUriCache.of(1);
+        URI first = URI.create("http://example.com/first");
+        NormalizedUri normalized = cache.normalize(first);
+        cache.normalize(URI.create("http://example.com/second"));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertNotSame(normalized, cache.normalize(first));
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals(3, cache.misses());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> NormalizedUriCache.of(0));
+    }
+}
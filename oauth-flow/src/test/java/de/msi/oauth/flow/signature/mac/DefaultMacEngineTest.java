@@ -0,0 +1,110 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package de.msi.oauth.flow.signature.mac;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Mac;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.common.ChunkedInput;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerSecret;
+
+final class DefaultMacEngineTest {
+    private static final String ALGORITHM = "HmacSHA1";
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final byte[] INPUT = "GET&http%3A%2F%2Fphotos.example.net%2Fphotos&file%3Dvacation.jpg"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testReusedInstancesMatchFreshInstances() throws Exception {
+        /* two cached instances per thread enforce the eviction of previously initialized keys */
+        MacEngine engine = new DefaultMacEngine(ALGORITHM, 2);
+        for (int round = 0; round < 3; ++round) {
+            for (int i = 0; i < 5; ++i) {
+                MacKey key = MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("secret-" + i));
+                Assertions.assertArrayEquals(fresh(key), engine.doFinal(key, INPUT));
+            }
+        }
+    }
+
+    @Test
+    void testSharedCaches() throws Exception {
+        /* every thread borrows its cache from the shared pool, as virtual threads do */
+        MacEngine engine = new DefaultMacEngine(ALGORITHM, 2, () -> true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int task = 0; task < 16; ++task) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 5; ++i) {
+                        MacKey key = MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("secret-" + i));
+                        Assertions.assertArrayEquals(fresh(key), engine.doFinal(key, INPUT));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testChunkedInput() throws Exception {
+        MacEngine engine = new DefaultMacEngine(ALGORITHM, 2);
+        MacKey key = MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("secret"));
+        ChunkedInput input = chunks -> {
+            for (int offset = 0; offset < INPUT.length; offset += 10) {
+                chunks.accept(ByteBuffer.wrap(INPUT, offset, Math.min(10, INPUT.length - offset)));
+            }
+            return INPUT.length;
+        };
+        Assertions.assertArrayEquals(fresh(key), engine.doFinal(key, input));
+        /* a failing input leaves the reused instance intact */
+        Assertions.assertThrows(IllegalArgumentException.class, () -> engine.doFinal(key, chunks -> {
+            chunks.accept(ByteBuffer.wrap(INPUT, 0, 10));
+            throw new IllegalArgumentException("invalid input");
+        }));
+        Assertions.assertArrayEquals(fresh(key), engine.doFinal(key, input));
+    }
+
+    @Test
+    void testKeyEquality() {
+        Assertions.assertEquals(MacKey.of(CONSUMER_SECRET, null), MacKey.of(CONSUMER_SECRET, null));
+        Assertions.assertEquals(MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("a")),
+                MacKey.of(ConsumerSecret.of(CONSUMER_SECRET.get()), AccessTokenSecret.of("a")));
+        Assertions.assertNotEquals(MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("a")),
+                MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of("b")));
+    }
+
+    private static byte[] fresh(MacKey key) throws Exception {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(key.secretKey(ALGORITHM));
+        return mac.doFinal(INPUT);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.signature.mac;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerSecret;
+
+final class SecretStoreTest {
+    private static final Log LOG = LogFactory.getLog(SecretStoreTest.class);
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final byte[] INPUT = "GET&http%3A%2F%2Fphotos.example.net%2Fphotos&file%3Dvacation.jpg"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testSigning() {
+        SecretStore store = SecretStore.offHeap(CONSUMER_SECRET);
+        MacEngine engine = MacEngine.hmacSha1();
+        for (String raw : new String[] { "pfkkdhi9sl3r4s00", "s p&c+\u00e4", StringUtils.repeat('x', 5000) }) {
+            StoredTokenSecret stored = store.put(raw, AccessTokenSecret.of(raw));
+            LOG.info(stored);
+            Assertions.assertEquals(raw, stored.get());
+            MacKey key = MacKey.of(CONSUMER_SECRET, stored);
+            Assertions.assertSame(key, MacKey.of(CONSUMER_SECRET, stored));
+            Assertions.assertArrayEquals(engine.doFinal(MacKey.of(CONSUMER_SECRET, AccessTokenSecret.of(raw)), INPUT),
+                    engine.doFinal(key, INPUT));
+            /* another consumer secret derives the key material again */
+            ConsumerSecret other = ConsumerSecret.of("other");
+            Assertions.assertArrayEquals(engine.doFinal(MacKey.of(other, AccessTokenSecret.of(raw)), INPUT),
+                    engine.doFinal(MacKey.of(other, stored), INPUT));
+        }
+        Assertions.assertEquals(3, store.size());
+    }
+
+    @Test
+    void testDestroy() {
+        SecretStore store = SecretStore.offHeap(CONSUMER_SECRET);
+        StoredTokenSecret first = store.put("user", AccessTokenSecret.of("first"));
+        StoredTokenSecret second = store.put("user", AccessTokenSecret.of("second"));
+        Assertions.assertTrue(first.isDestroyed());
+        Assertions.assertThrows(IllegalStateException.class, first::get);
+        Assertions.assertThrows(IllegalStateException.class, () -> MacKey.of(CONSUMER_SECRET, first));
+        Assertions.assertSame(second, store.get("user").orElseThrow());
+        /* the zeroed slot of the first secret gets reused */
+        StoredTokenSecret third = store.put("other", AccessTokenSecret.of("third"));
+        Assertions.assertEquals("third", third.get());
+
+        Assertions.assertTrue(store.remove("user"));
+        Assertions.assertFalse(store.remove("user"));
+        Assertions.assertTrue(second.isDestroyed());
+        Assertions.assertTrue(store.get("user").isEmpty());
+        store.clear();
+        Assertions.assertTrue(third.isDestroyed());
+        Assertions.assertEquals(0, store.size());
+    }
+
+    @Test
+    void testDestroyEvictsCachedInstances() throws Exception {
+        SecretStore store = SecretStore.offHeap(CONSUMER_SECRET);
+        MacEngine engine = new DefaultMacEngine("HmacSHA1", 4);
+        MacKey key = MacKey.of(CONSUMER_SECRET, store.put("user", AccessTokenSecret.of("secret")));
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            /* both threads cache an instance initialized with the key */
+            engine.doFinal(key, INPUT);
+            other.submit(() -> engine.doFinal(key, INPUT)).get();
+
+            store.remove("user");
+            Assertions.assertThrows(IllegalStateException.class, () -> engine.doFinal(key, INPUT));
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                    () -> other.submit(() -> engine.doFinal(key, INPUT)).get());
+            Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+        } finally {
+            other.shutdown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.header.NonceGenerator;
+
+final class NonceCacheTest {
+    private static final Log LOG = LogFactory.getLog(NonceCacheTest.class);
+    private static final long NOW = 1191242096L;
+
+    @Test
+    void testAdd() {
+        NonceCache cache = NonceCache.builder().build();
+        LOG.info(cache);
+        Assertions.assertTrue(cache.add("c", "t", NOW, "n1"));
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", null, NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", "", NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", "t", NOW + 1, "n1"));
+        Assertions.assertTrue(cache.add("d", "t", NOW, "n1"));
+        Assertions.assertFalse(cache.add("c", "t", -1, "n2"));
+    }
+
+    @Test
+    void testTimeBucketedKeys() {
+        NonceCache cache = NonceCache.timeBucketed(Duration.ofMinutes(5), 17 * 16);
+        Assertions.assertTrue(cache.add("a&b", "c", NOW, "n1"));
+        Assertions.assertTrue(cache.add("a", "b&c", NOW, "n1"));
+        Assertions.assertTrue(cache.add("1:a", "b", NOW, "n1"));
+        Assertions.assertTrue(cache.add("1", "a1:b", NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", null, NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", "", NOW, "n1"));
+        Assertions.assertFalse(cache.add("a&b", "c", NOW, "n1"));
+        Assertions.assertFalse(cache.add("c", null, NOW, "n1"));
+        Assertions.assertFalse(cache.add("c", "", NOW, "n1"));
+    }
+
+    @Test
+    void testBuckets() {
+        /* a window of 7 seconds makes one bucket per second */
+        NonceCache cache = NonceCache.builder().timestampWindow(Duration.ofSeconds(7)).maximumSize(17).build();
+        Assertions.assertTrue(cache.add("c", "t", NOW, "n1"));
+        /* every stripe holds a single nonce */
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n2"));
+        Assertions.assertTrue(cache.add("c", "t", NOW + 1, "n2"));
+        /* the bucket is dropped as soon as its slot is taken by a newer one */
+        long reused = NOW + StripedNonceCache.BUCKETS + 1;
+        Assertions.assertTrue(cache.add("c", "t", reused, "n1"));
+        Assertions.assertTrue(cache.add("c", "t", NOW + 1 + StripedNonceCache.BUCKETS + 1, "n2"));
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n3"));
+    }
+
+    @Test
+    void testBloomFilter() {
+        NonceCache exact = NonceCache.builder().maximumSize(17 * 4).stripes(1).build();
+        NonceCache filtered = NonceCache.builder().maximumSize(17 * 4).stripes(1).bloomFilter(true).build();
+        LOG.info(filtered);
+        for (int i = 0; i < 4; ++i) {
+            Assertions.assertTrue(exact.add("c", "t", NOW, "n" + i));
+            Assertions.assertTrue(filtered.add("c", "t", NOW, "n" + i));
+        }
+        Assertions.assertFalse(exact.add("c", "t", NOW, "n4"));
+        /* the overflowing nonces are added to the Bloom filter */
+        int accepted = 0;
+        for (int i = 4; i < 8; ++i) {
+            accepted += filtered.add("c", "t", NOW, "n" + i) ? 1 : 0;
+        }
+        Assertions.assertTrue(accepted > 0);
+        for (int i = 0; i < 8; ++i) {
+            Assertions.assertFalse(filtered.add("c", "t", NOW, "n" + i));
+        }
+    }
+
+    @Test
+    void testGeneratedNonces() {
+        NonceCache cache = NonceCache.builder().build();
+        List<NonceGenerator> generators = List.of(NonceGenerator.lowercase(), NonceGenerator.highEntropy(),
+                NonceGenerator.clustered(7));
+        for (NonceGenerator generator : generators) {
+            List<String> nonces = new ArrayList<>();
+            for (int i = 0; i < 10_000; ++i) {
+                nonces.add(generator.nonce());
+            }
+            int accepted = 0;
+            for (String nonce : nonces) {
+                accepted += cache.add("dpf43f3p2l4k3l03", "nnch734d00sl2jdk", NOW, nonce) ? 1 : 0;
+            }
+            Assertions.assertEquals(nonces.stream().distinct().count(), accepted);
+            for (String nonce : nonces) {
+                Assertions.assertFalse(cache.add("dpf43f3p2l4k3l03", "nnch734d00sl2jdk", NOW, nonce));
+            }
+        }
+    }
+
+    @Test
+    void testConcurrent() throws Exception {
+        NonceCache cache = NonceCache.builder().stripes(8).build();
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; ++t) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; ++i) {
+                        if (cache.add("c", "t", NOW + i % 600 - 300, Integer.toString(i))) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(20_000, accepted.get());
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ *  Copyright 2020 Martin Siegemund
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package de.msi.oauth.flow.verify;
+
+import java.net.URI;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.msi.oauth.flow.params.AccessToken;
+import de.msi.oauth.flow.params.AccessTokenSecret;
+import de.msi.oauth.flow.params.ConsumerKey;
+import de.msi.oauth.flow.params.ConsumerSecret;
+import de.msi.oauth.flow.params.HttpMethod;
+import de.msi.oauth.flow.params.TokenSecret;
+import de.msi.oauth.flow.params.header.AuthorizationHeaderSerializer;
+import de.msi.oauth.flow.params.header.HeaderFieldsBuilder;
+import de.msi.oauth.flow.params.header.OAuthClock;
+import de.msi.oauth.flow.params.header.fields.HeaderField;
+import de.msi.oauth.flow.params.header.fields.HeaderFields;
+import de.msi.oauth.flow.signature.HmacSha1Signature;
+import de.msi.oauth.flow.signature.PlainTextSignature;
+import de.msi.oauth.flow.signature.RsaSha1Signature;
+import de.msi.oauth.flow.signature.SignatureMethod;
+import de.msi.oauth.flow.signature.base.FormParameters;
+import de.msi.oauth.flow.verify.Verification.Result;
+
+final class RequestVerifierTest {
+    private static final Log LOG = LogFactory.getLog(RequestVerifierTest.class);
+
+    private static final ConsumerKey CONSUMER_KEY = ConsumerKey.of("dpf43f3p2l4k3l03");
+    private static final ConsumerSecret CONSUMER_SECRET = ConsumerSecret.of("kd94hf93k423kf44");
+    private static final AccessToken TOKEN = AccessToken.of("nnch734d00sl2jdk");
+    private static final AccessTokenSecret TOKEN_SECRET = AccessTokenSecret.of("pfkkdhi9sl3r4s00");
+    private static final URI ENDPOINT = URI.create("http://photos.example.net/photos?file=vacation.jpg&size=original");
+    private static final long NOW = 1191242096L;
+
+    private static KeyPair keyPair;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        keyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    void testHmacSha1() {
+        RequestVerifier verifier = verifier(NOW);
+        LOG.info(verifier);
+        String header = header(new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, HttpMethod.GET,
+                CONSUMER_SECRET), NOW, "n1");
+        LOG.info(header);
+        Verification verification = verifier.verify(HttpMethod.GET, ENDPOINT, header);
+        LOG.info(verification);
+        Assertions.assertTrue(verification.valid());
+        Assertions.assertEquals(Optional.of(CONSUMER_KEY), verification.consumerKey());
+        Assertions.assertEquals(Optional.of(TOKEN.get()), verification.token());
+        /* the same request again */
+        Assertions.assertEquals(Result.REPLAYED_NONCE, verifier.verify(HttpMethod.GET, ENDPOINT, header).result());
+        /* a tampered request */
+        String other = header(new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, HttpMethod.GET,
+                CONSUMER_SECRET), NOW, "n2");
+        Assertions.assertEquals(Result.INVALID_SIGNATURE,
+                verifier.verify(HttpMethod.POST, ENDPOINT, other).result());
+        Assertions.assertEquals(Result.INVALID_SIGNATURE,
+                verifier.verify(HttpMethod.GET, URI.create("http://photos.example.net/photos?file=vacation.jpg"),
+                        other).result());
+        /* the failed verifications did not consume the nonce */
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, other).valid());
+    }
+
+    @Test
+    void testBody() {
+        RequestVerifier verifier = verifier(NOW);
+        URI endpoint = URI.create("http://photos.example.net/photos");
+        String header = AuthorizationHeaderSerializer.shared()
+                .value(fields(NOW, "n1").bodyParameter(FormParameters.parse("file=vacation.jpg&size=original"))
+                        .build(new HmacSha1Signature.DefaultHmacSha1Signature(endpoint, HttpMethod.POST,
+                                CONSUMER_SECRET)));
+        Assertions.assertEquals(Result.INVALID_SIGNATURE, verifier
+                .verify(HttpMethod.POST, endpoint, header, FormParameters.parse("file=vacation.jpg")).result());
+        Assertions.assertTrue(verifier
+                .verify(HttpMethod.POST, endpoint, header, FormParameters.parse("size=original&file=vacation.jpg"))
+                .valid());
+    }
+
+    @Test
+    void testPlainText() {
+        RequestVerifier verifier = verifier(NOW);
+        String header = header(new PlainTextSignature.DefaultPlainTextSignature(CONSUMER_SECRET), NOW, "n1");
+        LOG.info(header);
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, header).valid());
+        String forged = header.replace("kd94hf93k423kf44", "kd94hf93k423kf45");
+        Assertions.assertEquals(Result.INVALID_SIGNATURE, verifier.verify(HttpMethod.GET, ENDPOINT, forged).result());
+    }
+
+    @Test
+    void testRsaSha1() {
+        RequestVerifier verifier = verifier(NOW);
+        String header = header(new RsaSha1Signature.DefaultRsaSha1Signature(ENDPOINT, HttpMethod.GET,
+                CONSUMER_SECRET, keyPair.getPrivate()), NOW, "n1");
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, header).valid());
+        Assertions.assertEquals(Result.INVALID_SIGNATURE, verifier
+                .verify(HttpMethod.GET, URI.create("http://photos.example.net/photos"), header).result());
+        /* consumers without public key can not use RSA-SHA1 */
+        RequestVerifier withoutKeys = RequestVerifier.builder(new MockCredentialLookup(null))
+                .clock(OAuthClock.fixed(NOW)).build();
+        Assertions.assertEquals(Result.UNSUPPORTED_SIGNATURE_METHOD,
+                withoutKeys.verify(HttpMethod.GET, ENDPOINT, header).result());
+    }
+
+    @Test
+    void testTimestampWindow() {
+        SignatureMethod method = new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, HttpMethod.GET,
+                CONSUMER_SECRET);
+        RequestVerifier verifier = verifier(NOW);
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, header(method, NOW - 300, "n1")).valid());
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, header(method, NOW + 300, "n1")).valid());
+        Assertions.assertEquals(Result.TIMESTAMP_OUT_OF_WINDOW,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header(method, NOW - 301, "n1")).result());
+        Assertions.assertEquals(Result.TIMESTAMP_OUT_OF_WINDOW,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header(method, NOW + 301, "n1")).result());
+    }
+
+    @Test
+    void testRejected() {
+        RequestVerifier verifier = verifier(NOW);
+        String header = header(new HmacSha1Signature.DefaultHmacSha1Signature(ENDPOINT, HttpMethod.GET,
+                CONSUMER_SECRET), NOW, "n1");
+        Assertions.assertEquals(Result.MALFORMED_HEADER,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header.replace("OAuth ", "Basic ")).result());
+        Assertions.assertEquals(Result.MALFORMED_HEADER,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header + ", oauth_nonce=\"n2\"").result());
+        Assertions.assertEquals(Result.MALFORMED_HEADER,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header.substring(0, header.length() - 1)).result());
+        Assertions.assertEquals(Result.UNSUPPORTED_VERSION, verifier
+                .verify(HttpMethod.GET, ENDPOINT, header.replace("oauth_version=\"1.0\"", "oauth_version=\"2.0\""))
+                .result());
+        Assertions.assertEquals(Result.MISSING_PARAMETER, verifier
+                .verify(HttpMethod.GET, ENDPOINT, header.replace("oauth_nonce=", "oauth_once=")).result());
+        Assertions.assertEquals(Result.UNKNOWN_CONSUMER, verifier
+                .verify(HttpMethod.GET, ENDPOINT, header.replace(CONSUMER_KEY.get(), "unknown")).result());
+        Assertions.assertEquals(Result.UNKNOWN_TOKEN,
+                verifier.verify(HttpMethod.GET, ENDPOINT, header.replace(TOKEN.get(), "unknown")).result());
+        Assertions.assertEquals(Result.UNSUPPORTED_SIGNATURE_METHOD, verifier
+                .verify(HttpMethod.GET, ENDPOINT, header.replace("HMAC-SHA1", "HMAC-SHA256")).result());
+        Assertions.assertTrue(verifier.verify(HttpMethod.GET, ENDPOINT, header).valid());
+    }
+
+    @Test
+    void testNonceCache() {
+        NonceCache cache = NonceCache.timeBucketed(Duration.ofMinutes(5), 17 * 2);
+        LOG.info(cache);
+        Assertions.assertTrue(cache.add("c", "t", NOW, "n1"));
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n1"));
+        Assertions.assertTrue(cache.add("c", null, NOW, "n1"));
+        /* the bucket is full */
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n2"));
+        /* the bucket gets reused as soon as its timestamps left the window */
+        long reused = NOW + (TimeBucketedNonceCache.BUCKETS + 1) * 38;
+        Assertions.assertTrue(cache.add("c", "t", reused, "n1"));
+        Assertions.assertTrue(cache.add("c", "t", reused, "n2"));
+        Assertions.assertFalse(cache.add("c", "t", NOW, "n3"));
+    }
+
+    private static RequestVerifier verifier(long now) {
+        return RequestVerifier.builder(new MockCredentialLookup(keyPair.getPublic())).clock(OAuthClock.fixed(now))
+                .build();
+    }
+
+    private static HeaderFieldsBuilder fields(long timestamp, String nonce) {
+        return HeaderFieldsBuilder.withoutCallback().consumerKey(CONSUMER_KEY).versionInformation().token(TOKEN)
+                .tokenSecret(TOKEN_SECRET).clock(OAuthClock.fixed(timestamp)).nonceGenerator(() -> nonce)
+                .additionalParameter(HeaderFields.of(Set.of(HeaderField.of("realm", "Photos"))));
+    }
+
+    private static String header(SignatureMethod method, long timestamp, String nonce) {
+        return AuthorizationHeaderSerializer.shared().value(fields(timestamp, nonce).build(method));
+    }
+
+    private static final class MockCredentialLookup implements CredentialLookup {
+        private final PublicKey publicKey;
+
+        MockCredentialLookup(PublicKey publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        @Override
+        public Optional<ConsumerSecret> consumerSecret(ConsumerKey consumerKey) {
+            return CONSUMER_KEY.equals(consumerKey) ? Optional.of(CONSUMER_SECRET) : Optional.empty();
+        }
+
+        @Override
+        public Optional<TokenSecret> tokenSecret(ConsumerKey consumerKey, String token) {
+            return TOKEN.get().equals(token) ? Optional.of(TOKEN_SECRET) : Optional.empty();
+        }
+
+        @Override
+        public Optional<PublicKey> publicKey(ConsumerKey consumerKey) {
+            return Optional.ofNullable(this.publicKey);
+        }
+    }
+}